@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures header name and value validation of typical request headers.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HeaderValidationBenchmark {
+
+    private static final String USER_AGENT = "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+    private static final String ACCEPT = "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,*/*;q=0.8";
+    private static final String FOLDED = "  text/html,\tapplication/xhtml+xml,\r\n application/xml;q=0.9  ";
+
+    @Param({"USER_AGENT", "ACCEPT", "FOLDED"})
+    public String value;
+    private String string;
+    private byte[] octets;
+    private byte[] name;
+
+    @Setup
+    public void setUp() {
+        string = "USER_AGENT".equals(value) ? USER_AGENT : "ACCEPT".equals(value) ? ACCEPT : FOLDED;
+        octets = Utils.validateHeaderValue(string).getBytes(ISO_8859_1);
+        name = "x-forwarded-for".getBytes(ISO_8859_1);
+    }
+
+    @Benchmark
+    public String validateString() {
+        return Utils.validateHeaderValue(string);
+    }
+
+    @Benchmark
+    public byte[] validateOctets() {
+        Utils.validateHeaderValue(octets, 0, octets.length);
+        return octets;
+    }
+
+    @Benchmark
+    public void validateToken() {
+        Utils.validateToken("X-Forwarded-For");
+    }
+
+    @Benchmark
+    public Header headerFromOctets() {
+        return Header.of(name, 0, name.length);
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.hpack;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.fossnova.http2.Header;
+import org.fossnova.http2.HeaderField;
+
+/**
+ * Measures dynamic table under churn. Every operation inserts one header field, evicting the oldest
+ * entries once the table is full, and looks up one field and one name that are likely present.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DynamicTableBenchmark {
+
+    private static final int FIELDS = 4096;
+
+    @Param({"4096", "65536"})
+    public int maxSize;
+    private DynamicTable table;
+    private HeaderField[] fields;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        table = new DynamicTable(maxSize);
+        fields = new HeaderField[FIELDS];
+        for (int i = 0; i < FIELDS; i++) {
+            fields[i] = HeaderField.of(Header.of("x-header-" + (i & 63)), "value-" + i);
+        }
+    }
+
+    @Benchmark
+    public int churn() {
+        final int i = next++ & FIELDS - 1;
+        table.add(fields[i]);
+        final HeaderField recent = fields[i - 8 & FIELDS - 1];
+        return table.indexOf(recent) + table.indexOf(recent.getHeaderName());
+    }
+
+}
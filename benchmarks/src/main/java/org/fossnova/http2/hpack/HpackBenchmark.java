@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.hpack;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.fossnova.http2.Http2Headers;
+
+/**
+ * Measures encoding and decoding of all header blocks of one connection. Every invocation starts
+ * with empty dynamic table, so the reported time covers the whole corpus. Compression ratio,
+ * i.e. encoded size divided by sum of name and value lengths, is printed during setup.
+ * Run with <code>-prof gc</code> to see allocated bytes per operation.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HpackBenchmark {
+
+    private static final int MAX_DYNAMIC_TABLE_SIZE = 4096;
+
+    @Param({"BROWSER", "GRPC", "RESPONSES"})
+    public HeaderCorpus corpus;
+    @Param({"ADAPTIVE", "LITERAL"})
+    public String encoding;
+    private List<Http2Headers> headerLists;
+    private ByteBuffer[] blocks;
+    private ByteBuffer target;
+    private final Http2Headers decoded = Http2Headers.newInstance();
+
+    @Setup
+    public void setUp() {
+        headerLists = corpus.headerLists();
+        final HpackEncoder encoder = newEncoder();
+        blocks = new ByteBuffer[headerLists.size()];
+        long encodedSize = 0;
+        int maxBlockSize = 0;
+        for (int i = 0; i < blocks.length; i++) {
+            encoder.add(headerLists.get(i));
+            final byte[] block = encoder.finish();
+            blocks[i] = ByteBuffer.wrap(block);
+            encodedSize += block.length;
+            maxBlockSize = Math.max(maxBlockSize, block.length);
+        }
+        target = ByteBuffer.allocate(maxBlockSize);
+        final long rawSize = HeaderCorpus.rawSize(headerLists);
+        System.out.printf("%n%s %s: %d header blocks, %d octets raw, %d octets encoded, compression ratio %.3f%n",
+                corpus, encoding, blocks.length, rawSize, encodedSize, (double) encodedSize / rawSize);
+    }
+
+    @Benchmark
+    public void encode(final Blackhole bh) {
+        final HpackEncoder encoder = newEncoder();
+        for (int i = 0; i < headerLists.size(); i++) {
+            encoder.add(headerLists.get(i));
+            target.clear();
+            encoder.finish(target);
+            bh.consume(target);
+        }
+    }
+
+    @Benchmark
+    public void decode(final Blackhole bh) {
+        final HpackFragmentDecoder decoder = new FragmentDecoderImpl(MAX_DYNAMIC_TABLE_SIZE);
+        for (final ByteBuffer block : blocks) {
+            decoded.clear();
+            block.rewind();
+            decoder.decode(block, decoded);
+            decoder.finish();
+            bh.consume(decoded);
+        }
+    }
+
+    private HpackEncoder newEncoder() {
+        return "ADAPTIVE".equals(encoding) ? EncoderImpl.newAdaptiveInstance(MAX_DYNAMIC_TABLE_SIZE, false)
+                : EncoderImpl.newInstance(MAX_DYNAMIC_TABLE_SIZE, false);
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.hpack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.fossnova.http2.Header;
+import org.fossnova.http2.HeaderField;
+import org.fossnova.http2.Http2Headers;
+
+/**
+ * Measures static table lookups of all header fields of a corpus, most of them miss on value, some on name too.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StaticTableBenchmark {
+
+    @Param({"BROWSER", "GRPC", "RESPONSES"})
+    public HeaderCorpus corpus;
+    private HeaderField[] fields;
+    private Header[] names;
+
+    @Setup
+    public void setUp() {
+        final List<HeaderField> list = new ArrayList<>();
+        for (final Http2Headers headers : corpus.headerLists()) {
+            for (int i = 0; i < headers.size(); i++) {
+                list.add(headers.get(i));
+            }
+        }
+        fields = list.toArray(new HeaderField[0]);
+        names = new Header[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            names[i] = fields[i].getHeaderName();
+        }
+    }
+
+    @Benchmark
+    public int indexOfField() {
+        int retVal = 0;
+        for (final HeaderField hf : fields) {
+            retVal += StaticTable.indexOf(hf);
+        }
+        return retVal;
+    }
+
+    @Benchmark
+    public int indexOfName() {
+        int retVal = 0;
+        for (final Header name : names) {
+            retVal += StaticTable.indexOf(name);
+        }
+        return retVal;
+    }
+
+}
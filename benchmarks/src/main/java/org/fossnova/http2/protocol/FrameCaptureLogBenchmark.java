@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures cost of appending frames to the capture log. Each iteration appends a batch of
+ * {@value #BATCH_SIZE} frames to a fresh log file so the benchmark does not exhaust the disk,
+ * the reported time divided by the batch size is the cost per frame.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, batchSize = FrameCaptureLogBenchmark.BATCH_SIZE)
+@Measurement(iterations = 20, batchSize = FrameCaptureLogBenchmark.BATCH_SIZE)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FrameCaptureLogBenchmark {
+
+    static final int BATCH_SIZE = 100_000;
+
+    @Param({"8", "1024"})
+    public int payloadSize;
+    private Path file;
+    private FrameCaptureLog log;
+    private byte[] header;
+    private byte[] payload;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("capture", ".log");
+        log = FrameCaptureLog.create(file);
+        header = new byte[FrameCaptureLog.FRAME_HEADER_SIZE];
+        payload = new byte[payloadSize];
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        log.close();
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public void append() throws IOException {
+        log.append(FrameCaptureLog.INBOUND, 1, header, payload);
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams frames recorded by {@link FrameCaptureLog} to a server over loopback.
+ * Records of single direction are replayed, by default {@link FrameCaptureLog#INBOUND} records
+ * (frames a captured server received). Captures of a client should be replayed with <code>outbound</code>
+ * direction (frames the captured client sent).
+ * <p>
+ * Usage: <code>FrameCaptureReplay &lt;log&gt; &lt;host&gt; &lt;port&gt; [speed] [connectionId] [inbound|outbound]</code>
+ * where speed <code>1</code> replays at recorded pace, <code>10</code> ten times faster
+ * and <code>0</code> as fast as possible. Connection id <code>*</code> replays all connections.
+ * </p>
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public final class FrameCaptureReplay {
+
+    private FrameCaptureReplay() {
+        // forbidden instantiation
+    }
+
+    public static void main(final String... args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: FrameCaptureReplay <log> <host> <port> [speed] [connectionId] [inbound|outbound]");
+            System.exit(1);
+        }
+        final double speed = args.length > 3 ? Double.parseDouble(args[3]) : 1;
+        final Long connectionId = args.length > 4 && !"*".equals(args[4]) ? Long.valueOf(args[4]) : null;
+        final byte direction = args.length > 5 ? parseDirection(args[5]) : FrameCaptureLog.INBOUND;
+        if (speed < 0) throw new IllegalArgumentException("speed");
+        try (FrameCaptureLog.Reader reader = FrameCaptureLog.open(Paths.get(args[0]));
+             SocketChannel channel = SocketChannel.open(new InetSocketAddress(args[1], Integer.parseInt(args[2])))) {
+            channel.socket().setTcpNoDelay(true);
+            startDrainer(channel);
+            writeFully(channel, ByteBuffer.wrap(Http2ConnectionPreface.newHttp20ConnectionPreface()));
+            final ByteBuffer header = ByteBuffer.wrap(reader.getHeader());
+            final long start = System.nanoTime();
+            long firstTimestamp = 0;
+            long frames = 0, bytes = 0;
+            while (reader.next()) {
+                if (reader.getDirection() != direction) continue;
+                if (connectionId != null && reader.getConnectionId() != connectionId) continue;
+                if (frames == 0) firstTimestamp = reader.getTimestamp();
+                if (speed > 0) {
+                    final long deadline = start + (long) ((reader.getTimestamp() - firstTimestamp) / speed);
+                    long delay;
+                    while ((delay = deadline - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(delay);
+                    }
+                }
+                header.clear();
+                writeFully(channel, header);
+                writeFully(channel, ByteBuffer.wrap(reader.getPayload()));
+                frames++;
+                bytes += header.capacity() + reader.getPayload().length;
+            }
+            final long elapsed = System.nanoTime() - start;
+            System.out.printf("Replayed %d frames (%d bytes) in %d ms%n", frames, bytes, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+    }
+
+    private static byte parseDirection(final String direction) {
+        if ("inbound".equals(direction)) return FrameCaptureLog.INBOUND;
+        if ("outbound".equals(direction)) return FrameCaptureLog.OUTBOUND;
+        throw new IllegalArgumentException("direction");
+    }
+
+    private static void writeFully(final SocketChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void startDrainer(final SocketChannel channel) {
+        final Thread drainer = new Thread(() -> {
+            final ByteBuffer sink = ByteBuffer.allocate(1 << 16);
+            try {
+                while (channel.read(sink) >= 0) {
+                    sink.clear();
+                }
+            } catch (final IOException ignored) {
+                // connection closed
+            }
+        }, "replay-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures cost of encoding and decoding single frame of every type.
+ * Run on two revisions to compare codec changes.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FrameCodecBenchmark {
+
+    @Param({"DATA", "HEADERS", "PRIORITY", "RST_STREAM", "SETTINGS", "PUSH_PROMISE", "PING", "GOAWAY", "WINDOW_UPDATE", "CONTINUATION"})
+    public String frameType;
+    private AbstractFrameImpl frame;
+    private byte[] header;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        frame = newFrame(FrameType.valueOf(frameType));
+        header = frame.writeHeader();
+        payload = frame.writePayload();
+    }
+
+    @Benchmark
+    public void encode(final Blackhole blackhole) {
+        blackhole.consume(frame.writeHeader());
+        blackhole.consume(frame.writePayload());
+    }
+
+    @Benchmark
+    public Frame decode() {
+        return AbstractFrameImpl.readFrom(header, payload, false);
+    }
+
+    private static AbstractFrameImpl newFrame(final FrameType frameType) {
+        if (frameType == FrameType.DATA) {
+            final DataFrameImpl.Builder builder = new DataFrameImpl.Builder(true, false, false);
+            builder.setPayloadSize(1024 + 1 + 16);
+            builder.setFlags(DataFrame.FLAG_END_STREAM | DataFrame.FLAG_PADDED);
+            builder.setStreamId(2);
+            builder.setData(new byte[1024]);
+            return builder.build();
+        } else if (frameType == FrameType.HEADERS) {
+            final HeadersFrameImpl.Builder builder = new HeadersFrameImpl.Builder(true, false, false);
+            builder.setPayloadSize(64 + 5);
+            builder.setFlags(HeadersFrame.FLAG_END_HEADERS | HeadersFrame.FLAG_PRIORITY);
+            builder.setStreamId(2);
+            builder.setDependencyStream(4);
+            builder.setWeight(16);
+            builder.setHeaderBlockFragment(new byte[64]);
+            return builder.build();
+        } else if (frameType == FrameType.PRIORITY) {
+            final PriorityFrameImpl.Builder builder = new PriorityFrameImpl.Builder(true, false, false);
+            builder.setStreamId(2);
+            builder.setDependencyExclusive(true);
+            builder.setDependencyStream(4);
+            builder.setWeight(16);
+            return builder.build();
+        } else if (frameType == FrameType.RST_STREAM) {
+            final RstStreamFrameImpl.Builder builder = new RstStreamFrameImpl.Builder(true, false, false);
+            builder.setStreamId(2);
+            builder.setErrorCode(ErrorCode.CANCEL);
+            return builder.build();
+        } else if (frameType == FrameType.SETTINGS) {
+            final SettingsFrameImpl.Builder builder = new SettingsFrameImpl.Builder(true, false, false);
+            builder.setParameter(SettingsFrame.HEADER_TABLE_SIZE, SettingsFrame.DEFAULT_HEADER_TABLE_SIZE);
+            builder.setParameter(SettingsFrame.MAX_CONCURRENT_STREAMS, 100);
+            builder.setParameter(SettingsFrame.INITIAL_WINDOW_SIZE, 1 << 20);
+            builder.setParameter(SettingsFrame.MAX_FRAME_SIZE, SettingsFrame.DEFAULT_MAX_FRAME_SIZE);
+            return builder.build();
+        } else if (frameType == FrameType.PUSH_PROMISE) {
+            final PushPromiseFrameImpl.Builder builder = new PushPromiseFrameImpl.Builder(true, false, false);
+            builder.setPayloadSize(64 + 4);
+            builder.setFlags(PushPromiseFrame.FLAG_END_HEADERS);
+            builder.setStreamId(1);
+            builder.setPromisedStreamId(2);
+            builder.setHeaderBlockFragment(new byte[64]);
+            return builder.build();
+        } else if (frameType == FrameType.PING) {
+            final PingFrameImpl.Builder builder = new PingFrameImpl.Builder(true, false, false);
+            builder.setOpaqueData(0xCAFEBABEL);
+            return builder.build();
+        } else if (frameType == FrameType.GOAWAY) {
+            final GoAwayFrameImpl.Builder builder = new GoAwayFrameImpl.Builder(true, false, false);
+            builder.setLastStreamId(7);
+            builder.setErrorCode(ErrorCode.NO_ERROR);
+            builder.setAdditionalDebugData(new byte[16]);
+            return builder.build();
+        } else if (frameType == FrameType.WINDOW_UPDATE) {
+            final WindowUpdateFrameImpl.Builder builder = new WindowUpdateFrameImpl.Builder(true, false, false);
+            builder.setStreamId(2);
+            builder.setWindowSizeIncrement(1 << 16);
+            return builder.build();
+        } else if (frameType == FrameType.CONTINUATION) {
+            final ContinuationFrameImpl.Builder builder = new ContinuationFrameImpl.Builder(true, false, false);
+            builder.setPayloadSize(64);
+            builder.setFlags(ContinuationFrame.FLAG_END_HEADERS);
+            builder.setStreamId(2);
+            builder.setHeaderBlockFragment(new byte[64]);
+            return builder.build();
+        }
+        throw new IllegalArgumentException(frameType.name());
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares cost of decoding received frames in strict mode (validated) and trusted mode.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FrameHeaderValidatorBenchmark {
+
+    @Param({"DATA", "HEADERS", "SETTINGS", "PING", "WINDOW_UPDATE"})
+    public String frameType;
+    private FrameHeaderValidator validator;
+    private byte[] header;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        final ConnectionSettings settings = new ConnectionSettings();
+        validator = new FrameHeaderValidator(settings, new HeaderBlockAssembler(settings, null, null), true);
+        final AbstractFrameImpl frame = newFrame(FrameType.valueOf(frameType));
+        header = frame.writeHeader();
+        payload = frame.writePayload();
+    }
+
+    @Benchmark
+    public Frame strict() {
+        validator.validate(header, payload);
+        return AbstractFrameImpl.readFrom(header, payload, true);
+    }
+
+    @Benchmark
+    public Frame trusted() {
+        return AbstractFrameImpl.readFrom(header, payload, true);
+    }
+
+    private static AbstractFrameImpl newFrame(final FrameType frameType) {
+        if (frameType == FrameType.DATA) {
+            final DataFrameImpl.Builder builder = new DataFrameImpl.Builder(false, true, false);
+            builder.setPayloadSize(1024);
+            builder.setFlags(DataFrame.FLAG_END_STREAM);
+            builder.setStreamId(1);
+            builder.setData(new byte[1024]);
+            return builder.build();
+        } else if (frameType == FrameType.HEADERS) {
+            final HeadersFrameImpl.Builder builder = new HeadersFrameImpl.Builder(false, true, false);
+            builder.setPayloadSize(64);
+            builder.setFlags(HeadersFrame.FLAG_END_HEADERS);
+            builder.setStreamId(1);
+            builder.setHeaderBlockFragment(new byte[64]);
+            return builder.build();
+        } else if (frameType == FrameType.SETTINGS) {
+            final SettingsFrameImpl.Builder builder = new SettingsFrameImpl.Builder(false, true, false);
+            builder.setParameter(SettingsFrame.HEADER_TABLE_SIZE, SettingsFrame.DEFAULT_HEADER_TABLE_SIZE);
+            builder.setParameter(SettingsFrame.MAX_FRAME_SIZE, SettingsFrame.DEFAULT_MAX_FRAME_SIZE);
+            return builder.build();
+        } else if (frameType == FrameType.PING) {
+            final PingFrameImpl.Builder builder = new PingFrameImpl.Builder(false, true, false);
+            builder.setOpaqueData(0xCAFEBABEL);
+            return builder.build();
+        } else if (frameType == FrameType.WINDOW_UPDATE) {
+            final WindowUpdateFrameImpl.Builder builder = new WindowUpdateFrameImpl.Builder(false, true, false);
+            builder.setWindowSizeIncrement(1 << 16);
+            return builder.build();
+        }
+        throw new IllegalArgumentException(frameType.name());
+    }
+
+}
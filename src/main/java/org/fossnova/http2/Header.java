@@ -19,6 +19,8 @@
  */
 package org.fossnova.http2;
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static org.fossnova.http2.Utils.isTokenChar;
 import static org.fossnova.http2.Utils.validateHeaderName;
 
 import java.util.HashMap;
@@ -892,6 +894,33 @@ public final class Header {
      */
     public static final Header X_FRAME_OPTIONS = new Header("X-Frame-Options");
 
+    /**
+     * Lower case form of token characters, zero for characters not allowed in header names.
+     */
+    private static final byte[] TOKEN_LOWER_CASE = new byte[256];
+    private static final byte PSEUDO_HEADER_PREFIX = ':';
+    private static final int TOKEN_TABLE_MASK = 1023;
+    private static final Header[] TOKEN_TABLE = new Header[TOKEN_TABLE_MASK + 1];
+    private static final byte[][] TOKEN_TABLE_NAMES = new byte[TOKEN_TABLE_MASK + 1][];
+
+    static {
+        for (int c = 0; c < TOKEN_LOWER_CASE.length; c++) {
+            // upper case names are malformed in HTTP/2, see RFC 7540 Section 8.1.2
+            if (isTokenChar((char) c) && !('A' <= c && c <= 'Z')) {
+                TOKEN_LOWER_CASE[c] = (byte) c;
+            }
+        }
+        TOKEN_LOWER_CASE[PSEUDO_HEADER_PREFIX] = PSEUDO_HEADER_PREFIX;
+        for (final Header h : KNOWN_HEADERS.values()) {
+            int slot = h.lowerCaseName.hashCode() & TOKEN_TABLE_MASK;
+            while (TOKEN_TABLE[slot] != null) {
+                slot = slot + 1 & TOKEN_TABLE_MASK;
+            }
+            TOKEN_TABLE[slot] = h;
+            TOKEN_TABLE_NAMES[slot] = h.lowerCaseName.getBytes(ISO_8859_1);
+        }
+    }
+
     private final String titleCaseName;
     private final String lowerCaseName;
 
@@ -937,9 +966,49 @@ public final class Header {
      * @throws IllegalArgumentException if message header name doesn't match HTTP's spec. <code>token</code> definition
      */
     public static Header of(final String name) {
+        final Header retVal = name != null ? KNOWN_HEADERS.get(name.toLowerCase()) : null;
+        if (retVal != null) return retVal;
         validateHeaderName(name);
-        final Header retVal = KNOWN_HEADERS.get(name.toLowerCase());
-        return retVal != null ? retVal : new Header(name, false);
+        return new Header(name, false, false);
+    }
+
+    /**
+     * Creates specified message header from its lower case <code>US-ASCII</code> form.
+     * Registered message headers are resolved without allocation.
+     * @param name header name octets
+     * @param offset offset of the first octet
+     * @param length count of octets
+     * @return message header instance
+     * @throws IllegalArgumentException if message header name doesn't match HTTP's spec. <code>token</code> definition
+     * or contains upper case characters
+     */
+    public static Header of(final byte[] name, final int offset, final int length) {
+        // preconditions
+        if (name == null || offset < 0 || length <= 0 || offset > name.length - length) throw new IllegalArgumentException();
+        // validation
+        final int limit = offset + length;
+        int hash = 0;
+        boolean token = true;
+        for (int i = offset; i < limit; i++) {
+            final byte c = TOKEN_LOWER_CASE[name[i] & 0xFF];
+            if (c == 0) throw new IllegalArgumentException();
+            token &= c != PSEUDO_HEADER_PREFIX;
+            hash = 31 * hash + c;
+        }
+        // implementation
+        for (int slot = hash & TOKEN_TABLE_MASK; TOKEN_TABLE[slot] != null; slot = slot + 1 & TOKEN_TABLE_MASK) {
+            if (matches(TOKEN_TABLE_NAMES[slot], name, offset, length)) return TOKEN_TABLE[slot];
+        }
+        if (!token) throw new IllegalArgumentException();
+        return new Header(new String(name, offset, length, ISO_8859_1), false, false);
+    }
+
+    private static boolean matches(final byte[] lowerCaseName, final byte[] name, final int offset, final int length) {
+        if (lowerCaseName.length != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (lowerCaseName[i] != TOKEN_LOWER_CASE[name[offset + i] & 0xFF]) return false;
+        }
+        return true;
     }
 
     /**
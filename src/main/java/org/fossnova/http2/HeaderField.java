@@ -19,10 +19,13 @@
  */
 package org.fossnova.http2;
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static org.fossnova.http2.Utils.getHeaderNameSize;
 import static org.fossnova.http2.Utils.getHeaderValueSize;
 import static org.fossnova.http2.Utils.validateHeaderValue;
 
+import java.nio.ByteBuffer;
+
 /**
  * TODO: javadoc
  * @author <a href="mailto:ropalka@redhat.com">Richard Opalka</a>
@@ -31,18 +34,41 @@ public final class HeaderField {
 
     private static final int OVERHEAD = 32;
     private final Header headerName;
-    private final String headerValue;
+    private final byte[] valueBytes;
+    private final int valueOffset;
+    private final int valueLength;
+    private String headerValue;
     private final int hashCode;
     private final int size;
 
     private HeaderField(final Header headerName, final String headerValue) {
         this.headerName = headerName;
         this.headerValue = headerValue;
+        this.valueBytes = null;
+        this.valueOffset = 0;
+        this.valueLength = getHeaderValueSize(headerValue);
         int result = 17;
         result = 37 * result + headerName.hashCode();
         result = 37 * result + (headerValue == null ? 0 : headerValue.hashCode());
         hashCode = result;
-        size = OVERHEAD + getHeaderNameSize(headerName) + getHeaderValueSize(headerValue);
+        size = OVERHEAD + getHeaderNameSize(headerName) + valueLength;
+    }
+
+    private HeaderField(final Header headerName, final byte[] valueBytes, final int valueOffset, final int valueLength) {
+        this.headerName = headerName;
+        this.valueBytes = valueBytes;
+        this.valueOffset = valueOffset;
+        this.valueLength = valueLength;
+        // same as String.hashCode() of ISO_8859_1 decoded value
+        int valueHashCode = 0;
+        for (int i = valueOffset; i < valueOffset + valueLength; i++) {
+            valueHashCode = 31 * valueHashCode + (valueBytes[i] & 0xFF);
+        }
+        int result = 17;
+        result = 37 * result + headerName.hashCode();
+        result = 37 * result + valueHashCode;
+        hashCode = result;
+        size = OVERHEAD + getHeaderNameSize(headerName) + valueLength;
     }
 
     /**
@@ -63,7 +89,47 @@ public final class HeaderField {
      */
     public static HeaderField of(final Header headerName) {
         if (headerName == null) throw new IllegalArgumentException();
-        return of(headerName, null);
+        return new HeaderField(headerName, null);
+    }
+
+    /**
+     * Creates new HTTP header field instance backed by given <code>ISO-8859-1</code> octets.
+     * Octets are neither copied nor normalized, thus they must not be modified afterwards.
+     * Use {@link #of(Header, String)} if optional whitespace should be removed.
+     * String form of the value is created only when {@link #getHeaderValue()} is called.
+     * @param headerName http header name
+     * @param headerValue http header value octets
+     * @param offset offset of the first octet
+     * @param length count of octets
+     * @return new header field instance
+     */
+    public static HeaderField of(final Header headerName, final byte[] headerValue, final int offset, final int length) {
+        // preconditions
+        if (headerName == null || headerValue == null) throw new IllegalArgumentException();
+        if (offset < 0 || length < 0 || offset > headerValue.length - length) throw new IllegalArgumentException();
+        // validation
+        validateHeaderValue(headerValue, offset, length);
+        // implementation
+        return new HeaderField(headerName, headerValue, offset, length);
+    }
+
+    /**
+     * Creates new HTTP header field instance backed by remaining <code>ISO-8859-1</code> octets of given buffer.
+     * Position of the buffer is not changed. Heap buffers are not copied, thus they must not be modified afterwards.
+     * @param headerName http header name
+     * @param headerValue http header value octets
+     * @return new header field instance
+     */
+    public static HeaderField of(final Header headerName, final ByteBuffer headerValue) {
+        // preconditions
+        if (headerName == null || headerValue == null) throw new IllegalArgumentException();
+        // implementation
+        if (headerValue.hasArray()) {
+            return of(headerName, headerValue.array(), headerValue.arrayOffset() + headerValue.position(), headerValue.remaining());
+        }
+        final byte[] bytes = new byte[headerValue.remaining()];
+        headerValue.duplicate().get(bytes);
+        return of(headerName, bytes, 0, bytes.length);
     }
 
     /**
@@ -87,7 +153,39 @@ public final class HeaderField {
      * @return header value
      */
     public String getHeaderValue() {
-        return headerValue;
+        String retVal = headerValue;
+        if (retVal == null && valueBytes != null) {
+            headerValue = retVal = new String(valueBytes, valueOffset, valueLength, ISO_8859_1);
+        }
+        return retVal;
+    }
+
+    /**
+     * Gets header value length in octets.
+     * @return header value length, zero if there is no value
+     */
+    public int getHeaderValueLength() {
+        return valueLength;
+    }
+
+    /**
+     * Copies header value octets to given array.
+     * @param target target array
+     * @param offset offset in target array
+     * @return offset in target array after the last copied octet
+     */
+    public int copyHeaderValue(final byte[] target, final int offset) {
+        // preconditions
+        if (target == null || offset < 0 || offset > target.length - valueLength) throw new IllegalArgumentException();
+        // implementation
+        if (valueBytes != null) {
+            System.arraycopy(valueBytes, valueOffset, target, offset, valueLength);
+        } else {
+            for (int i = 0; i < valueLength; i++) {
+                target[offset + i] = (byte) headerValue.charAt(i);
+            }
+        }
+        return offset + valueLength;
     }
 
     /**
@@ -98,7 +196,23 @@ public final class HeaderField {
         if (other == this) return true;
         if (!(other instanceof HeaderField)) return false;
         final HeaderField o = (HeaderField) other;
-        return headerName.equals(o.headerName) && headerValue == null ? o.headerValue == null : headerValue.equals(o.headerValue);
+        return hashCode == o.hashCode && headerName.equals(o.headerName) && valueEquals(o);
+    }
+
+    private boolean valueEquals(final HeaderField o) {
+        if (valueBytes == null && o.valueBytes == null) {
+            return headerValue == null ? o.headerValue == null : headerValue.equals(o.headerValue);
+        }
+        if (valueLength != o.valueLength) return false;
+        if (valueBytes == null && headerValue == null || o.valueBytes == null && o.headerValue == null) return false;
+        for (int i = 0; i < valueLength; i++) {
+            if (valueAt(i) != o.valueAt(i)) return false;
+        }
+        return true;
+    }
+
+    private int valueAt(final int index) {
+        return valueBytes != null ? valueBytes[valueOffset + index] & 0xFF : headerValue.charAt(index);
     }
 
     /**
@@ -114,7 +228,8 @@ public final class HeaderField {
      */
     @Override
     public String toString() {
-        return headerName + " : " + ((headerValue == null) ? "<null>" : headerValue);
+        final String value = getHeaderValue();
+        return headerName + " : " + ((value == null) ? "<null>" : value);
     }
 
 }
@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2;
+
+import java.util.Arrays;
+
+/**
+ * Header list of single HTTP/2 message. Multimap keyed by {@link Header} preserving insertion order of header fields.
+ * Pseudo-header fields occupy fixed slots and always precede regular header fields.
+ * <p>
+ * Header fields are held in flat arrays with open addressing index keyed by header name, fields sharing the same name
+ * are chained. Header fields are iterated by index, without allocation:
+ * <pre>
+ * for (int i = 0; i &lt; headers.size(); i++) { headers.get(i); }
+ * for (int i = headers.indexOf(Header.COOKIE); i != -1; i = headers.nextIndexOf(i)) { headers.get(i); }
+ * </pre>
+ * Instances are not thread safe and can be reused after {@link #clear()}.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public final class Http2Headers {
+
+    private static final int NOT_FOUND = -1;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final Header[] PSEUDO_HEADERS = {Header.METHOD, Header.SCHEME, Header.AUTHORITY, Header.PATH, Header.STATUS};
+    private final HeaderField[] pseudoFields = new HeaderField[PSEUDO_HEADERS.length];
+    private int pseudoCount;
+    // regular header fields in insertion order
+    private HeaderField[] fields = new HeaderField[INITIAL_CAPACITY];
+    private int[] nextOfName = new int[INITIAL_CAPACITY];
+    private int length;
+    // index keyed by header name, slots hold positions of the first and the last field of given name plus one
+    private int[] firsts = new int[INITIAL_CAPACITY];
+    private int[] lasts = new int[INITIAL_CAPACITY];
+    private int names;
+    private long headerListSize;
+
+    private Http2Headers() {
+    }
+
+    /**
+     * Creates empty header list.
+     * @return new header list
+     */
+    public static Http2Headers newInstance() {
+        return new Http2Headers();
+    }
+
+    /**
+     * Appends header field.
+     * @param hf header field
+     * @return this header list
+     * @throws IllegalArgumentException if pseudo-header field of the same name is already present
+     */
+    public Http2Headers add(final HeaderField hf) {
+        // preconditions
+        if (hf == null) throw new IllegalArgumentException();
+        // implementation
+        final int pseudoSlot = pseudoSlot(hf.getHeaderName());
+        if (pseudoSlot != NOT_FOUND) {
+            if (pseudoFields[pseudoSlot] != null) throw new IllegalArgumentException("Duplicate " + hf.getHeaderName().getLowerCaseName());
+            pseudoFields[pseudoSlot] = hf;
+            pseudoCount++;
+        } else {
+            append(hf);
+        }
+        headerListSize += hf.getSize();
+        return this;
+    }
+
+    /**
+     * Appends header field.
+     * @param name header name
+     * @param value header value
+     * @return this header list
+     * @throws IllegalArgumentException if pseudo-header field of the same name is already present
+     */
+    public Http2Headers add(final Header name, final String value) {
+        return add(HeaderField.of(name, value));
+    }
+
+    /**
+     * Replaces all header fields of the same name with given header field.
+     * @param hf header field
+     * @return this header list
+     */
+    public Http2Headers set(final HeaderField hf) {
+        // preconditions
+        if (hf == null) throw new IllegalArgumentException();
+        // implementation
+        remove(hf.getHeaderName());
+        return add(hf);
+    }
+
+    /**
+     * Replaces all header fields of the same name with given header field.
+     * @param name header name
+     * @param value header value
+     * @return this header list
+     */
+    public Http2Headers set(final Header name, final String value) {
+        return set(HeaderField.of(name, value));
+    }
+
+    /**
+     * Gets the first header field of given name.
+     * @param name header name
+     * @return header field or <code>null</code> if not present
+     */
+    public HeaderField getField(final Header name) {
+        final int index = indexOf(name);
+        return index != NOT_FOUND ? get(index) : null;
+    }
+
+    /**
+     * Gets value of the first header field of given name.
+     * @param name header name
+     * @return header value or <code>null</code> if not present
+     */
+    public String get(final Header name) {
+        final HeaderField hf = getField(name);
+        return hf != null ? hf.getHeaderValue() : null;
+    }
+
+    /**
+     * Returns whether header field of given name is present.
+     * @param name header name
+     * @return <code>true</code> if present, <code>false</code> otherwise
+     */
+    public boolean contains(final Header name) {
+        return indexOf(name) != NOT_FOUND;
+    }
+
+    /**
+     * Counts header fields of given name.
+     * @param name header name
+     * @return count of header fields
+     */
+    public int count(final Header name) {
+        int retVal = 0;
+        for (int i = indexOf(name); i != NOT_FOUND; i = nextIndexOf(i)) {
+            retVal++;
+        }
+        return retVal;
+    }
+
+    /**
+     * Returns count of all header fields.
+     * @return count of header fields
+     */
+    public int size() {
+        return pseudoCount + length;
+    }
+
+    /**
+     * Returns whether this header list is empty.
+     * @return <code>true</code> if there are no header fields, <code>false</code> otherwise
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Gets header field at given position. Pseudo-header fields come first, then regular header fields in insertion order.
+     * @param index position
+     * @return header field
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public HeaderField get(final int index) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException(String.valueOf(index));
+        if (index >= pseudoCount) return fields[index - pseudoCount];
+        for (int slot = 0, position = 0; ; slot++) {
+            if (pseudoFields[slot] != null && position++ == index) return pseudoFields[slot];
+        }
+    }
+
+    /**
+     * Returns position of the first header field of given name.
+     * @param name header name
+     * @return position or <code>-1</code> if not present
+     */
+    public int indexOf(final Header name) {
+        // preconditions
+        if (name == null) throw new IllegalArgumentException();
+        // implementation
+        final int pseudoSlot = pseudoSlot(name);
+        if (pseudoSlot != NOT_FOUND) {
+            if (pseudoFields[pseudoSlot] == null) return NOT_FOUND;
+            int retVal = 0;
+            for (int slot = 0; slot < pseudoSlot; slot++) {
+                if (pseudoFields[slot] != null) retVal++;
+            }
+            return retVal;
+        }
+        final int first = firsts[slot(name)];
+        return first != 0 ? first - 1 + pseudoCount : NOT_FOUND;
+    }
+
+    /**
+     * Returns position of the next header field with the same name.
+     * @param index position of header field as returned by {@link #indexOf(Header)} or this method
+     * @return position or <code>-1</code> if there are no more header fields of that name
+     */
+    public int nextIndexOf(final int index) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException(String.valueOf(index));
+        if (index < pseudoCount) return NOT_FOUND;
+        final int next = nextOfName[index - pseudoCount];
+        return next != NOT_FOUND ? next + pseudoCount : NOT_FOUND;
+    }
+
+    /**
+     * Removes all header fields of given name.
+     * @param name header name
+     * @return count of removed header fields
+     */
+    public int remove(final Header name) {
+        // preconditions
+        if (name == null) throw new IllegalArgumentException();
+        // implementation
+        final int pseudoSlot = pseudoSlot(name);
+        if (pseudoSlot != NOT_FOUND) {
+            final HeaderField hf = pseudoFields[pseudoSlot];
+            if (hf == null) return 0;
+            pseudoFields[pseudoSlot] = null;
+            pseudoCount--;
+            headerListSize -= hf.getSize();
+            return 1;
+        }
+        if (firsts[slot(name)] == 0) return 0;
+        final int oldLength = length;
+        int position = 0;
+        for (int i = 0; i < oldLength; i++) {
+            final HeaderField hf = fields[i];
+            if (hf.getHeaderName().equals(name)) {
+                headerListSize -= hf.getSize();
+            } else {
+                fields[position++] = hf;
+            }
+        }
+        Arrays.fill(fields, position, oldLength, null);
+        reindex(position);
+        return oldLength - position;
+    }
+
+    /**
+     * Removes all header fields. Allocated capacity is kept.
+     */
+    public void clear() {
+        Arrays.fill(pseudoFields, null);
+        pseudoCount = 0;
+        Arrays.fill(fields, 0, length, null);
+        reindex(0);
+        headerListSize = 0;
+    }
+
+    /**
+     * Returns header list size as defined by <code>SETTINGS_MAX_HEADER_LIST_SIZE</code>.
+     * @return sum of header field sizes in octets
+     */
+    public long getHeaderListSize() {
+        return headerListSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(get(i));
+        }
+        return sb.append(']').toString();
+    }
+
+    private static int pseudoSlot(final Header name) {
+        if (name.getLowerCaseName().charAt(0) != ':') return NOT_FOUND;
+        for (int slot = 0; slot < PSEUDO_HEADERS.length; slot++) {
+            if (PSEUDO_HEADERS[slot] == name) return slot;
+        }
+        return NOT_FOUND;
+    }
+
+    private void append(final HeaderField hf) {
+        if (length == fields.length) {
+            fields = Arrays.copyOf(fields, length << 1);
+            nextOfName = Arrays.copyOf(nextOfName, length << 1);
+        }
+        fields[length] = hf;
+        nextOfName[length] = NOT_FOUND;
+        final Header name = hf.getHeaderName();
+        int slot = slot(name);
+        if (firsts[slot] == 0) {
+            if (names + 1 << 1 > firsts.length) {
+                growIndex();
+                slot = slot(name);
+            }
+            names++;
+            firsts[slot] = length + 1;
+        } else {
+            nextOfName[lasts[slot] - 1] = length;
+        }
+        lasts[slot] = ++length;
+    }
+
+    /**
+     * Finds index slot of given header name.
+     * @return slot holding given header name or empty slot where it belongs
+     */
+    private int slot(final Header name) {
+        final int mask = firsts.length - 1;
+        final int h = name.hashCode();
+        for (int slot = (h ^ h >>> 16) & mask; ; slot = slot + 1 & mask) {
+            final int first = firsts[slot];
+            if (first == 0) return slot;
+            final Header other = fields[first - 1].getHeaderName();
+            if (other == name || other.equals(name)) return slot;
+        }
+    }
+
+    private void growIndex() {
+        firsts = new int[firsts.length << 1];
+        lasts = new int[lasts.length << 1];
+        reindex(length);
+    }
+
+    private void reindex(final int newLength) {
+        Arrays.fill(firsts, 0);
+        Arrays.fill(lasts, 0);
+        names = 0;
+        length = 0;
+        while (length < newLength) {
+            append(fields[length]);
+        }
+    }
+
+}
@@ -19,9 +19,6 @@
  */
 package org.fossnova.http2;
 
-import static java.nio.charset.StandardCharsets.ISO_8859_1;
-import static java.nio.charset.StandardCharsets.US_ASCII;
-
 /**
  * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
  */
@@ -31,9 +28,10 @@ final class Utils {
         // forbidden instantiation
     }
 
-    private static final String OBS_FOLD = "\r\n '";
-    private static final String SP = " ";
-    private static final String HTAB = "\t";
+    private static final char SP = ' ';
+    private static final char HTAB = '\t';
+    private static final char CR = '\r';
+    private static final char LF = '\n';
 
     private static final char[] TOKEN_EXTRAS = new char[] {
             '!', '#', '$', '%', '&', '\'', '*', '+', '-', '.', '^', '_', '`', '|', '~'
@@ -43,6 +41,36 @@ final class Utils {
             '+', '-', '.'
     };
 
+    // character classes
+    private static final byte ALPHA = 0x01;
+    private static final byte DIGIT = 0x02;
+    private static final byte TOKEN = 0x04;
+    private static final byte SCHEME = 0x08;
+    private static final byte FIELD_VCHAR = 0x10;
+    private static final byte OWS = 0x20;
+    private static final byte[] CHAR_CLASSES = new byte[256];
+
+    // SWAR constants
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+
+    static {
+        for (int c = 0; c < CHAR_CLASSES.length; c++) {
+            int classes = 0;
+            if ('a' <= c && c <= 'z' || 'A' <= c && c <= 'Z') classes |= ALPHA | TOKEN | SCHEME;
+            if ('0' <= c && c <= '9') classes |= DIGIT | TOKEN | SCHEME;
+            if (0x21 <= c && c <= 0x7E || 0x80 <= c) classes |= FIELD_VCHAR;
+            if (c == SP || c == HTAB) classes |= OWS;
+            CHAR_CLASSES[c] = (byte) classes;
+        }
+        for (final char c : TOKEN_EXTRAS) {
+            CHAR_CLASSES[c] |= TOKEN;
+        }
+        for (final char c : SCHEME_EXTRAS) {
+            CHAR_CLASSES[c] |= SCHEME;
+        }
+    }
+
     /*
 OWS = *( SP / HTAB )
 header-field   = field-name ":" OWS field-value OWS
@@ -54,48 +82,108 @@ obs-fold       = CRLF 1*( SP / HTAB )
                     ; obsolete line folding
                     ; see Section 3.2.4
 
-       TODO: This method is based on RFC7230 Section 3.2.4
+       This method is based on RFC7230 Section 3.2.4
+       Leading and trailing OWS is removed, obsolete line folding and every other whitespace run
+       is replaced with single SP. New string is allocated only if such rewriting is necessary.
      */
     static String validateHeaderValue(final String headerValue) {
-        // TODO: optimize this method
-        // eliminate OWS first - TODO: don't use trim() as it ignores all chars before ' ' space char not just OWS chars
-        String retVal = headerValue.trim();
-        // eliminate obsolete line folding first - see Section 3.2.4
-        retVal.replace(HTAB, SP);
-        retVal = retVal.replace(OBS_FOLD, SP);
-        // eliminate all double spaces
-        while (retVal.indexOf(SP + SP) != -1) {
-            retVal.replace(SP + SP, SP);
-        }
-        // finally validate chars
-        for (int i = 0; i < retVal.length(); i++) {
-            if (!isFieldVCHAR(retVal.charAt(i)) && retVal.charAt(i) != SP.charAt(0)) {
+        final int length = headerValue.length();
+        char[] rewritten = null;
+        int size = 0;
+        int whitespace = -1;
+        for (int i = 0; i < length; i++) {
+            final char c = headerValue.charAt(i);
+            final int classes = c <= 0xFF ? CHAR_CLASSES[c] : 0;
+            if ((classes & FIELD_VCHAR) != 0) {
+                if (whitespace >= 0) {
+                    // end of whitespace run, only single SP in between field-vchars is kept as it is
+                    if (rewritten == null && (whitespace == 0 || i - whitespace != 1 || headerValue.charAt(whitespace) != SP)) {
+                        rewritten = new char[length];
+                        headerValue.getChars(0, whitespace, rewritten, 0);
+                        size = whitespace;
+                    }
+                    if (rewritten != null && size > 0) {
+                        rewritten[size++] = SP;
+                    }
+                    whitespace = -1;
+                }
+                if (rewritten != null) {
+                    rewritten[size++] = c;
+                }
+            } else if ((classes & OWS) != 0) {
+                if (whitespace < 0) whitespace = i;
+            } else if (c == CR && i + 2 < length && headerValue.charAt(i + 1) == LF && isOWSChar(headerValue.charAt(i + 2))) {
+                // obsolete line folding
+                if (whitespace < 0) whitespace = i;
+                i++;
+            } else {
                 throw new IllegalArgumentException(headerValue);
             }
         }
-        return retVal;
+        if (rewritten != null) return new String(rewritten, 0, size);
+        return whitespace >= 0 ? headerValue.substring(0, whitespace) : headerValue;
     }
 
-    static int getHeaderNameSize(final Header header) {
-        return header.getTitleCaseName().getBytes(US_ASCII).length;
+    /**
+     * Validates header value octets as they are, without any normalization.
+     * Only <code>field-vchar</code>, <code>SP</code> and <code>HTAB</code> octets are allowed.
+     * Eight octets are checked at once, octet by octet validation is done only for blocks containing
+     * <code>HTAB</code> or invalid octets.
+     * @param headerValue header value octets
+     * @param offset offset of the first octet
+     * @param length count of octets
+     */
+    static void validateHeaderValue(final byte[] headerValue, final int offset, final int length) {
+        final int limit = offset + length;
+        int i = offset;
+        for (; i <= limit - 8; i += 8) {
+            if (!isFieldContent(getLong(headerValue, i))) {
+                validateHeaderValueOctets(headerValue, i, i + 8);
+            }
+        }
+        validateHeaderValueOctets(headerValue, i, limit);
     }
 
-    static int getHeaderValueSize(final String headerValue) {
-        // TODO: we could use ASCII instead of ISO_8859_1 if we wouldn't support obs-text, see RFC7230 Section 3.2.4
-        // TODO: Decide whether we will support obs-text and potentially provide configuration options like STRICT, BC_COMPATIBLE modes
-        return headerValue != null ? headerValue.getBytes(ISO_8859_1).length : 0;
+    private static void validateHeaderValueOctets(final byte[] headerValue, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            if ((CHAR_CLASSES[headerValue[i] & 0xFF] & (FIELD_VCHAR | OWS)) == 0) {
+                throw new IllegalArgumentException();
+            }
+        }
     }
 
-    private static boolean isFieldVCHAR(final char c) {
-        return isVCHAR(c) || isObsText(c);
+    /**
+     * Returns <code>true</code> if none of eight octets is lower than <code>SP</code> or equal to <code>DEL</code>,
+     * i.e. all of them are either <code>SP</code>, <code>VCHAR</code> or <code>obs-text</code>.
+     */
+    private static boolean isFieldContent(final long octets) {
+        final long lowerThanSP = octets - ONES * SP & ~octets & HIGHS;
+        final long del = octets ^ ONES * 0x7F;
+        final long equalToDEL = del - ONES & ~del & HIGHS;
+        return (lowerThanSP | equalToDEL) == 0;
     }
 
-    private static boolean isVCHAR(final char c) {
-        return 0x21 <= c && c <= 0x7E;
+    private static long getLong(final byte[] bytes, final int offset) {
+        return (bytes[offset] & 0xFFL) << 56
+                | (bytes[offset + 1] & 0xFFL) << 48
+                | (bytes[offset + 2] & 0xFFL) << 40
+                | (bytes[offset + 3] & 0xFFL) << 32
+                | (bytes[offset + 4] & 0xFFL) << 24
+                | (bytes[offset + 5] & 0xFFL) << 16
+                | (bytes[offset + 6] & 0xFFL) << 8
+                | bytes[offset + 7] & 0xFFL;
+    }
+
+    static int getHeaderNameSize(final Header header) {
+        // header names are tokens thus US-ASCII
+        return header.getLowerCaseName().length();
     }
 
-    private static boolean isObsText(final char c) {
-        return 0x80 <= c && c <= 0xFF;
+    static int getHeaderValueSize(final String headerValue) {
+        // TODO: we could use ASCII instead of ISO_8859_1 if we wouldn't support obs-text, see RFC7230 Section 3.2.4
+        // TODO: Decide whether we will support obs-text and potentially provide configuration options like STRICT, BC_COMPATIBLE modes
+        // validated header values contain ISO_8859_1 characters only, one octet each
+        return headerValue != null ? headerValue.length() : 0;
     }
 
     static void validateScheme(final String scheme) {
@@ -126,29 +214,23 @@ obs-fold       = CRLF 1*( SP / HTAB )
     }
 
     static boolean isAlphaChar(final char c) {
-        return 'a' <= c && c <= 'z' || 'A' <= c && c <= 'Z';
+        return c <= 0xFF && (CHAR_CLASSES[c] & ALPHA) != 0;
     }
 
     static boolean isDigitChar(final char c) {
-        return '0' <= c && c <= '9';
+        return c <= 0xFF && (CHAR_CLASSES[c] & DIGIT) != 0;
     }
 
     static boolean isTokenChar(final char c) {
-        if (isAlphaChar(c)) return true;
-        if (isDigitChar(c)) return true;
-        for (int i = 0; i < TOKEN_EXTRAS.length; i++) {
-            if (TOKEN_EXTRAS[i] == c) return true;
-        }
-        return false;
+        return c <= 0xFF && (CHAR_CLASSES[c] & TOKEN) != 0;
+    }
+
+    static boolean isOWSChar(final char c) {
+        return c == SP || c == HTAB;
     }
 
     static boolean isSchemeChar(final char c) {
-        if (isAlphaChar(c)) return true;
-        if (isDigitChar(c)) return true;
-        for (int i = 0; i < SCHEME_EXTRAS.length; i++) {
-            if (SCHEME_EXTRAS[i] == c) return true;
-        }
-        return false;
+        return c <= 0xFF && (CHAR_CLASSES[c] & SCHEME) != 0;
     }
 
 }
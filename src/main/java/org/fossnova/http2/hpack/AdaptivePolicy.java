@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.hpack;
+
+import org.fossnova.http2.Header;
+import org.fossnova.http2.HeaderField;
+
+/**
+ * Connection scoped policy indexing only header fields that were seen before.
+ * <p>
+ * Frequencies are estimated by count-min sketch of 4 rows with one byte counters saturating at 15.
+ * Counters are halved periodically so the sketch follows changes in traffic.
+ * High-cardinality fields (request identifiers, paths with query strings, dates) are seen
+ * once and thus never churn the dynamic table. Fields larger than quarter of the table are not indexed.
+ * Optionally credentials and short cookie crumbs are sensitive, they are encoded as never indexed literals
+ * so intermediaries do not index them either. Huffman coding is always requested,
+ * encoder uses it only if it is shorter than the plain literal.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+final class AdaptivePolicy implements HpackEncoder.Policy {
+
+    private static final int ROWS = 4;
+    private static final int WIDTH_BITS = 10;
+    private static final int WIDTH = 1 << WIDTH_BITS;
+    private static final int MAX_COUNT = 15;
+    private static final int INDEX_THRESHOLD = 2;
+    private static final int SAMPLE_SIZE = WIDTH >>> 1;
+    private static final int MIN_INDEXED_COOKIE_LENGTH = 20;
+    private static final int[] SEEDS = {0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F};
+    private final byte[] counters = new byte[ROWS * WIDTH];
+    private final boolean protectCredentials;
+    private int maxFieldSize;
+    private int samples;
+
+    AdaptivePolicy(final int maxDynamicTableSize) {
+        this(maxDynamicTableSize, false);
+    }
+
+    /**
+     * Constructor.
+     * @param maxDynamicTableSize dynamic table size in octets
+     * @param protectCredentials whether credentials and short cookie crumbs should be never indexed
+     */
+    AdaptivePolicy(final int maxDynamicTableSize, final boolean protectCredentials) {
+        this.protectCredentials = protectCredentials;
+        setMaxDynamicTableSize(maxDynamicTableSize);
+    }
+
+    /**
+     * Adjusts the largest indexed header field to the current dynamic table size.
+     * @param maxDynamicTableSize dynamic table size in octets
+     */
+    void setMaxDynamicTableSize(final int maxDynamicTableSize) {
+        this.maxFieldSize = maxDynamicTableSize >>> 2;
+    }
+
+    @Override
+    public boolean indexize(final HeaderField hf) {
+        if (hf.getSize() > maxFieldSize) return false;
+        return increment(hf.hashCode()) >= INDEX_THRESHOLD;
+    }
+
+    @Override
+    public boolean sensitive(final HeaderField hf) {
+        if (!protectCredentials) return false;
+        final Header name = hf.getHeaderName();
+        if (name == Header.AUTHORIZATION || name == Header.PROXY_AUTHORIZATION) return true;
+        // short cookie values are easy to recover by probing the dynamic table, see RFC7541 Section 7.1.3
+        return name == Header.COOKIE && hf.getHeaderValueLength() < MIN_INDEXED_COOKIE_LENGTH;
+    }
+
+    @Override
+    public boolean huffmanize(final HeaderField hf) {
+        return true;
+    }
+
+    /**
+     * Records occurrence of the key.
+     * @param hashCode key hash code
+     * @return estimated count of occurrences including this one
+     */
+    int increment(final int hashCode) {
+        int estimate = MAX_COUNT;
+        for (int row = 0; row < ROWS; row++) {
+            estimate = Math.min(estimate, counters[row << WIDTH_BITS | column(hashCode, row)]);
+        }
+        if (estimate < MAX_COUNT) {
+            // conservative update, only the minimal counters are incremented
+            for (int row = 0; row < ROWS; row++) {
+                final int i = row << WIDTH_BITS | column(hashCode, row);
+                if (counters[i] == estimate) counters[i]++;
+            }
+            estimate++;
+        }
+        if (++samples == SAMPLE_SIZE) {
+            age();
+        }
+        return estimate;
+    }
+
+    private void age() {
+        samples = 0;
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] >>>= 1;
+        }
+    }
+
+    private static int column(final int hashCode, final int row) {
+        return (hashCode * SEEDS[row]) >>> (32 - WIDTH_BITS);
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.hpack;
+
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+
+import org.fossnova.http2.HeaderField;
+import org.fossnova.http2.Http2Headers;
+
+/**
+ * Iterates header fields of complete header block.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+final class DecoderImpl implements HpackDecoder {
+
+    private final Http2Headers headers = Http2Headers.newInstance();
+    private int index;
+
+    DecoderImpl(final HpackFragmentDecoder decoder, final byte[] serializedHeaders) {
+        decoder.decode(ByteBuffer.wrap(serializedHeaders), headers);
+        // header block is complete, finish it so recombined cookie is delivered
+        if (!decoder.finish()) throw new IllegalArgumentException("Malformed header block");
+    }
+
+    @Override
+    public boolean hasNext() {
+        return index < headers.size();
+    }
+
+    @Override
+    public HeaderField next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return headers.get(index++);
+    }
+
+    @Override
+    public void finish() {
+        // nothing to do, header block was finished when decoded
+    }
+
+    @Override
+    public Http2Headers getHeaders() {
+        return headers;
+    }
+
+}
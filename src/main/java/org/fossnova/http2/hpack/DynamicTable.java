@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.hpack;
+
+import org.fossnova.http2.Header;
+import org.fossnova.http2.HeaderField;
+
+/**
+ * HPACK dynamic table, see <code>RFC7541</code> Section 2.3.2.
+ * <p>
+ * Every inserted entry gets absolute sequence number. Entries are kept in circular array
+ * at position derived from their sequence number, newest entry has index <code>1</code>,
+ * i.e. index is the distance from the next sequence number.
+ * <p>
+ * Encoder lookups go through two open addressing indexes, one keyed by name and value,
+ * the other keyed by name only. Slots hold sequence number of the newest matching entry
+ * so lookups and evictions take constant time regardless of table size.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+final class DynamicTable {
+
+    static final int ITEM_NOT_FOUND = -1;
+    private static final int ENTRY_OVERHEAD = 32;
+    private static final long EMPTY = 0;
+    private HeaderField[] entries;
+    // decoder only, entries standing for malformed header fields
+    private boolean[] malformed;
+    private int mask;
+    // indexes, slots hold sequence number + 1 and cached hash code
+    private long[] fieldSequences;
+    private int[] fieldHashes;
+    private long[] nameSequences;
+    private int[] nameHashes;
+    private int indexMask;
+    private long nextSequence;
+    private int length;
+    private int size;
+    private int maxSize;
+
+    DynamicTable(final int maxSize) {
+        if (maxSize < 0) throw new IllegalArgumentException();
+        this.maxSize = maxSize;
+        allocate(capacityFor(maxSize));
+    }
+
+    /**
+     * Returns count of entries.
+     * @return count of entries
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Returns size of this table in octets.
+     * @return sum of all entries sizes
+     */
+    int size() {
+        return size;
+    }
+
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns header field for given index.
+     * @param index <code>1</code> based index, <code>1</code> is the newest entry
+     * @return header field for given index
+     * @throws IllegalArgumentException if index contains invalid value
+     */
+    HeaderField get(final int index) {
+        if (index < 1 || index > length) throw new IllegalArgumentException();
+        return entries[(int) (nextSequence - index) & mask];
+    }
+
+    /**
+     * Returns whether entry for given index stands for malformed header field.
+     * @param index <code>1</code> based index, <code>1</code> is the newest entry
+     * @return <code>true</code> if entry was added by {@link #addMalformed(HeaderField)}
+     * @throws IllegalArgumentException if index contains invalid value
+     */
+    boolean isMalformed(final int index) {
+        if (index < 1 || index > length) throw new IllegalArgumentException();
+        return malformed[(int) (nextSequence - index) & mask];
+    }
+
+    /**
+     * Returns index of header field.
+     * @param hf header field
+     * @return <code>1</code> based index or <code>-1</code> if no such header field is present
+     */
+    int indexOf(final HeaderField hf) {
+        final int hashCode = hf.hashCode();
+        int slot = slot(hashCode);
+        long sequence;
+        while ((sequence = fieldSequences[slot]) != EMPTY) {
+            if (fieldHashes[slot] == hashCode && hf.equals(entries[(int) (sequence - 1) & mask])) {
+                return (int) (nextSequence - sequence + 1);
+            }
+            slot = slot + 1 & indexMask;
+        }
+        return ITEM_NOT_FOUND;
+    }
+
+    /**
+     * Returns index of header name.
+     * @param h message header
+     * @return <code>1</code> based index or <code>-1</code> if no such header name is present
+     */
+    int indexOf(final Header h) {
+        final int hashCode = h.hashCode();
+        int slot = slot(hashCode);
+        long sequence;
+        while ((sequence = nameSequences[slot]) != EMPTY) {
+            if (nameHashes[slot] == hashCode && h.equals(entries[(int) (sequence - 1) & mask].getHeaderName())) {
+                return (int) (nextSequence - sequence + 1);
+            }
+            slot = slot + 1 & indexMask;
+        }
+        return ITEM_NOT_FOUND;
+    }
+
+    /**
+     * Inserts new entry, evicting the oldest entries if necessary.
+     * Entry larger than maximum table size empties the table, see <code>RFC7541</code> Section 4.4.
+     * @param hf header field
+     */
+    void add(final HeaderField hf) {
+        add(hf, false);
+    }
+
+    /**
+     * Inserts placeholder of malformed header field so the table stays in sync with the peer's encoder.
+     * @param placeholder valid header field of the same size as the malformed one
+     */
+    void addMalformed(final HeaderField placeholder) {
+        add(placeholder, true);
+    }
+
+    private void add(final HeaderField hf, final boolean isMalformed) {
+        final int entrySize = hf.getSize();
+        if (entrySize > maxSize) {
+            clear();
+            return;
+        }
+        evict(maxSize - entrySize);
+        final long sequence = nextSequence++;
+        entries[(int) sequence & mask] = hf;
+        malformed[(int) sequence & mask] = isMalformed;
+        length++;
+        size += entrySize;
+        index(fieldSequences, fieldHashes, hf.hashCode(), sequence, hf, false);
+        index(nameSequences, nameHashes, hf.getHeaderName().hashCode(), sequence, hf, true);
+    }
+
+    /**
+     * Changes maximum table size, evicting the oldest entries if necessary.
+     * @param maxSize new maximum size in octets
+     */
+    void setMaxSize(final int maxSize) {
+        if (maxSize < 0) throw new IllegalArgumentException();
+        evict(maxSize);
+        final int capacity = capacityFor(maxSize);
+        if (capacity > entries.length) {
+            final HeaderField[] oldEntries = entries;
+            final boolean[] oldMalformed = malformed;
+            final int oldMask = mask;
+            allocate(capacity);
+            for (long sequence = nextSequence - length; sequence < nextSequence; sequence++) {
+                final HeaderField hf = oldEntries[(int) sequence & oldMask];
+                entries[(int) sequence & mask] = hf;
+                malformed[(int) sequence & mask] = oldMalformed[(int) sequence & oldMask];
+                index(fieldSequences, fieldHashes, hf.hashCode(), sequence, hf, false);
+                index(nameSequences, nameHashes, hf.getHeaderName().hashCode(), sequence, hf, true);
+            }
+        }
+        this.maxSize = maxSize;
+    }
+
+    void clear() {
+        while (length > 0) {
+            evictOldest();
+        }
+    }
+
+    private void evict(final int limit) {
+        while (size > limit) {
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        final long sequence = nextSequence - length;
+        final int position = (int) sequence & mask;
+        final HeaderField hf = entries[position];
+        unindex(fieldSequences, fieldHashes, hf.hashCode(), sequence);
+        unindex(nameSequences, nameHashes, hf.getHeaderName().hashCode(), sequence);
+        entries[position] = null;
+        malformed[position] = false;
+        size -= hf.getSize();
+        length--;
+    }
+
+    /**
+     * Points index slot of given key to the newest entry.
+     */
+    private void index(final long[] sequences, final int[] hashes, final int hashCode, final long sequence, final HeaderField hf, final boolean nameOnly) {
+        int slot = slot(hashCode);
+        long existing;
+        while ((existing = sequences[slot]) != EMPTY) {
+            if (hashes[slot] == hashCode) {
+                final HeaderField other = entries[(int) (existing - 1) & mask];
+                if (nameOnly ? hf.getHeaderName().equals(other.getHeaderName()) : hf.equals(other)) {
+                    break;
+                }
+            }
+            slot = slot + 1 & indexMask;
+        }
+        sequences[slot] = sequence + 1;
+        hashes[slot] = hashCode;
+    }
+
+    /**
+     * Removes index slot of evicted entry unless it already points to newer entry with the same key.
+     * Uses backward shift deletion so no tombstones are left behind.
+     */
+    private void unindex(final long[] sequences, final int[] hashes, final int hashCode, final long sequence) {
+        int hole = slot(hashCode);
+        while (sequences[hole] != sequence + 1) {
+            if (sequences[hole] == EMPTY) return;
+            hole = hole + 1 & indexMask;
+        }
+        int i = hole;
+        while (true) {
+            i = i + 1 & indexMask;
+            if (sequences[i] == EMPTY) break;
+            final int home = slot(hashes[i]);
+            if ((i - home & indexMask) >= (i - hole & indexMask)) {
+                sequences[hole] = sequences[i];
+                hashes[hole] = hashes[i];
+                hole = i;
+            }
+        }
+        sequences[hole] = EMPTY;
+    }
+
+    private int slot(final int hashCode) {
+        return (hashCode ^ hashCode >>> 16) & indexMask;
+    }
+
+    private void allocate(final int capacity) {
+        entries = new HeaderField[capacity];
+        malformed = new boolean[capacity];
+        mask = capacity - 1;
+        fieldSequences = new long[capacity << 1];
+        fieldHashes = new int[capacity << 1];
+        nameSequences = new long[capacity << 1];
+        nameHashes = new int[capacity << 1];
+        indexMask = (capacity << 1) - 1;
+    }
+
+    private static int capacityFor(final int maxSize) {
+        final int maxEntries = Math.max(maxSize / ENTRY_OVERHEAD, 1);
+        return maxEntries == 1 ? 1 : Integer.highestOneBit(maxEntries - 1) << 1;
+    }
+
+}
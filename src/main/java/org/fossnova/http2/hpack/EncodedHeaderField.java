@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.hpack;
+
+import org.fossnova.http2.HeaderField;
+
+/**
+ * Header field with cached <code>HPACK</code> representations that do not depend on connection state.
+ * Instances are thread safe and are meant to be shared by encoders of all connections,
+ * typically for response header fields that repeat on every response.
+ * Representations are computed lazily on first use. Strings are <code>Huffman</code> encoded
+ * whenever it makes them shorter, regardless of encoder policy.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public final class EncodedHeaderField {
+
+    private static final int NOT_COMPUTED = -2;
+    private static final int ITEM_NOT_FOUND = -1;
+    private static final int HUFFMAN_ENCODED = 0x80;
+    private static final int WITHOUT_INDEXING = 0x0;
+    private final HeaderField headerField;
+    private int staticIndex = NOT_COMPUTED;
+    private int staticNameIndex = NOT_COMPUTED;
+    private volatile byte[] name;
+    private volatile byte[] value;
+    private volatile byte[] withoutIndexing;
+
+    private EncodedHeaderField(final HeaderField headerField) {
+        this.headerField = headerField;
+    }
+
+    /**
+     * Creates header field with cached representations.
+     * @param hf header field
+     * @return new encoded header field instance
+     */
+    public static EncodedHeaderField of(final HeaderField hf) {
+        if (hf == null) throw new IllegalArgumentException();
+        return new EncodedHeaderField(hf);
+    }
+
+    /**
+     * Gets wrapped header field.
+     * @return header field
+     */
+    public HeaderField getHeaderField() {
+        return headerField;
+    }
+
+    /**
+     * Returns static table index of this header field.
+     * @return static table index or <code>-1</code> if there is no such entry
+     */
+    int staticIndex() {
+        int retVal = staticIndex;
+        if (retVal == NOT_COMPUTED) {
+            staticIndex = retVal = StaticTable.indexOf(headerField);
+        }
+        return retVal;
+    }
+
+    /**
+     * Returns static table index of header name of this header field.
+     * @return static table index or <code>-1</code> if there is no such entry
+     */
+    int staticNameIndex() {
+        int retVal = staticNameIndex;
+        if (retVal == NOT_COMPUTED) {
+            staticNameIndex = retVal = StaticTable.indexOf(headerField.getHeaderName());
+        }
+        return retVal;
+    }
+
+    /**
+     * Returns string literal representation of header name, see <code>RFC7541</code> Section 5.2.
+     * @return encoded header name
+     */
+    byte[] name() {
+        byte[] retVal = name;
+        if (retVal == null) {
+            name = retVal = encodeString(headerField.getHeaderName().getLowerCaseName());
+        }
+        return retVal;
+    }
+
+    /**
+     * Returns string literal representation of header value, see <code>RFC7541</code> Section 5.2.
+     * @return encoded header value
+     */
+    byte[] value() {
+        byte[] retVal = value;
+        if (retVal == null) {
+            final byte[] bytes = new byte[headerField.getHeaderValueLength()];
+            headerField.copyHeaderValue(bytes, 0);
+            value = retVal = encodeString(bytes);
+        }
+        return retVal;
+    }
+
+    /**
+     * Returns literal header field without indexing representation, see <code>RFC7541</code> Section 6.2.2.
+     * Only static table is used to index header name.
+     * @return encoded header field
+     */
+    byte[] withoutIndexing() {
+        byte[] retVal = withoutIndexing;
+        if (retVal == null) {
+            final int nameIndex = staticNameIndex();
+            final byte[] value = value();
+            final OutputBuffer out = new OutputBuffer(value.length + 8);
+            out.writeInt(WITHOUT_INDEXING, 4, nameIndex != ITEM_NOT_FOUND ? nameIndex : 0);
+            if (nameIndex == ITEM_NOT_FOUND) {
+                out.write(name());
+            }
+            out.write(value);
+            withoutIndexing = retVal = out.flush();
+        }
+        return retVal;
+    }
+
+    private static byte[] encodeString(final String s) {
+        final int encodedLength = Huffman.encodedLength(s);
+        final OutputBuffer out = new OutputBuffer(Math.min(encodedLength, s.length()) + 6);
+        if (encodedLength < s.length()) {
+            out.writeInt(HUFFMAN_ENCODED, 7, encodedLength);
+            out.writeHuffman(s, encodedLength);
+        } else {
+            out.writeInt(0, 7, s.length());
+            out.writeLatin1(s);
+        }
+        return out.flush();
+    }
+
+    private static byte[] encodeString(final byte[] bytes) {
+        final int encodedLength = Huffman.encodedLength(bytes, 0, bytes.length);
+        final OutputBuffer out = new OutputBuffer(Math.min(encodedLength, bytes.length) + 6);
+        if (encodedLength < bytes.length) {
+            out.writeInt(HUFFMAN_ENCODED, 7, encodedLength);
+            out.writeHuffman(bytes, 0, bytes.length, encodedLength);
+        } else {
+            out.writeInt(0, 7, bytes.length);
+            out.write(bytes);
+        }
+        return out.flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return headerField.toString();
+    }
+
+}
@@ -19,7 +19,14 @@
  */
 package org.fossnova.http2.hpack;
 
+import org.fossnova.http2.Header;
 import org.fossnova.http2.HeaderField;
+import org.fossnova.http2.Http2Headers;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
@@ -27,6 +34,8 @@ import org.fossnova.http2.HeaderField;
 final class EncoderImpl implements HpackEncoder {
 
     private static final Policy DEFAULT_POLICY = new DefaultFunction();
+    private static final int ITEM_NOT_FOUND = -1;
+    private static final int HUFFMAN_ENCODED = 0x80;
 
     private static final class DefaultFunction implements Policy {
         @Override
@@ -53,43 +62,290 @@ final class EncoderImpl implements HpackEncoder {
             this.flag = flag;
         }
 
-        public static Instruction of(final byte b) {
-            if ((b & INDEXED.flag) != 0) return INDEXED;
-            if ((b & SIZE_UPDATE.flag) != 0) return SIZE_UPDATE;
-            if ((b & WITH_INDEXING.flag) != 0) return WITH_INDEXING;
-            if ((b & NEVER_INDEXED.flag) != 0) return NEVER_INDEXED;
-            return WITHOUT_INDEXING;
-        }
-
     }
 
     private static final int INITIAL_DYNAMIC_TABLE_SIZE = 4096;
+    private static final int INITIAL_BUFFER_SIZE = 256;
     private final int maxDynamicTableSize;
     private final Policy policy;
     private final boolean server;
+    private final DynamicTable dynamicTable;
+    private final OutputBuffer out = new OutputBuffer(INITIAL_BUFFER_SIZE);
+    private byte[] value = new byte[INITIAL_BUFFER_SIZE];
+    // cookie crumbs of the cookie being split
+    private final List<HeaderField> crumbs = new ArrayList<>();
+    private boolean sizeUpdatePending;
+    private boolean blockStarted;
+    // peer's limits, guarded by this
+    private int tableSizeLimit = INITIAL_DYNAMIC_TABLE_SIZE;
+    private int lowestTableSizeLimit = INITIAL_DYNAMIC_TABLE_SIZE;
+    private volatile boolean tableSizeLimitChanged;
 
     private EncoderImpl(final Policy policy, final int maxDynamicTableSize, final boolean server) {
         this.policy = policy;
-        this.maxDynamicTableSize = Math.min(maxDynamicTableSize, INITIAL_DYNAMIC_TABLE_SIZE);
+        this.maxDynamicTableSize = maxDynamicTableSize;
         this.server = server;
+        final int tableSize = Math.min(maxDynamicTableSize, INITIAL_DYNAMIC_TABLE_SIZE);
+        this.dynamicTable = new DynamicTable(tableSize);
+        this.sizeUpdatePending = tableSize != INITIAL_DYNAMIC_TABLE_SIZE;
+    }
+
+    @Override
+    public void setMaxDynamicTableSize(final int maxSize) {
+        // preconditions
+        if (maxSize < 0) throw new IllegalArgumentException();
+        // implementation
+        synchronized (this) {
+            tableSizeLimit = maxSize;
+            lowestTableSizeLimit = Math.min(lowestTableSizeLimit, maxSize);
+            tableSizeLimitChanged = true;
+        }
     }
 
     @Override
     public void add(final HeaderField hf) {
-        // TODO: implement
-        throw new UnsupportedOperationException();
+        // preconditions
+        if (hf == null) throw new IllegalArgumentException();
+        // implementation
+        startBlock();
+        if (!addCrumbs(hf)) {
+            addField(hf);
+        }
+    }
+
+    private void addField(final HeaderField hf) {
+        final boolean sensitive = policy.sensitive(hf);
+        final int index = sensitive ? ITEM_NOT_FOUND : indexOf(hf);
+        if (index != ITEM_NOT_FOUND) {
+            out.writeInt(Instruction.INDEXED.flag, 7, index);
+            return;
+        }
+        final Header name = hf.getHeaderName();
+        final int nameIndex = indexOf(name);
+        final boolean huffmanize = policy.huffmanize(hf);
+        if (sensitive) {
+            out.writeInt(Instruction.NEVER_INDEXED.flag, 4, nameIndex != ITEM_NOT_FOUND ? nameIndex : 0);
+        } else if (policy.indexize(hf)) {
+            out.writeInt(Instruction.WITH_INDEXING.flag, 6, nameIndex != ITEM_NOT_FOUND ? nameIndex : 0);
+            dynamicTable.add(hf);
+        } else {
+            out.writeInt(Instruction.WITHOUT_INDEXING.flag, 4, nameIndex != ITEM_NOT_FOUND ? nameIndex : 0);
+        }
+        if (nameIndex == ITEM_NOT_FOUND) {
+            writeString(name.getLowerCaseName(), huffmanize);
+        }
+        writeValue(hf, huffmanize);
+    }
+
+    @Override
+    public void add(final EncodedHeaderField ehf) {
+        // preconditions
+        if (ehf == null) throw new IllegalArgumentException();
+        // implementation
+        startBlock();
+        if (addCrumbs(ehf.getHeaderField())) return;
+        if (policy.sensitive(ehf.getHeaderField())) {
+            addField(ehf.getHeaderField());
+            return;
+        }
+        final int staticIndex = ehf.staticIndex();
+        if (staticIndex != ITEM_NOT_FOUND) {
+            out.writeInt(Instruction.INDEXED.flag, 7, staticIndex);
+            return;
+        }
+        final HeaderField hf = ehf.getHeaderField();
+        final int dynamicIndex = dynamicTable.indexOf(hf);
+        if (dynamicIndex != ITEM_NOT_FOUND) {
+            out.writeInt(Instruction.INDEXED.flag, 7, StaticTable.LENGTH + dynamicIndex);
+            return;
+        }
+        if (!policy.indexize(hf)) {
+            out.write(ehf.withoutIndexing());
+            return;
+        }
+        final int nameIndex = indexOf(hf.getHeaderName());
+        out.writeInt(Instruction.WITH_INDEXING.flag, 6, nameIndex != ITEM_NOT_FOUND ? nameIndex : 0);
+        dynamicTable.add(hf);
+        if (nameIndex == ITEM_NOT_FOUND) {
+            out.write(ehf.name());
+        }
+        out.write(ehf.value());
+    }
+
+    @Override
+    public void add(final Http2Headers headers) {
+        // preconditions
+        if (headers == null) throw new IllegalArgumentException();
+        // implementation
+        for (int i = 0; i < headers.size(); i++) {
+            add(headers.get(i));
+        }
     }
 
     @Override
     public byte[] finish() {
-        // TODO: implement
-        throw new UnsupportedOperationException();
+        blockStarted = false;
+        return out.flush();
+    }
+
+    @Override
+    public void finish(final ByteBuffer target) {
+        // preconditions
+        if (target == null) throw new IllegalArgumentException();
+        // implementation
+        out.flush(target);
+        blockStarted = false;
+    }
+
+    /**
+     * Applies peer's table size limit changes at the beginning of header block, see <code>RFC7541</code> Section 4.2.
+     * The smallest limit since the previous block is signaled first if it evicts entries, then the final size.
+     */
+    private void startBlock() {
+        if (blockStarted) return;
+        blockStarted = true;
+        if (tableSizeLimitChanged) {
+            final int lowestLimit, limit;
+            synchronized (this) {
+                lowestLimit = lowestTableSizeLimit;
+                limit = tableSizeLimit;
+                lowestTableSizeLimit = limit;
+                tableSizeLimitChanged = false;
+            }
+            final int lowestTableSize = Math.min(maxDynamicTableSize, lowestLimit);
+            if (lowestTableSize < dynamicTable.getMaxSize()) {
+                setTableSize(lowestTableSize);
+                out.writeInt(Instruction.SIZE_UPDATE.flag, 5, lowestTableSize);
+                sizeUpdatePending = false;
+            }
+            final int tableSize = Math.min(maxDynamicTableSize, limit);
+            if (tableSize != dynamicTable.getMaxSize()) {
+                setTableSize(tableSize);
+                sizeUpdatePending = true;
+            }
+        }
+        if (sizeUpdatePending) {
+            out.writeInt(Instruction.SIZE_UPDATE.flag, 5, dynamicTable.getMaxSize());
+            sizeUpdatePending = false;
+        }
+    }
+
+    /**
+     * Splits cookie into crumbs so stable crumbs are indexed individually, see <code>RFC7540</code> Section 8.1.2.5.
+     * Cookie is not split if the policy cannot index its crumbs, more literals would only add overhead then.
+     * @return <code>false</code> if header field is not a cookie with more indexable crumbs, nothing is written then
+     */
+    private boolean addCrumbs(final HeaderField hf) {
+        if (policy == DEFAULT_POLICY || hf.getHeaderName() != Header.COOKIE) return false;
+        final int length = hf.getHeaderValueLength();
+        if (length > value.length) {
+            value = new byte[Math.max(length, value.length << 1)];
+        }
+        hf.copyHeaderValue(value, 0);
+        if (indexOfCrumbDelimiter(value, 0, length) == -1) return false;
+        // crumbs may be added to dynamic table thus they must not share scratch buffer
+        final byte[] bytes = Arrays.copyOf(value, length);
+        int start = 0;
+        int end;
+        while ((end = indexOfCrumbDelimiter(bytes, start, length)) != -1) {
+            if (end > start && !addCrumb(HeaderField.of(Header.COOKIE, bytes, start, end - start))) break;
+            start = end + 2;
+        }
+        if (end == -1 && start < length) {
+            addCrumb(HeaderField.of(Header.COOKIE, bytes, start, length - start));
+        }
+        // crumbs are empty if some of them was sensitive
+        final boolean split = !crumbs.isEmpty();
+        if (split) {
+            for (final HeaderField crumb : crumbs) {
+                addField(crumb);
+            }
+        }
+        crumbs.clear();
+        return split;
+    }
+
+    private boolean addCrumb(final HeaderField crumb) {
+        if (policy.sensitive(crumb)) {
+            crumbs.clear();
+            return false;
+        }
+        crumbs.add(crumb);
+        return true;
+    }
+
+    private static int indexOfCrumbDelimiter(final byte[] bytes, final int from, final int to) {
+        for (int i = from; i < to - 1; i++) {
+            if (bytes[i] == ';' && bytes[i + 1] == ' ') return i;
+        }
+        return -1;
+    }
+
+    private void setTableSize(final int tableSize) {
+        dynamicTable.setMaxSize(tableSize);
+        if (policy instanceof AdaptivePolicy) {
+            ((AdaptivePolicy) policy).setMaxDynamicTableSize(tableSize);
+        }
+    }
+
+    private int indexOf(final HeaderField hf) {
+        final int index = StaticTable.indexOf(hf);
+        if (index != ITEM_NOT_FOUND) return index;
+        final int dynamicIndex = dynamicTable.indexOf(hf);
+        return dynamicIndex != ITEM_NOT_FOUND ? StaticTable.LENGTH + dynamicIndex : ITEM_NOT_FOUND;
+    }
+
+    private int indexOf(final Header h) {
+        final int index = StaticTable.indexOf(h);
+        if (index != ITEM_NOT_FOUND) return index;
+        final int dynamicIndex = dynamicTable.indexOf(h);
+        return dynamicIndex != ITEM_NOT_FOUND ? StaticTable.LENGTH + dynamicIndex : ITEM_NOT_FOUND;
+    }
+
+    private void writeString(final String s, final boolean huffmanize) {
+        if (huffmanize) {
+            final int encodedLength = Huffman.encodedLength(s);
+            if (encodedLength < s.length()) {
+                out.writeInt(HUFFMAN_ENCODED, 7, encodedLength);
+                out.writeHuffman(s, encodedLength);
+                return;
+            }
+        }
+        out.writeInt(0, 7, s.length());
+        out.writeLatin1(s);
+    }
+
+    private void writeValue(final HeaderField hf, final boolean huffmanize) {
+        final int length = hf.getHeaderValueLength();
+        if (huffmanize) {
+            if (length > value.length) {
+                value = new byte[Math.max(length, value.length << 1)];
+            }
+            hf.copyHeaderValue(value, 0);
+            final int encodedLength = Huffman.encodedLength(value, 0, length);
+            if (encodedLength < length) {
+                out.writeInt(HUFFMAN_ENCODED, 7, encodedLength);
+                out.writeHuffman(value, 0, length, encodedLength);
+                return;
+            }
+        }
+        out.writeInt(0, 7, length);
+        out.writeHeaderValue(hf);
     }
 
     public static EncoderImpl newInstance(final int maxDynamicTableSize, final boolean server) {
         return newInstance(DEFAULT_POLICY, maxDynamicTableSize, server);
     }
 
+    static EncoderImpl newAdaptiveInstance(final int maxDynamicTableSize, final boolean server) {
+        return newAdaptiveInstance(maxDynamicTableSize, server, false);
+    }
+
+    static EncoderImpl newAdaptiveInstance(final int maxDynamicTableSize, final boolean server, final boolean protectCredentials) {
+        final AdaptivePolicy policy = new AdaptivePolicy(Math.min(maxDynamicTableSize, INITIAL_DYNAMIC_TABLE_SIZE), protectCredentials);
+        return newInstance(policy, maxDynamicTableSize, server);
+    }
+
     public static EncoderImpl newInstance(final Policy policy, final int maxDynamicTableSize, final boolean server) {
         return new EncoderImpl(policy == null ? DEFAULT_POLICY : policy, maxDynamicTableSize, server);
     }
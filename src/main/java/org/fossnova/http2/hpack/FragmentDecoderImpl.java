@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.hpack;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.fossnova.http2.Header;
+import org.fossnova.http2.HeaderField;
+import org.fossnova.http2.Http2Headers;
+
+/**
+ * Streaming HPACK decoder, see <code>RFC7541</code> Section 6.
+ * Decoding is resumable at any octet so header block fragments are never concatenated,
+ * only string literal in progress is buffered. Cookie crumbs are recombined and delivered
+ * as single header field at the end of header block, see <code>RFC7540</code> Section 8.1.2.5.
+ * Received octets are never normalized. Header fields with invalid name or value octets are not delivered
+ * and make the header block malformed, see <code>RFC7540</code> Section 8.1.2.6. Such fields added to the
+ * dynamic table are replaced with placeholders of the same size so the table stays in sync with the peer.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+final class FragmentDecoderImpl implements HpackFragmentDecoder {
+
+    private static final int FIELD_OVERHEAD = 32;
+    private static final int INITIAL_BUFFER_SIZE = 256;
+    // decoder states
+    private static final int REPRESENTATION = 0;
+    private static final int INTEGER = 1;
+    private static final int STRING_LENGTH = 2;
+    private static final int STRING = 3;
+    // integer targets
+    private static final int INDEX = 0;
+    private static final int NAME_INDEX = 1;
+    private static final int SIZE_UPDATE = 2;
+    private static final int NAME_LENGTH = 3;
+    private static final int VALUE_LENGTH = 4;
+
+    private final DynamicTable dynamicTable;
+    private int maxDynamicTableSize;
+    private boolean sizeUpdateRequired;
+    private int maxHeaderListSize = Integer.MAX_VALUE;
+    private int state = REPRESENTATION;
+    private int target;
+    private boolean withIndexing;
+    private boolean huffman;
+    private long integer;
+    private int shift;
+    private Header name;
+    private byte[] string = new byte[INITIAL_BUFFER_SIZE];
+    private byte[] decoded = new byte[INITIAL_BUFFER_SIZE];
+    private int stringLength;
+    private int stringPosition;
+    private long headerListSize;
+    private boolean fieldDecoded;
+    private boolean fieldMalformed;
+    private boolean malformed;
+    // cookie crumbs of current header block
+    private HeaderField cookie;
+    private Listener cookieListener;
+    private byte[] crumbs;
+    private int crumbsLength;
+
+    FragmentDecoderImpl(final int maxDynamicTableSize) {
+        this.maxDynamicTableSize = maxDynamicTableSize;
+        this.dynamicTable = new DynamicTable(maxDynamicTableSize);
+    }
+
+    @Override
+    public void setMaxHeaderListSize(final int maxHeaderListSize) {
+        if (maxHeaderListSize <= 0) throw new IllegalArgumentException();
+        this.maxHeaderListSize = maxHeaderListSize;
+    }
+
+    @Override
+    public void setMaxDynamicTableSize(final int maxSize) {
+        if (maxSize < 0) throw new IllegalArgumentException();
+        maxDynamicTableSize = maxSize;
+        if (dynamicTable.getMaxSize() > maxSize) {
+            sizeUpdateRequired = true;
+        }
+    }
+
+    @Override
+    public void decode(final ByteBuffer fragment, final Listener listener) {
+        // preconditions
+        if (fragment == null || listener == null) throw new IllegalArgumentException();
+        // implementation
+        while (fragment.hasRemaining()) {
+            if (state == REPRESENTATION) {
+                final int b = fragment.get() & 0xFF;
+                if (sizeUpdateRequired && (b & 0xE0) != 0x20) throw new IllegalArgumentException("Dynamic table size update expected");
+                if ((b & 0x80) != 0) {
+                    startInteger(b, 7, INDEX, listener);
+                } else if ((b & 0x40) != 0) {
+                    withIndexing = true;
+                    startInteger(b, 6, NAME_INDEX, listener);
+                } else if ((b & 0x20) != 0) {
+                    if (fieldDecoded) throw new IllegalArgumentException("Dynamic table size update after header field");
+                    startInteger(b, 5, SIZE_UPDATE, listener);
+                } else {
+                    withIndexing = false;
+                    startInteger(b, 4, NAME_INDEX, listener);
+                }
+            } else if (state == INTEGER) {
+                final int b = fragment.get() & 0xFF;
+                integer += (long) (b & 0x7F) << shift;
+                shift += 7;
+                if (integer > Integer.MAX_VALUE || shift > 28 && (b & 0x80) != 0) throw new IllegalArgumentException("Integer overflow");
+                if ((b & 0x80) == 0) {
+                    onInteger((int) integer, listener);
+                }
+            } else if (state == STRING_LENGTH) {
+                final int b = fragment.get() & 0xFF;
+                huffman = (b & 0x80) != 0;
+                startInteger(b, 7, target, listener);
+            } else {
+                final int count = Math.min(fragment.remaining(), stringLength - stringPosition);
+                fragment.get(string, stringPosition, count);
+                stringPosition += count;
+                if (stringPosition == stringLength) {
+                    onString(listener);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void decode(final ByteBuffer fragment, final Http2Headers headers) {
+        // preconditions
+        if (headers == null) throw new IllegalArgumentException();
+        // implementation
+        decode(fragment, headers::add);
+    }
+
+    @Override
+    public boolean finish() {
+        final boolean complete = state == REPRESENTATION;
+        final boolean valid = !malformed;
+        final HeaderField cookie = crumbsLength > 0 ? HeaderField.of(Header.COOKIE, crumbs, 0, crumbsLength) : this.cookie;
+        final Listener cookieListener = this.cookieListener;
+        state = REPRESENTATION;
+        name = null;
+        headerListSize = 0;
+        fieldDecoded = false;
+        fieldMalformed = false;
+        malformed = false;
+        this.cookie = null;
+        this.cookieListener = null;
+        if (crumbsLength > 0) {
+            // handed over to recombined cookie
+            crumbs = null;
+            crumbsLength = 0;
+        }
+        if (!complete) throw new IllegalStateException("Header block ended in the middle of header field");
+        if (valid && cookie != null) {
+            cookieListener.onHeaderField(cookie);
+        }
+        return valid;
+    }
+
+    private void startInteger(final int b, final int prefixBits, final int target, final Listener listener) {
+        final int maxPrefix = (1 << prefixBits) - 1;
+        this.target = target;
+        if ((b & maxPrefix) < maxPrefix) {
+            onInteger(b & maxPrefix, listener);
+        } else {
+            state = INTEGER;
+            integer = maxPrefix;
+            shift = 0;
+        }
+    }
+
+    private void onInteger(final int value, final Listener listener) {
+        if (target == INDEX) {
+            final HeaderField hf = getHeaderField(value);
+            fieldMalformed = isMalformed(value);
+            emit(hf, listener);
+        } else if (target == NAME_INDEX) {
+            if (value == 0) {
+                name = null;
+                target = NAME_LENGTH;
+            } else {
+                name = getHeaderField(value).getHeaderName();
+                fieldMalformed = isMalformed(value);
+                target = VALUE_LENGTH;
+            }
+            state = STRING_LENGTH;
+        } else if (target == SIZE_UPDATE) {
+            if (value > maxDynamicTableSize) throw new IllegalArgumentException("Dynamic table size " + value + " exceeds " + maxDynamicTableSize);
+            dynamicTable.setMaxSize(value);
+            sizeUpdateRequired = false;
+            state = REPRESENTATION;
+        } else {
+            final long limit = maxHeaderListSize - headerListSize - FIELD_OVERHEAD - (name != null ? name.getLowerCaseName().length() : 0);
+            if (value > limit) throw new IllegalStateException("Header list exceeds " + maxHeaderListSize + " octets");
+            if (value > string.length) {
+                string = Arrays.copyOf(string, Math.max(value, string.length << 1));
+            }
+            stringLength = value;
+            stringPosition = 0;
+            state = STRING;
+            if (value == 0) {
+                onString(listener);
+            }
+        }
+    }
+
+    private void onString(final Listener listener) {
+        final byte[] bytes;
+        final int length;
+        if (huffman) {
+            final int maxLength = Huffman.maxDecodedLength(stringLength);
+            if (maxLength > decoded.length) {
+                decoded = new byte[Math.max(maxLength, decoded.length << 1)];
+            }
+            bytes = decoded;
+            length = Huffman.decode(string, 0, stringLength, decoded, 0);
+        } else {
+            bytes = string;
+            length = stringLength;
+        }
+        if (target == NAME_LENGTH) {
+            // placeholder of empty name cannot be created
+            if (length == 0) throw new IllegalArgumentException("Empty header name");
+            try {
+                name = Header.of(bytes, 0, length);
+            } catch (final IllegalArgumentException e) {
+                name = Header.of(new String(placeholder(length), ISO_8859_1));
+                fieldMalformed = true;
+            }
+            target = VALUE_LENGTH;
+            state = STRING_LENGTH;
+        } else {
+            HeaderField hf = null;
+            if (!fieldMalformed) {
+                try {
+                    hf = HeaderField.of(name, Arrays.copyOf(bytes, length), 0, length);
+                } catch (final IllegalArgumentException e) {
+                    fieldMalformed = true;
+                }
+            }
+            if (fieldMalformed) {
+                hf = HeaderField.of(name, placeholder(length), 0, length);
+                if (withIndexing) {
+                    dynamicTable.addMalformed(hf);
+                }
+            } else if (withIndexing) {
+                dynamicTable.add(hf);
+            }
+            name = null;
+            emit(hf, listener);
+        }
+    }
+
+    private static byte[] placeholder(final int length) {
+        final byte[] retVal = new byte[length];
+        Arrays.fill(retVal, (byte) 'x');
+        return retVal;
+    }
+
+    private void emit(final HeaderField hf, final Listener listener) {
+        state = REPRESENTATION;
+        fieldDecoded = true;
+        headerListSize += hf.getSize();
+        // indexed fields are not checked while reading literal lengths
+        if (headerListSize > maxHeaderListSize) throw new IllegalStateException("Header list exceeds " + maxHeaderListSize + " octets");
+        if (fieldMalformed) {
+            // nothing is delivered after malformed header field
+            fieldMalformed = false;
+            malformed = true;
+        } else if (!malformed) {
+            if (hf.getHeaderName() == Header.COOKIE) {
+                addCrumb(hf);
+                cookieListener = listener;
+            } else {
+                listener.onHeaderField(hf);
+            }
+        }
+    }
+
+    private void addCrumb(final HeaderField crumb) {
+        if (cookie == null || cookie.getHeaderValueLength() == 0) {
+            cookie = crumb;
+            return;
+        }
+        final int length = crumb.getHeaderValueLength();
+        if (length == 0) return;
+        if (crumbsLength == 0) {
+            crumbsLength = copyCrumb(cookie, 0);
+        }
+        crumbs[crumbsLength++] = ';';
+        crumbs[crumbsLength++] = ' ';
+        crumbsLength = copyCrumb(crumb, crumbsLength);
+    }
+
+    private int copyCrumb(final HeaderField crumb, final int offset) {
+        final int capacity = offset + crumb.getHeaderValueLength() + 2;
+        if (crumbs == null) {
+            crumbs = new byte[Math.max(capacity, INITIAL_BUFFER_SIZE)];
+        } else if (capacity > crumbs.length) {
+            crumbs = Arrays.copyOf(crumbs, Math.max(capacity, crumbs.length << 1));
+        }
+        return crumb.copyHeaderValue(crumbs, offset);
+    }
+
+    private HeaderField getHeaderField(final int index) {
+        if (index <= StaticTable.LENGTH) return StaticTable.getHeaderField(index);
+        if (index - StaticTable.LENGTH > dynamicTable.length()) throw new IllegalArgumentException("Invalid index " + index);
+        return dynamicTable.get(index - StaticTable.LENGTH);
+    }
+
+    private boolean isMalformed(final int index) {
+        return index > StaticTable.LENGTH && dynamicTable.isMalformed(index - StaticTable.LENGTH);
+    }
+
+}
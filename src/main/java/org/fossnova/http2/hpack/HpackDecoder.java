@@ -20,6 +20,7 @@
 package org.fossnova.http2.hpack;
 
 import org.fossnova.http2.HeaderField;
+import org.fossnova.http2.Http2Headers;
 
 import java.util.Iterator;
 
@@ -31,4 +32,10 @@ public interface HpackDecoder extends Iterator<HeaderField> {
     boolean hasNext();
     HeaderField next();
     void finish();
+
+    /**
+     * Returns all decoded header fields.
+     * @return header list
+     */
+    Http2Headers getHeaders();
 }
@@ -20,6 +20,9 @@
 package org.fossnova.http2.hpack;
 
 import org.fossnova.http2.HeaderField;
+import org.fossnova.http2.Http2Headers;
+
+import java.nio.ByteBuffer;
 
 /**
  * TODO: javadoc
@@ -44,8 +47,58 @@ public interface HpackEncoder {
          * @return <code>true</code> if given header field should be <code>Huffman</code> encoded, <code>false</code> otherwise
          */
         boolean huffmanize(final HeaderField hf);
+
+        /**
+         * Determines whether given HTTP header field must never be indexed, neither by this encoder
+         * nor by intermediaries re-encoding it, see <code>RFC7541</code> Section 7.1.3.
+         * Sensitive header fields are not passed to {@link #indexize(HeaderField)}.
+         * @param hf header field
+         * @return <code>true</code> if given header field is sensitive, <code>false</code> otherwise
+         */
+        default boolean sensitive(final HeaderField hf) {
+            return false;
+        }
     }
 
+    /**
+     * Applies peer's <code>SETTINGS_HEADER_TABLE_SIZE</code>. Can be called from any thread.
+     * Dynamic table is resized and the change signaled at the beginning of the next header block.
+     * Dynamic table never exceeds maximum size the encoder was created with.
+     * @param maxSize peer's maximum dynamic table size in octets
+     * @throws IllegalArgumentException if parameter is negative
+     */
+    void setMaxDynamicTableSize(int maxSize);
+
+    /**
+     * Encodes header field into current header block.
+     * @param hf header field
+     */
     void add(HeaderField hf);
+
+    /**
+     * Encodes header field with cached representations into current header block.
+     * Representations that do not depend on dynamic table are copied as they are.
+     * @param ehf encoded header field
+     */
+    void add(EncodedHeaderField ehf);
+
+    /**
+     * Encodes all header fields of header list into current header block.
+     * @param headers header list
+     */
+    void add(Http2Headers headers);
+
+    /**
+     * Completes current header block.
+     * @return encoded header block
+     */
     byte[] finish();
+
+    /**
+     * Completes current header block without allocating.
+     * @param target buffer to write encoded header block to
+     * @throws java.nio.BufferOverflowException if there is insufficient space in target buffer,
+     * header block is kept and this method can be called again
+     */
+    void finish(ByteBuffer target);
 }
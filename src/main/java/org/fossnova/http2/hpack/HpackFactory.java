@@ -26,7 +26,7 @@ package org.fossnova.http2.hpack;
 public final class HpackFactory {
 
     private final boolean server;
-    private volatile int maxDynamicTableSize;
+    private final int maxDynamicTableSize;
 
     private HpackFactory(final int maxDynamicTableSize, final boolean server) {
         this.maxDynamicTableSize = maxDynamicTableSize;
@@ -38,18 +38,43 @@ public final class HpackFactory {
         return new HpackFactory(maxDynamicTableSize, server);
     }
 
+    /**
+     * Creates encoder with adaptive policy. It indexes only header fields likely to repeat
+     * and Huffman encodes strings when it makes them shorter.
+     * Returned encoder owns dynamic table thus it must be used for all header blocks of one connection.
+     * @return new encoder
+     */
     public HpackEncoder newEncoder() {
-        return EncoderImpl.newInstance(maxDynamicTableSize, server);
+        return EncoderImpl.newAdaptiveInstance(maxDynamicTableSize, server);
+    }
+
+    /**
+     * Creates encoder with adaptive policy like {@link #newEncoder()}. If requested, <code>authorization</code>,
+     * <code>proxy-authorization</code> and short <code>cookie</code> values are encoded as never indexed literals,
+     * see <code>RFC7541</code> Section 7.1.3. Such protection costs compression ratio.
+     * @param protectCredentials whether credentials should be never indexed
+     * @return new encoder
+     */
+    public HpackEncoder newEncoder(final boolean protectCredentials) {
+        return EncoderImpl.newAdaptiveInstance(maxDynamicTableSize, server, protectCredentials);
     }
 
     public HpackEncoder newEncoder(final HpackEncoder.Policy encodingPolicy) {
-        // TODO: implement
-        throw new UnsupportedOperationException();
+        return EncoderImpl.newInstance(encodingPolicy, maxDynamicTableSize, server);
     }
 
     public HpackDecoder newDecoder(final byte[] serializedHeaders) {
-        // TODO: implement
-        throw new UnsupportedOperationException();
+        if (serializedHeaders == null) throw new IllegalArgumentException();
+        return new DecoderImpl(newFragmentDecoder(), serializedHeaders);
+    }
+
+    /**
+     * Creates decoder of header blocks delivered in fragments.
+     * Returned decoder owns dynamic table thus it must be used for all header blocks of one connection.
+     * @return new fragment decoder
+     */
+    public HpackFragmentDecoder newFragmentDecoder() {
+        return new FragmentDecoderImpl(maxDynamicTableSize);
     }
 
 }
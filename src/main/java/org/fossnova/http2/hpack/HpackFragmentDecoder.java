@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.hpack;
+
+import org.fossnova.http2.HeaderField;
+import org.fossnova.http2.Http2Headers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes header block delivered in fragments as <code>HEADERS</code>, <code>PUSH_PROMISE</code>
+ * and <code>CONTINUATION</code> frames arrive. Fragments are never concatenated.
+ * One instance is used per connection because dynamic table spans header blocks.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public interface HpackFragmentDecoder {
+
+    /**
+     * Receives decoded header fields.
+     */
+    interface Listener {
+        /**
+         * Called for every decoded header field in the order of their appearance in the header block.
+         * Values are delivered exactly as received, optional whitespace is not removed.
+         * <code>cookie</code> crumbs are recombined into single header field delivered when the block is finished.
+         * @param hf decoded header field
+         */
+        void onHeaderField(HeaderField hf);
+    }
+
+    /**
+     * Limits decoded header list size. String literals exceeding the limit are rejected before they are buffered.
+     * @param maxHeaderListSize maximum header list size in octets as defined by <code>SETTINGS_MAX_HEADER_LIST_SIZE</code>
+     * @throws IllegalArgumentException if parameter is not positive
+     */
+    void setMaxHeaderListSize(int maxHeaderListSize);
+
+    /**
+     * Limits dynamic table size the peer's encoder is allowed to use.
+     * If current dynamic table is larger, the next header block must start with dynamic table size update.
+     * @param maxSize maximum dynamic table size in octets as defined by our acknowledged <code>SETTINGS_HEADER_TABLE_SIZE</code>
+     * @throws IllegalArgumentException if parameter is negative
+     */
+    void setMaxDynamicTableSize(int maxSize);
+
+    /**
+     * Decodes all remaining bytes of the header block fragment.
+     * @param fragment header block fragment
+     * @param listener receiver of completely decoded header fields
+     * @throws IllegalArgumentException if fragment contains malformed data
+     * @throws IllegalStateException if header list exceeds limit
+     */
+    void decode(ByteBuffer fragment, Listener listener);
+
+    /**
+     * Decodes all remaining bytes of the header block fragment into header list.
+     * @param fragment header block fragment
+     * @param headers receiver of completely decoded header fields
+     * @throws IllegalArgumentException if fragment contains malformed data or duplicate pseudo-header field
+     * @throws IllegalStateException if header list exceeds limit
+     */
+    void decode(ByteBuffer fragment, Http2Headers headers);
+
+    /**
+     * Marks end of the current header block. Recombined <code>cookie</code> header field is delivered
+     * to the listener of the last decoded fragment.
+     * @return <code>false</code> if header block is malformed, i.e. some header field contained invalid name
+     * or value octets, see <code>RFC7540</code> Section 8.1.2.6. No header fields were delivered since then.
+     * @throws IllegalStateException if header block ended in the middle of header field representation
+     */
+    boolean finish();
+}
@@ -19,288 +19,501 @@
  */
 package org.fossnova.http2.hpack;
 
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 
-public final class Huffman {
+/**
+ * Canonical Huffman code, see <code>RFC7541</code> Appendix B.
+ * Every symbol is kept as single <code>long</code>: code in upper bits, code length in lowest octet.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+final class Huffman {
 
-    private static final int[][] a = new int[256][2];
+    static final int EOS = 256;
+    private static final long[] SYMBOLS = new long[EOS + 1];
+    // decoder state machine consuming 4 bits per step, see buildDecoder()
+    private static final int STATES = EOS;
+    private static final int SYMBOL_MASK = 0x1FF;
+    private static final int EMIT = 1 << 9;
+    private static final int FAIL = 1 << 10;
+    private static final int NEXT_STATE_SHIFT = 16;
+    private static final int[] TRANSITIONS = new int[STATES << 4];
+    private static final boolean[] ACCEPTING = new boolean[STATES];
 
     static {
-        a[   0 ] = new int[] { 0b11111111_11000,                    13 };
-        a[   1 ] = new int[] { 0b11111111_11111111_1011000,         23 };
-        a[   2 ] = new int[] { 0b11111111_11111111_11111110_0010,   28 };
-        a[   3 ] = new int[] { 0b11111111_11111111_11111110_0011,   28 };
-        a[   4 ] = new int[] { 0b11111111_11111111_11111110_0100,   28 };
-        a[   5 ] = new int[] { 0b11111111_11111111_11111110_0101,   28 };
-        a[   6 ] = new int[] { 0b11111111_11111111_11111110_0110,   28 };
-        a[   7 ] = new int[] { 0b11111111_11111111_11111110_0111,   28 };
-        a[   8 ] = new int[] { 0b11111111_11111111_11111110_1000,   28 };
-        a[   9 ] = new int[] { 0b11111111_11111111_11101010,        24 };
-        a[  10 ] = new int[] { 0b11111111_11111111_11111111_111100, 30 };
-        a[  11 ] = new int[] { 0b11111111_11111111_11111110_1001,   28 };
-        a[  12 ] = new int[] { 0b11111111_11111111_11111110_1010,   28 };
-        a[  13 ] = new int[] { 0b11111111_11111111_11111111_111101, 30 };
-        a[  14 ] = new int[] { 0b11111111_11111111_11111110_1011,   28 };
-        a[  15 ] = new int[] { 0b11111111_11111111_11111110_1100,   28 };
-        a[  16 ] = new int[] { 0b11111111_11111111_11111110_1101,   28 };
-        a[  17 ] = new int[] { 0b11111111_11111111_11111110_1110,   28 };
-        a[  18 ] = new int[] { 0b11111111_11111111_11111110_1111,   28 };
-        a[  19 ] = new int[] { 0b11111111_11111111_11111111_0000,   28 };
-        a[  20 ] = new int[] { 0b11111111_11111111_11111111_0001,   28 };
-        a[  21 ] = new int[] { 0b11111111_11111111_11111111_0010,   28 };
-        a[  22 ] = new int[] { 0b11111111_11111111_11111111_111110, 30 };
-        a[  23 ] = new int[] { 0b11111111_11111111_11111111_0011,   28 };
-        a[  24 ] = new int[] { 0b11111111_11111111_11111111_0100,   28 };
-        a[  25 ] = new int[] { 0b11111111_11111111_11111111_0101,   28 };
-        a[  26 ] = new int[] { 0b11111111_11111111_11111111_0110,   28 };
-        a[  27 ] = new int[] { 0b11111111_11111111_11111111_0111,   28 };
-        a[  28 ] = new int[] { 0b11111111_11111111_11111111_1000,   28 };
-        a[  29 ] = new int[] { 0b11111111_11111111_11111111_1001,   28 };
-        a[  30 ] = new int[] { 0b11111111_11111111_11111111_1010,   28 };
-        a[  31 ] = new int[] { 0b11111111_11111111_11111111_1011,   28 };
-        a[  32 ] = new int[] { 0b010100,                             6 };
-        a[  33 ] = new int[] { 0b11111110_00,                       10 };
-        a[  34 ] = new int[] { 0b11111110_01,                       10 };
-        a[  35 ] = new int[] { 0b11111111_1010,                     12 };
-        a[  36 ] = new int[] { 0b11111111_11001,                    13 };
-        a[  37 ] = new int[] { 0b010101,                             6 };
-        a[  38 ] = new int[] { 0b11111000,                           8 };
-        a[  39 ] = new int[] { 0b11111111_010,                      11 };
-        a[  40 ] = new int[] { 0b11111110_10,                       10 };
-        a[  41 ] = new int[] { 0b11111110_11,                       10 };
-        a[  42 ] = new int[] { 0b11111001,                           8 };
-        a[  43 ] = new int[] { 0b11111111_011,                      11 };
-        a[  44 ] = new int[] { 0b11111010,                           8 };
-        a[  45 ] = new int[] { 0b010110,                             6 };
-        a[  46 ] = new int[] { 0b010111,                             6 };
-        a[  47 ] = new int[] { 0b011000,                             6 };
-        a[  48 ] = new int[] { 0b00000,                              5 };
-        a[  49 ] = new int[] { 0b00001,                              5 };
-        a[  50 ] = new int[] { 0b00010,                              5 };
-        a[  51 ] = new int[] { 0b011001,                             6 };
-        a[  52 ] = new int[] { 0b011010,                             6 };
-        a[  53 ] = new int[] { 0b011011,                             6 };
-        a[  54 ] = new int[] { 0b011100,                             6 };
-        a[  55 ] = new int[] { 0b011101,                             6 };
-        a[  56 ] = new int[] { 0b011110,                             6 };
-        a[  57 ] = new int[] { 0b011111,                             6 };
-        a[  58 ] = new int[] { 0b1011100,                            7 };
-        a[  59 ] = new int[] { 0b11111011,                           8 };
-        a[  60 ] = new int[] { 0b11111111_1111100,                  15 };
-        a[  61 ] = new int[] { 0b100000,                             6 };
-        a[  62 ] = new int[] { 0b11111111_1011,                     12 };
-        a[  63 ] = new int[] { 0b11111111_00,                       10 };
-        a[  64 ] = new int[] { 0b11111111_11010,                    13 };
-        a[  65 ] = new int[] { 0b100001,                             6 };
-        a[  66 ] = new int[] { 0b1011101,                            7 };
-        a[  67 ] = new int[] { 0b1011110,                            7 };
-        a[  68 ] = new int[] { 0b1011111,                            7 };
-        a[  69 ] = new int[] { 0b1100000,                            7 };
-        a[  70 ] = new int[] { 0b1100001,                            7 };
-        a[  71 ] = new int[] { 0b1100010,                            7 };
-        a[  72 ] = new int[] { 0b1100011,                            7 };
-        a[  73 ] = new int[] { 0b1100100,                            7 };
-        a[  74 ] = new int[] { 0b1100101,                            7 };
-        a[  75 ] = new int[] { 0b1100110,                            7 };
-        a[  76 ] = new int[] { 0b1100111,                            7 };
-        a[  77 ] = new int[] { 0b1101000,                            7 };
-        a[  78 ] = new int[] { 0b1101001,                            7 };
-        a[  79 ] = new int[] { 0b1101010,                            7 };
-        a[  80 ] = new int[] { 0b1101011,                            7 };
-        a[  81 ] = new int[] { 0b1101100,                            7 };
-        a[  82 ] = new int[] { 0b1101101,                            7 };
-        a[  83 ] = new int[] { 0b1101110,                            7 };
-        a[  84 ] = new int[] { 0b1101111,                            7 };
-        a[  85 ] = new int[] { 0b1110000,                            7 };
-        a[  86 ] = new int[] { 0b1110001,                            7 };
-        a[  87 ] = new int[] { 0b1110010,                            7 };
-        a[  88 ] = new int[] { 0b11111100,                           8 };
-        a[  89 ] = new int[] { 0b1110011,                            7 };
-        a[  90 ] = new int[] { 0b11111101,                           8 };
-        a[  91 ] = new int[] { 0b11111111_11011,                    13 };
-        a[  92 ] = new int[] { 0b11111111_11111110_000,             19 };
-        a[  93 ] = new int[] { 0b11111111_11100,                    13 };
-        a[  94 ] = new int[] { 0b11111111_111100,                   14 };
-        a[  95 ] = new int[] { 0b100010,                             6 };
-        a[  96 ] = new int[] { 0b11111111_1111101,                  15 };
-        a[  97 ] = new int[] { 0b00011,                              5 };
-        a[  98 ] = new int[] { 0b100011,                             6 };
-        a[  99 ] = new int[] { 0b00100,                              5 };
-        a[ 100 ] = new int[] { 0b100100,                             6 };
-        a[ 101 ] = new int[] { 0b00101,                              5 };
-        a[ 102 ] = new int[] { 0b100101,                             6 };
-        a[ 103 ] = new int[] { 0b100110,                             6 };
-        a[ 104 ] = new int[] { 0b100111,                             6 };
-        a[ 105 ] = new int[] { 0b00110,                              5 };
-        a[ 106 ] = new int[] { 0b1110100,                            7 };
-        a[ 107 ] = new int[] { 0b1110101,                            7 };
-        a[ 108 ] = new int[] { 0b101000,                             6 };
-        a[ 109 ] = new int[] { 0b101001,                             6 };
-        a[ 110 ] = new int[] { 0b101010,                             6 };
-        a[ 111 ] = new int[] { 0b00111,                              5 };
-        a[ 112 ] = new int[] { 0b101011,                             6 };
-        a[ 113 ] = new int[] { 0b1110110,                            7 };
-        a[ 114 ] = new int[] { 0b101100,                             6 };
-        a[ 115 ] = new int[] { 0b01000,                              5 };
-        a[ 116 ] = new int[] { 0b01001,                              5 };
-        a[ 117 ] = new int[] { 0b101101,                             6 };
-        a[ 118 ] = new int[] { 0b1110111,                            7 };
-        a[ 119 ] = new int[] { 0b1111000,                            7 };
-        a[ 120 ] = new int[] { 0b1111001,                            7 };
-        a[ 121 ] = new int[] { 0b1111010,                            7 };
-        a[ 122 ] = new int[] { 0b1111011,                            7 };
-        a[ 123 ] = new int[] { 0b11111111_1111110,                  15 };
-        a[ 124 ] = new int[] { 0b11111111_100,                      11 };
-        a[ 125 ] = new int[] { 0b11111111_111101,                   14 };
-        a[ 126 ] = new int[] { 0b11111111_11101,                    13 };
-        a[ 127 ] = new int[] { 0b11111111_11111111_11111111_1100,   28 };
-        a[ 128 ] = new int[] { 0b11111111_11111110_0110,            20 };
-        a[ 129 ] = new int[] { 0b11111111_11111111_010010,          22 };
-        a[ 130 ] = new int[] { 0b11111111_11111110_0111,            20 };
-        a[ 131 ] = new int[] { 0b11111111_11111110_1000,            20 };
-        a[ 132 ] = new int[] { 0b11111111_11111111_010011,          22 };
-        a[ 133 ] = new int[] { 0b11111111_11111111_010100,          22 };
-        a[ 134 ] = new int[] { 0b11111111_11111111_010101,          22 };
-        a[ 135 ] = new int[] { 0b11111111_11111111_1011001,         23 };
-        a[ 136 ] = new int[] { 0b11111111_11111111_010110,          22 };
-        a[ 137 ] = new int[] { 0b11111111_11111111_1011010,         23 };
-        a[ 138 ] = new int[] { 0b11111111_11111111_1011011,         23 };
-        a[ 139 ] = new int[] { 0b11111111_11111111_1011100,         23 };
-        a[ 140 ] = new int[] { 0b11111111_11111111_1011101,         23 };
-        a[ 141 ] = new int[] { 0b11111111_11111111_1011110,         23 };
-        a[ 142 ] = new int[] { 0b11111111_11111111_11101011,        24 };
-        a[ 143 ] = new int[] { 0b11111111_11111111_1011111,         23 };
-        a[ 144 ] = new int[] { 0b11111111_11111111_11101100,        24 };
-        a[ 145 ] = new int[] { 0b11111111_11111111_11101101,        24 };
-        a[ 146 ] = new int[] { 0b11111111_11111111_010111,          22 };
-        a[ 147 ] = new int[] { 0b11111111_11111111_1100000,         23 };
-        a[ 148 ] = new int[] { 0b11111111_11111111_11101110,        24 };
-        a[ 149 ] = new int[] { 0b11111111_11111111_1100001,         23 };
-        a[ 150 ] = new int[] { 0b11111111_11111111_1100010,         23 };
-        a[ 151 ] = new int[] { 0b11111111_11111111_1100011,         23 };
-        a[ 152 ] = new int[] { 0b11111111_11111111_1100100,         23 };
-        a[ 153 ] = new int[] { 0b11111111_11111110_11100,           21 };
-        a[ 154 ] = new int[] { 0b11111111_11111111_011000,          22 };
-        a[ 155 ] = new int[] { 0b11111111_11111111_1100101,         23 };
-        a[ 156 ] = new int[] { 0b11111111_11111111_011001,          22 };
-        a[ 157 ] = new int[] { 0b11111111_11111111_1100110,         23 };
-        a[ 158 ] = new int[] { 0b11111111_11111111_1100111,         23 };
-        a[ 159 ] = new int[] { 0b11111111_11111111_11101111,        24 };
-        a[ 160 ] = new int[] { 0b11111111_11111111_011010,          22 };
-        a[ 161 ] = new int[] { 0b11111111_11111110_11101,           21 };
-        a[ 162 ] = new int[] { 0b11111111_11111110_1001,            20 };
-        a[ 163 ] = new int[] { 0b11111111_11111111_011011,          22 };
-        a[ 164 ] = new int[] { 0b11111111_11111111_011100,          22 };
-        a[ 165 ] = new int[] { 0b11111111_11111111_1101000,         23 };
-        a[ 166 ] = new int[] { 0b11111111_11111111_1101001,         23 };
-        a[ 167 ] = new int[] { 0b11111111_11111110_11110,           21 };
-        a[ 168 ] = new int[] { 0b11111111_11111111_1101010,         23 };
-        a[ 169 ] = new int[] { 0b11111111_11111111_011101,          22 };
-        a[ 170 ] = new int[] { 0b11111111_11111111_011110,          22 };
-        a[ 171 ] = new int[] { 0b11111111_11111111_11110000,        24 };
-        a[ 172 ] = new int[] { 0b11111111_11111110_11111,           21 };
-        a[ 173 ] = new int[] { 0b11111111_11111111_011111,          22 };
-        a[ 174 ] = new int[] { 0b11111111_11111111_1101011,         23 };
-        a[ 175 ] = new int[] { 0b11111111_11111111_1101100,         23 };
-        a[ 176 ] = new int[] { 0b11111111_11111111_00000,           21 };
-        a[ 177 ] = new int[] { 0b11111111_11111111_00001,           21 };
-        a[ 178 ] = new int[] { 0b11111111_11111111_100000,          22 };
-        a[ 179 ] = new int[] { 0b11111111_11111111_00010,           21 };
-        a[ 180 ] = new int[] { 0b11111111_11111111_1101101,         23 };
-        a[ 181 ] = new int[] { 0b11111111_11111111_100001,          22 };
-        a[ 182 ] = new int[] { 0b11111111_11111111_1101110,         23 };
-        a[ 183 ] = new int[] { 0b11111111_11111111_1101111,         23 };
-        a[ 184 ] = new int[] { 0b11111111_11111110_1010,            20 };
-        a[ 185 ] = new int[] { 0b11111111_11111111_100010,          22 };
-        a[ 186 ] = new int[] { 0b11111111_11111111_100011,          22 };
-        a[ 187 ] = new int[] { 0b11111111_11111111_100100,          22 };
-        a[ 188 ] = new int[] { 0b11111111_11111111_1110000,         23 };
-        a[ 189 ] = new int[] { 0b11111111_11111111_100101,          22 };
-        a[ 190 ] = new int[] { 0b11111111_11111111_100110,          22 };
-        a[ 191 ] = new int[] { 0b11111111_11111111_1110001,         23 };
-        a[ 192 ] = new int[] { 0b11111111_11111111_11111000_00,     26 };
-        a[ 193 ] = new int[] { 0b11111111_11111111_11111000_01,     26 };
-        a[ 194 ] = new int[] { 0b11111111_11111110_1011,            20 };
-        a[ 195 ] = new int[] { 0b11111111_11111110_001,             19 };
-        a[ 196 ] = new int[] { 0b11111111_11111111_100111,          22 };
-        a[ 197 ] = new int[] { 0b11111111_11111111_1110010,         23 };
-        a[ 198 ] = new int[] { 0b11111111_11111111_101000,          22 };
-        a[ 199 ] = new int[] { 0b11111111_11111111_11110110_0,      25 };
-        a[ 200 ] = new int[] { 0b11111111_11111111_11111000_10,     26 };
-        a[ 201 ] = new int[] { 0b11111111_11111111_11111000_11,     26 };
-        a[ 202 ] = new int[] { 0b11111111_11111111_11111001_00,     26 };
-        a[ 203 ] = new int[] { 0b11111111_11111111_11111011_110,    27 };
-        a[ 204 ] = new int[] { 0b11111111_11111111_11111011_111,    27 };
-        a[ 205 ] = new int[] { 0b11111111_11111111_11111001_01,     26 };
-        a[ 206 ] = new int[] { 0b11111111_11111111_11110001,        24 };
-        a[ 207 ] = new int[] { 0b11111111_11111111_11110110_1,      25 };
-        a[ 208 ] = new int[] { 0b11111111_11111110_010,             19 };
-        a[ 209 ] = new int[] { 0b11111111_11111111_00011,           21 };
-        a[ 210 ] = new int[] { 0b11111111_11111111_11111001_10,     26 };
-        a[ 211 ] = new int[] { 0b11111111_11111111_11111100_000,    27 };
-        a[ 212 ] = new int[] { 0b11111111_11111111_11111100_001,    27 };
-        a[ 213 ] = new int[] { 0b11111111_11111111_11111001_11,     26 };
-        a[ 214 ] = new int[] { 0b11111111_11111111_11111100_010,    27 };
-        a[ 215 ] = new int[] { 0b11111111_11111111_11110010,        24 };
-        a[ 216 ] = new int[] { 0b11111111_11111111_00100,           21 };
-        a[ 217 ] = new int[] { 0b11111111_11111111_00101,           21 };
-        a[ 218 ] = new int[] { 0b11111111_11111111_11111010_00,     26 };
-        a[ 219 ] = new int[] { 0b11111111_11111111_11111010_01,     26 };
-        a[ 220 ] = new int[] { 0b11111111_11111111_11111111_1101,   28 };
-        a[ 221 ] = new int[] { 0b11111111_11111111_11111100_011,    27 };
-        a[ 222 ] = new int[] { 0b11111111_11111111_11111100_100,    27 };
-        a[ 223 ] = new int[] { 0b11111111_11111111_11111100_101,    27 };
-        a[ 224 ] = new int[] { 0b11111111_11111110_1100,            20 };
-        a[ 225 ] = new int[] { 0b11111111_11111111_11110011,        24 };
-        a[ 226 ] = new int[] { 0b11111111_11111110_1101,            20 };
-        a[ 227 ] = new int[] { 0b11111111_11111111_00110,           21 };
-        a[ 228 ] = new int[] { 0b11111111_11111111_101001,          22 };
-        a[ 229 ] = new int[] { 0b11111111_11111111_00111,           21 };
-        a[ 230 ] = new int[] { 0b11111111_11111111_01000,           21 };
-        a[ 231 ] = new int[] { 0b11111111_11111111_1110011,         23 };
-        a[ 232 ] = new int[] { 0b11111111_11111111_101010,          22 };
-        a[ 233 ] = new int[] { 0b11111111_11111111_101011,          22 };
-        a[ 234 ] = new int[] { 0b11111111_11111111_11110111_0,      25 };
-        a[ 235 ] = new int[] { 0b11111111_11111111_11110111_1,      25 };
-        a[ 236 ] = new int[] { 0b11111111_11111111_11110100,        24 };
-        a[ 237 ] = new int[] { 0b11111111_11111111_11110101,        24 };
-        a[ 238 ] = new int[] { 0b11111111_11111111_11111010_10,     26 };
-        a[ 239 ] = new int[] { 0b11111111_11111111_1110100,         23 };
-        a[ 240 ] = new int[] { 0b11111111_11111111_11111010_11,     26 };
-        a[ 241 ] = new int[] { 0b11111111_11111111_11111100_110,    27 };
-        a[ 242 ] = new int[] { 0b11111111_11111111_11111011_00,     26 };
-        a[ 243 ] = new int[] { 0b11111111_11111111_11111011_01,     26 };
-        a[ 244 ] = new int[] { 0b11111111_11111111_11111100_111,    27 };
-        a[ 245 ] = new int[] { 0b11111111_11111111_11111101_000,    27 };
-        a[ 246 ] = new int[] { 0b11111111_11111111_11111101_001,    27 };
-        a[ 247 ] = new int[] { 0b11111111_11111111_11111101_010,    27 };
-        a[ 248 ] = new int[] { 0b11111111_11111111_11111101_011,    27 };
-        a[ 249 ] = new int[] { 0b11111111_11111111_11111111_1110,   28 };
-        a[ 250 ] = new int[] { 0b11111111_11111111_11111101_100,    27 };
-        a[ 251 ] = new int[] { 0b11111111_11111111_11111101_101,    27 };
-        a[ 252 ] = new int[] { 0b11111111_11111111_11111101_110,    27 };
-        a[ 253 ] = new int[] { 0b11111111_11111111_11111101_111,    27 };
-        a[ 254 ] = new int[] { 0b11111111_11111111_11111110_000,    27 };
-        a[ 255 ] = new int[] { 0b11111111_11111111_11111011_10,     26 };
-        a[ 256 ] = new int[] { 0b11111111_11111111_11111111_111111, 30 };
+        entry(   0, 0b11111111_11000,                    13);
+        entry(   1, 0b11111111_11111111_1011000,         23);
+        entry(   2, 0b11111111_11111111_11111110_0010,   28);
+        entry(   3, 0b11111111_11111111_11111110_0011,   28);
+        entry(   4, 0b11111111_11111111_11111110_0100,   28);
+        entry(   5, 0b11111111_11111111_11111110_0101,   28);
+        entry(   6, 0b11111111_11111111_11111110_0110,   28);
+        entry(   7, 0b11111111_11111111_11111110_0111,   28);
+        entry(   8, 0b11111111_11111111_11111110_1000,   28);
+        entry(   9, 0b11111111_11111111_11101010,        24);
+        entry(  10, 0b11111111_11111111_11111111_111100, 30);
+        entry(  11, 0b11111111_11111111_11111110_1001,   28);
+        entry(  12, 0b11111111_11111111_11111110_1010,   28);
+        entry(  13, 0b11111111_11111111_11111111_111101, 30);
+        entry(  14, 0b11111111_11111111_11111110_1011,   28);
+        entry(  15, 0b11111111_11111111_11111110_1100,   28);
+        entry(  16, 0b11111111_11111111_11111110_1101,   28);
+        entry(  17, 0b11111111_11111111_11111110_1110,   28);
+        entry(  18, 0b11111111_11111111_11111110_1111,   28);
+        entry(  19, 0b11111111_11111111_11111111_0000,   28);
+        entry(  20, 0b11111111_11111111_11111111_0001,   28);
+        entry(  21, 0b11111111_11111111_11111111_0010,   28);
+        entry(  22, 0b11111111_11111111_11111111_111110, 30);
+        entry(  23, 0b11111111_11111111_11111111_0011,   28);
+        entry(  24, 0b11111111_11111111_11111111_0100,   28);
+        entry(  25, 0b11111111_11111111_11111111_0101,   28);
+        entry(  26, 0b11111111_11111111_11111111_0110,   28);
+        entry(  27, 0b11111111_11111111_11111111_0111,   28);
+        entry(  28, 0b11111111_11111111_11111111_1000,   28);
+        entry(  29, 0b11111111_11111111_11111111_1001,   28);
+        entry(  30, 0b11111111_11111111_11111111_1010,   28);
+        entry(  31, 0b11111111_11111111_11111111_1011,   28);
+        entry(  32, 0b010100,                             6);
+        entry(  33, 0b11111110_00,                       10);
+        entry(  34, 0b11111110_01,                       10);
+        entry(  35, 0b11111111_1010,                     12);
+        entry(  36, 0b11111111_11001,                    13);
+        entry(  37, 0b010101,                             6);
+        entry(  38, 0b11111000,                           8);
+        entry(  39, 0b11111111_010,                      11);
+        entry(  40, 0b11111110_10,                       10);
+        entry(  41, 0b11111110_11,                       10);
+        entry(  42, 0b11111001,                           8);
+        entry(  43, 0b11111111_011,                      11);
+        entry(  44, 0b11111010,                           8);
+        entry(  45, 0b010110,                             6);
+        entry(  46, 0b010111,                             6);
+        entry(  47, 0b011000,                             6);
+        entry(  48, 0b00000,                              5);
+        entry(  49, 0b00001,                              5);
+        entry(  50, 0b00010,                              5);
+        entry(  51, 0b011001,                             6);
+        entry(  52, 0b011010,                             6);
+        entry(  53, 0b011011,                             6);
+        entry(  54, 0b011100,                             6);
+        entry(  55, 0b011101,                             6);
+        entry(  56, 0b011110,                             6);
+        entry(  57, 0b011111,                             6);
+        entry(  58, 0b1011100,                            7);
+        entry(  59, 0b11111011,                           8);
+        entry(  60, 0b11111111_1111100,                  15);
+        entry(  61, 0b100000,                             6);
+        entry(  62, 0b11111111_1011,                     12);
+        entry(  63, 0b11111111_00,                       10);
+        entry(  64, 0b11111111_11010,                    13);
+        entry(  65, 0b100001,                             6);
+        entry(  66, 0b1011101,                            7);
+        entry(  67, 0b1011110,                            7);
+        entry(  68, 0b1011111,                            7);
+        entry(  69, 0b1100000,                            7);
+        entry(  70, 0b1100001,                            7);
+        entry(  71, 0b1100010,                            7);
+        entry(  72, 0b1100011,                            7);
+        entry(  73, 0b1100100,                            7);
+        entry(  74, 0b1100101,                            7);
+        entry(  75, 0b1100110,                            7);
+        entry(  76, 0b1100111,                            7);
+        entry(  77, 0b1101000,                            7);
+        entry(  78, 0b1101001,                            7);
+        entry(  79, 0b1101010,                            7);
+        entry(  80, 0b1101011,                            7);
+        entry(  81, 0b1101100,                            7);
+        entry(  82, 0b1101101,                            7);
+        entry(  83, 0b1101110,                            7);
+        entry(  84, 0b1101111,                            7);
+        entry(  85, 0b1110000,                            7);
+        entry(  86, 0b1110001,                            7);
+        entry(  87, 0b1110010,                            7);
+        entry(  88, 0b11111100,                           8);
+        entry(  89, 0b1110011,                            7);
+        entry(  90, 0b11111101,                           8);
+        entry(  91, 0b11111111_11011,                    13);
+        entry(  92, 0b11111111_11111110_000,             19);
+        entry(  93, 0b11111111_11100,                    13);
+        entry(  94, 0b11111111_111100,                   14);
+        entry(  95, 0b100010,                             6);
+        entry(  96, 0b11111111_1111101,                  15);
+        entry(  97, 0b00011,                              5);
+        entry(  98, 0b100011,                             6);
+        entry(  99, 0b00100,                              5);
+        entry( 100, 0b100100,                             6);
+        entry( 101, 0b00101,                              5);
+        entry( 102, 0b100101,                             6);
+        entry( 103, 0b100110,                             6);
+        entry( 104, 0b100111,                             6);
+        entry( 105, 0b00110,                              5);
+        entry( 106, 0b1110100,                            7);
+        entry( 107, 0b1110101,                            7);
+        entry( 108, 0b101000,                             6);
+        entry( 109, 0b101001,                             6);
+        entry( 110, 0b101010,                             6);
+        entry( 111, 0b00111,                              5);
+        entry( 112, 0b101011,                             6);
+        entry( 113, 0b1110110,                            7);
+        entry( 114, 0b101100,                             6);
+        entry( 115, 0b01000,                              5);
+        entry( 116, 0b01001,                              5);
+        entry( 117, 0b101101,                             6);
+        entry( 118, 0b1110111,                            7);
+        entry( 119, 0b1111000,                            7);
+        entry( 120, 0b1111001,                            7);
+        entry( 121, 0b1111010,                            7);
+        entry( 122, 0b1111011,                            7);
+        entry( 123, 0b11111111_1111110,                  15);
+        entry( 124, 0b11111111_100,                      11);
+        entry( 125, 0b11111111_111101,                   14);
+        entry( 126, 0b11111111_11101,                    13);
+        entry( 127, 0b11111111_11111111_11111111_1100,   28);
+        entry( 128, 0b11111111_11111110_0110,            20);
+        entry( 129, 0b11111111_11111111_010010,          22);
+        entry( 130, 0b11111111_11111110_0111,            20);
+        entry( 131, 0b11111111_11111110_1000,            20);
+        entry( 132, 0b11111111_11111111_010011,          22);
+        entry( 133, 0b11111111_11111111_010100,          22);
+        entry( 134, 0b11111111_11111111_010101,          22);
+        entry( 135, 0b11111111_11111111_1011001,         23);
+        entry( 136, 0b11111111_11111111_010110,          22);
+        entry( 137, 0b11111111_11111111_1011010,         23);
+        entry( 138, 0b11111111_11111111_1011011,         23);
+        entry( 139, 0b11111111_11111111_1011100,         23);
+        entry( 140, 0b11111111_11111111_1011101,         23);
+        entry( 141, 0b11111111_11111111_1011110,         23);
+        entry( 142, 0b11111111_11111111_11101011,        24);
+        entry( 143, 0b11111111_11111111_1011111,         23);
+        entry( 144, 0b11111111_11111111_11101100,        24);
+        entry( 145, 0b11111111_11111111_11101101,        24);
+        entry( 146, 0b11111111_11111111_010111,          22);
+        entry( 147, 0b11111111_11111111_1100000,         23);
+        entry( 148, 0b11111111_11111111_11101110,        24);
+        entry( 149, 0b11111111_11111111_1100001,         23);
+        entry( 150, 0b11111111_11111111_1100010,         23);
+        entry( 151, 0b11111111_11111111_1100011,         23);
+        entry( 152, 0b11111111_11111111_1100100,         23);
+        entry( 153, 0b11111111_11111110_11100,           21);
+        entry( 154, 0b11111111_11111111_011000,          22);
+        entry( 155, 0b11111111_11111111_1100101,         23);
+        entry( 156, 0b11111111_11111111_011001,          22);
+        entry( 157, 0b11111111_11111111_1100110,         23);
+        entry( 158, 0b11111111_11111111_1100111,         23);
+        entry( 159, 0b11111111_11111111_11101111,        24);
+        entry( 160, 0b11111111_11111111_011010,          22);
+        entry( 161, 0b11111111_11111110_11101,           21);
+        entry( 162, 0b11111111_11111110_1001,            20);
+        entry( 163, 0b11111111_11111111_011011,          22);
+        entry( 164, 0b11111111_11111111_011100,          22);
+        entry( 165, 0b11111111_11111111_1101000,         23);
+        entry( 166, 0b11111111_11111111_1101001,         23);
+        entry( 167, 0b11111111_11111110_11110,           21);
+        entry( 168, 0b11111111_11111111_1101010,         23);
+        entry( 169, 0b11111111_11111111_011101,          22);
+        entry( 170, 0b11111111_11111111_011110,          22);
+        entry( 171, 0b11111111_11111111_11110000,        24);
+        entry( 172, 0b11111111_11111110_11111,           21);
+        entry( 173, 0b11111111_11111111_011111,          22);
+        entry( 174, 0b11111111_11111111_1101011,         23);
+        entry( 175, 0b11111111_11111111_1101100,         23);
+        entry( 176, 0b11111111_11111111_00000,           21);
+        entry( 177, 0b11111111_11111111_00001,           21);
+        entry( 178, 0b11111111_11111111_100000,          22);
+        entry( 179, 0b11111111_11111111_00010,           21);
+        entry( 180, 0b11111111_11111111_1101101,         23);
+        entry( 181, 0b11111111_11111111_100001,          22);
+        entry( 182, 0b11111111_11111111_1101110,         23);
+        entry( 183, 0b11111111_11111111_1101111,         23);
+        entry( 184, 0b11111111_11111110_1010,            20);
+        entry( 185, 0b11111111_11111111_100010,          22);
+        entry( 186, 0b11111111_11111111_100011,          22);
+        entry( 187, 0b11111111_11111111_100100,          22);
+        entry( 188, 0b11111111_11111111_1110000,         23);
+        entry( 189, 0b11111111_11111111_100101,          22);
+        entry( 190, 0b11111111_11111111_100110,          22);
+        entry( 191, 0b11111111_11111111_1110001,         23);
+        entry( 192, 0b11111111_11111111_11111000_00,     26);
+        entry( 193, 0b11111111_11111111_11111000_01,     26);
+        entry( 194, 0b11111111_11111110_1011,            20);
+        entry( 195, 0b11111111_11111110_001,             19);
+        entry( 196, 0b11111111_11111111_100111,          22);
+        entry( 197, 0b11111111_11111111_1110010,         23);
+        entry( 198, 0b11111111_11111111_101000,          22);
+        entry( 199, 0b11111111_11111111_11110110_0,      25);
+        entry( 200, 0b11111111_11111111_11111000_10,     26);
+        entry( 201, 0b11111111_11111111_11111000_11,     26);
+        entry( 202, 0b11111111_11111111_11111001_00,     26);
+        entry( 203, 0b11111111_11111111_11111011_110,    27);
+        entry( 204, 0b11111111_11111111_11111011_111,    27);
+        entry( 205, 0b11111111_11111111_11111001_01,     26);
+        entry( 206, 0b11111111_11111111_11110001,        24);
+        entry( 207, 0b11111111_11111111_11110110_1,      25);
+        entry( 208, 0b11111111_11111110_010,             19);
+        entry( 209, 0b11111111_11111111_00011,           21);
+        entry( 210, 0b11111111_11111111_11111001_10,     26);
+        entry( 211, 0b11111111_11111111_11111100_000,    27);
+        entry( 212, 0b11111111_11111111_11111100_001,    27);
+        entry( 213, 0b11111111_11111111_11111001_11,     26);
+        entry( 214, 0b11111111_11111111_11111100_010,    27);
+        entry( 215, 0b11111111_11111111_11110010,        24);
+        entry( 216, 0b11111111_11111111_00100,           21);
+        entry( 217, 0b11111111_11111111_00101,           21);
+        entry( 218, 0b11111111_11111111_11111010_00,     26);
+        entry( 219, 0b11111111_11111111_11111010_01,     26);
+        entry( 220, 0b11111111_11111111_11111111_1101,   28);
+        entry( 221, 0b11111111_11111111_11111100_011,    27);
+        entry( 222, 0b11111111_11111111_11111100_100,    27);
+        entry( 223, 0b11111111_11111111_11111100_101,    27);
+        entry( 224, 0b11111111_11111110_1100,            20);
+        entry( 225, 0b11111111_11111111_11110011,        24);
+        entry( 226, 0b11111111_11111110_1101,            20);
+        entry( 227, 0b11111111_11111111_00110,           21);
+        entry( 228, 0b11111111_11111111_101001,          22);
+        entry( 229, 0b11111111_11111111_00111,           21);
+        entry( 230, 0b11111111_11111111_01000,           21);
+        entry( 231, 0b11111111_11111111_1110011,         23);
+        entry( 232, 0b11111111_11111111_101010,          22);
+        entry( 233, 0b11111111_11111111_101011,          22);
+        entry( 234, 0b11111111_11111111_11110111_0,      25);
+        entry( 235, 0b11111111_11111111_11110111_1,      25);
+        entry( 236, 0b11111111_11111111_11110100,        24);
+        entry( 237, 0b11111111_11111111_11110101,        24);
+        entry( 238, 0b11111111_11111111_11111010_10,     26);
+        entry( 239, 0b11111111_11111111_1110100,         23);
+        entry( 240, 0b11111111_11111111_11111010_11,     26);
+        entry( 241, 0b11111111_11111111_11111100_110,    27);
+        entry( 242, 0b11111111_11111111_11111011_00,     26);
+        entry( 243, 0b11111111_11111111_11111011_01,     26);
+        entry( 244, 0b11111111_11111111_11111100_111,    27);
+        entry( 245, 0b11111111_11111111_11111101_000,    27);
+        entry( 246, 0b11111111_11111111_11111101_001,    27);
+        entry( 247, 0b11111111_11111111_11111101_010,    27);
+        entry( 248, 0b11111111_11111111_11111101_011,    27);
+        entry( 249, 0b11111111_11111111_11111111_1110,   28);
+        entry( 250, 0b11111111_11111111_11111101_100,    27);
+        entry( 251, 0b11111111_11111111_11111101_101,    27);
+        entry( 252, 0b11111111_11111111_11111101_110,    27);
+        entry( 253, 0b11111111_11111111_11111101_111,    27);
+        entry( 254, 0b11111111_11111111_11111110_000,    27);
+        entry( 255, 0b11111111_11111111_11111011_10,     26);
+        entry( 256, 0b11111111_11111111_11111111_111111, 30);
+        buildDecoder();
     }
 
     private Huffman() {
         // forbidden instantiation
     }
 
-    public void encode(final byte[] source, final ByteBuffer target) {
-        encode(source, 0, source.length, target);
+    private static void entry(final int symbol, final int code, final int length) {
+        SYMBOLS[symbol] = (long) code << 8 | length;
+    }
+
+    static int code(final int symbol) {
+        return (int) (SYMBOLS[symbol] >>> 8);
+    }
+
+    static int length(final int symbol) {
+        return (int) SYMBOLS[symbol] & 0xFF;
+    }
+
+    /**
+     * Computes Huffman encoded length of octets.
+     * @param source octets to encode
+     * @param offset first octet
+     * @param length octets count
+     * @return encoded length in octets including padding
+     */
+    static int encodedLength(final byte[] source, final int offset, final int length) {
+        long bits = 0;
+        for (int i = offset; i < offset + length; i++) {
+            bits += SYMBOLS[source[i] & 0xFF] & 0xFF;
+        }
+        return (int) ((bits + 7) >>> 3);
+    }
+
+    /**
+     * Computes Huffman encoded length of <code>ISO-8859-1</code> string.
+     * @param source string to encode
+     * @return encoded length in octets including padding
+     */
+    static int encodedLength(final String source) {
+        long bits = 0;
+        for (int i = 0; i < source.length(); i++) {
+            bits += SYMBOLS[source.charAt(i) & 0xFF] & 0xFF;
+        }
+        return (int) ((bits + 7) >>> 3);
+    }
+
+    /**
+     * Huffman encodes octets.
+     * @param source octets to encode
+     * @param offset first octet
+     * @param length octets count
+     * @param target buffer to write to, must have {@link #encodedLength(byte[], int, int)} octets available
+     * @param targetOffset position to start writing at
+     * @return position after last written octet
+     */
+    static int encode(final byte[] source, final int offset, final int length, final byte[] target, int targetOffset) {
+        long accumulator = 0;
+        int bits = 0;
+        for (int i = offset; i < offset + length; i++) {
+            final long symbol = SYMBOLS[source[i] & 0xFF];
+            final int codeLength = (int) symbol & 0xFF;
+            accumulator = accumulator << codeLength | symbol >>> 8;
+            bits += codeLength;
+            if (bits >= 32) {
+                bits -= 32;
+                Octets.putInt(target, targetOffset, (int) (accumulator >>> bits));
+                targetOffset += 4;
+            }
+        }
+        return pad(accumulator, bits, target, targetOffset);
     }
 
-    public void encode(final byte[] source, final int offset, final int length, final ByteBuffer target) {
-        if (source == null) {
-            throw new NullPointerException("source");
+    /**
+     * Huffman encodes <code>ISO-8859-1</code> string.
+     * @param source string to encode
+     * @param target buffer to write to, must have {@link #encodedLength(String)} octets available
+     * @param targetOffset position to start writing at
+     * @return position after last written octet
+     */
+    static int encode(final String source, final byte[] target, int targetOffset) {
+        long accumulator = 0;
+        int bits = 0;
+        for (int i = 0; i < source.length(); i++) {
+            final long symbol = SYMBOLS[source.charAt(i) & 0xFF];
+            final int codeLength = (int) symbol & 0xFF;
+            accumulator = accumulator << codeLength | symbol >>> 8;
+            bits += codeLength;
+            if (bits >= 32) {
+                bits -= 32;
+                Octets.putInt(target, targetOffset, (int) (accumulator >>> bits));
+                targetOffset += 4;
+            }
         }
-        if (target == null) {
-            throw new NullPointerException("target");
+        return pad(accumulator, bits, target, targetOffset);
+    }
+
+    /**
+     * Huffman encodes octets.
+     * @param source octets to encode
+     * @param offset first octet
+     * @param length octets count
+     * @param target buffer to write to
+     * @throws java.nio.BufferOverflowException if there is insufficient space in target buffer
+     */
+    static void encode(final byte[] source, final int offset, final int length, final ByteBuffer target) {
+        final int encodedLength = encodedLength(source, offset, length);
+        if (target.remaining() < encodedLength) throw new BufferOverflowException();
+        if (target.hasArray()) {
+            final int position = target.arrayOffset() + target.position();
+            target.position(encode(source, offset, length, target.array(), position) - target.arrayOffset());
+        } else {
+            final byte[] encoded = new byte[encodedLength];
+            encode(source, offset, length, encoded, 0);
+            target.put(encoded);
+        }
+    }
+
+    /**
+     * Computes maximum decoded length of Huffman encoded octets.
+     * @param length encoded octets count
+     * @return upper bound of decoded octets count
+     */
+    static int maxDecodedLength(final int length) {
+        // the shortest code has 5 bits
+        return (int) (((long) length << 3) / 5);
+    }
+
+    /**
+     * Decodes Huffman encoded octets.
+     * @param source encoded octets
+     * @param offset first octet
+     * @param length octets count
+     * @param target buffer to write to, must have {@link #maxDecodedLength(int)} octets available
+     * @param targetOffset position to start writing at
+     * @return position after last written octet
+     * @throws IllegalArgumentException if source contains <code>EOS</code> symbol or invalid padding
+     */
+    static int decode(final byte[] source, final int offset, final int length, final byte[] target, int targetOffset) {
+        int state = 0;
+        for (int i = offset; i < offset + length; i++) {
+            final int b = source[i] & 0xFF;
+            int transition = TRANSITIONS[state << 4 | b >>> 4];
+            if ((transition & (EMIT | FAIL)) != 0) {
+                if ((transition & FAIL) != 0) throw new IllegalArgumentException("EOS symbol decoded");
+                target[targetOffset++] = (byte) transition;
+            }
+            transition = TRANSITIONS[(transition >>> NEXT_STATE_SHIFT) << 4 | b & 0x0F];
+            if ((transition & (EMIT | FAIL)) != 0) {
+                if ((transition & FAIL) != 0) throw new IllegalArgumentException("EOS symbol decoded");
+                target[targetOffset++] = (byte) transition;
+            }
+            state = transition >>> NEXT_STATE_SHIFT;
+        }
+        if (!ACCEPTING[state]) throw new IllegalArgumentException("Invalid padding");
+        return targetOffset;
+    }
+
+    /**
+     * Builds decoder state machine from canonical code table. States are internal nodes of the code tree,
+     * root is state <code>0</code>. Every transition consumes 4 bits and emits at most one symbol
+     * because the shortest code has 5 bits. State is accepting at the end of input if it was reached
+     * by at most 7 one bits since the last symbol, see <code>RFC7541</code> Section 5.2.
+     */
+    private static void buildDecoder() {
+        // code tree, children[node << 1 | bit], leaves are encoded as -1 - symbol
+        final int[] children = new int[STATES << 1];
+        final int[] depth = new int[STATES];
+        final boolean[] onesOnly = new boolean[STATES];
+        onesOnly[0] = true;
+        int nodes = 1;
+        for (int symbol = 0; symbol <= EOS; symbol++) {
+            final int code = code(symbol);
+            final int length = length(symbol);
+            int node = 0;
+            for (int i = length - 1; i > 0; i--) {
+                final int bit = code >>> i & 1;
+                if (children[node << 1 | bit] == 0) {
+                    children[node << 1 | bit] = nodes;
+                    depth[nodes] = depth[node] + 1;
+                    onesOnly[nodes] = onesOnly[node] && bit == 1;
+                    nodes++;
+                }
+                node = children[node << 1 | bit];
+            }
+            children[node << 1 | code & 1] = -1 - symbol;
+        }
+        for (int state = 0; state < STATES; state++) {
+            ACCEPTING[state] = onesOnly[state] && depth[state] <= 7;
+            for (int nibble = 0; nibble < 16; nibble++) {
+                int node = state;
+                int transition = 0;
+                for (int i = 3; i >= 0; i--) {
+                    node = children[node << 1 | nibble >>> i & 1];
+                    if (node < 0) {
+                        final int symbol = -1 - node;
+                        transition = symbol == EOS ? FAIL : EMIT | symbol;
+                        node = 0;
+                    }
+                }
+                TRANSITIONS[state << 4 | nibble] = node << NEXT_STATE_SHIFT | transition;
+            }
+        }
+    }
+
+    private static int pad(long accumulator, int bits, final byte[] target, int targetOffset) {
+        // pad with most significant bits of EOS, see RFC7541 Section 5.2
+        final int padding = -bits & 7;
+        accumulator = accumulator << padding | (1 << padding) - 1;
+        bits += padding;
+        while (bits > 0) {
+            bits -= 8;
+            target[targetOffset++] = (byte) (accumulator >>> bits);
         }
-        // TODO: encode
+        return targetOffset;
     }
 
 }
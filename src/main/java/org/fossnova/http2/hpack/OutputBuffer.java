@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.hpack;
+
+import org.fossnova.http2.HeaderField;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer reused across header blocks.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+final class OutputBuffer {
+
+    private byte[] buffer;
+    private int position;
+
+    OutputBuffer(final int initialCapacity) {
+        buffer = new byte[initialCapacity];
+    }
+
+    int size() {
+        return position;
+    }
+
+    void write(final int b) {
+        if (position == buffer.length) {
+            grow(1);
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    /**
+     * Writes all given octets.
+     * @param bytes octets to write
+     */
+    void write(final byte[] bytes) {
+        if (buffer.length - position < bytes.length) {
+            grow(bytes.length);
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    /**
+     * Writes characters of given string as single octets. Only <code>ISO-8859-1</code> characters are expected.
+     * @param s string to write
+     */
+    void writeLatin1(final String s) {
+        final int length = s.length();
+        if (buffer.length - position < length) {
+            grow(length);
+        }
+        for (int i = 0; i < length; i++) {
+            buffer[position++] = (byte) s.charAt(i);
+        }
+    }
+
+    /**
+     * Writes header value octets.
+     * @param hf header field
+     */
+    void writeHeaderValue(final HeaderField hf) {
+        final int length = hf.getHeaderValueLength();
+        if (buffer.length - position < length) {
+            grow(length);
+        }
+        position = hf.copyHeaderValue(buffer, position);
+    }
+
+    /**
+     * Writes Huffman encoded octets.
+     * @param source octets to write
+     * @param offset offset of the first octet
+     * @param length count of octets
+     * @param encodedLength encoded length as computed by {@link Huffman#encodedLength(byte[], int, int)}
+     */
+    void writeHuffman(final byte[] source, final int offset, final int length, final int encodedLength) {
+        if (buffer.length - position < encodedLength) {
+            grow(encodedLength);
+        }
+        position = Huffman.encode(source, offset, length, buffer, position);
+    }
+
+    /**
+     * Writes Huffman encoded <code>ISO-8859-1</code> string.
+     * @param s string to write
+     * @param encodedLength encoded length as computed by {@link Huffman#encodedLength(String)}
+     */
+    void writeHuffman(final String s, final int encodedLength) {
+        if (buffer.length - position < encodedLength) {
+            grow(encodedLength);
+        }
+        position = Huffman.encode(s, buffer, position);
+    }
+
+    /**
+     * Writes integer with N-bit prefix, see <code>RFC7541</code> Section 5.1.
+     * @param flags instruction bits of the first octet
+     * @param prefixBits prefix size in bits
+     * @param value non-negative integer to write
+     */
+    void writeInt(final int flags, final int prefixBits, int value) {
+        final int maxPrefix = (1 << prefixBits) - 1;
+        if (value < maxPrefix) {
+            write(flags | value);
+            return;
+        }
+        if (buffer.length - position < 6) {
+            grow(6);
+        }
+        buffer[position++] = (byte) (flags | maxPrefix);
+        value -= maxPrefix;
+        while (value >= 0x80) {
+            buffer[position++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    /**
+     * Copies written bytes to the target buffer and resets this buffer.
+     * @param target target buffer
+     * @throws BufferOverflowException if there is insufficient space in the target buffer, nothing is copied then
+     */
+    void flush(final ByteBuffer target) {
+        if (target.remaining() < position) throw new BufferOverflowException();
+        target.put(buffer, 0, position);
+        position = 0;
+    }
+
+    /**
+     * Returns copy of written bytes and resets this buffer.
+     * @return written bytes
+     */
+    byte[] flush() {
+        final byte[] retVal = Arrays.copyOf(buffer, position);
+        position = 0;
+        return retVal;
+    }
+
+    private void grow(final int minFree) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + minFree));
+    }
+
+}
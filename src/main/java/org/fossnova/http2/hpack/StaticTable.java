@@ -32,8 +32,13 @@ import static org.fossnova.http2.StatusCode.*;
  */
 final class StaticTable {
 
-    private static final HeaderField[] HEADER_FIELDS = new HeaderField[62];
+    static final int LENGTH = 61;
+    private static final HeaderField[] HEADER_FIELDS = new HeaderField[LENGTH + 1];
     private static final int ITEM_NOT_FOUND = -1;
+    // open addressing indexes holding static table indexes, 0 marks empty slot
+    private static final int INDEX_MASK = 0xFF;
+    private static final byte[] FIELD_INDEX = new byte[INDEX_MASK + 1];
+    private static final byte[] NAME_INDEX = new byte[INDEX_MASK + 1];
 
     static {
         int i = 1;
@@ -98,6 +103,24 @@ final class StaticTable {
         HEADER_FIELDS[i++] = HeaderField.of(VARY);
         HEADER_FIELDS[i++] = HeaderField.of(VIA);
         HEADER_FIELDS[i++] = HeaderField.of(WWW_AUTHENTICATE);
+        for (i = 1; i < HEADER_FIELDS.length; i++) {
+            insert(FIELD_INDEX, HEADER_FIELDS[i].hashCode(), i);
+            if (indexOf(HEADER_FIELDS[i].getHeaderName()) == ITEM_NOT_FOUND) {
+                insert(NAME_INDEX, HEADER_FIELDS[i].getHeaderName().hashCode(), i);
+            }
+        }
+    }
+
+    private static void insert(final byte[] index, final int hashCode, final int value) {
+        int slot = slot(hashCode);
+        while (index[slot] != 0) {
+            slot = slot + 1 & INDEX_MASK;
+        }
+        index[slot] = (byte) value;
+    }
+
+    private static int slot(final int hashCode) {
+        return (hashCode ^ hashCode >>> 16) & INDEX_MASK;
     }
 
     /**
@@ -108,8 +131,11 @@ final class StaticTable {
      */
     static int indexOf(final HeaderField hf) {
         if (hf == null) throw new NullPointerException();
-        for (int i = 1; i < HEADER_FIELDS.length; i++) {
-            if (hf.equals(HEADER_FIELDS[i])) return i;
+        int slot = slot(hf.hashCode());
+        int i;
+        while ((i = FIELD_INDEX[slot]) != 0) {
+            if (hf == HEADER_FIELDS[i] || hf.equals(HEADER_FIELDS[i])) return i;
+            slot = slot + 1 & INDEX_MASK;
         }
         return ITEM_NOT_FOUND;
     }
@@ -122,8 +148,12 @@ final class StaticTable {
      */
     static int indexOf(final Header h) {
         if (h == null) throw new NullPointerException();
-        for (int i = 1; i < HEADER_FIELDS.length; i++) {
-            if (HEADER_FIELDS[i].getHeaderName().equals(h)) return i;
+        int slot = slot(h.hashCode());
+        int i;
+        while ((i = NAME_INDEX[slot]) != 0) {
+            final Header name = HEADER_FIELDS[i].getHeaderName();
+            if (h == name || h.equals(name)) return i;
+            slot = slot + 1 & INDEX_MASK;
         }
         return ITEM_NOT_FOUND;
     }
@@ -135,7 +165,7 @@ final class StaticTable {
      * @throws IllegalArgumentException if index contains invalid value
      */
     static HeaderField getHeaderField(final int index) {
-        if (index <= 1 || index >= HEADER_FIELDS.length) throw new IllegalArgumentException();
+        if (index < 1 || index >= HEADER_FIELDS.length) throw new IllegalArgumentException();
         return HEADER_FIELDS[index];
     }
 
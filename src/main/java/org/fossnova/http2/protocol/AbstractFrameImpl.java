@@ -28,7 +28,6 @@ import java.util.ConcurrentModificationException;
  */
 abstract class AbstractFrameImpl implements Frame {
 
-    private static final int FRAME_HEADER_SIZE = 9;
     static final byte[] EMPTY_ARRAY = new byte[0];
     private final byte flags;
     private final byte frameType;
@@ -58,54 +57,42 @@ abstract class AbstractFrameImpl implements Frame {
     }
 
     final byte[] writeHeader() {
-        final byte[] buffer = new byte[FRAME_HEADER_SIZE];
-        int i = 0;
-        buffer[i++] = (byte)(payloadSize >>> 16);
-        buffer[i++] = (byte)(payloadSize >>> 8);
-        buffer[i++] = (byte)(payloadSize);
-        buffer[i++] = frameType;
-        buffer[i++] = flags;
-        buffer[i++] = (byte)(streamId >>> 24);
-        buffer[i++] = (byte)(streamId >>> 16);
-        buffer[i++] = (byte)(streamId >>> 8);
-        buffer[i++] = (byte)(streamId);
+        final byte[] buffer = new byte[WireCodec.FRAME_HEADER_SIZE];
+        WireCodec.putFrameHeader(buffer, 0, payloadSize, frameType, flags, streamId);
         return buffer;
     }
 
     abstract byte[] writePayload();
 
-    static AbstractFrameImpl readFrom(final byte[] headerBuffer, final byte[] payloadBuffer, final boolean server, final boolean validate) {
-        int i = 0;
-        int payloadSize = 0x00_FF_00_00 & headerBuffer[i++] << 16;
-        payloadSize |= 0x00_00_FF_00 & headerBuffer[i++] << 8;
-        payloadSize |= 0x00_00_00_FF & headerBuffer[i++];
-        final FrameType frameType = FrameType.of(headerBuffer[i++]);
-        byte flags = headerBuffer[i++];
-        int streamId = 0xFF_00_00_00 & headerBuffer[i++] << 24;
-        streamId |= 0x00_FF_00_00 & headerBuffer[i++] << 16;
-        streamId |= 0x00_00_FF_00 & headerBuffer[i++] << 8;
-        streamId |= 0x00_00_00_FF & headerBuffer[i++];
+    /**
+     * Decodes received frame. Frame is expected to be already validated by {@link FrameHeaderValidator} if necessary.
+     */
+    static AbstractFrameImpl readFrom(final byte[] headerBuffer, final byte[] payloadBuffer, final boolean server) {
+        final int payloadSize = WireCodec.getUnsignedMedium(headerBuffer, 0);
+        final FrameType frameType = FrameType.of(headerBuffer[3]);
+        final byte flags = (byte)(headerBuffer[4] & FrameHeaderValidator.definedFlags(WireCodec.getUnsignedByte(headerBuffer, 3)));
+        final int streamId = WireCodec.get31Bits(headerBuffer, 5);
 
         if (frameType == FrameType.GOAWAY) {
-            return GoAwayFrameImpl.readFrom(payloadBuffer, new GoAwayFrameImpl.Builder(server, server, validate, payloadSize, frameType, flags, streamId));
+            return GoAwayFrameImpl.readFrom(payloadBuffer, new GoAwayFrameImpl.Builder(server, server, false, payloadSize, flags, streamId));
         } else if (frameType == FrameType.CONTINUATION) {
-            return ContinuationFrameImpl.readFrom(payloadBuffer, new ContinuationFrameImpl.Builder(server, server, validate, payloadSize, frameType, flags, streamId));
+            return ContinuationFrameImpl.readFrom(payloadBuffer, new ContinuationFrameImpl.Builder(server, server, false, payloadSize, flags, streamId));
         } else if (frameType == FrameType.DATA) {
-            return DataFrameImpl.readFrom(payloadBuffer, new DataFrameImpl.Builder(server, server, validate, payloadSize, frameType, flags, streamId));
+            return DataFrameImpl.readFrom(payloadBuffer, new DataFrameImpl.Builder(server, server, false, payloadSize, flags, streamId));
         } else if (frameType == FrameType.HEADERS) {
-            return HeadersFrameImpl.readFrom(payloadBuffer, new HeadersFrameImpl.Builder(server, server, validate, payloadSize, frameType, flags, streamId));
+            return HeadersFrameImpl.readFrom(payloadBuffer, new HeadersFrameImpl.Builder(server, server, false, payloadSize, flags, streamId));
         } else if (frameType == FrameType.PING) {
-            return PingFrameImpl.readFrom(payloadBuffer, new PingFrameImpl.Builder(server, server, validate, payloadSize, frameType, flags, streamId));
+            return PingFrameImpl.readFrom(payloadBuffer, new PingFrameImpl.Builder(server, server, false, payloadSize, flags, streamId));
         } else if (frameType == FrameType.PRIORITY) {
-            return PriorityFrameImpl.readFrom(payloadBuffer, new PriorityFrameImpl.Builder(server, server, validate, payloadSize, frameType, flags, streamId));
+            return PriorityFrameImpl.readFrom(payloadBuffer, new PriorityFrameImpl.Builder(server, server, false, payloadSize, flags, streamId));
         } else if (frameType == FrameType.PUSH_PROMISE) {
-            return PushPromiseFrameImpl.readFrom(payloadBuffer, new PushPromiseFrameImpl.Builder(server, server, validate, payloadSize, frameType, flags, streamId));
+            return PushPromiseFrameImpl.readFrom(payloadBuffer, new PushPromiseFrameImpl.Builder(server, server, false, payloadSize, flags, streamId));
         } else if (frameType == FrameType.RST_STREAM) {
-            return RstStreamFrameImpl.readFrom(payloadBuffer, new RstStreamFrameImpl.Builder(server, server, validate, payloadSize, frameType, flags, streamId));
+            return RstStreamFrameImpl.readFrom(payloadBuffer, new RstStreamFrameImpl.Builder(server, server, false, payloadSize, flags, streamId));
         } else if (frameType == FrameType.WINDOW_UPDATE) {
-            return WindowUpdateFrameImpl.readFrom(payloadBuffer, new WindowUpdateFrameImpl.Builder(server, server, validate, payloadSize, frameType, flags, streamId));
+            return WindowUpdateFrameImpl.readFrom(payloadBuffer, new WindowUpdateFrameImpl.Builder(server, server, false, payloadSize, flags, streamId));
         } else if (frameType == FrameType.SETTINGS) {
-            return SettingsFrameImpl.readFrom(payloadBuffer, new SettingsFrameImpl.Builder(server, server, validate, payloadSize, frameType, flags, streamId));
+            return SettingsFrameImpl.readFrom(payloadBuffer, new SettingsFrameImpl.Builder(server, server, false, payloadSize, flags, streamId));
         } else {
             return null; // indicates unknown frame types
         }
@@ -117,11 +104,12 @@ abstract class AbstractFrameImpl implements Frame {
         final boolean request;
         final boolean validate;
         int payloadSize;
-        FrameType frameType;
+        final FrameType frameType;
         int flags;
         int streamId;
 
-        Builder(final boolean server, final boolean request, final boolean validate) {
+        Builder(final FrameType frameType, final boolean server, final boolean request, final boolean validate) {
+            this.frameType = frameType;
             this.server = server;
             this.request = request;
             this.validate = validate;
@@ -169,18 +157,25 @@ abstract class AbstractFrameImpl implements Frame {
             return this;
         }
 
-        final Frame.Builder setFrameType(final FrameType frameType) {
-            // preconditions
-            ensureThreadSafety();
-            ensureNotNull(frameType);
-            // implementation
-            this.frameType = frameType;
-            return this;
+        // outbound frames share received frames rules, see FrameHeaderValidator
+
+        final void validateFlags(final int flags) {
+            if ((flags & ~FrameHeaderValidator.definedFlags(frameType.getFrameId())) != 0) {
+                throw new IllegalArgumentException();
+            }
+        }
+
+        final void validateStreamId(final int streamId) {
+            if (!FrameHeaderValidator.isValidStreamId(frameType.getFrameId(), streamId)) {
+                throw new IllegalArgumentException();
+            }
         }
 
-        abstract void validateFlags(int flags);
-        abstract void validateStreamId(int streamId);
-        abstract void validatePayloadSize(int payloadSize);
+        final void validatePayloadSize(final int payloadSize) {
+            if (!FrameHeaderValidator.isValidPayloadSize(frameType.getFrameId(), payloadSize)) {
+                throw new IllegalArgumentException();
+            }
+        }
 
         final void ensureThreadSafety() {
             if (currentThread() != installThread) {
@@ -21,14 +21,17 @@ package org.fossnova.http2.protocol;
 
 import org.fossnova.http2.ConnectionPreface;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
@@ -42,10 +45,12 @@ public class Client implements RawFrameHandler {
     private final Selector selector;
     private final SocketChannel clientChannel;
     private final CountDownLatch startLatch, stopLatch;
+    private final SelectionKey key;
     private final ClientChannelProcessor acceptor;
     private volatile Throwable failure;
 
-    Client(final String host, final int port, final CountDownLatch startLatch, final CountDownLatch stopLatch) throws IOException {
+    Client(final String host, final int port, final CountDownLatch startLatch, final CountDownLatch stopLatch, final WaitStrategy waitStrategy,
+           final ConnectionSettings settings, final MemoryBudget budget, final MemoryBudget.OverflowPolicy overflowPolicy) throws IOException {
         this.host = host;
         this.port = port;
         this.startLatch = startLatch;
@@ -54,11 +59,12 @@ public class Client implements RawFrameHandler {
         clientChannel = SocketChannel.open();
         clientChannel.configureBlocking(false);
         clientChannel.connect(new InetSocketAddress(host, port));
-        final SelectionKey sk = clientChannel.register(selector, SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        key = clientChannel.register(selector, SelectionKey.OP_READ | SelectionKey.OP_WRITE);
         while (!clientChannel.finishConnect()) {
             System.out.println("still connecting");
         }
-        acceptor = new ClientChannelProcessor(true, host);
+        acceptor = new ClientChannelProcessor(true, host, waitStrategy, settings, budget, overflowPolicy, selector);
+        key.attach((Runnable) () -> acceptor.handleEvent(key));
     }
 
     @Override
@@ -68,6 +74,8 @@ public class Client implements RawFrameHandler {
             // enter main thread loop
             while (!Thread.interrupted()) {
                 selector.select();
+                acceptor.resumeReadsIfRequested(key);
+                acceptor.resumeWritesIfRequested(key);
                 Set<SelectionKey> selected = selector.selectedKeys();
                 Iterator<SelectionKey> it = selected.iterator();
                 while (it.hasNext())
@@ -86,11 +94,21 @@ public class Client implements RawFrameHandler {
         acceptor.push(rawFrame);
     }
 
+    @Override
+    public void push(final ChannelTask writeTask) {
+        acceptor.push(writeTask);
+    }
+
     @Override
     public RawFrame pull() {
         return acceptor.pull();
     }
 
+    @Override
+    public void resumeWrites() {
+        acceptor.requestWrites();
+    }
+
     void dispatch(final SelectionKey sk) {
         final Runnable r = (Runnable)(sk.attachment());
         if (r != null) r.run();
@@ -103,15 +121,37 @@ public class Client implements RawFrameHandler {
         private static final int SWITCHING_PROTOCOLS_RECEIVED = 2;
         private static final int CLIENT_CONNECTION_PREFACE_SENT = 3;
 
-        private final Queue<ReadChannelTask> readTasks = new LinkedList<>();
-        private final Queue<WriteChannelTask> writeTasks = new LinkedList<>();
+        private static final int READ_TASKS_CAPACITY = 1024;
+
+        private final RingBuffer<ReadSlot> readTasks;
+        private final Queue<ChannelTask> writeTasks = new LinkedList<>();
+        private final List<DataStreamWriteChannelTask> waitingTasks = new ArrayList<>();
         private final String host;
+        private final ConnectionSettings settings;
+        private final MemoryBudget budget;
+        private final MemoryBudget.OverflowPolicy overflowPolicy;
+        private final Runnable wakeUp;
+        private final Selector selector;
+        private volatile boolean resumeReads;
+        private volatile boolean resumeWrites;
+        private volatile Throwable readFailure;
+        private boolean readsStopped;
         ReadChannelTask currentReadTask;
-        WriteChannelTask currentWriteTask;
+        ChannelTask currentWriteTask;
         private int connectionState;
 
-        private ClientChannelProcessor(final boolean http2, final String host) {
+        private ClientChannelProcessor(final boolean http2, final String host, final WaitStrategy waitStrategy, final ConnectionSettings settings,
+                                       final MemoryBudget budget, final MemoryBudget.OverflowPolicy overflowPolicy, final Selector selector) {
             this.host = host;
+            this.settings = settings;
+            this.budget = budget;
+            this.overflowPolicy = overflowPolicy;
+            this.selector = selector;
+            this.wakeUp = () -> {
+                resumeReads = true;
+                selector.wakeup();
+            };
+            this.readTasks = new RingBuffer<>(READ_TASKS_CAPACITY, ReadSlot::new, waitStrategy);
             connectionState = http2 ? SWITCHING_PROTOCOLS_RECEIVED : IDLE;
         }
 
@@ -126,6 +166,7 @@ public class Client implements RawFrameHandler {
                             continue;
                         }
                         if (connectionState == UPGRADE_TO_HTTP2_REQUEST_SENT) {
+                            sk.interestOps(sk.interestOps() & ~SelectionKey.OP_WRITE);
                             break; // awaiting SWITCHING_PROTOCOLS_RECEIVED event
                         }
                         if (connectionState == SWITCHING_PROTOCOLS_RECEIVED) {
@@ -138,6 +179,7 @@ public class Client implements RawFrameHandler {
                                 currentWriteTask = writeTasks.poll();
                             }
                             if (currentWriteTask == null) {
+                                sk.interestOps(sk.interestOps() & ~SelectionKey.OP_WRITE);
                                 break; // no user defined frames to be written are available
                             }
                         }
@@ -150,6 +192,18 @@ public class Client implements RawFrameHandler {
                                 connectionState = CLIENT_CONNECTION_PREFACE_SENT;
                             }
                             currentWriteTask = null;
+                        } else if (currentWriteTask instanceof DataStreamWriteChannelTask) {
+                            final DataStreamWriteChannelTask dataTask = (DataStreamWriteChannelTask) currentWriteTask;
+                            if (dataTask.isWaiting()) {
+                                waitingTasks.add(dataTask); // parked until window or data are available
+                            } else if (!dataTask.isFlushing()) {
+                                synchronized (writeTasks) {
+                                    writeTasks.offer(dataTask); // yield to other queued writes
+                                }
+                            } else {
+                                break; // cannot proceed further
+                            }
+                            currentWriteTask = null;
                         } else {
                             break; // cannot proceed further
                         }
@@ -171,17 +225,27 @@ public class Client implements RawFrameHandler {
                             break; // awaiting CLIENT_PREFACE_SENT event
                         }
                         if (connectionState == CLIENT_CONNECTION_PREFACE_SENT) {
-                            currentReadTask = new RawFrameReadChannelTask();
+                            currentReadTask = new RawFrameReadChannelTask(settings, budget, overflowPolicy, wakeUp);
                         }
                     } else {
                         currentReadTask.execute(channel);
+                        if (currentReadTask.getFailure() != null) {
+                            onReadFailure(sk, currentReadTask.getFailure());
+                            currentReadTask = null;
+                            break;
+                        }
+                        if (currentReadTask instanceof RawFrameReadChannelTask && ((RawFrameReadChannelTask) currentReadTask).isBlocked()) {
+                            sk.interestOps(sk.interestOps() & ~SelectionKey.OP_READ);
+                            break; // awaiting memory release
+                        }
                         if (currentReadTask.isDone()) {
                             if (currentReadTask instanceof SwitchingProtocolsReadChannelTask) {
                                 connectionState = SWITCHING_PROTOCOLS_RECEIVED;
+                                sk.interestOps(sk.interestOps() | SelectionKey.OP_WRITE);
                             } else {
-                                synchronized (readTasks) {
-                                    readTasks.offer(currentReadTask);
-                                }
+                                final long sequence = readTasks.next();
+                                readTasks.get(sequence).task = currentReadTask;
+                                readTasks.publish(sequence);
                             }
                             currentReadTask = null;
                         } else {
@@ -192,21 +256,86 @@ public class Client implements RawFrameHandler {
             }
         }
 
+        void resumeReadsIfRequested(final SelectionKey sk) {
+            if (resumeReads) {
+                resumeReads = false;
+                if (!readsStopped && sk.isValid()) sk.interestOps(sk.interestOps() | SelectionKey.OP_READ);
+            }
+        }
+
+        void resumeWritesIfRequested(final SelectionKey sk) {
+            if (resumeWrites) {
+                resumeWrites = false;
+                if (!waitingTasks.isEmpty()) {
+                    synchronized (writeTasks) {
+                        writeTasks.addAll(waitingTasks);
+                    }
+                    waitingTasks.clear();
+                }
+                if (sk.isValid()) sk.interestOps(sk.interestOps() | SelectionKey.OP_WRITE);
+            }
+        }
+
+        void requestWrites() {
+            resumeWrites = true;
+            selector.wakeup();
+        }
+
+        private void onReadFailure(final SelectionKey sk, final Throwable failure) {
+            readsStopped = true;
+            if (failure instanceof ConnectionException) {
+                // stop reading and let the peer know why
+                final GoAwayFrameImpl.Builder builder = new GoAwayFrameImpl.Builder(false, true, false);
+                builder.setErrorCode(((ConnectionException) failure).getErrorCode());
+                final GoAwayFrameImpl goAway = builder.build();
+                push(new WriteChannelTask(ByteBuffer.wrap(goAway.writeHeader()), ByteBuffer.wrap(goAway.writePayload())));
+                sk.interestOps(SelectionKey.OP_WRITE);
+            } else {
+                // peer closed the connection or the connection is broken
+                sk.cancel();
+            }
+            readFailure = failure;
+        }
+
         public void push(final RawFrame rawFrame) {
+            push(new WriteChannelTask(ByteBuffer.wrap(rawFrame.header), ByteBuffer.wrap(rawFrame.payload)));
+        }
+
+        public void push(final ChannelTask writeTask) {
             synchronized (writeTasks) {
-                writeTasks.offer(new WriteChannelTask(ByteBuffer.wrap(rawFrame.header), ByteBuffer.wrap(rawFrame.payload)));
+                writeTasks.offer(writeTask);
             }
+            requestWrites();
         }
 
         public RawFrame pull() {
-            synchronized (readTasks) {
-                final ReadChannelTask readTask = readTasks.poll();
-                if (readTask == null) return null; // TODO: implement thread wait if value is not yet available ?
-                final ByteBuffer[] buffers = readTask.getBuffers();
-                return new RawFrame(buffers[0].array(), buffers[1].array());
+            RawFrame rawFrame = readTasks.poll(ReadSlot.TO_RAW_FRAME);
+            if (rawFrame != null) return rawFrame;
+            final Throwable failure = readFailure;
+            if (failure == null) return null;
+            // frames received before the failure are returned first
+            rawFrame = readTasks.poll(ReadSlot.TO_RAW_FRAME);
+            if (rawFrame != null) return rawFrame;
+            if (failure instanceof EOFException) return RawFrame.END_OF_STREAM;
+            if (failure instanceof ConnectionException) {
+                throw new ConnectionException(((ConnectionException) failure).getErrorCode(), failure.getMessage(), failure);
             }
+            throw new ConnectionException(ErrorCode.INTERNAL_ERROR, "Connection failed", failure);
         }
 
     }
 
+    /**
+     * Reusable ring buffer slot handing complete read task over to the application thread.
+     */
+    private static final class ReadSlot {
+        private static final RingBuffer.Extractor<ReadSlot, RawFrame> TO_RAW_FRAME = slot -> {
+            final ByteBuffer[] buffers = slot.task.getBuffers();
+            slot.task = null;
+            return new RawFrame(buffers[0].array(), buffers[1].array());
+        };
+
+        ReadChannelTask task;
+    }
+
 }
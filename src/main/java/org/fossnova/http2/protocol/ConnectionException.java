@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+/**
+ * Signals HTTP/2 connection error. Connection must be terminated with <code>GOAWAY</code> frame
+ * carrying error code of this exception.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public final class ConnectionException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+    private final int errorCode;
+
+    ConnectionException(final int errorCode, final String message) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+
+    ConnectionException(final int errorCode, final String message, final Throwable cause) {
+        super(message, cause);
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * Returns error code to be sent in <code>GOAWAY</code> frame.
+     * @return error code, see {@link ErrorCode}
+     */
+    public int getErrorCode() {
+        return errorCode;
+    }
+
+}
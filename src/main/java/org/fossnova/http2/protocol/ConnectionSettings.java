@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import static org.fossnova.http2.protocol.SettingsFrame.DEFAULT_ENABLE_PUSH;
+import static org.fossnova.http2.protocol.SettingsFrame.DEFAULT_HEADER_TABLE_SIZE;
+import static org.fossnova.http2.protocol.SettingsFrame.DEFAULT_MAX_FRAME_SIZE;
+import static org.fossnova.http2.protocol.SettingsFrame.ENABLE_PUSH;
+import static org.fossnova.http2.protocol.SettingsFrame.FLAG_ACK;
+import static org.fossnova.http2.protocol.SettingsFrame.HEADER_TABLE_SIZE;
+import static org.fossnova.http2.protocol.SettingsFrame.MAX_FRAME_SIZE;
+import static org.fossnova.http2.protocol.SettingsFrame.MAX_HEADER_LIST_SIZE;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Connection scoped view of the negotiated <code>SETTINGS</code> parameters.
+ * Local parameters take effect once acknowledged by the peer, remote parameters on receipt.
+ * Parameters absent from a <code>SETTINGS</code> frame keep their current values.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+final class ConnectionSettings {
+
+    /**
+     * Header list limit applied until our own <code>SETTINGS_MAX_HEADER_LIST_SIZE</code> is acknowledged.
+     * The initial value is unlimited, see <code>RFC7540</code> Section 6.5.2, thus only a generous cap is used.
+     */
+    static final int UNADVERTISED_MAX_HEADER_LIST_SIZE = 1 << 20;
+    private final Queue<SettingsFrame> unacknowledged = new ArrayDeque<>();
+    private volatile int localHeaderTableSize = DEFAULT_HEADER_TABLE_SIZE;
+    private volatile boolean localPushEnabled = DEFAULT_ENABLE_PUSH == SettingsFrame.PUSH_ENABLED;
+    private volatile int localMaxFrameSize = DEFAULT_MAX_FRAME_SIZE;
+    private volatile int localMaxHeaderListSize = UNADVERTISED_MAX_HEADER_LIST_SIZE;
+    private volatile int remoteHeaderTableSize = DEFAULT_HEADER_TABLE_SIZE;
+    private volatile int remoteMaxFrameSize = DEFAULT_MAX_FRAME_SIZE;
+
+    /**
+     * Returns the largest HPACK dynamic table the peer's encoder may use.
+     * @return our acknowledged <code>SETTINGS_HEADER_TABLE_SIZE</code>
+     */
+    int getLocalHeaderTableSize() {
+        return localHeaderTableSize;
+    }
+
+    /**
+     * Returns whether we accept <code>PUSH_PROMISE</code> frames.
+     * @return our acknowledged <code>SETTINGS_ENABLE_PUSH</code>
+     */
+    boolean isLocalPushEnabled() {
+        return localPushEnabled;
+    }
+
+    /**
+     * Returns the largest frame payload we are willing to receive.
+     * @return our acknowledged <code>SETTINGS_MAX_FRAME_SIZE</code>
+     */
+    int getLocalMaxFrameSize() {
+        return localMaxFrameSize;
+    }
+
+    /**
+     * Returns the largest header list we are willing to accept.
+     * @return our acknowledged <code>SETTINGS_MAX_HEADER_LIST_SIZE</code> or {@link #UNADVERTISED_MAX_HEADER_LIST_SIZE}
+     */
+    int getLocalMaxHeaderListSize() {
+        return localMaxHeaderListSize;
+    }
+
+    /**
+     * Returns the largest HPACK dynamic table our encoder may use.
+     * @return peer's <code>SETTINGS_HEADER_TABLE_SIZE</code>
+     */
+    int getRemoteHeaderTableSize() {
+        return remoteHeaderTableSize;
+    }
+
+    /**
+     * Returns the largest frame payload the peer is willing to receive.
+     * @return peer's <code>SETTINGS_MAX_FRAME_SIZE</code>
+     */
+    int getRemoteMaxFrameSize() {
+        return remoteMaxFrameSize;
+    }
+
+    /**
+     * Registers settings frame sent to the peer. Its parameters will be applied once acknowledged.
+     * Empty frames are registered too because the peer acknowledges every frame.
+     * @param frame settings frame sent to the peer
+     */
+    void onSent(final SettingsFrame frame) {
+        if ((frame.getFlags() & FLAG_ACK) != 0) return;
+        synchronized (unacknowledged) {
+            unacknowledged.offer(frame);
+        }
+    }
+
+    /**
+     * Applies parameters received from the peer or our parameters acknowledged by the peer.
+     * @param frame settings frame received from the peer
+     */
+    void onReceived(final SettingsFrame frame) {
+        if ((frame.getFlags() & FLAG_ACK) != 0) {
+            final SettingsFrame acknowledged;
+            synchronized (unacknowledged) {
+                acknowledged = unacknowledged.poll();
+            }
+            if (acknowledged != null) {
+                if (acknowledged.hasParameter(HEADER_TABLE_SIZE)) {
+                    localHeaderTableSize = acknowledged.getParameter(HEADER_TABLE_SIZE);
+                }
+                if (acknowledged.hasParameter(ENABLE_PUSH)) {
+                    localPushEnabled = acknowledged.getParameter(ENABLE_PUSH) == SettingsFrame.PUSH_ENABLED;
+                }
+                if (acknowledged.hasParameter(MAX_FRAME_SIZE)) {
+                    localMaxFrameSize = acknowledged.getParameter(MAX_FRAME_SIZE);
+                }
+                if (acknowledged.hasParameter(MAX_HEADER_LIST_SIZE)) {
+                    final int maxHeaderListSize = acknowledged.getParameter(MAX_HEADER_LIST_SIZE);
+                    // unsigned 32-bit value
+                    localMaxHeaderListSize = maxHeaderListSize < 0 ? Integer.MAX_VALUE : maxHeaderListSize;
+                }
+            }
+        } else {
+            if (frame.hasParameter(HEADER_TABLE_SIZE)) {
+                final int headerTableSize = frame.getParameter(HEADER_TABLE_SIZE);
+                // unsigned 32-bit value
+                remoteHeaderTableSize = headerTableSize < 0 ? Integer.MAX_VALUE : headerTableSize;
+            }
+            if (frame.hasParameter(MAX_FRAME_SIZE)) {
+                remoteMaxFrameSize = frame.getParameter(MAX_FRAME_SIZE);
+            }
+        }
+    }
+
+}
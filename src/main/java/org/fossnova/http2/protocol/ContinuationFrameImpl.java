@@ -35,6 +35,10 @@ final class ContinuationFrameImpl extends AbstractFrameImpl implements Continuat
         return headerBlockFragment != null ? headerBlockFragment.clone() : null;
     }
 
+    byte[] headerBlockFragment() {
+        return headerBlockFragment != null ? headerBlockFragment : EMPTY_ARRAY;
+    }
+
     byte[] writePayload() {
         return headerBlockFragment != null ? headerBlockFragment : EMPTY_ARRAY;
     }
@@ -52,13 +56,12 @@ final class ContinuationFrameImpl extends AbstractFrameImpl implements Continuat
         boolean built;
 
         Builder(final boolean server, final boolean request, final boolean validate) {
-            super(server, request, validate);
+            super(FrameType.CONTINUATION, server, request, validate);
         }
 
-        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final FrameType frameType, final byte flags, final int streamId) {
-            super(server, request, validate);
+        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final byte flags, final int streamId) {
+            super(FrameType.CONTINUATION, server, request, validate);
             super.setPayloadSize(payloadSize);
-            super.setFrameType(frameType);
             super.setFlags(flags);
             super.setStreamId(streamId);
         }
@@ -84,25 +87,6 @@ final class ContinuationFrameImpl extends AbstractFrameImpl implements Continuat
             return new ContinuationFrameImpl(headerBlockFragment == null ? 0 : (headerBlockFragment.length), (byte)flags, streamId, headerBlockFragment);
         }
 
-        @Override
-        void validateFlags(final int flags) {
-            if ((flags & ~ContinuationFrame.FLAG_END_HEADERS) != 0) {
-                throw new IllegalArgumentException();
-            }
-        }
-
-        @Override
-        void validateStreamId(final int streamId) {
-            if (streamId == 0) {
-                throw new IllegalArgumentException();
-            }
-        }
-
-        @Override
-        void validatePayloadSize(final int payloadSize) {
-            ; // does nothing
-        }
-
         private void ensureNotBuilt() {
             if (built) {
                 throw new IllegalStateException();
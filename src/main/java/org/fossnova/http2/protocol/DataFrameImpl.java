@@ -38,9 +38,8 @@ final class DataFrameImpl extends AbstractFrameImpl implements DataFrame {
     byte[] writePayload() {
         final byte[] buffer = new byte[getPayloadSize()];
         int i = 0;
-        final int padLength = getPayloadSize() - data.length;
         if ((getFlags() & FLAG_PADDED) != 0) {
-            buffer[i++] = (byte) padLength;
+            buffer[i++] = (byte) (getPayloadSize() - 1 - data.length);
         }
         if (data.length != 0) {
             System.arraycopy(data, 0, buffer, i, data.length);
@@ -52,10 +51,10 @@ final class DataFrameImpl extends AbstractFrameImpl implements DataFrame {
         int padLength = 0;
         int i = 0;
         if ((builder.flags & DataFrame.FLAG_PADDED) != 0) {
-            padLength = 0x00_00_00_FF & buffer[i++];
+            padLength = WireCodec.getUnsignedByte(buffer, i++);
         }
-        if (builder.payloadSize > padLength) {
-            final byte[] data = new byte[builder.payloadSize - padLength];
+        if (builder.payloadSize > i + padLength) {
+            final byte[] data = new byte[builder.payloadSize - i - padLength];
             System.arraycopy(buffer, i, data, 0, data.length);
             builder.setData(data);
         }
@@ -68,13 +67,12 @@ final class DataFrameImpl extends AbstractFrameImpl implements DataFrame {
         boolean built;
 
         Builder(final boolean server, final boolean request, final boolean validate) {
-            super(server, request, validate);
+            super(FrameType.DATA, server, request, validate);
         }
 
-        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final FrameType frameType, final byte flags, final int streamId) {
-            super(server, request, validate);
+        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final byte flags, final int streamId) {
+            super(FrameType.DATA, server, request, validate);
             super.setPayloadSize(payloadSize);
-            super.setFrameType(frameType);
             super.setFlags(flags);
             super.setStreamId(streamId);
         }
@@ -97,7 +95,7 @@ final class DataFrameImpl extends AbstractFrameImpl implements DataFrame {
             // validation
             validateStreamId(streamId);
             if ((flags & DataFrame.FLAG_PADDED) != 0) {
-                if (payloadSize - data.length >= 255) {
+                if (payloadSize < data.length + 1 || payloadSize - data.length - 1 > 255) {
                     throw new IllegalArgumentException();
                 }
             } else {
@@ -110,25 +108,6 @@ final class DataFrameImpl extends AbstractFrameImpl implements DataFrame {
             return new DataFrameImpl(payloadSize, (byte)flags, streamId, data);
         }
 
-        @Override
-        void validateFlags(final int flags) {
-            if ((flags & ~(DataFrame.FLAG_PADDED | DataFrame.FLAG_END_STREAM)) != 0) {
-                throw new IllegalArgumentException();
-            }
-        }
-
-        @Override
-        void validateStreamId(final int streamId) {
-            if (streamId == 0) {
-                throw new IllegalArgumentException();
-            }
-        }
-
-        @Override
-        void validatePayloadSize(final int payloadSize) {
-            ; // does nothing
-        }
-
         private void ensureNotBuilt() {
             if (built) {
                 throw new IllegalStateException();
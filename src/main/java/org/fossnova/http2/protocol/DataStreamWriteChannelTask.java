@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import static org.fossnova.http2.protocol.DataFrame.FLAG_END_STREAM;
+import static org.fossnova.http2.protocol.Frame.NO_FLAGS;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.BiConsumer;
+
+/**
+ * Writes stream body as sequence of <code>DATA</code> frames.
+ * Every frame payload is limited by peer's <code>SETTINGS_MAX_FRAME_SIZE</code> and by the available
+ * flow-control window, the last frame has <code>END_STREAM</code> flag set. Single frame is written
+ * per {@link #execute(SocketChannel)} call so other queued writes are not starved by large bodies.
+ * The task is {@link #isWaiting() waiting} while either the window is exhausted or the source has no data available.
+ * Blocking sources are read by a dedicated reader thread, never by the I/O thread.
+ * Every frame is passed to the capture callback before it is written.
+ * If reading the source fails the stream is closed with <code>RST_STREAM</code> frame carrying
+ * <code>INTERNAL_ERROR</code> and the task fails with the source failure.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+final class DataStreamWriteChannelTask implements ChannelTask {
+
+    private static final int FRAME_HEADER_SIZE = 9;
+    private static final int RST_STREAM_PAYLOAD_SIZE = 4;
+    private static final ByteBuffer NO_PAYLOAD = ByteBuffer.allocate(0);
+    private final int streamId;
+    private final ConnectionSettings settings;
+    private final FlowControl flowControl;
+    private final BiConsumer<ByteBuffer, ByteBuffer> capture;
+    private final ReadableByteChannel channelSource;
+    private final BodyReader reader;
+    private final ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+    private final ByteBuffer[] frame = new ByteBuffer[2];
+    private ByteBuffer chunk;
+    private ByteBuffer payload = NO_PAYLOAD;
+    private boolean endOfSource;
+    private boolean lastFrame;
+    private boolean waiting;
+    private boolean done;
+    private Throwable reason;
+
+    DataStreamWriteChannelTask(final int streamId, final ReadableByteChannel source, final ConnectionSettings settings,
+                               final FlowControl flowControl, final BiConsumer<ByteBuffer, ByteBuffer> capture, final Runnable resume) {
+        this.streamId = streamId;
+        this.settings = settings;
+        this.flowControl = flowControl;
+        this.capture = capture;
+        if (source instanceof SelectableChannel && !((SelectableChannel) source).isBlocking()) {
+            channelSource = source;
+            reader = null;
+        } else {
+            channelSource = null;
+            reader = new BodyReader(streamId, source, settings.getRemoteMaxFrameSize(), resume);
+        }
+        chunk = NO_PAYLOAD;
+        init();
+    }
+
+    DataStreamWriteChannelTask(final int streamId, final ByteBuffer source, final ConnectionSettings settings,
+                               final FlowControl flowControl, final BiConsumer<ByteBuffer, ByteBuffer> capture) {
+        this.streamId = streamId;
+        this.settings = settings;
+        this.flowControl = flowControl;
+        this.capture = capture;
+        channelSource = null;
+        reader = null;
+        chunk = source;
+        endOfSource = true;
+        init();
+    }
+
+    private void init() {
+        header.limit(0);
+        frame[0] = header;
+        frame[1] = payload;
+    }
+
+    @Override
+    public void execute(final SocketChannel channel) {
+        waiting = false;
+        try {
+            if (!header.hasRemaining() && !payload.hasRemaining()) {
+                if (lastFrame) {
+                    finish();
+                    return;
+                }
+                try {
+                    if (!nextFrame()) {
+                        waiting = !done;
+                        return;
+                    }
+                } catch (final IOException e) {
+                    reason = e;
+                    resetStream();
+                }
+                capture.accept(header.duplicate(), payload.duplicate());
+            }
+            channel.write(frame);
+            if (lastFrame && !header.hasRemaining() && !payload.hasRemaining()) {
+                finish();
+            }
+        } catch (final Throwable t) {
+            // connection is broken, nothing more can be written
+            if (reason == null) reason = t;
+            finish();
+        }
+    }
+
+    private void finish() {
+        done = true;
+        flowControl.close(streamId);
+        if (reader != null) reader.stop();
+    }
+
+    private void resetStream() {
+        lastFrame = true;
+        payload = ByteBuffer.allocate(RST_STREAM_PAYLOAD_SIZE);
+        payload.putInt(0, ErrorCode.INTERNAL_ERROR);
+        frame[1] = payload;
+        header.clear();
+        WireCodec.putFrameHeader(header, 0, RST_STREAM_PAYLOAD_SIZE, FrameType.RST_STREAM.getFrameId(), NO_FLAGS, streamId);
+    }
+
+    private boolean nextFrame() throws IOException {
+        if (!chunk.hasRemaining() && !endOfSource && !nextChunk()) {
+            return false; // source has no data available yet
+        }
+        int length = 0;
+        if (chunk.hasRemaining()) {
+            length = flowControl.acquire(streamId, Math.min(chunk.remaining(), settings.getRemoteMaxFrameSize()));
+            if (length < 0) {
+                // stream was reset by the peer, nothing more can be written
+                reason = new IOException("Stream " + streamId + " was closed");
+                finish();
+                return false;
+            }
+            if (length == 0) {
+                return false; // flow-control window is exhausted
+            }
+        }
+        final int start = chunk.position();
+        payload = chunk.duplicate();
+        payload.limit(start + length);
+        chunk.position(start + length);
+        frame[1] = payload;
+        lastFrame = endOfSource && !chunk.hasRemaining();
+        writeHeader(length, lastFrame ? FLAG_END_STREAM : NO_FLAGS);
+        return true;
+    }
+
+    private boolean nextChunk() throws IOException {
+        if (reader != null) {
+            reader.recycle(chunk);
+            final ByteBuffer filled = reader.poll();
+            if (filled == null) return false;
+            chunk = filled;
+            endOfSource = reader.isDrained();
+            return chunk.hasRemaining() || endOfSource;
+        }
+        final int maxFrameSize = settings.getRemoteMaxFrameSize();
+        if (chunk.capacity() < maxFrameSize) {
+            chunk = ByteBuffer.allocate(maxFrameSize);
+        }
+        chunk.clear();
+        int count = 0;
+        while (chunk.hasRemaining() && (count = channelSource.read(chunk)) > 0);
+        endOfSource = count < 0;
+        chunk.flip();
+        return chunk.hasRemaining() || endOfSource;
+    }
+
+    private void writeHeader(final int payloadSize, final byte flags) {
+        header.clear();
+        WireCodec.putFrameHeader(header, 0, payloadSize, FrameType.DATA.getFrameId(), flags, streamId);
+    }
+
+    /**
+     * Returns whether the task cannot proceed until flow-control window grows or source data become available.
+     * @return <code>true</code> if last execution did not write anything because of missing window or data
+     */
+    boolean isWaiting() {
+        return waiting;
+    }
+
+    /**
+     * Returns whether the current frame was not fully written to the channel yet.
+     * @return <code>true</code> if the channel must drain before the task can yield
+     */
+    boolean isFlushing() {
+        return header.hasRemaining() || payload.hasRemaining();
+    }
+
+    @Override
+    public boolean isDone() {
+        return done;
+    }
+
+    @Override
+    public Throwable getFailure() {
+        return reason;
+    }
+
+    /**
+     * Reads blocking source on its own thread and hands filled buffers over to the task.
+     */
+    private static final class BodyReader implements Runnable {
+        private static final ByteBuffer FAILED = ByteBuffer.allocate(0);
+        private static final int BUFFERS_COUNT = 2;
+        private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(BUFFERS_COUNT);
+        private final BlockingQueue<ByteBuffer> filled = new ArrayBlockingQueue<>(BUFFERS_COUNT + 1);
+        private final ReadableByteChannel source;
+        private final Runnable resume;
+        private final Thread thread;
+        private volatile IOException failure;
+        private volatile boolean endOfSource;
+        private boolean started;
+
+        private BodyReader(final int streamId, final ReadableByteChannel source, final int bufferSize, final Runnable resume) {
+            this.source = source;
+            this.resume = resume;
+            for (int i = 0; i < BUFFERS_COUNT; i++) {
+                free.offer(ByteBuffer.allocate(bufferSize));
+            }
+            thread = Threads.newWorker(this, "http2-data-reader-" + streamId, WaitStrategy.PARK);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    final ByteBuffer buffer = free.take();
+                    buffer.clear();
+                    int count = 0;
+                    while (buffer.hasRemaining() && (count = source.read(buffer)) >= 0);
+                    buffer.flip();
+                    // must be visible before the last buffer is handed over
+                    endOfSource = count < 0;
+                    filled.put(buffer);
+                    resume.run();
+                    if (endOfSource) return;
+                }
+            } catch (final InterruptedException e) {
+                // task is finished, stop reading
+            } catch (final IOException e) {
+                failure = e;
+                filled.offer(FAILED);
+                resume.run();
+            }
+        }
+
+        private ByteBuffer poll() throws IOException {
+            if (!started) {
+                started = true;
+                thread.start();
+            }
+            final ByteBuffer buffer = filled.poll();
+            if (buffer == FAILED) throw failure;
+            return buffer;
+        }
+
+        private boolean isDrained() {
+            return endOfSource && filled.isEmpty();
+        }
+
+        private void recycle(final ByteBuffer buffer) {
+            if (buffer.capacity() > 0) free.offer(buffer);
+        }
+
+        private void stop() {
+            thread.interrupt();
+        }
+    }
+
+}
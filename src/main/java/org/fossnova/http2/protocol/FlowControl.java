@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import static org.fossnova.http2.protocol.ErrorCode.FLOW_CONTROL_ERROR;
+import static org.fossnova.http2.protocol.SettingsFrame.DEFAULT_INITIAL_WINDOW_SIZE;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Connection scoped bookkeeping of the send flow-control windows, see <code>RFC7540</code> Section 6.9.
+ * <code>DATA</code> frames may be sent only while both the connection window and the stream window are open.
+ * Windows grow with <code>WINDOW_UPDATE</code> frames and stream windows follow peer's
+ * <code>SETTINGS_INITIAL_WINDOW_SIZE</code> changes.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+final class FlowControl {
+
+    private static final long MAX_WINDOW_SIZE = Integer.MAX_VALUE;
+    private final Map<Integer, Window> streams = new HashMap<>();
+    private long connectionWindow = DEFAULT_INITIAL_WINDOW_SIZE;
+    private int initialWindowSize = DEFAULT_INITIAL_WINDOW_SIZE;
+
+    /**
+     * Opens send window of given stream if not yet opened.
+     * @param streamId stream identifier
+     */
+    synchronized void open(final int streamId) {
+        if (!streams.containsKey(streamId)) {
+            streams.put(streamId, new Window(initialWindowSize));
+        }
+    }
+
+    /**
+     * Forgets send window of given stream.
+     * @param streamId stream identifier
+     */
+    synchronized void close(final int streamId) {
+        streams.remove(streamId);
+    }
+
+    /**
+     * Reserves send credit for <code>DATA</code> frame payload.
+     * @param streamId stream identifier
+     * @param max requested payload size
+     * @return reserved payload size, zero if either window is exhausted, or <code>-1</code> if the stream is closed
+     */
+    synchronized int acquire(final int streamId, final int max) {
+        final Window window = streams.get(streamId);
+        if (window == null) return -1;
+        final int size = (int) Math.max(0, Math.min(max, Math.min(connectionWindow, window.size)));
+        connectionWindow -= size;
+        window.size -= size;
+        return size;
+    }
+
+    /**
+     * Consumes send credit of <code>DATA</code> frame written without reservation.
+     * Windows may become negative in such case.
+     * @param streamId stream identifier
+     * @param size payload size
+     */
+    synchronized void consume(final int streamId, final int size) {
+        connectionWindow -= size;
+        final Window window = streams.get(streamId);
+        if (window != null) window.size -= size;
+    }
+
+    /**
+     * Applies received <code>WINDOW_UPDATE</code> frame. Updates of unknown streams are ignored.
+     * @param streamId stream identifier, zero for the connection
+     * @param increment window size increment
+     * @throws ConnectionException if the connection window would exceed 2^31-1
+     * @throws StreamException if the stream window would exceed 2^31-1
+     */
+    synchronized void onWindowUpdate(final int streamId, final int increment) {
+        if (streamId == 0) {
+            if (connectionWindow + increment > MAX_WINDOW_SIZE) {
+                throw new ConnectionException(FLOW_CONTROL_ERROR, "Connection flow-control window overflow");
+            }
+            connectionWindow += increment;
+        } else {
+            final Window window = streams.get(streamId);
+            if (window == null) return;
+            if (window.size + increment > MAX_WINDOW_SIZE) {
+                throw new StreamException(FLOW_CONTROL_ERROR, streamId, "Flow-control window overflow on stream " + streamId);
+            }
+            window.size += increment;
+        }
+    }
+
+    /**
+     * Applies peer's <code>SETTINGS_INITIAL_WINDOW_SIZE</code> to all stream windows.
+     * @param size new initial window size
+     * @throws ConnectionException if any stream window would exceed 2^31-1
+     */
+    synchronized void setInitialWindowSize(final int size) {
+        final int delta = size - initialWindowSize;
+        for (final Window window : streams.values()) {
+            if (window.size + delta > MAX_WINDOW_SIZE) {
+                throw new ConnectionException(FLOW_CONTROL_ERROR, "Stream flow-control window overflow");
+            }
+        }
+        for (final Window window : streams.values()) {
+            window.size += delta;
+        }
+        initialWindowSize = size;
+    }
+
+    private static final class Window {
+        private long size;
+
+        private Window(final long size) {
+            this.size = size;
+        }
+    }
+
+}
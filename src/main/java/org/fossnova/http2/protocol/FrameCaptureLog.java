@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only binary log of raw frames backed by memory-mapped file regions.
+ * <p>
+ * File starts with 16 bytes header (magic, region size). Each record is 8 bytes aligned and consists of
+ * record length (int), direction (byte), 3 reserved bytes, {@link System#nanoTime()} timestamp (long),
+ * connection id (long), 9 bytes of frame header and frame payload.
+ * Negative record length means rest of the region is unused, zero record length marks end of the log.
+ * Records larger than region size get a dedicated region.
+ * </p>
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public final class FrameCaptureLog implements Closeable {
+
+    /**
+     * Frame received from the peer.
+     */
+    public static final byte INBOUND = 0;
+    /**
+     * Frame sent to the peer.
+     */
+    public static final byte OUTBOUND = 1;
+    /**
+     * Default region size (64 MiB).
+     */
+    public static final int DEFAULT_REGION_SIZE = 1 << 26;
+
+    static final long MAGIC = 0x48_32_43_41_50_54_00_01L; // "H2CAPT" version 1
+    static final int FILE_HEADER_SIZE = 16;
+    static final int RECORD_HEADER_SIZE = 24;
+    static final int FRAME_HEADER_SIZE = 9;
+
+    private final FileChannel channel;
+    private final int regionSize;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private boolean closed;
+    private volatile IOException failure;
+
+    private FrameCaptureLog(final FileChannel channel, final int regionSize) throws IOException {
+        this.channel = channel;
+        this.regionSize = regionSize;
+        region = channel.map(FileChannel.MapMode.READ_WRITE, 0, regionSize);
+        region.putLong(MAGIC);
+        region.putInt(regionSize);
+        region.putInt(0);
+    }
+
+    /**
+     * Creates new capture log. Existing file is truncated.
+     * @param file log file
+     * @return new capture log
+     * @throws IOException if file cannot be created
+     */
+    public static FrameCaptureLog create(final Path file) throws IOException {
+        return create(file, DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * Creates new capture log. Existing file is truncated.
+     * @param file log file
+     * @param regionSize size of memory-mapped regions, must be positive multiple of 8
+     * @return new capture log
+     * @throws IOException if file cannot be created
+     */
+    public static FrameCaptureLog create(final Path file, final int regionSize) throws IOException {
+        // preconditions
+        if (file == null) throw new NullPointerException();
+        if (regionSize < FILE_HEADER_SIZE || (regionSize & 7) != 0) throw new IllegalArgumentException();
+        // implementation
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new FrameCaptureLog(channel, regionSize);
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens capture log for reading.
+     * @param file log file
+     * @return log reader
+     * @throws IOException if file cannot be opened or is not a capture log
+     */
+    public static Reader open(final Path file) throws IOException {
+        if (file == null) throw new NullPointerException();
+        return new Reader(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * Appends raw frame to the log.
+     * @param direction either {@link #INBOUND} or {@link #OUTBOUND}
+     * @param connectionId connection identifier
+     * @param header 9 bytes of frame header
+     * @param payload frame payload
+     * @throws IOException if next region cannot be mapped
+     */
+    public void append(final byte direction, final long connectionId, final byte[] header, final byte[] payload) throws IOException {
+        append(direction, connectionId, ByteBuffer.wrap(header), ByteBuffer.wrap(payload));
+    }
+
+    /**
+     * Appends raw frame to the log. Remaining bytes of the buffers are recorded, buffer positions are not changed.
+     * @param direction either {@link #INBOUND} or {@link #OUTBOUND}
+     * @param connectionId connection identifier
+     * @param header 9 bytes of frame header
+     * @param payload frame payload
+     * @throws IOException if next region cannot be mapped
+     */
+    synchronized void append(final byte direction, final long connectionId, final ByteBuffer header, final ByteBuffer payload) throws IOException {
+        // preconditions
+        if (closed) throw new IllegalStateException();
+        if (header.remaining() != FRAME_HEADER_SIZE) throw new IllegalArgumentException();
+        // implementation
+        final long timestamp = System.nanoTime();
+        final int length = RECORD_HEADER_SIZE + FRAME_HEADER_SIZE + payload.remaining();
+        final int alignedLength = (length + 7) & ~7;
+        if (region.remaining() < alignedLength) {
+            nextRegion(alignedLength);
+        }
+        final int position = region.position();
+        region.putInt(length);
+        region.put(direction);
+        region.position(position + 8);
+        region.putLong(timestamp);
+        region.putLong(connectionId);
+        region.put(header.duplicate());
+        region.put(payload.duplicate());
+        region.position(position + alignedLength);
+    }
+
+    private void nextRegion(final int recordLength) throws IOException {
+        if (region.hasRemaining()) {
+            region.putInt(region.position(), -region.remaining());
+        }
+        // flush the filled region before it is released
+        region.force();
+        regionStart += region.capacity();
+        region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, Math.max(regionSize, recordLength));
+    }
+
+    /**
+     * Returns failure that stopped frame capture of a connection.
+     * @return first capture failure or <code>null</code> if there was none
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    void setFailure(final IOException failure) {
+        if (this.failure == null) this.failure = failure;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        region.force();
+        region = null;
+        channel.close();
+    }
+
+    /**
+     * Sequential reader of the capture log.
+     */
+    public static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        private final byte[] header = new byte[FRAME_HEADER_SIZE];
+        private long position = FILE_HEADER_SIZE;
+        private byte direction;
+        private long timestamp;
+        private long connectionId;
+        private byte[] payload;
+
+        private Reader(final FileChannel channel) throws IOException {
+            this.channel = channel;
+            final ByteBuffer fileHeader = ByteBuffer.allocate(FILE_HEADER_SIZE);
+            try {
+                readFully(fileHeader, 0);
+                if (fileHeader.getLong(0) != MAGIC) throw new IOException("Not a frame capture log");
+            } catch (final IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Moves to the next record.
+         * @return false if end of the log was reached
+         * @throws IOException if log cannot be read
+         */
+        public boolean next() throws IOException {
+            int length;
+            while (true) {
+                recordHeader.clear();
+                if (channel.size() - position < 4) return false;
+                recordHeader.limit(4);
+                readFully(recordHeader, position);
+                length = recordHeader.getInt(0);
+                if (length == 0) return false;
+                if (length > 0) break;
+                position -= length;
+            }
+            if (length < RECORD_HEADER_SIZE + FRAME_HEADER_SIZE) throw new IOException("Corrupted record at " + position);
+            recordHeader.clear();
+            readFully(recordHeader, position);
+            direction = recordHeader.get(4);
+            timestamp = recordHeader.getLong(8);
+            connectionId = recordHeader.getLong(16);
+            readFully(ByteBuffer.wrap(header), position + RECORD_HEADER_SIZE);
+            payload = new byte[length - RECORD_HEADER_SIZE - FRAME_HEADER_SIZE];
+            readFully(ByteBuffer.wrap(payload), position + RECORD_HEADER_SIZE + FRAME_HEADER_SIZE);
+            position += (length + 7) & ~7;
+            return true;
+        }
+
+        /**
+         * @return direction of the current record
+         */
+        public byte getDirection() {
+            return direction;
+        }
+
+        /**
+         * @return {@link System#nanoTime()} when the current record was captured
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * @return connection identifier of the current record
+         */
+        public long getConnectionId() {
+            return connectionId;
+        }
+
+        /**
+         * @return frame header of the current record, the array is reused between records
+         */
+        public byte[] getHeader() {
+            return header;
+        }
+
+        /**
+         * @return frame payload of the current record
+         */
+        public byte[] getPayload() {
+            return payload;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private void readFully(final ByteBuffer buffer, long offset) throws IOException {
+            int count;
+            while (buffer.hasRemaining()) {
+                count = channel.read(buffer, offset);
+                if (count < 0) throw new EOFException();
+                offset += count;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import static org.fossnova.http2.protocol.ErrorCode.FLOW_CONTROL_ERROR;
+import static org.fossnova.http2.protocol.ErrorCode.FRAME_SIZE_ERROR;
+import static org.fossnova.http2.protocol.ErrorCode.PROTOCOL_ERROR;
+
+/**
+ * Validates received frames against RFC 7540 and connection state before they are decoded.
+ * Frame header checks are driven by per frame type tables, decoders may then trust their input.
+ * <p>
+ * Undefined flags are not validated because RFC 7540 requires them to be ignored,
+ * see {@link #definedFlags(int)}.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+final class FrameHeaderValidator {
+
+    private static final int FRAME_TYPES_COUNT = 10;
+    private static final int HEADERS = 0x1, PUSH_PROMISE = 0x5, SETTINGS = 0x4, WINDOW_UPDATE = 0x8, CONTINUATION = 0x9;
+    private static final int FLAG_ACK = 0x1, FLAG_PADDED = 0x8, FLAG_PRIORITY = 0x20;
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+
+    // bit masks indexed by frame type identifier
+    private static final int ZERO_STREAM_TYPES = 1 << 0x4 | 1 << 0x6 | 1 << 0x7;
+    private static final int NON_ZERO_STREAM_TYPES = 1 << 0x0 | 1 << 0x1 | 1 << 0x2 | 1 << 0x3 | 1 << 0x5 | 1 << 0x9;
+    private static final int PADDED_TYPES = 1 << 0x0 | 1 << 0x1 | 1 << 0x5;
+    private static final int SERVER_FORBIDDEN_TYPES = 1 << 0x5;
+
+    // tables indexed by frame type identifier
+    private static final int[] DEFINED_FLAGS = {
+        0x1 | 0x8,              // DATA: END_STREAM, PADDED
+        0x1 | 0x4 | 0x8 | 0x20, // HEADERS: END_STREAM, END_HEADERS, PADDED, PRIORITY
+        0x0,                    // PRIORITY
+        0x0,                    // RST_STREAM
+        0x1,                    // SETTINGS: ACK
+        0x4 | 0x8,              // PUSH_PROMISE: END_HEADERS, PADDED
+        0x1,                    // PING: ACK
+        0x0,                    // GOAWAY
+        0x0,                    // WINDOW_UPDATE
+        0x4,                    // CONTINUATION: END_HEADERS
+    };
+    private static final int[] MIN_PAYLOAD_SIZES = { 0, 0, 5, 4, 0, 4, 8, 8, 4, 0 };
+    private static final int[] MAX_PAYLOAD_SIZES = { UNLIMITED, UNLIMITED, 5, 4, UNLIMITED, UNLIMITED, 8, UNLIMITED, 4, UNLIMITED };
+
+    private final ConnectionSettings settings;
+    private final HeaderBlockAssembler headerBlockAssembler;
+    private final boolean server;
+
+    FrameHeaderValidator(final ConnectionSettings settings, final HeaderBlockAssembler headerBlockAssembler, final boolean server) {
+        this.settings = settings;
+        this.headerBlockAssembler = headerBlockAssembler;
+        this.server = server;
+    }
+
+    /**
+     * Returns flags defined for given frame type.
+     * @param frameType frame type identifier
+     * @return mask of defined flags
+     */
+    static int definedFlags(final int frameType) {
+        return frameType < FRAME_TYPES_COUNT ? DEFINED_FLAGS[frameType] : 0;
+    }
+
+    /**
+     * Returns whether stream identifier is allowed for given frame type.
+     * @param frameType frame type identifier
+     * @param streamId stream identifier
+     * @return <code>true</code> if frame type may be sent on given stream
+     */
+    static boolean isValidStreamId(final int frameType, final int streamId) {
+        if (frameType >= FRAME_TYPES_COUNT) return true;
+        final int typeBit = 1 << frameType;
+        return !((typeBit & ZERO_STREAM_TYPES) != 0 && streamId != 0 || (typeBit & NON_ZERO_STREAM_TYPES) != 0 && streamId == 0);
+    }
+
+    /**
+     * Returns whether payload size is allowed for given frame type. Padding and priority fields are not considered.
+     * @param frameType frame type identifier
+     * @param payloadSize payload size
+     * @return <code>true</code> if frame type may have given payload size
+     */
+    static boolean isValidPayloadSize(final int frameType, final int payloadSize) {
+        if (frameType >= FRAME_TYPES_COUNT) return true;
+        if (frameType == SETTINGS && payloadSize % 6 != 0) return false;
+        return payloadSize >= MIN_PAYLOAD_SIZES[frameType] && payloadSize <= MAX_PAYLOAD_SIZES[frameType];
+    }
+
+    /**
+     * Validates received frame.
+     * @param header frame header
+     * @param payload frame payload
+     * @throws ConnectionException if frame violates the protocol
+     * @throws StreamException if frame violates the protocol within its stream only
+     */
+    void validate(final byte[] header, final byte[] payload) {
+        final int payloadSize = WireCodec.getUnsignedMedium(header, 0);
+        final int frameType = WireCodec.getUnsignedByte(header, 3);
+        final int flags = WireCodec.getUnsignedByte(header, 4);
+        final int streamId = WireCodec.get31Bits(header, 5);
+        validate(payloadSize, frameType, flags, streamId);
+        validatePayload(payloadSize, frameType, flags, streamId, payload);
+    }
+
+    private void validate(final int payloadSize, final int frameType, final int flags, final int streamId) {
+        if (payloadSize > settings.getLocalMaxFrameSize()) {
+            throw new ConnectionException(FRAME_SIZE_ERROR, "Frame payload size " + payloadSize + " exceeds SETTINGS_MAX_FRAME_SIZE");
+        }
+        final int continuationStreamId = headerBlockAssembler.getContinuationStreamId();
+        if (continuationStreamId != 0 && (frameType != CONTINUATION || streamId != continuationStreamId)) {
+            throw new ConnectionException(PROTOCOL_ERROR, "CONTINUATION frame expected for stream " + continuationStreamId);
+        }
+        if (frameType >= FRAME_TYPES_COUNT) {
+            return; // unknown frame types are ignored
+        }
+        final int typeBit = 1 << frameType;
+        if (!isValidStreamId(frameType, streamId)) {
+            throw new ConnectionException(PROTOCOL_ERROR, "Invalid stream identifier " + streamId + " for frame type " + frameType);
+        }
+        if (server && (typeBit & SERVER_FORBIDDEN_TYPES) != 0 || !server && frameType == PUSH_PROMISE && !settings.isLocalPushEnabled()) {
+            throw new ConnectionException(PROTOCOL_ERROR, "Frame type " + frameType + " not allowed");
+        }
+        if (server && frameType == HEADERS && (streamId & 0x1) == 0) {
+            throw new ConnectionException(PROTOCOL_ERROR, "Client initiated stream identifier must be odd");
+        }
+        int minPayloadSize = MIN_PAYLOAD_SIZES[frameType];
+        if ((typeBit & PADDED_TYPES) != 0 && (flags & FLAG_PADDED) != 0) minPayloadSize += 1;
+        if (frameType == HEADERS && (flags & FLAG_PRIORITY) != 0) minPayloadSize += 5;
+        if (payloadSize < minPayloadSize || payloadSize > MAX_PAYLOAD_SIZES[frameType]) {
+            throw new ConnectionException(FRAME_SIZE_ERROR, "Invalid payload size " + payloadSize + " for frame type " + frameType);
+        }
+        if (frameType == SETTINGS && (payloadSize % 6 != 0 || (flags & FLAG_ACK) != 0 && payloadSize != 0)) {
+            throw new ConnectionException(FRAME_SIZE_ERROR, "Invalid SETTINGS payload size " + payloadSize);
+        }
+    }
+
+    private static void validatePayload(final int payloadSize, final int frameType, final int flags, final int streamId, final byte[] payload) {
+        if (frameType >= FRAME_TYPES_COUNT) return;
+        if ((1 << frameType & PADDED_TYPES) != 0 && (flags & FLAG_PADDED) != 0) {
+            // priority fields of HEADERS and promised stream identifier of PUSH_PROMISE are never padding
+            int fixedFieldsLength = MIN_PAYLOAD_SIZES[frameType];
+            if (frameType == HEADERS && (flags & FLAG_PRIORITY) != 0) fixedFieldsLength += 5;
+            if (WireCodec.getUnsignedByte(payload, 0) > payloadSize - 1 - fixedFieldsLength) {
+                throw new ConnectionException(PROTOCOL_ERROR, "Padding exceeds frame payload");
+            }
+        }
+        if (frameType == WINDOW_UPDATE && WireCodec.get31Bits(payload, 0) == 0) {
+            // stream error unless it is connection flow-control window, see RFC 7540 Section 6.9
+            if (streamId != 0) throw new StreamException(PROTOCOL_ERROR, streamId, "Zero window size increment on stream " + streamId);
+            throw new ConnectionException(PROTOCOL_ERROR, "Zero window size increment on connection");
+        }
+        if (frameType == SETTINGS) {
+            for (int i = 0; i < payloadSize; i += 6) {
+                final int id = WireCodec.getUnsignedShort(payload, i);
+                final int value = WireCodec.getInt(payload, i + 2);
+                if (id == SettingsFrame.ENABLE_PUSH && (value & ~0x1) != 0) {
+                    throw new ConnectionException(PROTOCOL_ERROR, "Invalid SETTINGS_ENABLE_PUSH value " + value);
+                } else if (id == SettingsFrame.INITIAL_WINDOW_SIZE && value < 0) {
+                    throw new ConnectionException(FLOW_CONTROL_ERROR, "Invalid SETTINGS_INITIAL_WINDOW_SIZE value " + (value & 0xFFFFFFFFL));
+                } else if (id == SettingsFrame.MAX_FRAME_SIZE && (value < 1 << 14 || value >= 1 << 24)) {
+                    throw new ConnectionException(PROTOCOL_ERROR, "Invalid SETTINGS_MAX_FRAME_SIZE value " + value);
+                } else if (id == SettingsFrame.ENABLE_CONNECT_PROTOCOL && (value & ~0x1) != 0) {
+                    throw new ConnectionException(PROTOCOL_ERROR, "Invalid SETTINGS_ENABLE_CONNECT_PROTOCOL value " + value);
+                } else if (id == SettingsFrame.NO_RFC7540_PRIORITIES && (value & ~0x1) != 0) {
+                    throw new ConnectionException(PROTOCOL_ERROR, "Invalid SETTINGS_NO_RFC7540_PRIORITIES value " + value);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+/**
+ * Stage of the frames pipeline sitting between the transport and the application.
+ * Inbound frames travel from the transport towards the application through interceptors in registration order,
+ * outbound frames travel from the application towards the transport in reverse order.
+ * Interceptor can observe, transform, absorb (by not proceeding) or inject frames.
+ * Default implementation of both methods is pass-through.
+ * <p>
+ * <code>DATA</code> frames written by {@link FramesHandler#pushData(int, java.nio.ByteBuffer)} and its overloads
+ * bypass outbound interceptors, they are produced lazily from the body as the connection drains and never exist
+ * as {@link Frame} instances. <code>DATA</code> frames sent via {@link FramesHandler#push(Frame)} are intercepted.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public interface FrameInterceptor {
+
+    /**
+     * Intercepts frame received from the peer.
+     * @param frame received frame
+     * @param chain inbound chain position of this interceptor
+     */
+    default void inbound(final Frame frame, final Chain chain) {
+        chain.proceed(frame);
+    }
+
+    /**
+     * Intercepts frame sent by the application.
+     * @param frame frame to be sent
+     * @param chain outbound chain position of this interceptor
+     */
+    default void outbound(final Frame frame, final Chain chain) {
+        chain.proceed(frame);
+    }
+
+    /**
+     * Position of an interceptor in either inbound or outbound direction.
+     * Chain instances are preallocated and must not be retained by interceptors beyond the pipeline lifetime.
+     */
+    interface Chain {
+        /**
+         * Passes frame to the next stage in the same direction. Can be called zero or more times.
+         * @param frame frame to pass
+         */
+        void proceed(Frame frame);
+
+        /**
+         * Injects frame into the opposite direction, starting with the stage adjacent to this interceptor.
+         * E.g. inbound interceptor replying to <code>PING</code> sends the response towards the peer.
+         * @param frame frame to inject
+         */
+        void reply(Frame frame);
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+/**
+ * Statically composed chain of {@link FrameInterceptor}s. All chain nodes are created upfront,
+ * links along the direction of travel are final, so frames flow through the pipeline without allocation.
+ * Pipeline is thread safe as long as its interceptors and sinks are.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+final class FramePipeline {
+
+    /**
+     * Consumer of frames leaving the pipeline.
+     */
+    interface Sink {
+        void accept(Frame frame);
+    }
+
+    private final Node inboundHead;
+    private final Node outboundHead;
+
+    /**
+     * Creates new pipeline.
+     * @param interceptors interceptors ordered from the transport towards the application
+     * @param application consumer of inbound frames leaving the pipeline
+     * @param transport consumer of outbound frames leaving the pipeline
+     */
+    FramePipeline(final FrameInterceptor[] interceptors, final Sink application, final Sink transport) {
+        // preconditions
+        if (interceptors == null || application == null || transport == null) throw new NullPointerException();
+        for (final FrameInterceptor interceptor : interceptors) {
+            if (interceptor == null) throw new NullPointerException();
+        }
+        // implementation
+        final int count = interceptors.length;
+        final Node[] inbound = new Node[count + 1];
+        final Node[] outbound = new Node[count + 1];
+        inbound[count] = new SinkNode(application);
+        for (int i = count - 1; i >= 0; i--) {
+            inbound[i] = new InboundNode(interceptors[i], inbound[i + 1]);
+        }
+        outbound[0] = new SinkNode(transport);
+        for (int i = 0; i < count; i++) {
+            outbound[i + 1] = new OutboundNode(interceptors[i], outbound[i]);
+        }
+        // inbound interceptor at position i replies through outbound interceptors below it and vice versa
+        for (int i = 0; i < count; i++) {
+            inbound[i].opposite = outbound[i];
+            outbound[i + 1].opposite = inbound[i + 1];
+        }
+        inboundHead = inbound[0];
+        outboundHead = outbound[count];
+    }
+
+    /**
+     * Passes received frame through the pipeline towards the application.
+     * @param frame received frame
+     */
+    void inbound(final Frame frame) {
+        inboundHead.handle(frame);
+    }
+
+    /**
+     * Passes application frame through the pipeline towards the transport.
+     * @param frame frame to send
+     */
+    void outbound(final Frame frame) {
+        outboundHead.handle(frame);
+    }
+
+    private abstract static class Node implements FrameInterceptor.Chain {
+        Node opposite;
+
+        abstract void handle(Frame frame);
+
+        @Override
+        public final void reply(final Frame frame) {
+            if (frame == null) throw new NullPointerException();
+            if (opposite == null) throw new IllegalStateException();
+            opposite.handle(frame);
+        }
+    }
+
+    private static final class InboundNode extends Node {
+        private final FrameInterceptor interceptor;
+        private final Node next;
+
+        private InboundNode(final FrameInterceptor interceptor, final Node next) {
+            this.interceptor = interceptor;
+            this.next = next;
+        }
+
+        @Override
+        void handle(final Frame frame) {
+            interceptor.inbound(frame, this);
+        }
+
+        @Override
+        public void proceed(final Frame frame) {
+            if (frame == null) throw new NullPointerException();
+            next.handle(frame);
+        }
+    }
+
+    private static final class OutboundNode extends Node {
+        private final FrameInterceptor interceptor;
+        private final Node next;
+
+        private OutboundNode(final FrameInterceptor interceptor, final Node next) {
+            this.interceptor = interceptor;
+            this.next = next;
+        }
+
+        @Override
+        void handle(final Frame frame) {
+            interceptor.outbound(frame, this);
+        }
+
+        @Override
+        public void proceed(final Frame frame) {
+            if (frame == null) throw new NullPointerException();
+            next.handle(frame);
+        }
+    }
+
+    private static final class SinkNode extends Node {
+        private final Sink sink;
+
+        private SinkNode(final Sink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        void handle(final Frame frame) {
+            sink.accept(frame);
+        }
+
+        @Override
+        public void proceed(final Frame frame) {
+            throw new IllegalStateException();
+        }
+    }
+
+}
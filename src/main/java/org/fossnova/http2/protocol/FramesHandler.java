@@ -20,7 +20,12 @@
 package org.fossnova.http2.protocol;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import org.fossnova.http2.hpack.HpackEncoder;
+import org.fossnova.http2.hpack.HpackFragmentDecoder;
 
 /**
  * // TODO: javadoc
@@ -35,11 +40,31 @@ public abstract class FramesHandler {
     }
 
     /**
-     * TODO: javadoc
+     * Creates new frames handler.
+     * @param host host name
+     * @param port port number
+     * @param server <code>true</code> for server side of the connection, <code>false</code> for client side
+     * @param validate <code>true</code> for strict mode validating every received frame against the protocol
+     *                 and connection state, <code>false</code> for trusted mode (e.g. internal traffic)
+     * @return new frames handler
      */
     public static FramesHandler newInstance(final String host, final int port, final boolean server, final boolean validate) {
         return new FramesHandlerImpl(host, port, server, validate);
     }
+
+    /**
+     * Creates new frames handler with frame interceptors installed between the transport and the application.
+     * @param host host name
+     * @param port port number
+     * @param server <code>true</code> for server side of the connection, <code>false</code> for client side
+     * @param validate <code>true</code> for strict mode, <code>false</code> for trusted mode
+     * @param interceptors interceptors ordered from the transport towards the application
+     * @return new frames handler
+     */
+    public static FramesHandler newInstance(final String host, final int port, final boolean server, final boolean validate, final FrameInterceptor... interceptors) {
+        if (interceptors == null) throw new NullPointerException();
+        return new FramesHandlerImpl(host, port, server, validate, interceptors);
+    }
     public abstract ContinuationFrame.Builder newContinuationFrameBuilder();
     public abstract DataFrame.Builder newDataFrameBuilder();
     public abstract GoAwayFrame.Builder newGoAwayFrameBuilder();
@@ -53,5 +78,78 @@ public abstract class FramesHandler {
     public abstract void start() throws IOException, InterruptedException;
     public abstract void stop() throws IOException, InterruptedException;
     public abstract void push(final Frame frame);
+    /**
+     * Writes stream body as sequence of <code>DATA</code> frames sized to peer's <code>SETTINGS_MAX_FRAME_SIZE</code>.
+     * The last frame has <code>END_STREAM</code> flag set. Source is read only as fast as the connection drains.
+     * Frames bypass outbound {@link FrameInterceptor}s but are recorded by the frame capture log.
+     * @param streamId stream identifier
+     * @param body stream body
+     * @throws UnsupportedOperationException if this is server side handler
+     */
+    public abstract void pushData(final int streamId, final InputStream body);
+    /**
+     * Writes stream body as sequence of <code>DATA</code> frames sized to peer's <code>SETTINGS_MAX_FRAME_SIZE</code>.
+     * The last frame has <code>END_STREAM</code> flag set. Source is read only as fast as the connection drains.
+     * Frames bypass outbound {@link FrameInterceptor}s but are recorded by the frame capture log.
+     * @param streamId stream identifier
+     * @param body stream body
+     * @throws UnsupportedOperationException if this is server side handler
+     */
+    public abstract void pushData(final int streamId, final ReadableByteChannel body);
+    /**
+     * Writes remaining bytes of the buffer as sequence of <code>DATA</code> frames sized to peer's <code>SETTINGS_MAX_FRAME_SIZE</code>.
+     * The last frame has <code>END_STREAM</code> flag set. Buffer content must not be modified until all frames are written.
+     * Frames bypass outbound {@link FrameInterceptor}s but are recorded by the frame capture log.
+     * @param streamId stream identifier
+     * @param body stream body
+     * @throws UnsupportedOperationException if this is server side handler
+     */
+    public abstract void pushData(final int streamId, final ByteBuffer body);
+    /**
+     * Reads next received frame. Frames of unknown types are skipped.
+     * @return received frame or <code>null</code> once the peer closed the connection and all received frames were returned
+     * @throws ConnectionException if received frame violates the protocol or the connection failed, connection must be closed
+     * @throws StreamException if received frame violates the protocol within its stream, stream must be reset
+     */
     public abstract Frame pull();
+    /**
+     * Returns memory budget of buffers holding received frames of this connection.
+     * Its limit can be changed at any time, its usage is exposed as gauges.
+     * @return connection memory budget
+     */
+    public abstract MemoryBudget getMemoryBudget();
+    /**
+     * Sets what happens when received frame does not fit into connection or global memory budget.
+     * Defaults to {@link MemoryBudget.OverflowPolicy#PAUSE_READS}.
+     * @param overflowPolicy overflow policy
+     * @throws IllegalStateException if already started
+     */
+    public abstract void setMemoryOverflowPolicy(final MemoryBudget.OverflowPolicy overflowPolicy);
+    /**
+     * Sets strategy of threads waiting for frames handed over between I/O and application threads.
+     * Defaults to {@link WaitStrategy#PARK}.
+     * @param waitStrategy wait strategy
+     * @throws IllegalStateException if already started
+     */
+    public abstract void setWaitStrategy(final WaitStrategy waitStrategy);
+    /**
+     * Starts or stops capturing raw frames of this connection. Every frame received or sent
+     * is appended to the log until capture is stopped. Closing the log is caller's responsibility.
+     * Capture stops silently if the log is closed or fails, see {@link FrameCaptureLog#getFailure()}.
+     * @param log capture log or <code>null</code> to stop capturing
+     * @param connectionId connection identifier recorded with every frame
+     */
+    public abstract void setFrameCaptureLog(final FrameCaptureLog log, final long connectionId);
+    /**
+     * Sets receiver of header fields decoded from received header blocks. Fields of a header block
+     * are delivered before its last frame is returned by {@link #pull()}.
+     * @param listener header fields listener or <code>null</code> to discard decoded header fields
+     */
+    public abstract void setHeaderFieldListener(final HpackFragmentDecoder.Listener listener);
+    /**
+     * Returns HPACK encoder of header blocks sent on this connection. Its dynamic table follows
+     * peer's <code>SETTINGS_HEADER_TABLE_SIZE</code>, changes are signaled at the beginning of the next header block.
+     * @return connection HPACK encoder
+     */
+    public abstract HpackEncoder getHeaderEncoder();
 }
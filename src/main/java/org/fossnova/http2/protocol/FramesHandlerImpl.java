@@ -20,15 +20,27 @@
 package org.fossnova.http2.protocol;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.fossnova.http2.HeaderField;
+import org.fossnova.http2.hpack.HpackEncoder;
+import org.fossnova.http2.hpack.HpackFactory;
+import org.fossnova.http2.hpack.HpackFragmentDecoder;
+
 /**
  * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
  */
 public final class FramesHandlerImpl extends FramesHandler {
 
+    private static final int MAX_ENCODER_TABLE_SIZE = 1 << 16;
+
     private final String host;
     private final int port;
     private final boolean server;
@@ -38,20 +50,51 @@ public final class FramesHandlerImpl extends FramesHandler {
     private final CountDownLatch startLatch = new CountDownLatch(1);
     private final CountDownLatch stopLatch = new CountDownLatch(1);
     private final ByteBuffer buffer = ByteBuffer.allocate(SettingsFrame.DEFAULT_MAX_FRAME_SIZE);
+    private final ConnectionSettings settings = new ConnectionSettings();
+    private final FlowControl flowControl = new FlowControl();
+    private final HeaderBlockAssembler headerBlockAssembler;
+    private final HpackEncoder headerEncoder;
+    private final FrameHeaderValidator validator;
+    private final FramePipeline pipeline;
+    private final Queue<Frame> received = new ArrayDeque<>();
+    private final MemoryBudget budget = MemoryBudget.newConnectionBudget();
+    private volatile MemoryBudget.OverflowPolicy overflowPolicy = MemoryBudget.OverflowPolicy.PAUSE_READS;
+    private volatile WaitStrategy waitStrategy = WaitStrategy.PARK;
+    private volatile FrameCaptureLog captureLog;
+    private volatile HpackFragmentDecoder.Listener headerFieldListener;
+    private volatile long captureConnectionId;
     private volatile Thread connThread;
     private volatile RawFrameHandler rawFrameHandler;
+    private volatile boolean endOfStream;
 
     public FramesHandlerImpl(final String host, final int port, final boolean server, final boolean validate) {
+        this(host, port, server, validate, new FrameInterceptor[0]);
+    }
+
+    public FramesHandlerImpl(final String host, final int port, final boolean server, final boolean validate, final FrameInterceptor... interceptors) {
         this.host = host;
         this.port = port;
         this.server = server;
         this.validate = validate;
+        final HpackFragmentDecoder decoder = HpackFactory.newInstance(SettingsFrame.DEFAULT_HEADER_TABLE_SIZE, server).newFragmentDecoder();
+        this.headerBlockAssembler = new HeaderBlockAssembler(settings, decoder, this::onHeaderField);
+        this.headerEncoder = HpackFactory.newInstance(MAX_ENCODER_TABLE_SIZE, server).newEncoder();
+        this.validator = validate ? new FrameHeaderValidator(settings, headerBlockAssembler, server) : null;
+        this.pipeline = new FramePipeline(interceptors.clone(), this::onInbound, this::onOutbound);
+    }
+
+    /**
+     * Creates handler over given transport. Used by tests to bypass connection establishment.
+     */
+    FramesHandlerImpl(final boolean server, final RawFrameHandler rawFrameHandler, final FrameInterceptor... interceptors) {
+        this(null, 0, server, true, interceptors);
+        this.rawFrameHandler = rawFrameHandler;
     }
 
     @Override
     public void start() throws IOException, InterruptedException {
         if (started.compareAndSet(false, true)) {
-            rawFrameHandler = server ? new Server(host, port, startLatch, stopLatch) : new Client(host, port, startLatch, stopLatch);
+            rawFrameHandler = server ? new Server(host, port, startLatch, stopLatch, waitStrategy) : new Client(host, port, startLatch, stopLatch, waitStrategy, settings, budget, overflowPolicy);
             connThread = new Thread(rawFrameHandler);
             connThread.start();
             startLatch.await();
@@ -69,23 +112,199 @@ public final class FramesHandlerImpl extends FramesHandler {
 
     @Override
     public void push(final Frame frame) {
+        if (!(frame instanceof AbstractFrameImpl)) throw new IllegalArgumentException();
+        pipeline.outbound(frame);
+    }
+
+    private void onOutbound(final Frame frame) {
         if (!(frame instanceof AbstractFrameImpl)) throw new IllegalArgumentException();
         final AbstractFrameImpl frameImpl = (AbstractFrameImpl)frame;
         final byte[] headerBytes = frameImpl.writeHeader();
         final byte[] payloadBytes = frameImpl.writePayload();
         final RawFrame rawFrame = new RawFrame(headerBytes, payloadBytes);
+        if (frame instanceof SettingsFrame) {
+            settings.onSent((SettingsFrame) frame);
+        } else if (frame instanceof HeadersFrame) {
+            if ((frame.getFlags() & HeadersFrame.FLAG_END_STREAM) == 0) {
+                flowControl.open(frame.getStreamId());
+            }
+        } else if (frame instanceof DataFrame) {
+            flowControl.consume(frame.getStreamId(), frame.getPayloadSize());
+            if ((frame.getFlags() & DataFrame.FLAG_END_STREAM) != 0) {
+                flowControl.close(frame.getStreamId());
+            }
+        } else if (frame instanceof RstStreamFrame) {
+            flowControl.close(frame.getStreamId());
+        }
+        capture(FrameCaptureLog.OUTBOUND, headerBytes, payloadBytes);
         rawFrameHandler.push(rawFrame);
     }
 
+    @Override
+    public void pushData(final int streamId, final InputStream body) {
+        if (body == null) throw new NullPointerException();
+        pushData(streamId, Channels.newChannel(body));
+    }
+
+    @Override
+    public void pushData(final int streamId, final ReadableByteChannel body) {
+        if (body == null) throw new NullPointerException();
+        ensureStreamId(streamId);
+        ensureClient();
+        final RawFrameHandler handler = rawFrameHandler;
+        flowControl.open(streamId);
+        handler.push(new DataStreamWriteChannelTask(streamId, body, settings, flowControl, this::captureOutbound, handler::resumeWrites));
+    }
+
+    @Override
+    public void pushData(final int streamId, final ByteBuffer body) {
+        if (body == null) throw new NullPointerException();
+        ensureStreamId(streamId);
+        ensureClient();
+        flowControl.open(streamId);
+        rawFrameHandler.push(new DataStreamWriteChannelTask(streamId, body, settings, flowControl, this::captureOutbound));
+    }
+
     @Override
     public Frame pull() {
-        RawFrame rawFrame = null;
-        do {
-            rawFrame = rawFrameHandler.pull();
-        } while (rawFrame != null);
+        Frame frame;
+        while (true) {
+            synchronized (received) {
+                frame = received.poll();
+            }
+            if (frame != null) return frame;
+            if (endOfStream) return null;
+            frame = read();
+            if (frame != null) {
+                pipeline.inbound(frame);
+            } // else unknown frame type, ignored, see RFC 7540 Section 4.1
+        }
+    }
+
+    private void onInbound(final Frame frame) {
+        synchronized (received) {
+            received.offer(frame);
+        }
+    }
+
+    private Frame read() {
+        final WaitStrategy waitStrategy = this.waitStrategy;
+        int attempt = 0;
+        RawFrame rawFrame;
+        while ((rawFrame = rawFrameHandler.pull()) == null) {
+            waitStrategy.idle(attempt++);
+        }
+        if (rawFrame == RawFrame.END_OF_STREAM) {
+            endOfStream = true;
+            return null;
+        }
         final byte[] headerBuffer = rawFrame.getHeaderBytes();
         final byte[] payloadBuffer = rawFrame.getPayloadBytes();
-        return AbstractFrameImpl.readFrom(headerBuffer, payloadBuffer, server, validate);
+        final AbstractFrameImpl frame;
+        try {
+            capture(FrameCaptureLog.INBOUND, headerBuffer, payloadBuffer);
+            if (validator != null) {
+                validator.validate(headerBuffer, payloadBuffer);
+            }
+            frame = AbstractFrameImpl.readFrom(headerBuffer, payloadBuffer, server);
+        } finally {
+            budget.release(headerBuffer.length + payloadBuffer.length);
+        }
+        if (frame instanceof SettingsFrame) {
+            final SettingsFrame settingsFrame = (SettingsFrame) frame;
+            settings.onReceived(settingsFrame);
+            if ((settingsFrame.getFlags() & SettingsFrame.FLAG_ACK) == 0 && settingsFrame.hasParameter(SettingsFrame.HEADER_TABLE_SIZE)) {
+                headerEncoder.setMaxDynamicTableSize(settings.getRemoteHeaderTableSize());
+            }
+            if ((settingsFrame.getFlags() & SettingsFrame.FLAG_ACK) == 0 && settingsFrame.hasParameter(SettingsFrame.INITIAL_WINDOW_SIZE)) {
+                flowControl.setInitialWindowSize(settingsFrame.getParameter(SettingsFrame.INITIAL_WINDOW_SIZE));
+                rawFrameHandler.resumeWrites();
+            }
+        } else if (frame instanceof WindowUpdateFrame) {
+            flowControl.onWindowUpdate(frame.getStreamId(), ((WindowUpdateFrame) frame).getWindowSizeIncrement());
+            rawFrameHandler.resumeWrites();
+        } else if (frame instanceof RstStreamFrame) {
+            flowControl.close(frame.getStreamId());
+            rawFrameHandler.resumeWrites();
+        }
+        headerBlockAssembler.onFrame(frame);
+        return frame;
+    }
+
+    @Override
+    public MemoryBudget getMemoryBudget() {
+        return budget;
+    }
+
+    @Override
+    public void setMemoryOverflowPolicy(final MemoryBudget.OverflowPolicy overflowPolicy) {
+        if (overflowPolicy == null) throw new NullPointerException();
+        if (started.get()) throw new IllegalStateException();
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @Override
+    public void setWaitStrategy(final WaitStrategy waitStrategy) {
+        if (waitStrategy == null) throw new NullPointerException();
+        if (started.get()) throw new IllegalStateException();
+        this.waitStrategy = waitStrategy;
+    }
+
+    @Override
+    public void setFrameCaptureLog(final FrameCaptureLog log, final long connectionId) {
+        captureConnectionId = connectionId;
+        captureLog = log;
+    }
+
+    @Override
+    public void setHeaderFieldListener(final HpackFragmentDecoder.Listener listener) {
+        headerFieldListener = listener;
+    }
+
+    @Override
+    public HpackEncoder getHeaderEncoder() {
+        return headerEncoder;
+    }
+
+    private void onHeaderField(final HeaderField hf) {
+        final HpackFragmentDecoder.Listener listener = headerFieldListener;
+        if (listener != null) {
+            listener.onHeaderField(hf);
+        }
+    }
+
+    private void capture(final byte direction, final byte[] header, final byte[] payload) {
+        if (captureLog == null) return;
+        capture(direction, ByteBuffer.wrap(header), ByteBuffer.wrap(payload));
+    }
+
+    private void capture(final byte direction, final ByteBuffer header, final ByteBuffer payload) {
+        final FrameCaptureLog log = captureLog;
+        if (log == null) return;
+        try {
+            log.append(direction, captureConnectionId, header, payload);
+        } catch (final IOException e) {
+            captureLog = null; // capture must never break the connection
+            log.setFailure(e);
+        } catch (final IllegalStateException e) {
+            captureLog = null; // log was closed
+        }
+    }
+
+    private void captureOutbound(final ByteBuffer header, final ByteBuffer payload) {
+        capture(FrameCaptureLog.OUTBOUND, header, payload);
+    }
+
+    private void ensureClient() {
+        if (server) {
+            throw new UnsupportedOperationException("Server does not write DATA streams yet");
+        }
+    }
+
+    private static void ensureStreamId(final int streamId) {
+        if (streamId <= 0) {
+            throw new IllegalArgumentException();
+        }
     }
 
     @Override
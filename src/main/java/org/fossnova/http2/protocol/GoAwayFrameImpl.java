@@ -51,38 +51,20 @@ final class GoAwayFrameImpl extends AbstractFrameImpl implements GoAwayFrame {
 
     byte[] writePayload() {
         final byte[] buffer = new byte[getPayloadSize()];
-        int i = 0;
-        buffer[i++] = (byte)(lastStreamId >>> 24);
-        buffer[i++] = (byte)(lastStreamId >>> 16);
-        buffer[i++] = (byte)(lastStreamId >>> 8);
-        buffer[i++] = (byte)(lastStreamId);
-        buffer[i++] = (byte)(errorCode >>> 24);
-        buffer[i++] = (byte)(errorCode >>> 16);
-        buffer[i++] = (byte)(errorCode >>> 8);
-        buffer[i++] = (byte)(errorCode);
+        WireCodec.putInt(buffer, 0, lastStreamId & WireCodec.MASK_31_BITS);
+        WireCodec.putInt(buffer, 4, errorCode);
         if (debugData != null) {
-            System.arraycopy(debugData, 0, buffer, i, debugData.length);
+            System.arraycopy(debugData, 0, buffer, 8, debugData.length);
         }
         return buffer;
     }
 
     static GoAwayFrameImpl readFrom(final byte[] buffer, final Builder builder) {
-        int i = 0;
-        int lastStreamId = 0xFF_00_00_00 & buffer[i++] << 24;
-        lastStreamId |= 0x00_FF_00_00 & buffer[i++] << 16;
-        lastStreamId |= 0x00_00_FF_00 & buffer[i++] << 8;
-        lastStreamId |= 0x00_00_00_FF & buffer[i++];
-        builder.setLastStreamId(lastStreamId);
-
-        int errorCode = 0xFF_00_00_00 & buffer[i++] << 24;
-        errorCode |= 0x00_FF_00_00 & buffer[i++] << 16;
-        errorCode |= 0x00_00_FF_00 & buffer[i++] << 8;
-        errorCode |= 0x00_00_00_FF & buffer[i++];
-        builder.setErrorCode(errorCode);
-
+        builder.setLastStreamId(WireCodec.get31Bits(buffer, 0));
+        builder.setErrorCode(WireCodec.getInt(buffer, 4));
         if (builder.payloadSize > 8) {
             byte[] debugData = new byte[builder.payloadSize - 8];
-            System.arraycopy(buffer, i, debugData, 0, debugData.length);
+            System.arraycopy(buffer, 8, debugData, 0, debugData.length);
             builder.setAdditionalDebugData(debugData);
         }
 
@@ -96,13 +78,12 @@ final class GoAwayFrameImpl extends AbstractFrameImpl implements GoAwayFrame {
         boolean built;
 
         Builder(final boolean server, final boolean request, final boolean validate) {
-            super(server, request, validate);
+            super(FrameType.GOAWAY, server, request, validate);
         }
 
-        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final FrameType frameType, final byte flags, final int streamId) {
-            super(server, request, validate);
+        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final byte flags, final int streamId) {
+            super(FrameType.GOAWAY, server, request, validate);
             super.setPayloadSize(payloadSize);
-            super.setFrameType(frameType);
             super.setFlags(flags);
             super.setStreamId(streamId);
         }
@@ -165,35 +146,11 @@ final class GoAwayFrameImpl extends AbstractFrameImpl implements GoAwayFrame {
             ensureNotBuilt();
             // validation
             validateStreamId(streamId);
-            if (lastStreamId == 0) {
-                throw new IllegalStateException();
-            }
             // implementation
             built = true;
             return new GoAwayFrameImpl(debugInfo == null ? 8 : (8 + debugInfo.length), lastStreamId, errorCode, debugInfo);
         }
 
-        @Override
-        void validateFlags(final int flags) {
-            if (flags != 0) {
-                throw new IllegalArgumentException();
-            }
-        }
-
-        @Override
-        void validateStreamId(final int streamId) {
-            if (streamId != 0) {
-                throw new IllegalArgumentException();
-            }
-        }
-
-        @Override
-        void validatePayloadSize(final int payloadSize) {
-            if (payloadSize < 8) {
-                throw new IllegalArgumentException();
-            }
-        }
-
         private void ensureNotBuilt() {
             if (built) {
                 throw new IllegalStateException();
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import static org.fossnova.http2.protocol.ErrorCode.COMPRESSION_ERROR;
+import static org.fossnova.http2.protocol.ErrorCode.ENHANCE_YOUR_CALM;
+import static org.fossnova.http2.protocol.ErrorCode.PROTOCOL_ERROR;
+
+import java.nio.ByteBuffer;
+
+import org.fossnova.http2.HeaderField;
+import org.fossnova.http2.hpack.HpackFragmentDecoder;
+
+/**
+ * Reassembles header blocks split across <code>HEADERS</code> or <code>PUSH_PROMISE</code>
+ * and <code>CONTINUATION</code> frames. Fragments are passed to the HPACK decoder as they arrive.
+ * <p>
+ * Both decoded header list size and the header block size on the wire are limited by our
+ * acknowledged <code>SETTINGS_MAX_HEADER_LIST_SIZE</code>, generous cap is used until it is acknowledged. Every fragment is charged
+ * with frame header size too so floods of empty <code>CONTINUATION</code> frames are bounded as well.
+ * Violations are reported as connection errors as soon as they are detected.
+ * Header blocks with malformed header fields are reported as stream errors when they end.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+final class HeaderBlockAssembler implements HpackFragmentDecoder.Listener {
+
+    private static final int FRAME_HEADER_SIZE = 9;
+    private final ConnectionSettings settings;
+    private final HpackFragmentDecoder decoder;
+    private final HpackFragmentDecoder.Listener listener;
+    private int streamId;
+    private int maxHeaderListSize;
+    private long blockSize;
+    private long headerListSize;
+
+    /**
+     * Constructor.
+     * @param settings connection settings
+     * @param decoder connection HPACK decoder or <code>null</code> if header blocks should be only checked, not decoded
+     * @param listener receiver of decoded header fields, may be <code>null</code> if decoder is <code>null</code>
+     */
+    HeaderBlockAssembler(final ConnectionSettings settings, final HpackFragmentDecoder decoder, final HpackFragmentDecoder.Listener listener) {
+        this.settings = settings;
+        this.decoder = decoder;
+        this.listener = listener;
+    }
+
+    /**
+     * Returns stream identifier of the header block in progress.
+     * @return stream identifier <code>CONTINUATION</code> frame is expected for or <code>0</code> if there is no header block in progress
+     */
+    int getContinuationStreamId() {
+        return streamId;
+    }
+
+    /**
+     * Processes received frame.
+     * @param frame received frame or <code>null</code> if frame of unknown type was received
+     * @throws ConnectionException if header block related protocol violation was detected
+     * @throws StreamException if complete header block is malformed
+     */
+    void onFrame(final Frame frame) {
+        if (streamId != 0) {
+            if (!(frame instanceof ContinuationFrameImpl) || frame.getStreamId() != streamId) {
+                throw new ConnectionException(PROTOCOL_ERROR, "CONTINUATION frame expected for stream " + streamId);
+            }
+            final ContinuationFrameImpl continuation = (ContinuationFrameImpl) frame;
+            fragment(continuation.headerBlockFragment(), (continuation.getFlags() & ContinuationFrame.FLAG_END_HEADERS) != 0);
+        } else if (frame instanceof HeadersFrameImpl) {
+            final HeadersFrameImpl headers = (HeadersFrameImpl) frame;
+            start(headers.getStreamId());
+            fragment(headers.headerBlockFragment(), (headers.getFlags() & HeadersFrame.FLAG_END_HEADERS) != 0);
+        } else if (frame instanceof PushPromiseFrameImpl) {
+            final PushPromiseFrameImpl pushPromise = (PushPromiseFrameImpl) frame;
+            start(pushPromise.getStreamId());
+            fragment(pushPromise.headerBlockFragment(), (pushPromise.getFlags() & PushPromiseFrame.FLAG_END_HEADERS) != 0);
+        } else if (frame instanceof ContinuationFrame) {
+            throw new ConnectionException(PROTOCOL_ERROR, "Unexpected CONTINUATION frame on stream " + frame.getStreamId());
+        }
+    }
+
+    @Override
+    public void onHeaderField(final HeaderField hf) {
+        headerListSize += hf.getSize();
+        if (headerListSize > maxHeaderListSize) {
+            throw new ConnectionException(ENHANCE_YOUR_CALM, "Header list exceeds " + maxHeaderListSize + " octets");
+        }
+        listener.onHeaderField(hf);
+    }
+
+    private void start(final int streamId) {
+        this.streamId = streamId;
+        maxHeaderListSize = settings.getLocalMaxHeaderListSize();
+        if (decoder != null) {
+            decoder.setMaxHeaderListSize(maxHeaderListSize);
+            decoder.setMaxDynamicTableSize(settings.getLocalHeaderTableSize());
+        }
+        blockSize = 0;
+        headerListSize = 0;
+    }
+
+    private void fragment(final byte[] fragment, final boolean endOfBlock) {
+        boolean malformed = false;
+        blockSize += FRAME_HEADER_SIZE + fragment.length;
+        if (blockSize - FRAME_HEADER_SIZE > maxHeaderListSize) {
+            streamId = 0;
+            throw new ConnectionException(ENHANCE_YOUR_CALM, "Header block exceeds " + maxHeaderListSize + " octets");
+        }
+        try {
+            if (decoder != null) {
+                if (fragment.length > 0) {
+                    try {
+                        decoder.decode(ByteBuffer.wrap(fragment), this);
+                    } catch (final IllegalStateException e) {
+                        throw new ConnectionException(ENHANCE_YOUR_CALM, "Header list exceeds " + maxHeaderListSize + " octets", e);
+                    }
+                }
+                if (endOfBlock) {
+                    malformed = !decoder.finish();
+                }
+            }
+        } catch (final ConnectionException e) {
+            streamId = 0;
+            throw e;
+        } catch (final RuntimeException e) {
+            streamId = 0;
+            throw new ConnectionException(COMPRESSION_ERROR, "Header block decoding failed", e);
+        }
+        if (endOfBlock) {
+            final int streamId = this.streamId;
+            this.streamId = 0;
+            if (malformed) throw new StreamException(PROTOCOL_ERROR, streamId, "Malformed header block on stream " + streamId);
+        }
+    }
+
+}
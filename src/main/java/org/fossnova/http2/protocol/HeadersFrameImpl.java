@@ -56,24 +56,21 @@ final class HeadersFrameImpl extends AbstractFrameImpl implements HeadersFrame {
         return data != null ? data.clone() : null;
     }
 
+    byte[] headerBlockFragment() {
+        return data;
+    }
+
     byte[] writePayload() {
         final int priorityFieldsLength = (getFlags() & FLAG_PRIORITY) != 0 ? 5 : 0;
-        final int padLength = getPayloadSize() - data.length - priorityFieldsLength;
         final byte[] buffer = new byte[getPayloadSize()];
         int i = 0;
         if ((getFlags() & FLAG_PADDED) != 0) {
-            buffer[i++] = (byte) padLength;
+            buffer[i++] = (byte) (getPayloadSize() - 1 - priorityFieldsLength - data.length);
         }
         if (priorityFieldsLength != 0) {
-            if (exclusive) {
-                buffer[i++] = (byte)(0b00000000_00000000_00000000_10000000 | dependencyStreamId >>> 24);
-            } else {
-                buffer[i++] = (byte)(dependencyStreamId >>> 24);
-            }
-            buffer[i++] = (byte)(dependencyStreamId >>> 16);
-            buffer[i++] = (byte)(dependencyStreamId >>> 8);
-            buffer[i++] = (byte)(dependencyStreamId);
-            buffer[i++] = (byte)weight;
+            WireCodec.putInt(buffer, i, exclusive ? dependencyStreamId | WireCodec.RESERVED_BIT : dependencyStreamId & WireCodec.MASK_31_BITS);
+            buffer[i + 4] = (byte) weight;
+            i += 5;
         }
         if (data.length != 0) {
             System.arraycopy(data, 0, buffer, i, data.length);
@@ -85,26 +82,17 @@ final class HeadersFrameImpl extends AbstractFrameImpl implements HeadersFrame {
         int i = 0;
         int padLength = 0;
         if ((builder.flags & FLAG_PADDED) != 0) {
-            padLength = 0x00_00_00_FF & buffer[i++];
+            padLength = WireCodec.getUnsignedByte(buffer, i++);
         }
-        int priorityFieldsLength = 0;
         if ((builder.flags & FLAG_PRIORITY) != 0) {
-            priorityFieldsLength = 5;
-            int dependencyStreamId = 0xFF_00_00_00 & buffer[i++] << 24;
-            boolean exclusive = (0b10000000_00000000_00000000_00000000 & dependencyStreamId) != 0;
-            if (exclusive) {
-                dependencyStreamId &= 0b01111111_11111111_11111111_11111111;
-            }
-            dependencyStreamId |= 0x00_FF_00_00 & buffer[i++] << 16;
-            dependencyStreamId |= 0x00_00_FF_00 & buffer[i++] << 8;
-            dependencyStreamId |= 0x00_00_00_FF & buffer[i++];
-            int weight = 0x00_00_00_FF & buffer[i++];
-            builder.setDependencyExclusive(exclusive);
-            builder.setDependencyStream(dependencyStreamId);
-            builder.setWeight(weight);
-        }
-        if (builder.payloadSize > (padLength + priorityFieldsLength)) {
-            final byte[] data = new byte[builder.payloadSize - padLength - priorityFieldsLength];
+            final int dependency = WireCodec.getInt(buffer, i);
+            builder.setDependencyExclusive((dependency & WireCodec.RESERVED_BIT) != 0);
+            builder.setDependencyStream(dependency & WireCodec.MASK_31_BITS);
+            builder.setWeight(WireCodec.getUnsignedByte(buffer, i + 4));
+            i += 5;
+        }
+        if (builder.payloadSize > i + padLength) {
+            final byte[] data = new byte[builder.payloadSize - i - padLength];
             System.arraycopy(buffer, i, data, 0, data.length);
             builder.setHeaderBlockFragment(data);
         }
@@ -120,13 +108,12 @@ final class HeadersFrameImpl extends AbstractFrameImpl implements HeadersFrame {
         boolean built;
 
         Builder(final boolean server, final boolean request, final boolean validate) {
-            super(server, request, validate);
+            super(FrameType.HEADERS, server, request, validate);
         }
 
-        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final FrameType frameType, final byte flags, final int streamId) {
-            super(server, request, validate);
+        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final byte flags, final int streamId) {
+            super(FrameType.HEADERS, server, request, validate);
             super.setPayloadSize(payloadSize);
-            super.setFrameType(frameType);
             super.setFlags(flags);
             super.setStreamId(streamId);
         }
@@ -182,11 +169,11 @@ final class HeadersFrameImpl extends AbstractFrameImpl implements HeadersFrame {
             }
             if ((flags & FLAG_PADDED) != 0) {
                 if ((flags & FLAG_PRIORITY) != 0) {
-                    if (payloadSize < data.length + 5 || payloadSize - data.length - 5 >= 255) {
+                    if (payloadSize < data.length + 6 || payloadSize - data.length - 6 > 255) {
                         throw new IllegalStateException();
                     }
                 } else {
-                    if (payloadSize < data.length || payloadSize - data.length >= 255) {
+                    if (payloadSize < data.length + 1 || payloadSize - data.length - 1 > 255) {
                         throw new IllegalStateException();
                     }
                 }
@@ -206,25 +193,6 @@ final class HeadersFrameImpl extends AbstractFrameImpl implements HeadersFrame {
             return new HeadersFrameImpl(payloadSize, (byte)flags, streamId, exclusive, dependencyStreamId, streamWeight, data);
         }
 
-        @Override
-        void validateFlags(final int flags) {
-            if ((flags & ~(FLAG_END_STREAM | FLAG_END_HEADERS | FLAG_PADDED | FLAG_PRIORITY)) != 0) {
-                throw new IllegalArgumentException();
-            }
-        }
-
-        @Override
-        void validateStreamId(final int streamId) {
-            if (streamId == 0) {
-                throw new IllegalArgumentException();
-            }
-        }
-
-        @Override
-        void validatePayloadSize(final int payloadSize) {
-            ; // does nothing
-        }
-
         private void ensureNotBuilt() {
             if (built) {
                 throw new IllegalStateException();
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Byte accounting of buffers holding received frames until they are decoded.
+ * Every connection has its own budget, all connection budgets are charged against the process-wide {@link #global()} budget.
+ * Current usage, peak usage and number of rejected reservations are exposed as gauges.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public final class MemoryBudget {
+
+    /**
+     * What to do when received frame does not fit into the budget.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Stop reading from the connection until enough memory is released.
+         */
+        PAUSE_READS,
+        /**
+         * Send <code>GOAWAY</code> with <code>ENHANCE_YOUR_CALM</code> error code and stop reading from the connection.
+         */
+        GO_AWAY
+    }
+
+    /**
+     * Default per connection limit (4 MiB).
+     */
+    public static final long DEFAULT_CONNECTION_LIMIT = 1L << 22;
+
+    private static final MemoryBudget GLOBAL = new MemoryBudget(null, Runtime.getRuntime().maxMemory() / 4);
+
+    private final MemoryBudget parent;
+    private final AtomicLong used = new AtomicLong();
+    private final AtomicLong peak = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final Queue<Runnable> waiters = new ConcurrentLinkedQueue<>();
+    private volatile long limit;
+
+    private MemoryBudget(final MemoryBudget parent, final long limit) {
+        this.parent = parent;
+        this.limit = limit;
+    }
+
+    /**
+     * Returns process-wide budget. Defaults to quarter of the maximum heap size.
+     * @return global budget
+     */
+    public static MemoryBudget global() {
+        return GLOBAL;
+    }
+
+    static MemoryBudget newConnectionBudget() {
+        return new MemoryBudget(GLOBAL, DEFAULT_CONNECTION_LIMIT);
+    }
+
+    /**
+     * Returns number of bytes currently held.
+     * @return current usage
+     */
+    public long getUsed() {
+        return used.get();
+    }
+
+    /**
+     * Returns the highest number of bytes held at once.
+     * @return peak usage
+     */
+    public long getPeak() {
+        return peak.get();
+    }
+
+    /**
+     * Returns how many times reservation did not fit into this budget.
+     * @return rejected reservations count
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Returns maximum number of bytes that can be held.
+     * @return limit
+     */
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Sets maximum number of bytes that can be held. Lowering the limit never affects already held bytes.
+     * @param limit new limit
+     */
+    public void setLimit(final long limit) {
+        if (limit <= 0) throw new IllegalArgumentException();
+        this.limit = limit;
+        wakeUpWaiters();
+    }
+
+    /**
+     * Reserves bytes in this and all parent budgets.
+     * @param bytes number of bytes to reserve
+     * @return true if reserved, false if any budget would be exceeded
+     */
+    boolean tryReserve(final long bytes) {
+        long current, next;
+        do {
+            current = used.get();
+            next = current + bytes;
+            if (next > limit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+        } while (!used.compareAndSet(current, next));
+        if (parent != null && !parent.tryReserve(bytes)) {
+            used.addAndGet(-bytes);
+            return false;
+        }
+        if (next > peak.get()) peak.accumulateAndGet(next, Math::max);
+        return true;
+    }
+
+    /**
+     * Releases bytes previously reserved via {@link #tryReserve(long)} and wakes up waiters.
+     * @param bytes number of bytes to release
+     */
+    void release(final long bytes) {
+        used.addAndGet(-bytes);
+        if (parent != null) parent.release(bytes);
+        wakeUpWaiters();
+    }
+
+    /**
+     * Registers one shot callback to be run once memory is released in this or any parent budget.
+     * Callback might run more than once, it must be idempotent.
+     * Callers must retry reservation after registration to not miss concurrent release.
+     * @param wakeUp callback
+     */
+    void await(final Runnable wakeUp) {
+        waiters.offer(wakeUp);
+        if (parent != null) parent.await(wakeUp);
+    }
+
+    private void wakeUpWaiters() {
+        if (waiters.isEmpty()) return;
+        Runnable wakeUp;
+        while ((wakeUp = waiters.poll()) != null) {
+            wakeUp.run();
+        }
+    }
+
+}
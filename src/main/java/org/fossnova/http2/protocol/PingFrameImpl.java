@@ -37,29 +37,12 @@ final class PingFrameImpl extends AbstractFrameImpl implements PingFrame {
 
     byte[] writePayload() {
         final byte[] buffer = new byte[getPayloadSize()];
-        int i = 0;
-        buffer[i++] = (byte)(data >>> 56);
-        buffer[i++] = (byte)(data >>> 48);
-        buffer[i++] = (byte)(data >>> 40);
-        buffer[i++] = (byte)(data >>> 32);
-        buffer[i++] = (byte)(data >>> 24);
-        buffer[i++] = (byte)(data >>> 16);
-        buffer[i++] = (byte)(data >>> 8);
-        buffer[i++] = (byte)(data);
+        WireCodec.putLong(buffer, 0, data);
         return buffer;
     }
 
     static PingFrameImpl readFrom(final byte[] buffer, final Builder builder) {
-        int i = 0;
-        long data = 0xFF_00_00_00_00_00_00_00L & (long)buffer[i++] << 56;
-        data |= 0x00_FF_00_00_00_00_00_00L & (long)buffer[i++] << 48;
-        data |= 0x00_00_FF_00_00_00_00_00L & (long)buffer[i++] << 40;
-        data |= 0x00_00_00_FF_00_00_00_00L & (long)buffer[i++] << 32;
-        data |= 0x00_00_00_00_FF_00_00_00L & (long)buffer[i++] << 24;
-        data |= 0x00_00_00_00_00_FF_00_00L & (long)buffer[i++] << 16;
-        data |= 0x00_00_00_00_00_00_FF_00L & (long)buffer[i++] << 8;
-        data |= 0x00_00_00_00_00_00_00_FFL & (long)buffer[i++];
-        builder.setOpaqueData(data);
+        builder.setOpaqueData(WireCodec.getLong(buffer, 0));
         return builder.build();
     }
 
@@ -68,13 +51,12 @@ final class PingFrameImpl extends AbstractFrameImpl implements PingFrame {
         boolean built;
 
         Builder(final boolean server, final boolean request, final boolean validate) {
-            super(server, request, validate);
+            super(FrameType.PING, server, request, validate);
         }
 
-        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final FrameType frameType, final byte flags, final int streamId) {
-            super(server, request, validate);
+        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final byte flags, final int streamId) {
+            super(FrameType.PING, server, request, validate);
             super.setPayloadSize(payloadSize);
-            super.setFrameType(frameType);
             super.setFlags(flags);
             super.setStreamId(streamId);
         }
@@ -100,27 +82,6 @@ final class PingFrameImpl extends AbstractFrameImpl implements PingFrame {
             return new PingFrameImpl((byte)flags, data);
         }
 
-        @Override
-        void validateFlags(final int flags) {
-            if ((flags & ~FLAG_ACK) != 0) {
-                throw new IllegalArgumentException();
-            }
-        }
-
-        @Override
-        void validateStreamId(final int streamId) {
-            if (streamId != 0) {
-                throw new IllegalArgumentException();
-            }
-        }
-
-        @Override
-        void validatePayloadSize(final int payloadSize) {
-            if (payloadSize != 8) {
-                throw new IllegalArgumentException();
-            }
-        }
-
         private void ensureNotBuilt() {
             if (built) {
                 throw new IllegalStateException();
@@ -51,33 +51,16 @@ final class PriorityFrameImpl extends AbstractFrameImpl implements PriorityFrame
 
     byte[] writePayload() {
         final byte[] buffer = new byte[getPayloadSize()];
-        int i = 0;
-        if (exclusive) {
-            buffer[i++] = (byte)(0b00000000_00000000_00000000_10000000 | dependencyStreamId >>> 24);
-        } else {
-            buffer[i++] = (byte)(dependencyStreamId >>> 24);
-        }
-        buffer[i++] = (byte)(dependencyStreamId >>> 16);
-        buffer[i++] = (byte)(dependencyStreamId >>> 8);
-        buffer[i++] = (byte)(dependencyStreamId);
-        buffer[i++] = (byte)weight;
+        WireCodec.putInt(buffer, 0, exclusive ? dependencyStreamId | WireCodec.RESERVED_BIT : dependencyStreamId & WireCodec.MASK_31_BITS);
+        buffer[4] = (byte) weight;
         return buffer;
     }
 
     static PriorityFrameImpl readFrom(final byte[] buffer, final Builder builder) {
-        int i = 0;
-        int dependencyStreamId = 0xFF_00_00_00 & buffer[i++] << 24;
-        boolean exclusive = (0b10000000_00000000_00000000_00000000 & dependencyStreamId) != 0;
-        if (exclusive) {
-            dependencyStreamId &= 0b01111111_11111111_11111111_11111111;
-        }
-        dependencyStreamId |= 0x00_FF_00_00 & buffer[i++] << 16;
-        dependencyStreamId |= 0x00_00_FF_00 & buffer[i++] << 8;
-        dependencyStreamId |= 0x00_00_00_FF & buffer[i++];
-        int weight = 0x00_00_00_FF & buffer[i++];
-        builder.setDependencyExclusive(exclusive);
-        builder.setDependencyStream(dependencyStreamId);
-        builder.setWeight(weight);
+        final int dependency = WireCodec.getInt(buffer, 0);
+        builder.setDependencyExclusive((dependency & WireCodec.RESERVED_BIT) != 0);
+        builder.setDependencyStream(dependency & WireCodec.MASK_31_BITS);
+        builder.setWeight(WireCodec.getUnsignedByte(buffer, 4));
         return builder.build();
     }
 
@@ -88,13 +71,12 @@ final class PriorityFrameImpl extends AbstractFrameImpl implements PriorityFrame
         boolean built;
 
         Builder(final boolean server, final boolean request, final boolean validate) {
-            super(server, request, validate);
+            super(FrameType.PRIORITY, server, request, validate);
         }
 
-        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final FrameType frameType, final byte flags, final int streamId) {
-            super(server, request, validate);
+        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final byte flags, final int streamId) {
+            super(FrameType.PRIORITY, server, request, validate);
             super.setPayloadSize(payloadSize);
-            super.setFrameType(frameType);
             super.setFlags(flags);
             super.setStreamId(streamId);
         }
@@ -140,27 +122,6 @@ final class PriorityFrameImpl extends AbstractFrameImpl implements PriorityFrame
             return new PriorityFrameImpl((byte)flags, streamId, exclusive, dependencyStreamId, streamWeight);
         }
 
-        @Override
-        void validateFlags(final int flags) {
-            if (flags != 0) {
-                throw new IllegalArgumentException();
-            }
-        }
-
-        @Override
-        void validateStreamId(final int streamId) {
-            if (streamId == 0) {
-                throw new IllegalArgumentException();
-            }
-        }
-
-        @Override
-        void validatePayloadSize(final int payloadSize) {
-            if (payloadSize != 5) {
-                throw new IllegalArgumentException();
-            }
-        }
-
         private void ensureNotBuilt() {
             if (built) {
                 throw new IllegalStateException();
@@ -42,17 +42,18 @@ final class PushPromiseFrameImpl extends AbstractFrameImpl implements PushPromis
         return data != null ? data.clone() : null;
     }
 
+    byte[] headerBlockFragment() {
+        return data;
+    }
+
     byte[] writePayload() {
         final byte[] buffer = new byte[getPayloadSize()];
         int i = 0;
-        final int padLength = getPayloadSize() - data.length;
         if ((getFlags() & FLAG_PADDED) != 0) {
-            buffer[i++] = (byte)padLength;
+            buffer[i++] = (byte) (getPayloadSize() - 5 - data.length);
         }
-        buffer[i++] = (byte)(promisedStreamId >>> 24);
-        buffer[i++] = (byte)(promisedStreamId >>> 16);
-        buffer[i++] = (byte)(promisedStreamId >>> 8);
-        buffer[i++] = (byte)(promisedStreamId);
+        WireCodec.putInt(buffer, i, promisedStreamId & WireCodec.MASK_31_BITS);
+        i += 4;
         if (data.length != 0) {
             System.arraycopy(data, 0, buffer, i, data.length);
         }
@@ -63,15 +64,12 @@ final class PushPromiseFrameImpl extends AbstractFrameImpl implements PushPromis
         int i = 0;
         int padLength = 0;
         if ((builder.flags & FLAG_PADDED) != 0) {
-            padLength = 0x00_00_00_FF & buffer[i++];
+            padLength = WireCodec.getUnsignedByte(buffer, i++);
         }
-        int promisedStreamId = 0xFF_00_00_00 & buffer[i++] << 24;
-        promisedStreamId |= 0x00_FF_00_00 & buffer[i++] << 16;
-        promisedStreamId |= 0x00_00_FF_00 & buffer[i++] << 8;
-        promisedStreamId |= 0x00_00_00_FF & buffer[i++];
-        builder.setPromisedStreamId(promisedStreamId);
-        if (builder.payloadSize > padLength) {
-            final byte[] data = new byte[builder.payloadSize - padLength];
+        builder.setPromisedStreamId(WireCodec.get31Bits(buffer, i));
+        i += 4;
+        if (builder.payloadSize > i + padLength) {
+            final byte[] data = new byte[builder.payloadSize - i - padLength];
             System.arraycopy(buffer, i, data, 0, data.length);
             builder.setHeaderBlockFragment(data);
         }
@@ -85,13 +83,12 @@ final class PushPromiseFrameImpl extends AbstractFrameImpl implements PushPromis
         boolean built;
 
         Builder(final boolean server, final boolean request, final boolean validate) {
-            super(server, request, validate);
+            super(FrameType.PUSH_PROMISE, server, request, validate);
         }
 
-        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final FrameType frameType, final byte flags, final int streamId) {
-            super(server, request, validate);
+        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final byte flags, final int streamId) {
+            super(FrameType.PUSH_PROMISE, server, request, validate);
             super.setPayloadSize(payloadSize);
-            super.setFrameType(frameType);
             super.setFlags(flags);
             super.setStreamId(streamId);
         }
@@ -143,11 +140,11 @@ final class PushPromiseFrameImpl extends AbstractFrameImpl implements PushPromis
                 throw new IllegalStateException();
             }
             if ((flags & FLAG_PADDED) != 0) {
-                if (payloadSize < data.length || payloadSize - data.length >= 255) {
+                if (payloadSize < data.length + 5 || payloadSize - data.length - 5 > 255) {
                     throw new IllegalStateException();
                 }
             } else {
-                if (payloadSize != data.length) {
+                if (payloadSize != data.length + 4) {
                     throw new IllegalStateException();
                 }
             }
@@ -156,27 +153,6 @@ final class PushPromiseFrameImpl extends AbstractFrameImpl implements PushPromis
             return new PushPromiseFrameImpl(payloadSize, (byte)flags, streamId, promisedStreamId, data);
         }
 
-        @Override
-        void validateFlags(final int flags) {
-            if ((flags & ~(FLAG_END_HEADERS | FLAG_PADDED)) != 0) {
-                throw new IllegalArgumentException();
-            }
-        }
-
-        @Override
-        void validateStreamId(final int streamId) {
-            if (streamId != 0) {
-                throw new IllegalArgumentException();
-            }
-        }
-
-        @Override
-        void validatePayloadSize(final int payloadSize) {
-            if (payloadSize < 5) {
-                throw new IllegalArgumentException();
-            }
-        }
-
         private void ensureNotBuilt() {
             if (built) {
                 throw new IllegalStateException();
@@ -24,6 +24,11 @@ package org.fossnova.http2.protocol;
  */
 final class RawFrame {
 
+    /**
+     * Returned by {@link RawFrameHandler#pull()} once the peer closed the connection.
+     */
+    static final RawFrame END_OF_STREAM = new RawFrame(new byte[0], new byte[0]);
+
     final byte[] header;
     final byte[] payload;
 
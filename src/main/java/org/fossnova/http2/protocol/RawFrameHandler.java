@@ -25,5 +25,17 @@ package org.fossnova.http2.protocol;
 interface RawFrameHandler extends Runnable {
     // TODO: provide async variantes of methods
     void push(RawFrame rawFrame);
+    void push(ChannelTask writeTask);
+    /**
+     * Returns next received frame without waiting.
+     * @return received frame, <code>null</code> if none is available yet,
+     * or {@link RawFrame#END_OF_STREAM} once the peer closed the connection and all received frames were returned
+     * @throws ConnectionException if the connection failed, all frames received before the failure are returned first
+     */
     RawFrame pull();
+
+    /**
+     * Signals that flow-control window or source data became available to parked write tasks.
+     */
+    void resumeWrites();
 }
@@ -19,43 +19,92 @@
  */
 package org.fossnova.http2.protocol;
 
+import static org.fossnova.http2.protocol.ErrorCode.ENHANCE_YOUR_CALM;
+import static org.fossnova.http2.protocol.ErrorCode.FRAME_SIZE_ERROR;
+
+import java.io.EOFException;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
 
 /**
+ * Reads single raw frame. Frame length is checked against our <code>SETTINGS_MAX_FRAME_SIZE</code>
+ * and both header and payload are charged to the connection memory budget before the payload is allocated.
+ * The charge is released once the frame is decoded.
+ *
  * @author <a href="mailto:ropalka@redhat.com">Richard Opalka</a>
  */
 final class RawFrameReadChannelTask extends ReadChannelTask {
     private final ByteBuffer headerBuffer;
+    private final ConnectionSettings settings;
+    private final MemoryBudget budget;
+    private final MemoryBudget.OverflowPolicy overflowPolicy;
+    private final Runnable wakeUp;
     private ByteBuffer payloadBuffer;
-    private int written;
+    private boolean blocked;
+    private Throwable reason;
 
-    RawFrameReadChannelTask() {
+    RawFrameReadChannelTask(final ConnectionSettings settings, final MemoryBudget budget, final MemoryBudget.OverflowPolicy overflowPolicy, final Runnable wakeUp) {
         this.headerBuffer = ByteBuffer.allocate(9);
         this.payloadBuffer = null;
+        this.settings = settings;
+        this.budget = budget;
+        this.overflowPolicy = overflowPolicy;
+        this.wakeUp = wakeUp;
     }
 
     @Override
     public void execute(final SocketChannel channel) {
-        long count;
-        ByteBuffer buffer = payloadBuffer == null ? headerBuffer : payloadBuffer;
         try {
-            do {
-                // TODO: rewrite this to use selector.select() if not possible to write to channel???
-                count = channel.read(headerBuffer);
-                if (count > 0) {
-                    written += count;
+            if (payloadBuffer == null) {
+                if (headerBuffer.hasRemaining() && channel.read(headerBuffer) < 0) throw new EOFException();
+                if (headerBuffer.hasRemaining()) return;
+                final int length = WireCodec.getUnsignedMedium(headerBuffer, 0);
+                if (length > settings.getLocalMaxFrameSize()) {
+                    throw new ConnectionException(FRAME_SIZE_ERROR, "Frame of " + length + " bytes exceeds SETTINGS_MAX_FRAME_SIZE");
                 }
-            } while (written < total);
+                if (!reserve(headerBuffer.capacity() + length)) return;
+                payloadBuffer = ByteBuffer.allocate(length);
+            }
+            if (payloadBuffer.hasRemaining() && channel.read(payloadBuffer) < 0) throw new EOFException();
         } catch (final Throwable t) {
             reason = t;
-            t.printStackTrace(System.err); // TODO: handle failure somehow
         }
     }
+
+    private boolean reserve(final int bytes) {
+        if (budget.tryReserve(bytes)) {
+            blocked = false;
+            return true;
+        }
+        if (overflowPolicy == MemoryBudget.OverflowPolicy.GO_AWAY || bytes > budget.getLimit()) {
+            throw new ConnectionException(ENHANCE_YOUR_CALM, "Memory budget exceeded");
+        }
+        budget.await(wakeUp);
+        blocked = !budget.tryReserve(bytes);
+        return !blocked;
+    }
+
+    /**
+     * Returns whether reading is paused until memory is released.
+     * @return true if frame does not fit into memory budget
+     */
+    boolean isBlocked() {
+        return blocked;
+    }
+
+    @Override
+    public boolean isDone() {
+        return payloadBuffer != null && !payloadBuffer.hasRemaining();
+    }
+
+    @Override
+    public Throwable getFailure() {
+        return reason;
+    }
+
     @Override
     ByteBuffer[] getBuffers() {
         return new ByteBuffer[] {headerBuffer, payloadBuffer};
     }
 
-
 }
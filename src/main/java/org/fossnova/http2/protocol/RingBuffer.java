@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Pre-allocated ring buffer handing events over from single producer to multiple consumers.
+ * Slots are created upfront and reused, the producer fills a slot claimed by {@link #next()}
+ * and makes it visible via {@link #publish(long)}. Consumers claim batches of published
+ * events by CAS and release them in order once processed.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+final class RingBuffer<E> {
+
+    /**
+     * Creates ring buffer slots.
+     */
+    interface Factory<E> {
+        E newInstance();
+    }
+
+    /**
+     * Processes events claimed by consumer.
+     */
+    interface EventHandler<E> {
+        void onEvent(E event, boolean endOfBatch);
+    }
+
+    /**
+     * Extracts result from single event claimed by consumer.
+     */
+    interface Extractor<E, R> {
+        R extract(E event);
+    }
+
+    private final Object[] slots;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    private final Sequence published = new Sequence();
+    private final Sequence claimed = new Sequence();
+    private final Sequence released = new Sequence();
+    // accessed by producer thread only
+    private long producerSequence = -1;
+    private long releasedCache = -1;
+
+    RingBuffer(final int capacity, final Factory<E> factory, final WaitStrategy waitStrategy) {
+        // preconditions
+        if (capacity <= 0 || (capacity & capacity - 1) != 0) throw new IllegalArgumentException();
+        if (factory == null || waitStrategy == null) throw new NullPointerException();
+        // implementation
+        slots = new Object[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = factory.newInstance();
+        }
+        mask = capacity - 1;
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Claims next slot for the producer, waiting while the ring buffer is full.
+     * Must be called by the single producer thread only.
+     * @return sequence of the claimed slot
+     */
+    long next() {
+        final long sequence = ++producerSequence;
+        final long wrapPoint = sequence - slots.length;
+        if (wrapPoint > releasedCache) {
+            int attempt = 0;
+            while (wrapPoint > (releasedCache = released.get())) {
+                waitStrategy.idle(attempt++);
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Returns slot associated with given sequence.
+     * @param sequence sequence
+     * @return slot
+     */
+    @SuppressWarnings("unchecked")
+    E get(final long sequence) {
+        return (E) slots[(int) sequence & mask];
+    }
+
+    /**
+     * Makes slot filled by the producer visible to consumers.
+     * @param sequence sequence returned by {@link #next()}
+     */
+    void publish(final long sequence) {
+        published.setOrdered(sequence);
+    }
+
+    /**
+     * Claims and processes up to <code>maxBatch</code> published events. Never blocks while no events are available.
+     * If the handler throws, the rest of the claimed batch is skipped.
+     * @param handler event handler
+     * @param maxBatch maximum number of events to claim at once
+     * @return number of claimed events
+     */
+    int drain(final EventHandler<? super E> handler, final int maxBatch) {
+        long current, end;
+        do {
+            current = claimed.get();
+            end = published.get();
+            if (end <= current) return 0;
+            if (end - current > maxBatch) end = current + maxBatch;
+        } while (!claimed.compareAndSet(current, end));
+        try {
+            for (long sequence = current + 1; sequence <= end; sequence++) {
+                handler.onEvent(get(sequence), sequence == end);
+            }
+        } finally {
+            release(current, end);
+        }
+        return (int) (end - current);
+    }
+
+    /**
+     * Claims single published event and extracts result from it. Never blocks while no events are available.
+     * @param extractor result extractor, must not retain the event
+     * @return extracted result or <code>null</code> if no event was available
+     */
+    <R> R poll(final Extractor<? super E, R> extractor) {
+        long current;
+        do {
+            current = claimed.get();
+            if (published.get() <= current) return null;
+        } while (!claimed.compareAndSet(current, current + 1));
+        try {
+            return extractor.extract(get(current + 1));
+        } finally {
+            release(current, current + 1);
+        }
+    }
+
+    private void release(final long previous, final long end) {
+        int attempt = 0;
+        while (released.get() != previous) {
+            waitStrategy.idle(attempt++); // earlier batch still being processed
+        }
+        released.setOrdered(end);
+    }
+
+    /**
+     * @return wait strategy of this ring buffer
+     */
+    WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    @SuppressWarnings("unused")
+    private static class LeftPadding {
+        long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    private static class Value extends LeftPadding {
+        volatile long value = -1;
+    }
+
+    /**
+     * Sequence padded to its own cache line to prevent false sharing.
+     */
+    @SuppressWarnings("unused")
+    private static final class Sequence extends Value {
+        private static final AtomicLongFieldUpdater<Value> UPDATER = AtomicLongFieldUpdater.newUpdater(Value.class, "value");
+        long p9, p10, p11, p12, p13, p14, p15;
+
+        long get() {
+            return value;
+        }
+
+        void setOrdered(final long newValue) {
+            UPDATER.lazySet(this, newValue);
+        }
+
+        boolean compareAndSet(final long expected, final long newValue) {
+            return UPDATER.compareAndSet(this, expected, newValue);
+        }
+    }
+
+}
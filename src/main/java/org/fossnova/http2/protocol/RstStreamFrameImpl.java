@@ -37,21 +37,12 @@ final class RstStreamFrameImpl extends AbstractFrameImpl implements RstStreamFra
 
     byte[] writePayload() {
         final byte[] buffer = new byte[getPayloadSize()];
-        int i = 0;
-        buffer[i++] = (byte)(errorCode >>> 24);
-        buffer[i++] = (byte)(errorCode >>> 16);
-        buffer[i++] = (byte)(errorCode >>> 8);
-        buffer[i++] = (byte)(errorCode);
+        WireCodec.putInt(buffer, 0, errorCode);
         return buffer;
     }
 
     static RstStreamFrameImpl readFrom(final byte[] buffer, final Builder builder) {
-        int i = 0;
-        int errorCode = 0xFF_00_00_00 & buffer[i++] << 24;
-        errorCode |= 0x00_FF_00_00 & buffer[i++] << 16;
-        errorCode |= 0x00_00_FF_00 & buffer[i++] << 8;
-        errorCode |= 0x00_00_00_FF & buffer[i++];
-        builder.setErrorCode(errorCode);
+        builder.setErrorCode(WireCodec.getInt(buffer, 0));
         return builder.build();
     }
 
@@ -60,13 +51,12 @@ final class RstStreamFrameImpl extends AbstractFrameImpl implements RstStreamFra
         boolean built;
 
         Builder(final boolean server, final boolean request, final boolean validate) {
-            super(server, request, validate);
+            super(FrameType.RST_STREAM, server, request, validate);
         }
 
-        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final FrameType frameType, final byte flags, final int streamId) {
-            super(server, request, validate);
+        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final byte flags, final int streamId) {
+            super(FrameType.RST_STREAM, server, request, validate);
             super.setPayloadSize(payloadSize);
-            super.setFrameType(frameType);
             super.setFlags(flags);
             super.setStreamId(streamId);
         }
@@ -98,27 +88,6 @@ final class RstStreamFrameImpl extends AbstractFrameImpl implements RstStreamFra
             return new RstStreamFrameImpl(streamId, errorCode);
         }
 
-        @Override
-        void validateFlags(final int flags) {
-            if (flags != 0) {
-                throw new IllegalArgumentException();
-            }
-        }
-
-        @Override
-        void validateStreamId(final int streamId) {
-            if (streamId == 0) {
-                throw new IllegalArgumentException();
-            }
-        }
-
-        @Override
-        void validatePayloadSize(final int payloadSize) {
-            if (payloadSize != 4) {
-                throw new IllegalArgumentException();
-            }
-        }
-
         private void ensureNotBuilt() {
             if (built) {
                 throw new IllegalStateException();
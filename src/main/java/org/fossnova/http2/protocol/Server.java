@@ -30,9 +30,6 @@ import java.nio.channels.SocketChannel;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 /**
  * @author <a href="mailto:ropalka@redhat.com">Richard Opalka</a>
@@ -43,13 +40,17 @@ final class Server implements RawFrameHandler {
     private final Selector selector;
     private final ServerSocketChannel serverChannel;
     private final CountDownLatch startLatch, stopLatch;
+    private final RingBuffer<HandOff> handOffs;
+    private final Thread[] workers = new Thread[WORKER_THREADS_COUNT];
+    private final Worker[] workerTasks = new Worker[WORKER_THREADS_COUNT];
     private volatile Throwable failure;
 
-    Server(final String host, final int port, final CountDownLatch startLatch, final CountDownLatch stopLatch) throws IOException {
+    Server(final String host, final int port, final CountDownLatch startLatch, final CountDownLatch stopLatch, final WaitStrategy waitStrategy) throws IOException {
         this.host = host;
         this.port = port;
         this.startLatch = startLatch;
         this.stopLatch = stopLatch;
+        handOffs = new RingBuffer<>(HAND_OFF_CAPACITY, HandOff::new, waitStrategy);
         selector = Selector.open();
         serverChannel = ServerSocketChannel.open();
         serverChannel.configureBlocking(false);
@@ -61,6 +62,11 @@ final class Server implements RawFrameHandler {
     @Override
     public void run() {
         try {
+            for (int i = 0; i < workers.length; i++) {
+                workerTasks[i] = new Worker(handOffs);
+                workers[i] = Threads.newWorker(workerTasks[i], "http2-server-worker-" + i, handOffs.getWaitStrategy());
+                workers[i].start();
+            }
             startLatch.countDown();
             while (!Thread.interrupted()) {
                 selector.select();
@@ -73,6 +79,9 @@ final class Server implements RawFrameHandler {
         } catch (final Throwable t) {
             failure = t;
         } finally {
+            for (final Thread worker : workers) {
+                if (worker != null) worker.interrupt();
+            }
             stopLatch.countDown();
         }
     }
@@ -82,18 +91,36 @@ final class Server implements RawFrameHandler {
         throw new UnsupportedOperationException(); // TODO: implement
     }
 
+    @Override
+    public void push(final ChannelTask writeTask) {
+        throw new UnsupportedOperationException(); // DATA streams are rejected by FramesHandlerImpl on server side
+    }
+
     @Override
     public RawFrame pull() {
         throw new UnsupportedOperationException(); // TODO: implement
     }
 
+    @Override
+    public void resumeWrites() {
+        // DATA streams are rejected by FramesHandlerImpl on server side
+    }
+
     void dispatch(final SelectionKey sk) {
         final Runnable r = (Runnable)(sk.attachment());
         if (r != null) r.run();
     }
 
+    /**
+     * Returns failure of the I/O thread or, if none, the first failure of any worker thread.
+     * @return failure or <code>null</code>
+     */
     Throwable getError() {
-        return failure;
+        if (failure != null) return failure;
+        for (final Worker worker : workerTasks) {
+            if (worker != null && worker.getFailure() != null) return worker.getFailure();
+        }
+        return null;
     }
 
     void close() {
@@ -109,7 +136,7 @@ final class Server implements RawFrameHandler {
         public void run() {
             try {
                 SocketChannel c = serverChannel.accept();
-                if (c != null) new Handler(selector, c);
+                if (c != null) new Handler(selector, c, handOffs);
             } catch (IOException ex) {
                 /* ... */
             }
@@ -119,18 +146,69 @@ final class Server implements RawFrameHandler {
     static final int MAXIN = 10;
     static final int MAXOUT = 10;
 
+    static final int WORKER_THREADS_COUNT = 2;
+    static final int HAND_OFF_CAPACITY = 1024;
+    static final int MAX_BATCH_SIZE = 64;
+
+    /**
+     * Reusable ring buffer slot handing complete input over to worker threads.
+     */
+    static final class HandOff {
+        Handler handler;
+    }
+
+    /**
+     * Drains hand-offs in batches and processes them.
+     * Processing failures are recorded and draining continues with the next hand-off.
+     */
+    static final class Worker implements Runnable, RingBuffer.EventHandler<HandOff> {
+        private final RingBuffer<HandOff> handOffs;
+        private volatile Throwable failure;
+
+        Worker(final RingBuffer<HandOff> handOffs) {
+            this.handOffs = handOffs;
+        }
+
+        @Override
+        public void run() {
+            final WaitStrategy waitStrategy = handOffs.getWaitStrategy();
+            int attempt = 0;
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    if (handOffs.drain(this, MAX_BATCH_SIZE) == 0) {
+                        waitStrategy.idle(attempt++);
+                    } else {
+                        attempt = 0;
+                    }
+                } catch (final Throwable t) {
+                    if (failure == null) failure = t;
+                }
+            }
+        }
+
+        Throwable getFailure() {
+            return failure;
+        }
+
+        @Override
+        public void onEvent(final HandOff handOff, final boolean endOfBatch) {
+            final Handler handler = handOff.handler;
+            handOff.handler = null;
+            handler.processAndHandOff();
+        }
+    }
+
     static final class Handler implements Runnable {
-        static final int CORE_THREADS_COUNT = 2;
-        static final int MAX_THREADS_COUNT = 4;
         final SocketChannel socket;
         final SelectionKey sk;
+        final RingBuffer<HandOff> handOffs;
         ByteBuffer input = ByteBuffer.allocate(MAXIN);
         ByteBuffer output = ByteBuffer.allocate(MAXOUT);
-        static ThreadPoolExecutor pool = new ThreadPoolExecutor(CORE_THREADS_COUNT, MAX_THREADS_COUNT, 30L, TimeUnit.SECONDS, new LinkedBlockingDeque<>());
         static final int READING = 1, SENDING = 2, PROCESSING = 3;
         int state = READING;
 
-        Handler(Selector sel, SocketChannel c) throws IOException {
+        Handler(Selector sel, SocketChannel c, RingBuffer<HandOff> handOffs) throws IOException {
+            this.handOffs = handOffs;
             socket = c;
             c.configureBlocking(false);// Optionally try first read now
             sk = socket.register(sel, 0);
@@ -153,7 +231,9 @@ final class Server implements RawFrameHandler {
             socket.read(input);
             if (inputIsComplete()) {
                 state = PROCESSING;
-                pool.execute(new Processer());
+                final long sequence = handOffs.next();
+                handOffs.get(sequence).handler = this;
+                handOffs.publish(sequence);
             }
         }
 
@@ -169,8 +249,6 @@ final class Server implements RawFrameHandler {
             state = SENDING;        // Normally also do first write now
         }
 
-        class Processer implements Runnable {    public void run() { processAndHandOff(); }  }
-
         class Sender implements Runnable {
             public void run(){ // ...
                 try {
@@ -33,22 +33,65 @@ public interface SettingsFrame extends Frame {
     int INITIAL_WINDOW_SIZE = 0x4;
     int MAX_FRAME_SIZE = 0x5;
     int MAX_HEADER_LIST_SIZE = 0x6;
+    int ENABLE_CONNECT_PROTOCOL = 0x8;
+    int NO_RFC7540_PRIORITIES = 0x9;
 
     // parameter default values
     int DEFAULT_HEADER_TABLE_SIZE = 1 << 12;
     int DEFAULT_ENABLE_PUSH = 1;
     int DEFAULT_MAX_CONCURRENT_STREAMS = 100;
-    int DEFAULT_INITIAL_WINDOW_SIZE = 1 << 16 - 1;
+    int DEFAULT_INITIAL_WINDOW_SIZE = (1 << 16) - 1;
     int DEFAULT_MAX_FRAME_SIZE = 1 << 14;
     int DEFAULT_MAX_HEADER_LIST_SIZE = 1 << 12;
+    int DEFAULT_ENABLE_CONNECT_PROTOCOL = 0;
+    int DEFAULT_NO_RFC7540_PRIORITIES = 0;
 
     // other useful parameter values
     int PUSH_ENABLED = 1;
     int PUSH_DISABLED = 0;
 
+    /**
+     * Returns parameter value carried by this frame or its default value if not present.
+     * Unknown parameters default to <code>0</code>.
+     * @param paramIdentifier parameter identifier
+     * @return parameter value
+     */
     int getParameter(int paramIdentifier);
 
+    /**
+     * Returns whether this frame carries given parameter.
+     * @param paramIdentifier parameter identifier
+     * @return true if parameter is present, false otherwise
+     */
+    boolean hasParameter(int paramIdentifier);
+
+    /**
+     * Returns number of parameters carried by this frame.
+     * @return parameters count
+     */
+    int getParameterCount();
+
+    /**
+     * Returns identifier of the parameter at given position.
+     * @param index parameter position in the order it was set
+     * @return parameter identifier
+     */
+    int getParameterId(int index);
+
+    /**
+     * Returns value of the parameter at given position.
+     * @param index parameter position in the order it was set
+     * @return parameter value
+     */
+    int getParameterValue(int index);
+
     interface Builder extends Frame.Builder {
+        /**
+         * Sets parameter to be carried by this frame. Only explicitly set parameters are serialized,
+         * in the order they were first set. Setting the same parameter again overwrites its value.
+         * @param identifier 16-bit parameter identifier
+         * @param value parameter value
+         */
         void setParameter(int identifier, int value);
         SettingsFrame build();
     }
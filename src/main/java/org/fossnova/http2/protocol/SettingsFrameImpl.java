@@ -19,104 +19,111 @@
  */
 package org.fossnova.http2.protocol;
 
+import java.util.Arrays;
+
 /**
+ * Parameters are kept in a primitive array of <code>(id &lt;&lt; 32 | value)</code> entries
+ * preserving the order they were set in.
+ *
  * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
  */
 final class SettingsFrameImpl extends AbstractFrameImpl implements SettingsFrame {
-    private final int[] settings;
+    private static final long[] NO_PARAMETERS = new long[0];
+    private final long[] settings;
+    private final int count;
 
-    SettingsFrameImpl(final int payloadSize, final byte flags, final int[] settings) {
+    SettingsFrameImpl(final int payloadSize, final byte flags, final long[] settings, final int count) {
         super(payloadSize, FrameType.SETTINGS, flags, 0);
         this.settings = settings;
+        this.count = count;
     }
 
     @Override
     public int getParameter(final int paramId) {
-        return (paramId < 1 || paramId > 6) ? 0 : settings[paramId - 1];
+        final int index = indexOf(settings, count, paramId);
+        return index < 0 ? defaultValue(paramId) : (int) settings[index];
+    }
+
+    @Override
+    public boolean hasParameter(final int paramId) {
+        return indexOf(settings, count, paramId) >= 0;
+    }
+
+    @Override
+    public int getParameterCount() {
+        return count;
+    }
+
+    @Override
+    public int getParameterId(final int index) {
+        ensureIndex(index);
+        return (int) (settings[index] >>> 32);
+    }
+
+    @Override
+    public int getParameterValue(final int index) {
+        ensureIndex(index);
+        return (int) settings[index];
     }
 
     byte[] writePayload() {
-        if (settings == null) return EMPTY_ARRAY;
-        final byte[] buffer = new byte[getPayloadSize()];
-        int i = 0;
-        // serialize SETTINGS_HEADER_TABLE_SIZE
-        buffer[i++] = (byte)(HEADER_TABLE_SIZE >>> 8);
-        buffer[i++] = (byte)(HEADER_TABLE_SIZE);
-        buffer[i++] = (byte)(settings[HEADER_TABLE_SIZE - 1] >>> 24);
-        buffer[i++] = (byte)(settings[HEADER_TABLE_SIZE - 1] >>> 16);
-        buffer[i++] = (byte)(settings[HEADER_TABLE_SIZE - 1] >>> 8);
-        buffer[i++] = (byte)(settings[HEADER_TABLE_SIZE - 1]);
-        // serialize SETTINGS_ENABLE_PUSH
-        buffer[i++] = (byte)(ENABLE_PUSH >>> 8);
-        buffer[i++] = (byte)(ENABLE_PUSH);
-        buffer[i++] = (byte)(settings[ENABLE_PUSH - 1] >>> 24);
-        buffer[i++] = (byte)(settings[ENABLE_PUSH - 1] >>> 16);
-        buffer[i++] = (byte)(settings[ENABLE_PUSH - 1] >>> 8);
-        buffer[i++] = (byte)(settings[ENABLE_PUSH - 1]);
-        // serialize SETTINGS_MAX_CONCURRENT_STREAMS
-        buffer[i++] = (byte)(MAX_CONCURRENT_STREAMS >>> 8);
-        buffer[i++] = (byte)(MAX_CONCURRENT_STREAMS);
-        buffer[i++] = (byte)(settings[MAX_CONCURRENT_STREAMS - 1] >>> 24);
-        buffer[i++] = (byte)(settings[MAX_CONCURRENT_STREAMS - 1] >>> 16);
-        buffer[i++] = (byte)(settings[MAX_CONCURRENT_STREAMS - 1] >>> 8);
-        buffer[i++] = (byte)(settings[MAX_CONCURRENT_STREAMS - 1]);
-        // serialize SETTINGS_INITIAL_WINDOW_SIZE
-        buffer[i++] = (byte)(INITIAL_WINDOW_SIZE >>> 8);
-        buffer[i++] = (byte)(INITIAL_WINDOW_SIZE);
-        buffer[i++] = (byte)(settings[INITIAL_WINDOW_SIZE - 1] >>> 24);
-        buffer[i++] = (byte)(settings[INITIAL_WINDOW_SIZE - 1] >>> 16);
-        buffer[i++] = (byte)(settings[INITIAL_WINDOW_SIZE - 1] >>> 8);
-        buffer[i++] = (byte)(settings[INITIAL_WINDOW_SIZE - 1]);
-        // serialize SETTINGS_MAX_FRAME_SIZE
-        buffer[i++] = (byte)(MAX_FRAME_SIZE >>> 8);
-        buffer[i++] = (byte)(MAX_FRAME_SIZE);
-        buffer[i++] = (byte)(settings[MAX_FRAME_SIZE - 1] >>> 24);
-        buffer[i++] = (byte)(settings[MAX_FRAME_SIZE - 1] >>> 16);
-        buffer[i++] = (byte)(settings[MAX_FRAME_SIZE - 1] >>> 8);
-        buffer[i++] = (byte)(settings[MAX_FRAME_SIZE - 1]);
-        // serialize SETTINGS_MAX_HEADER_LIST_SIZE
-        buffer[i++] = (byte)(MAX_HEADER_LIST_SIZE >>> 8);
-        buffer[i++] = (byte)(MAX_HEADER_LIST_SIZE);
-        buffer[i++] = (byte)(settings[MAX_HEADER_LIST_SIZE - 1] >>> 24);
-        buffer[i++] = (byte)(settings[MAX_HEADER_LIST_SIZE - 1] >>> 16);
-        buffer[i++] = (byte)(settings[MAX_HEADER_LIST_SIZE - 1] >>> 8);
-        buffer[i++] = (byte)(settings[MAX_HEADER_LIST_SIZE - 1]);
+        if (count == 0) return EMPTY_ARRAY;
+        final byte[] buffer = new byte[count * 6];
+        long entry;
+        for (int i = 0, j = 0; j < count; i += 6, j++) {
+            entry = settings[j];
+            WireCodec.putShort(buffer, i, (int) (entry >>> 32));
+            WireCodec.putInt(buffer, i + 2, (int) entry);
+        }
         return buffer;
     }
 
     static SettingsFrameImpl readFrom(final byte[] buffer, final Builder builder) {
-        int i = 0;
-        int id, value;
-        for (int j = 0; j < builder.payloadSize / 6; j++) {
-            // settings name
-            id = 0x00_00_FF_00 & buffer[i++] << 8;
-            id |= 0x00_00_00_FF & buffer[i++];
-            // settings value
-            value = 0xFF_00_00_00 & buffer[i++] << 24;
-            value |= 0x00_FF_00_00 & buffer[i++] << 16;
-            value |= 0x00_00_FF_00 & buffer[i++] << 8;
-            value |= 0x00_00_00_FF & buffer[i++];
-            builder.setParameter(id, value);
+        for (int i = 0; i < builder.payloadSize; i += 6) {
+            builder.setParameter(WireCodec.getUnsignedShort(buffer, i), WireCodec.getInt(buffer, i + 2));
         }
         return builder.build();
     }
 
-    final static class Builder extends AbstractFrameImpl.Builder implements SettingsFrame.Builder {
-        private static final int[] DEFAULT_VALUES = {
-                DEFAULT_HEADER_TABLE_SIZE, DEFAULT_ENABLE_PUSH, DEFAULT_MAX_CONCURRENT_STREAMS, DEFAULT_INITIAL_WINDOW_SIZE, DEFAULT_MAX_FRAME_SIZE, DEFAULT_MAX_HEADER_LIST_SIZE
-        };
+    private void ensureIndex(final int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private static int indexOf(final long[] settings, final int count, final int id) {
+        for (int i = 0; i < count; i++) {
+            if ((int) (settings[i] >>> 32) == id) return i;
+        }
+        return -1;
+    }
 
-        int[] values;
+    private static int defaultValue(final int id) {
+        switch (id) {
+            case HEADER_TABLE_SIZE: return DEFAULT_HEADER_TABLE_SIZE;
+            case ENABLE_PUSH: return DEFAULT_ENABLE_PUSH;
+            case MAX_CONCURRENT_STREAMS: return DEFAULT_MAX_CONCURRENT_STREAMS;
+            case INITIAL_WINDOW_SIZE: return DEFAULT_INITIAL_WINDOW_SIZE;
+            case MAX_FRAME_SIZE: return DEFAULT_MAX_FRAME_SIZE;
+            case MAX_HEADER_LIST_SIZE: return DEFAULT_MAX_HEADER_LIST_SIZE;
+            case ENABLE_CONNECT_PROTOCOL: return DEFAULT_ENABLE_CONNECT_PROTOCOL;
+            case NO_RFC7540_PRIORITIES: return DEFAULT_NO_RFC7540_PRIORITIES;
+            default: return 0;
+        }
+    }
+
+    final static class Builder extends AbstractFrameImpl.Builder implements SettingsFrame.Builder {
+        long[] values = NO_PARAMETERS;
+        int count;
         boolean built;
 
         Builder(final boolean server, final boolean request, final boolean validate) {
-            super(server, request, validate);
+            super(FrameType.SETTINGS, server, request, validate);
         }
 
-        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final FrameType frameType, final byte flags, final int streamId) {
-            super(server, request, validate);
+        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final byte flags, final int streamId) {
+            super(FrameType.SETTINGS, server, request, validate);
             super.setPayloadSize(payloadSize);
-            super.setFrameType(frameType);
             super.setFlags(flags);
             super.setStreamId(streamId);
         }
@@ -126,8 +133,7 @@ final class SettingsFrameImpl extends AbstractFrameImpl implements SettingsFrame
             // preconditions
             ensureThreadSafety();
             ensureNotBuilt();
-            if (values == null) values = DEFAULT_VALUES.clone();
-            if (id < 1 || id > 6) return;
+            if ((id & ~0xFFFF) != 0) throw new IllegalArgumentException();
             // validation
             if (validate) {
                 if (id == HEADER_TABLE_SIZE) {
@@ -139,14 +145,27 @@ final class SettingsFrameImpl extends AbstractFrameImpl implements SettingsFrame
                 } else if (id == INITIAL_WINDOW_SIZE) {
                     if (value < 0) throw new IllegalArgumentException();
                 } else if (id == MAX_FRAME_SIZE) {
-                    if (value < 1 << 14 || value > 1 << 24) throw new IllegalArgumentException();
+                    if (value < 1 << 14 || value >= 1 << 24) throw new IllegalArgumentException();
                 } else if (id == MAX_HEADER_LIST_SIZE) {
                     if (value < 0) throw new IllegalArgumentException();
                     // TODO: revisit this validation once header compression is implemented
+                } else if (id == ENABLE_CONNECT_PROTOCOL) {
+                    if (value != 0 && value != 1) throw new IllegalArgumentException();
+                } else if (id == NO_RFC7540_PRIORITIES) {
+                    if (value != 0 && value != 1) throw new IllegalArgumentException();
                 }
             }
             // implementation
-            values[id - 1] = value;
+            final long entry = (long) id << 32 | value & 0xFF_FF_FF_FFL;
+            final int index = indexOf(values, count, id);
+            if (index >= 0) {
+                values[index] = entry;
+                return;
+            }
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count == 0 ? 6 : count << 1);
+            }
+            values[count++] = entry;
         }
 
         @Override
@@ -157,34 +176,13 @@ final class SettingsFrameImpl extends AbstractFrameImpl implements SettingsFrame
             // validation
             if (validate) {
                 validateStreamId(streamId);
-                if (((flags & FLAG_ACK) != 0) && values != null) {
+                if (((flags & FLAG_ACK) != 0) && count != 0) {
                     throw new IllegalStateException();
                 }
             }
             // implementation
             built = true;
-            return new SettingsFrameImpl((flags & FLAG_ACK) != 0 ? 0 : 36, (byte)flags, values);
-        }
-
-        @Override
-        void validateFlags(final int flags) {
-            if ((flags & ~FLAG_ACK) != 0) {
-                throw new IllegalArgumentException();
-            }
-        }
-
-        @Override
-        void validateStreamId(final int streamId) {
-            if (streamId != 0) {
-                throw new IllegalArgumentException();
-            }
-        }
-
-        @Override
-        void validatePayloadSize(final int payloadSize) {
-            if (payloadSize % 6 != 0) {
-                throw new IllegalArgumentException();
-            }
+            return new SettingsFrameImpl(count * 6, (byte)flags, values, count);
         }
 
         private void ensureNotBuilt() {
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Strategy used by threads waiting on the hand-off ring buffer between I/O and application threads.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public enum WaitStrategy {
+    /**
+     * Burns CPU while waiting. Lowest latency, needs dedicated cores.
+     */
+    BUSY_SPIN {
+        @Override
+        void idle(final int attempt) {
+            Threads.onSpinWait();
+        }
+    },
+    /**
+     * Yields CPU to other threads while waiting.
+     */
+    YIELD {
+        @Override
+        void idle(final int attempt) {
+            Thread.yield();
+        }
+    },
+    /**
+     * Yields for a while and then parks the thread for short periods. Lowest CPU usage.
+     */
+    PARK {
+        @Override
+        void idle(final int attempt) {
+            if (attempt < YIELD_ATTEMPTS) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    };
+
+    private static final int YIELD_ATTEMPTS = 100;
+    private static final long PARK_NANOS = 50_000L;
+
+    /**
+     * Called repeatedly while the awaited condition is not met.
+     * @param attempt number of previous unsuccessful attempts
+     */
+    abstract void idle(int attempt);
+}
@@ -25,8 +25,8 @@ package org.fossnova.http2.protocol;
 final class WindowUpdateFrameImpl extends AbstractFrameImpl implements WindowUpdateFrame {
     private final int windowInc;
 
-    WindowUpdateFrameImpl(final int windowInc) {
-        super(4, FrameType.WINDOW_UPDATE, NO_FLAGS, 0);
+    WindowUpdateFrameImpl(final int streamId, final int windowInc) {
+        super(4, FrameType.WINDOW_UPDATE, NO_FLAGS, streamId);
         this.windowInc = windowInc;
     }
 
@@ -37,21 +37,12 @@ final class WindowUpdateFrameImpl extends AbstractFrameImpl implements WindowUpd
 
     byte[] writePayload() {
         final byte[] buffer = new byte[getPayloadSize()];
-        int i = 0;
-        buffer[i++] = (byte)(windowInc >>> 24);
-        buffer[i++] = (byte)(windowInc >>> 16);
-        buffer[i++] = (byte)(windowInc >>> 8);
-        buffer[i++] = (byte)(windowInc);
+        WireCodec.putInt(buffer, 0, windowInc & WireCodec.MASK_31_BITS);
         return buffer;
     }
 
     static WindowUpdateFrameImpl readFrom(final byte[] buffer, final Builder builder) {
-        int i = 0;
-        int windowInc = 0xFF_00_00_00 & buffer[i++] << 24;
-        windowInc |= 0x00_FF_00_00 & buffer[i++] << 16;
-        windowInc |= 0x00_00_FF_00 & buffer[i++] << 8;
-        windowInc |= 0x00_00_00_FF & buffer[i++];
-        builder.setWindowSizeIncrement(windowInc);
+        builder.setWindowSizeIncrement(WireCodec.get31Bits(buffer, 0));
         return builder.build();
     }
 
@@ -60,13 +51,12 @@ final class WindowUpdateFrameImpl extends AbstractFrameImpl implements WindowUpd
         boolean built;
 
         Builder(final boolean server, final boolean request, final boolean validate) {
-            super(server, request, validate);
+            super(FrameType.WINDOW_UPDATE, server, request, validate);
         }
 
-        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final FrameType frameType, final byte flags, final int streamId) {
-            super(server, request, validate);
+        Builder(final boolean server, final boolean request, final boolean validate, final int payloadSize, final byte flags, final int streamId) {
+            super(FrameType.WINDOW_UPDATE, server, request, validate);
             super.setPayloadSize(payloadSize);
-            super.setFrameType(frameType);
             super.setFlags(flags);
             super.setStreamId(streamId);
         }
@@ -94,26 +84,7 @@ final class WindowUpdateFrameImpl extends AbstractFrameImpl implements WindowUpd
             }
             // implementation
             built = true;
-            return new WindowUpdateFrameImpl(windowInc);
-        }
-
-        @Override
-        void validateFlags(final int flags) {
-            if (flags != 0) {
-                throw new IllegalArgumentException();
-            }
-        }
-
-        @Override
-        void validateStreamId(final int streamId) {
-            ; // no validation
-        }
-
-        @Override
-        void validatePayloadSize(final int payloadSize) {
-            if (payloadSize != 4) {
-                throw new IllegalArgumentException();
-            }
+            return new WindowUpdateFrameImpl(streamId, windowInc);
         }
 
         private void ensureNotBuilt() {
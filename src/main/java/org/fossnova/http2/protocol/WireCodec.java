@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Big-endian primitives shared by all frame codecs. Reads of 31-bit fields (stream identifiers,
+ * window increments) always clear the reserved bit, reads of 8 and 24-bit fields never sign-extend.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+final class WireCodec {
+
+    static final int FRAME_HEADER_SIZE = 9;
+    static final int RESERVED_BIT = 0x80_00_00_00;
+    static final int MASK_31_BITS = 0x7F_FF_FF_FF;
+
+    private WireCodec() {
+        // forbidden instantiation
+    }
+
+    static int getUnsignedByte(final byte[] buffer, final int offset) {
+        return buffer[offset] & 0xFF;
+    }
+
+    static int getUnsignedMedium(final byte[] buffer, final int offset) {
+        return (buffer[offset] & 0xFF) << 16 | (buffer[offset + 1] & 0xFF) << 8 | buffer[offset + 2] & 0xFF;
+    }
+
+    static int getUnsignedShort(final byte[] buffer, final int offset) {
+        return (buffer[offset] & 0xFF) << 8 | buffer[offset + 1] & 0xFF;
+    }
+
+    static int getInt(final byte[] buffer, final int offset) {
+        return buffer[offset] << 24 | (buffer[offset + 1] & 0xFF) << 16 | (buffer[offset + 2] & 0xFF) << 8 | buffer[offset + 3] & 0xFF;
+    }
+
+    static int get31Bits(final byte[] buffer, final int offset) {
+        return getInt(buffer, offset) & MASK_31_BITS;
+    }
+
+    static long getLong(final byte[] buffer, final int offset) {
+        return (long) getInt(buffer, offset) << 32 | getInt(buffer, offset + 4) & 0xFF_FF_FF_FFL;
+    }
+
+    static void putMedium(final byte[] buffer, final int offset, final int value) {
+        buffer[offset] = (byte) (value >>> 16);
+        buffer[offset + 1] = (byte) (value >>> 8);
+        buffer[offset + 2] = (byte) value;
+    }
+
+    static void putShort(final byte[] buffer, final int offset, final int value) {
+        buffer[offset] = (byte) (value >>> 8);
+        buffer[offset + 1] = (byte) value;
+    }
+
+    static void putInt(final byte[] buffer, final int offset, final int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+
+    static void putLong(final byte[] buffer, final int offset, final long value) {
+        putInt(buffer, offset, (int) (value >>> 32));
+        putInt(buffer, offset + 4, (int) value);
+    }
+
+    static int getUnsignedMedium(final ByteBuffer buffer, final int index) {
+        return (buffer.get(index) & 0xFF) << 16 | (buffer.getShort(index + 1) & 0xFF_FF);
+    }
+
+    static int get31Bits(final ByteBuffer buffer, final int index) {
+        return buffer.getInt(index) & MASK_31_BITS;
+    }
+
+    static void putMedium(final ByteBuffer buffer, final int index, final int value) {
+        buffer.put(index, (byte) (value >>> 16));
+        buffer.putShort(index + 1, (short) value);
+    }
+
+    /**
+     * Writes 9 bytes frame header.
+     * @param buffer target buffer
+     * @param offset header offset
+     * @param payloadSize 24-bit payload length
+     * @param frameType frame type
+     * @param flags frame flags
+     * @param streamId 31-bit stream identifier, reserved bit is always cleared
+     */
+    static void putFrameHeader(final byte[] buffer, final int offset, final int payloadSize, final byte frameType, final byte flags, final int streamId) {
+        putMedium(buffer, offset, payloadSize);
+        buffer[offset + 3] = frameType;
+        buffer[offset + 4] = flags;
+        putInt(buffer, offset + 5, streamId & MASK_31_BITS);
+    }
+
+    /**
+     * Writes 9 bytes frame header at given absolute index. Buffer must be big-endian.
+     */
+    static void putFrameHeader(final ByteBuffer buffer, final int index, final int payloadSize, final byte frameType, final byte flags, final int streamId) {
+        putMedium(buffer, index, payloadSize);
+        buffer.put(index + 3, frameType);
+        buffer.put(index + 4, flags);
+        buffer.putInt(index + 5, streamId & MASK_31_BITS);
+    }
+
+}
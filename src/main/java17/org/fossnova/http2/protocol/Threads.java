@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+/**
+ * Thread primitives used by I/O and worker threads. Java 17 variant emits spin-wait hints.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+final class Threads {
+
+    private Threads() {
+        // forbidden instantiation
+    }
+
+    /**
+     * Creates unstarted daemon thread running worker loop off the I/O thread.
+     * @param task worker loop
+     * @param name thread name
+     * @param waitStrategy strategy the worker idles with
+     * @return new thread
+     */
+    static Thread newWorker(final Runnable task, final String name, final WaitStrategy waitStrategy) {
+        final Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Hints the processor that the calling thread is busy-waiting.
+     */
+    static void onSpinWait() {
+        Thread.onSpinWait();
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class HeaderFieldTestCase {
+
+    @Test
+    public void bytesAndStringBackedFieldsAreEqual() {
+        final HeaderField s = HeaderField.of(Header.CONTENT_TYPE, "text/html; charset=\u00e9");
+        final HeaderField b = of(Header.CONTENT_TYPE, "text/html; charset=\u00e9");
+        assertEquals(s, b);
+        assertEquals(b, s);
+        assertEquals(s.hashCode(), b.hashCode());
+        assertEquals(s.getSize(), b.getSize());
+        assertEquals(32 + 12 + 20, b.getSize());
+        assertFalse(s.equals(of(Header.CONTENT_TYPE, "text/html; charset=e")));
+        assertFalse(s.equals(of(Header.CONTENT_LENGTH, "text/html; charset=\u00e9")));
+    }
+
+    @Test
+    public void emptyAndNullValues() {
+        final HeaderField empty = of(Header.ACCEPT, "");
+        assertEquals(HeaderField.of(Header.ACCEPT, ""), empty);
+        assertFalse(HeaderField.of(Header.ACCEPT).equals(empty));
+        assertFalse(empty.equals(HeaderField.of(Header.ACCEPT)));
+        assertEquals(0, HeaderField.of(Header.ACCEPT).getHeaderValueLength());
+    }
+
+    @Test
+    public void lazyStringValue() {
+        final byte[] bytes = "__gzip__".getBytes(ISO_8859_1);
+        final HeaderField hf = HeaderField.of(Header.ACCEPT_ENCODING, bytes, 2, 4);
+        assertEquals(4, hf.getHeaderValueLength());
+        final String value = hf.getHeaderValue();
+        assertEquals("gzip", value);
+        assertSame(value, hf.getHeaderValue());
+    }
+
+    @Test
+    public void copyHeaderValue() {
+        final byte[] target = new byte[8];
+        assertEquals(5, of(Header.ACCEPT, "br").copyHeaderValue(target, 3));
+        assertEquals(4, HeaderField.of(Header.ACCEPT, "\u00e9").copyHeaderValue(target, 3));
+        assertEquals((byte) 0xE9, target[3]);
+        assertEquals('r', target[4]);
+    }
+
+    @Test
+    public void byteBuffers() {
+        final ByteBuffer heap = ByteBuffer.wrap("xdeflate".getBytes(ISO_8859_1));
+        heap.position(1);
+        assertEquals(HeaderField.of(Header.ACCEPT_ENCODING, "deflate"), HeaderField.of(Header.ACCEPT_ENCODING, heap.slice()));
+        assertEquals(1, heap.position());
+        final ByteBuffer direct = ByteBuffer.allocateDirect(7);
+        direct.put("deflate".getBytes(ISO_8859_1)).flip();
+        assertEquals(HeaderField.of(Header.ACCEPT_ENCODING, "deflate"), HeaderField.of(Header.ACCEPT_ENCODING, direct));
+        assertEquals(0, direct.position());
+    }
+
+    @Test
+    public void bytesAreKeptAsSent() {
+        for (final String value : new String[] {" gzip", "gzip\t", "a  b", "a\tb", "{\n  \"a\": 1\n}".replace("\n", " ")}) {
+            final HeaderField b = of(Header.ACCEPT_ENCODING, value);
+            assertEquals(value, b.getHeaderValue());
+            assertEquals(value.length(), b.getHeaderValueLength());
+            assertFalse(value, HeaderField.of(Header.ACCEPT_ENCODING, value).equals(b));
+        }
+    }
+
+    @Test
+    public void bytesAreNotCopied() {
+        final byte[] bytes = "a b c d e f g h".getBytes(ISO_8859_1);
+        final byte[] target = new byte[bytes.length];
+        final HeaderField hf = HeaderField.of(Header.ACCEPT, bytes, 0, bytes.length);
+        bytes[0] = 'z';
+        hf.copyHeaderValue(target, 0);
+        assertEquals('z', target[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void controlCharacter() {
+        of(Header.ACCEPT, "a\r\nb");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void outOfBounds() {
+        HeaderField.of(Header.ACCEPT, new byte[4], 3, 2);
+    }
+
+    private static HeaderField of(final Header name, final String value) {
+        final byte[] bytes = value.getBytes(ISO_8859_1);
+        return HeaderField.of(name, bytes, 0, bytes.length);
+    }
+
+}
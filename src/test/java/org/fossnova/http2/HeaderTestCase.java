@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class HeaderTestCase {
+
+    @Test
+    public void registeredHeadersFromBytes() {
+        assertSame(Header.CONTENT_TYPE, of("content-type"));
+        assertSame(Header.X_FRAME_OPTIONS, of("x-frame-options"));
+        assertSame(Header.A_IM, of("a-im"));
+        assertSame(Header.AUTHORITY, of(":authority"));
+        assertSame(Header.STATUS, of(":status"));
+    }
+
+    @Test
+    public void bytesAndStringsResolveSameHeaders() {
+        for (final String name : new String[] {"accept", "accept-encoding", "cookie", "user-agent", ":path"}) {
+            assertSame(Header.of(name), of(name));
+        }
+    }
+
+    @Test
+    public void unknownHeaderFromBytes() {
+        final Header h = of("x-custom-key");
+        assertEquals("x-custom-key", h.getTitleCaseName());
+        assertEquals("x-custom-key", h.getLowerCaseName());
+        assertEquals(Header.of("X-CUSTOM-KEY"), h);
+        assertNotSame(h, of("x-custom-key"));
+    }
+
+    @Test
+    public void offsetAndLength() {
+        final byte[] bytes = "__content-length__".getBytes(ISO_8859_1);
+        assertSame(Header.CONTENT_LENGTH, Header.of(bytes, 2, 14));
+        assertSame(Header.CONTENT_LANGUAGE, Header.of("xcontent-language".getBytes(ISO_8859_1), 1, 16));
+    }
+
+    @Test
+    public void upperCaseNamesAreMalformed() {
+        for (final String name : new String[] {"Content-Type", "X-FRAME-OPTIONS", "x-Custom-Key", ":Path"}) {
+            try {
+                of(name);
+                fail(name);
+            } catch (final IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownPseudoHeader() {
+        of(":custom");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonTokenCharacter() {
+        of("content type");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonAsciiCharacter() {
+        Header.of(new byte[] {'a', (byte) 0xE9}, 0, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyName() {
+        Header.of(new byte[4], 2, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void outOfBounds() {
+        Header.of(new byte[4], 2, 3);
+    }
+
+    private static Header of(final String name) {
+        return Header.of(name.getBytes(ISO_8859_1), 0, name.length());
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class Http2HeadersTestCase {
+
+    @Test
+    public void pseudoHeadersPrecedeRegularHeaders() {
+        final Http2Headers headers = Http2Headers.newInstance();
+        headers.add(Header.ACCEPT, "*/*");
+        headers.add(Header.PATH, "/");
+        headers.add(Header.USER_AGENT, "test");
+        headers.add(Header.METHOD, "GET");
+        assertEquals(4, headers.size());
+        assertEquals(Header.METHOD, headers.get(0).getHeaderName());
+        assertEquals(Header.PATH, headers.get(1).getHeaderName());
+        assertEquals(Header.ACCEPT, headers.get(2).getHeaderName());
+        assertEquals(Header.USER_AGENT, headers.get(3).getHeaderName());
+        assertEquals(1, headers.indexOf(Header.PATH));
+        assertEquals(-1, headers.nextIndexOf(1));
+        assertEquals(3, headers.indexOf(Header.USER_AGENT));
+        assertEquals(-1, headers.indexOf(Header.STATUS));
+    }
+
+    @Test
+    public void multipleValues() {
+        final Http2Headers headers = Http2Headers.newInstance();
+        headers.add(Header.COOKIE, "a=1");
+        headers.add(Header.ACCEPT, "*/*");
+        headers.add(Header.COOKIE, "b=2");
+        headers.add(Header.of("x-custom"), "x");
+        headers.add(Header.COOKIE, "c=3");
+        assertEquals(3, headers.count(Header.COOKIE));
+        assertEquals("a=1", headers.get(Header.COOKIE));
+        final List<String> values = new ArrayList<>();
+        for (int i = headers.indexOf(Header.COOKIE); i != -1; i = headers.nextIndexOf(i)) {
+            values.add(headers.get(i).getHeaderValue());
+        }
+        assertEquals(Arrays.asList("a=1", "b=2", "c=3"), values);
+        // header names which are not registered are matched by equality
+        assertEquals("x", headers.get(Header.of("X-Custom")));
+        assertNull(headers.get(Header.ALLOW));
+        assertFalse(headers.contains(Header.ALLOW));
+    }
+
+    @Test
+    public void removeAndSet() {
+        final Http2Headers headers = Http2Headers.newInstance();
+        headers.add(Header.STATUS, "200");
+        headers.add(Header.COOKIE, "a=1");
+        headers.add(Header.ACCEPT, "*/*");
+        headers.add(Header.COOKIE, "b=2");
+        final long size = headers.getHeaderListSize();
+        assertEquals(2, headers.remove(Header.COOKIE));
+        assertEquals(0, headers.remove(Header.COOKIE));
+        assertEquals(2, headers.size());
+        assertEquals(HeaderField.of(Header.ACCEPT, "*/*"), headers.get(1));
+        assertEquals(size - HeaderField.of(Header.COOKIE, "a=1").getSize() - HeaderField.of(Header.COOKIE, "b=2").getSize(), headers.getHeaderListSize());
+        headers.set(Header.STATUS, "404");
+        headers.set(Header.ACCEPT, "text/html");
+        headers.add(Header.ACCEPT, "text/plain");
+        assertEquals("404", headers.get(Header.STATUS));
+        assertEquals(2, headers.count(Header.ACCEPT));
+        assertEquals(HeaderField.of(Header.ACCEPT, "text/html"), headers.get(1));
+        assertEquals(1, headers.remove(Header.STATUS));
+        assertEquals(2, headers.size());
+        headers.clear();
+        assertTrue(headers.isEmpty());
+        assertEquals(0, headers.getHeaderListSize());
+        assertFalse(headers.contains(Header.ACCEPT));
+    }
+
+    @Test
+    public void growth() {
+        final Http2Headers headers = Http2Headers.newInstance();
+        for (int i = 0; i < 1000; i++) {
+            headers.add(Header.of("x-header-" + (i % 100)), String.valueOf(i));
+        }
+        assertEquals(1000, headers.size());
+        for (int i = 0; i < 100; i++) {
+            final Header name = Header.of("x-header-" + i);
+            assertEquals(10, headers.count(name));
+            assertEquals(String.valueOf(i), headers.get(name));
+        }
+        assertEquals(10, headers.remove(Header.of("x-header-7")));
+        assertEquals(990, headers.size());
+        assertEquals("17", headers.get(Header.of("x-header-17")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicatePseudoHeader() {
+        Http2Headers.newInstance().add(Header.METHOD, "GET").add(Header.METHOD, "POST");
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void indexOutOfBounds() {
+        Http2Headers.newInstance().add(Header.METHOD, "GET").get(1);
+    }
+
+}
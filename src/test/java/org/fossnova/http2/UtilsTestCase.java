@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class UtilsTestCase {
+
+    @Test
+    public void cleanValueIsNotCopied() {
+        final String value = "text/html; charset=utf-8";
+        assertSame(value, Utils.validateHeaderValue(value));
+        final String empty = "";
+        assertSame(empty, Utils.validateHeaderValue(empty));
+    }
+
+    @Test
+    public void whitespaceNormalization() {
+        assertEquals("gzip, deflate", Utils.validateHeaderValue("  gzip, deflate"));
+        assertEquals("gzip, deflate", Utils.validateHeaderValue("gzip, deflate \t "));
+        assertEquals("a b", Utils.validateHeaderValue("a\tb"));
+        assertEquals("a b", Utils.validateHeaderValue("a  \t  b"));
+        assertEquals("a b c", Utils.validateHeaderValue(" a\r\n b \r\n\tc "));
+        assertEquals("", Utils.validateHeaderValue(" \t "));
+    }
+
+    @Test
+    public void obsTextIsAllowed() {
+        assertEquals("caf\u00e9", Utils.validateHeaderValue("caf\u00e9"));
+    }
+
+    @Test
+    public void invalidCharacters() {
+        for (final String value : new String[] {"a\rb", "a\nb", "a\r\nb", "a\r\n", "a\u0000b", "a\u007fb", "a\u0100b", "\u0120a"}) {
+            try {
+                Utils.validateHeaderValue(value);
+                fail(value);
+            } catch (final IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void octetsMatchCharacterValidation() {
+        final byte[] bytes = new byte[21];
+        for (int invalid = 0; invalid < 256; invalid++) {
+            final boolean valid = invalid == ' ' || invalid == '\t' || 0x21 <= invalid && invalid <= 0x7E || 0x80 <= invalid;
+            for (int position = 0; position < bytes.length; position++) {
+                Arrays.fill(bytes, (byte) 'x');
+                bytes[position] = (byte) invalid;
+                try {
+                    Utils.validateHeaderValue(bytes, 0, bytes.length);
+                    assertTrue(invalid + "@" + position, valid);
+                } catch (final IllegalArgumentException e) {
+                    assertFalse(invalid + "@" + position, valid);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void octetsOutsideOfRangeAreIgnored() {
+        final byte[] bytes = {0, 'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 0};
+        Utils.validateHeaderValue(bytes, 1, 9);
+    }
+
+    @Test
+    public void characterClasses() {
+        for (char c = 0; c < 0x200; c++) {
+            final boolean alpha = 'a' <= c && c <= 'z' || 'A' <= c && c <= 'Z';
+            final boolean digit = '0' <= c && c <= '9';
+            assertEquals(alpha, Utils.isAlphaChar(c));
+            assertEquals(digit, Utils.isDigitChar(c));
+            assertEquals(alpha || digit || "!#$%&'*+-.^_`|~".indexOf(c) != -1, Utils.isTokenChar(c));
+            assertEquals(alpha || digit || "+-.".indexOf(c) != -1, Utils.isSchemeChar(c));
+        }
+    }
+
+}
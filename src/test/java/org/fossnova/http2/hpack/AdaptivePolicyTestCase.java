@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.hpack;
+
+import static org.junit.Assert.*;
+
+import org.fossnova.http2.Header;
+import org.fossnova.http2.HeaderField;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class AdaptivePolicyTestCase {
+
+    private static final HpackEncoder.Policy INDEX_ALL = new HpackEncoder.Policy() {
+        @Override
+        public boolean indexize(final HeaderField hf) {
+            return true;
+        }
+
+        @Override
+        public boolean huffmanize(final HeaderField hf) {
+            return true;
+        }
+    };
+
+    @Test
+    public void repeatedFieldIsIndexedOnSecondSighting() {
+        final AdaptivePolicy policy = new AdaptivePolicy(4096);
+        final HeaderField hf = HeaderField.of(Header.USER_AGENT, "curl/8.0");
+        assertFalse(policy.indexize(hf));
+        assertTrue(policy.indexize(hf));
+    }
+
+    @Test
+    public void uniqueFieldsAreNeverIndexed() {
+        final AdaptivePolicy policy = new AdaptivePolicy(4096);
+        int indexed = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (policy.indexize(HeaderField.of(Header.of("x-request-id"), "req-" + i))) indexed++;
+        }
+        // count-min sketch overestimates only on collisions
+        assertTrue(indexed < 100);
+    }
+
+    @Test
+    public void credentialsAreNotSensitiveByDefault() {
+        final AdaptivePolicy policy = new AdaptivePolicy(4096);
+        assertFalse(policy.sensitive(HeaderField.of(Header.AUTHORIZATION, "Bearer abc")));
+        assertFalse(policy.sensitive(HeaderField.of(Header.COOKIE, "sid=31d4d96e407a")));
+    }
+
+    @Test
+    public void credentialsAndShortCookiesAreSensitive() {
+        final AdaptivePolicy policy = new AdaptivePolicy(4096, true);
+        assertTrue(policy.sensitive(HeaderField.of(Header.AUTHORIZATION, "Bearer abc")));
+        assertTrue(policy.sensitive(HeaderField.of(Header.PROXY_AUTHORIZATION, "Basic YWxhZGRpbg==")));
+        assertTrue(policy.sensitive(HeaderField.of(Header.COOKIE, "sid=31d4d96e407a")));
+        assertFalse(policy.sensitive(HeaderField.of(Header.COOKIE, "consent=analytics,marketing")));
+        assertFalse(policy.sensitive(HeaderField.of(Header.ACCEPT, "*/*")));
+    }
+
+    @Test
+    public void largeFieldsAreNeverIndexed() {
+        final AdaptivePolicy policy = new AdaptivePolicy(256);
+        final HeaderField large = HeaderField.of(Header.USER_AGENT, "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36");
+        for (int i = 0; i < 10; i++) {
+            assertFalse(policy.indexize(large));
+        }
+    }
+
+    @Test
+    public void betterCompressionThanIndexingEverything() {
+        final HpackEncoder adaptive = EncoderImpl.newAdaptiveInstance(4096, false);
+        final HpackEncoder indexAll = EncoderImpl.newInstance(INDEX_ALL, 4096, false);
+        long adaptiveSize = 0;
+        long indexAllSize = 0;
+        for (int i = 0; i < 1_000; i++) {
+            adaptiveSize += encodeRequest(adaptive, i);
+            indexAllSize += encodeRequest(indexAll, i);
+        }
+        assertTrue(adaptiveSize + " < " + indexAllSize, adaptiveSize < indexAllSize);
+    }
+
+    private static int encodeRequest(final HpackEncoder encoder, final int i) {
+        encoder.add(HeaderField.of(Header.METHOD, "GET"));
+        encoder.add(HeaderField.of(Header.SCHEME, "https"));
+        encoder.add(HeaderField.of(Header.AUTHORITY, "api.example.com"));
+        encoder.add(HeaderField.of(Header.PATH, "/v1/items/" + i + "?fields=name,price&page=" + i * 7));
+        encoder.add(HeaderField.of(Header.USER_AGENT, "example-client/2.3.1 (linux; x86_64)"));
+        encoder.add(HeaderField.of(Header.ACCEPT, "application/json"));
+        encoder.add(HeaderField.of(Header.COOKIE, "session=4f1c9a0d2b7e48d19b5f0a3c6e2d7b81"));
+        encoder.add(HeaderField.of(Header.of("x-request-id"), "3c7e9a12-" + Integer.toHexString(i * 2654435761L > 0 ? i * 31 : i) + "-4b6d-9f20-" + i));
+        return encoder.finish().length;
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.hpack;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.fossnova.http2.Header;
+import org.fossnova.http2.HeaderField;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class DynamicTableTestCase {
+
+    private static final int NAMES = 20;
+    private static final int VALUES = 10;
+
+    @Test
+    public void indexesMatchLinearSearch() {
+        final Random random = new Random(42);
+        final DynamicTable table = new DynamicTable(1024);
+        final List<HeaderField> model = new ArrayList<>();
+        int maxSize = 1024;
+        for (int round = 0; round < 20_000; round++) {
+            if (round % 2_000 == 1_999) {
+                maxSize = 256 + random.nextInt(4096);
+                table.setMaxSize(maxSize);
+                evict(model, maxSize);
+            }
+            final HeaderField hf = newHeaderField(random);
+            table.add(hf);
+            model.add(0, hf);
+            evict(model, maxSize);
+            assertEquals(model.size(), table.length());
+            final HeaderField probe = newHeaderField(random);
+            assertEquals(model.indexOf(probe) + 1 > 0 ? model.indexOf(probe) + 1 : -1, table.indexOf(probe));
+            int nameIndex = -1;
+            for (int i = 0; i < model.size(); i++) {
+                if (model.get(i).getHeaderName().equals(probe.getHeaderName())) {
+                    nameIndex = i + 1;
+                    break;
+                }
+            }
+            assertEquals(nameIndex, table.indexOf(probe.getHeaderName()));
+        }
+        for (int i = 0; i < model.size(); i++) {
+            assertSame(model.get(i), table.get(i + 1));
+        }
+    }
+
+    @Test
+    public void duplicatesResolveToNewestEntry() {
+        final DynamicTable table = new DynamicTable(4096);
+        final HeaderField hf = HeaderField.of(Header.of("x-a"), "1");
+        table.add(hf);
+        table.add(HeaderField.of(Header.of("x-b"), "2"));
+        table.add(HeaderField.of(Header.of("x-a"), "1"));
+        assertEquals(1, table.indexOf(hf));
+        assertEquals(1, table.indexOf(Header.of("x-a")));
+        assertEquals(2, table.indexOf(Header.of("x-b")));
+    }
+
+    @Test
+    public void oversizedEntryEmptiesTable() {
+        final DynamicTable table = new DynamicTable(64);
+        final HeaderField hf = HeaderField.of(Header.of("x-a"), "1");
+        table.add(hf);
+        table.add(HeaderField.of(Header.of("x-b"), new String(new char[64]).replace('\0', 'b')));
+        assertEquals(0, table.length());
+        assertEquals(0, table.size());
+        assertEquals(-1, table.indexOf(hf));
+        assertEquals(-1, table.indexOf(hf.getHeaderName()));
+    }
+
+    @Test
+    public void malformedEntriesFollowTheirPositions() {
+        final DynamicTable table = new DynamicTable(0);
+        table.setMaxSize(36);
+        table.addMalformed(HeaderField.of(Header.of("x-a"), "1"));
+        assertTrue(table.isMalformed(1));
+        table.setMaxSize(4096);
+        table.add(HeaderField.of(Header.of("x-b"), "2"));
+        assertFalse(table.isMalformed(1));
+        assertTrue(table.isMalformed(2));
+        table.setMaxSize(36);
+        table.add(HeaderField.of(Header.of("x-c"), "3"));
+        assertEquals(1, table.length());
+        assertFalse(table.isMalformed(1));
+    }
+
+    private static HeaderField newHeaderField(final Random random) {
+        return HeaderField.of(Header.of("x-name-" + random.nextInt(NAMES)), "value-" + random.nextInt(VALUES));
+    }
+
+    private static void evict(final List<HeaderField> model, final int maxSize) {
+        int size = 0;
+        for (final HeaderField hf : model) {
+            size += hf.getSize();
+        }
+        while (size > maxSize) {
+            size -= model.remove(model.size() - 1).getSize();
+        }
+    }
+
+}
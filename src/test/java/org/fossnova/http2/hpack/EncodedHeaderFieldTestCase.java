@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.hpack;
+
+import static org.junit.Assert.*;
+
+import org.fossnova.http2.Header;
+import org.fossnova.http2.HeaderField;
+import org.fossnova.http2.Method;
+import org.fossnova.http2.Scheme;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class EncodedHeaderFieldTestCase {
+
+    private static final HpackEncoder.Policy INDEX_AND_HUFFMANIZE_ALL = new HpackEncoder.Policy() {
+        @Override
+        public boolean indexize(final HeaderField hf) {
+            return true;
+        }
+
+        @Override
+        public boolean huffmanize(final HeaderField hf) {
+            return true;
+        }
+    };
+
+    private static final HpackEncoder.Policy INDEX_NONE = new HpackEncoder.Policy() {
+        @Override
+        public boolean indexize(final HeaderField hf) {
+            return false;
+        }
+
+        @Override
+        public boolean huffmanize(final HeaderField hf) {
+            return true;
+        }
+    };
+
+    @Test
+    public void staticTableMatch() {
+        final EncodedHeaderField ehf = EncodedHeaderField.of(HeaderField.of(Header.STATUS, "200"));
+        assertEquals(8, ehf.staticIndex());
+        final HpackEncoder encoder = EncoderImpl.newInstance(INDEX_NONE, 4096, true);
+        encoder.add(ehf);
+        assertArrayEquals(hex("88"), encoder.finish());
+    }
+
+    @Test
+    public void literalWithStaticName() {
+        final EncodedHeaderField ehf = EncodedHeaderField.of(HeaderField.of(Header.CACHE_CONTROL, "private"));
+        assertEquals(-1, ehf.staticIndex());
+        assertEquals(24, ehf.staticNameIndex());
+        assertArrayEquals(hex("0f0985aec3771a4b"), ehf.withoutIndexing());
+        assertSame(ehf.withoutIndexing(), ehf.withoutIndexing());
+    }
+
+    @Test
+    public void literalWithLiteralName() {
+        final EncodedHeaderField ehf = EncodedHeaderField.of(HeaderField.of(Header.of("custom-key"), "custom-value"));
+        assertArrayEquals(hex("8825a849e95ba97d7f"), ehf.name());
+        assertArrayEquals(hex("8925a849e95bb8e8b4bf"), ehf.value());
+        assertArrayEquals(hex("008825a849e95ba97d7f8925a849e95bb8e8b4bf"), ehf.withoutIndexing());
+    }
+
+    @Test
+    public void sharedAcrossEncoders() {
+        final EncodedHeaderField ehf = EncodedHeaderField.of(HeaderField.of(Header.CACHE_CONTROL, "private"));
+        final HpackEncoder first = EncoderImpl.newInstance(INDEX_NONE, 4096, true);
+        final HpackEncoder second = EncoderImpl.newInstance(INDEX_NONE, 4096, true);
+        first.add(ehf);
+        second.add(ehf);
+        final HeaderField hf = ehf.getHeaderField();
+        final HpackEncoder plain = EncoderImpl.newInstance(INDEX_NONE, 4096, true);
+        plain.add(hf);
+        final byte[] expected = plain.finish();
+        assertArrayEquals(expected, first.finish());
+        assertArrayEquals(expected, second.finish());
+    }
+
+    @Test
+    public void sameOutputAsPlainHeaderFields() {
+        final HpackEncoder plain = EncoderImpl.newInstance(INDEX_AND_HUFFMANIZE_ALL, 4096, false);
+        final HpackEncoder cached = EncoderImpl.newInstance(INDEX_AND_HUFFMANIZE_ALL, 4096, false);
+        final HeaderField[][] blocks = {
+            {
+                HeaderField.of(Header.METHOD, Method.GET.getName()),
+                HeaderField.of(Header.SCHEME, Scheme.HTTP.getName()),
+                HeaderField.of(Header.PATH, "/"),
+                HeaderField.of(Header.AUTHORITY, "www.example.com"),
+            },
+            {
+                HeaderField.of(Header.METHOD, Method.GET.getName()),
+                HeaderField.of(Header.SCHEME, Scheme.HTTP.getName()),
+                HeaderField.of(Header.PATH, "/"),
+                HeaderField.of(Header.AUTHORITY, "www.example.com"),
+                HeaderField.of(Header.CACHE_CONTROL, "no-cache"),
+            },
+            {
+                HeaderField.of(Header.METHOD, Method.GET.getName()),
+                HeaderField.of(Header.SCHEME, Scheme.HTTPS.getName()),
+                HeaderField.of(Header.PATH, "/index.html"),
+                HeaderField.of(Header.AUTHORITY, "www.example.com"),
+                HeaderField.of(Header.of("custom-key"), "custom-value"),
+            },
+        };
+        for (final HeaderField[] block : blocks) {
+            for (final HeaderField hf : block) {
+                plain.add(hf);
+                cached.add(EncodedHeaderField.of(hf));
+            }
+            assertArrayEquals(plain.finish(), cached.finish());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullHeaderField() {
+        EncodedHeaderField.of(null);
+    }
+
+    private static byte[] hex(final String s) {
+        final byte[] retVal = new byte[s.length() / 2];
+        for (int i = 0; i < retVal.length; i++) {
+            retVal[i] = (byte) Integer.parseInt(s.substring(2 * i, 2 * i + 2), 16);
+        }
+        return retVal;
+    }
+
+}
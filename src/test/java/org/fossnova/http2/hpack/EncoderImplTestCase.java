@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.hpack;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.fossnova.http2.Header;
+import org.fossnova.http2.HeaderField;
+import org.fossnova.http2.Method;
+import org.fossnova.http2.Scheme;
+import org.junit.Test;
+
+/**
+ * Expectations come from <code>RFC7541</code> Appendix C.3.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class EncoderImplTestCase {
+
+    private static final HpackEncoder.Policy INDEX_ALL = new HpackEncoder.Policy() {
+        @Override
+        public boolean indexize(final HeaderField hf) {
+            return true;
+        }
+
+        @Override
+        public boolean huffmanize(final HeaderField hf) {
+            return false;
+        }
+    };
+
+    private static final HpackEncoder.Policy INDEX_AND_HUFFMANIZE_ALL = new HpackEncoder.Policy() {
+        @Override
+        public boolean indexize(final HeaderField hf) {
+            return true;
+        }
+
+        @Override
+        public boolean huffmanize(final HeaderField hf) {
+            return true;
+        }
+    };
+
+    @Test
+    public void requestsWithoutHuffmanCoding() {
+        final HpackEncoder encoder = EncoderImpl.newInstance(INDEX_ALL, 4096, false);
+        encoder.add(HeaderField.of(Header.METHOD, Method.GET.getName()));
+        encoder.add(HeaderField.of(Header.SCHEME, Scheme.HTTP.getName()));
+        encoder.add(HeaderField.of(Header.PATH, "/"));
+        encoder.add(HeaderField.of(Header.AUTHORITY, "www.example.com"));
+        assertArrayEquals(hex("828684410f7777772e6578616d706c652e636f6d"), encoder.finish());
+
+        encoder.add(HeaderField.of(Header.METHOD, Method.GET.getName()));
+        encoder.add(HeaderField.of(Header.SCHEME, Scheme.HTTP.getName()));
+        encoder.add(HeaderField.of(Header.PATH, "/"));
+        encoder.add(HeaderField.of(Header.AUTHORITY, "www.example.com"));
+        encoder.add(HeaderField.of(Header.CACHE_CONTROL, "no-cache"));
+        assertArrayEquals(hex("828684be58086e6f2d6361636865"), encoder.finish());
+
+        encoder.add(HeaderField.of(Header.METHOD, Method.GET.getName()));
+        encoder.add(HeaderField.of(Header.SCHEME, Scheme.HTTPS.getName()));
+        encoder.add(HeaderField.of(Header.PATH, "/index.html"));
+        encoder.add(HeaderField.of(Header.AUTHORITY, "www.example.com"));
+        encoder.add(HeaderField.of(Header.of("custom-key"), "custom-value"));
+        final ByteBuffer target = ByteBuffer.allocate(64);
+        encoder.finish(target);
+        target.flip();
+        final byte[] encoded = new byte[target.remaining()];
+        target.get(encoded);
+        assertArrayEquals(hex("828785bf400a637573746f6d2d6b65790c637573746f6d2d76616c7565"), encoded);
+    }
+
+    @Test
+    public void requestsWithHuffmanCoding() {
+        final HpackEncoder encoder = EncoderImpl.newInstance(INDEX_AND_HUFFMANIZE_ALL, 4096, false);
+        encoder.add(HeaderField.of(Header.METHOD, Method.GET.getName()));
+        encoder.add(HeaderField.of(Header.SCHEME, Scheme.HTTP.getName()));
+        encoder.add(HeaderField.of(Header.PATH, "/"));
+        encoder.add(HeaderField.of(Header.AUTHORITY, "www.example.com"));
+        assertArrayEquals(hex("828684418cf1e3c2e5f23a6ba0ab90f4ff"), encoder.finish());
+
+        encoder.add(HeaderField.of(Header.METHOD, Method.GET.getName()));
+        encoder.add(HeaderField.of(Header.SCHEME, Scheme.HTTP.getName()));
+        encoder.add(HeaderField.of(Header.PATH, "/"));
+        encoder.add(HeaderField.of(Header.AUTHORITY, "www.example.com"));
+        encoder.add(HeaderField.of(Header.CACHE_CONTROL, "no-cache"));
+        assertArrayEquals(hex("828684be5886a8eb10649cbf"), encoder.finish());
+
+        encoder.add(HeaderField.of(Header.METHOD, Method.GET.getName()));
+        encoder.add(HeaderField.of(Header.SCHEME, Scheme.HTTPS.getName()));
+        encoder.add(HeaderField.of(Header.PATH, "/index.html"));
+        encoder.add(HeaderField.of(Header.AUTHORITY, "www.example.com"));
+        encoder.add(HeaderField.of(Header.of("custom-key"), "custom-value"));
+        assertArrayEquals(hex("828785bf408825a849e95ba97d7f8925a849e95bb8e8b4bf"), encoder.finish());
+    }
+
+    @Test
+    public void largeIntegersUseContinuationOctets() {
+        final HpackEncoder encoder = EncoderImpl.newInstance(4096, false);
+        final StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 1337; i++) {
+            value.append('a');
+        }
+        encoder.add(HeaderField.of(Header.of("x"), value.toString()));
+        final byte[] encoded = encoder.finish();
+        // literal without indexing, new name
+        assertEquals(0x00, encoded[0]);
+        assertEquals(0x01, encoded[1]);
+        assertEquals('x', encoded[2]);
+        // 1337 = 127 + 1210, 1210 = 0x3A + 9 * 128
+        assertEquals((byte) 0x7F, encoded[3]);
+        assertEquals((byte) 0xBA, encoded[4]);
+        assertEquals((byte) 0x09, encoded[5]);
+        assertEquals(6 + 1337, encoded.length);
+    }
+
+    @Test
+    public void smallerTableIsAnnounced() {
+        final HpackEncoder encoder = EncoderImpl.newInstance(INDEX_ALL, 256, false);
+        encoder.add(HeaderField.of(Header.METHOD, Method.GET.getName()));
+        assertArrayEquals(hex("3fe10182"), encoder.finish());
+        encoder.add(HeaderField.of(Header.METHOD, Method.GET.getName()));
+        assertArrayEquals(hex("82"), encoder.finish());
+    }
+
+    @Test
+    public void insufficientTargetKeepsHeaderBlock() {
+        final HpackEncoder encoder = EncoderImpl.newInstance(4096, false);
+        encoder.add(HeaderField.of(Header.AUTHORITY, "www.example.com"));
+        try {
+            encoder.finish(ByteBuffer.allocate(4));
+            fail();
+        } catch (java.nio.BufferOverflowException expected) {
+            // expected
+        }
+        assertArrayEquals(hex("010f7777772e6578616d706c652e636f6d"), encoder.finish());
+    }
+
+    @Test
+    public void dynamicTableEvictsOldestEntries() {
+        final DynamicTable table = new DynamicTable(3 * 34);
+        final HeaderField first = HeaderField.of(Header.of("a"), "1");
+        final HeaderField second = HeaderField.of(Header.of("b"), "2");
+        final HeaderField third = HeaderField.of(Header.of("c"), "3");
+        table.add(first);
+        table.add(second);
+        table.add(third);
+        assertEquals(3, table.length());
+        assertSame(third, table.get(1));
+        assertSame(first, table.get(3));
+        table.add(HeaderField.of(Header.of("d"), "4"));
+        assertEquals(3, table.length());
+        assertEquals(DynamicTable.ITEM_NOT_FOUND, table.indexOf(first));
+        assertEquals(3, table.indexOf(second));
+        table.setMaxSize(34);
+        assertEquals(1, table.length());
+        table.setMaxSize(4096);
+        table.add(first);
+        assertEquals(2, table.length());
+        assertSame(first, table.get(1));
+        assertEquals(2 * 34, table.size());
+    }
+
+    @Test
+    public void sizeUpdateFollowsPeerLimit() {
+        final HpackEncoder encoder = EncoderImpl.newInstance(INDEX_ALL, 65536, false);
+        encoder.add(HeaderField.of(Header.PATH, "/"));
+        assertArrayEquals(hex("84"), encoder.finish());
+        encoder.setMaxDynamicTableSize(8192);
+        encoder.add(HeaderField.of(Header.PATH, "/"));
+        encoder.setMaxDynamicTableSize(0);
+        encoder.add(HeaderField.of(Header.PATH, "/"));
+        // change during header block is signaled in the next one
+        assertArrayEquals(hex("3fe13f8484"), encoder.finish());
+        encoder.setMaxDynamicTableSize(4096);
+        encoder.add(HeaderField.of(Header.PATH, "/"));
+        // the lowest limit first, then the final one
+        assertArrayEquals(hex("203fe11f84"), encoder.finish());
+        encoder.add(HeaderField.of(Header.PATH, "/"));
+        assertArrayEquals(hex("84"), encoder.finish());
+    }
+
+    @Test
+    public void sizeUpdateIsBoundedByEncoderMaximum() {
+        final HpackEncoder encoder = EncoderImpl.newInstance(INDEX_ALL, 4096, false);
+        encoder.setMaxDynamicTableSize(65536);
+        encoder.add(HeaderField.of(Header.PATH, "/"));
+        assertArrayEquals(hex("84"), encoder.finish());
+        encoder.setMaxDynamicTableSize(2048);
+        encoder.setMaxDynamicTableSize(65536);
+        encoder.add(HeaderField.of(Header.PATH, "/"));
+        assertArrayEquals(hex("3fe10f3fe11f84"), encoder.finish());
+    }
+
+    @Test
+    public void largeDynamicTableRoundTrip() {
+        final HpackEncoder encoder = EncoderImpl.newAdaptiveInstance(65536, false);
+        final FragmentDecoderImpl decoder = new FragmentDecoderImpl(4096);
+        encoder.setMaxDynamicTableSize(65536);
+        decoder.setMaxDynamicTableSize(65536);
+        final StringBuilder sb = new StringBuilder();
+        while (sb.length() < 2000) {
+            sb.append("metadata-");
+        }
+        final HeaderField hf = HeaderField.of(Header.of("x-grpc-metadata"), sb.toString());
+        int last = 0;
+        for (int i = 0; i < 3; i++) {
+            encoder.add(hf);
+            final byte[] block = encoder.finish();
+            final java.util.List<HeaderField> fields = new java.util.ArrayList<>();
+            decoder.decode(ByteBuffer.wrap(block), fields::add);
+            decoder.finish();
+            assertEquals(java.util.Collections.singletonList(hf), fields);
+            last = block.length;
+        }
+        // field larger than 1 KiB is indexed only in table larger than 4 KiB
+        assertEquals(1, last);
+    }
+
+    @Test
+    public void cookieCrumbsAreIndexedIndividually() {
+        final HpackEncoder encoder = EncoderImpl.newAdaptiveInstance(4096, false);
+        final FragmentDecoderImpl decoder = new FragmentDecoderImpl(4096);
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            sb.append("crumb").append(i).append("=stable-value-").append(i).append("; ");
+        }
+        int last = 0;
+        for (int i = 0; i < 4; i++) {
+            final byte[] octets = (sb + "session=" + i).getBytes(java.nio.charset.StandardCharsets.ISO_8859_1);
+            // both value forms are split the same way
+            final HeaderField cookie = i % 2 == 0 ? HeaderField.of(Header.COOKIE, sb + "session=" + i) : HeaderField.of(Header.COOKIE, octets, 0, octets.length);
+            encoder.add(HeaderField.of(Header.PATH, "/"));
+            encoder.add(cookie);
+            final byte[] block = encoder.finish();
+            final java.util.List<HeaderField> fields = new java.util.ArrayList<>();
+            decoder.decode(ByteBuffer.wrap(block), fields::add);
+            decoder.finish();
+            assertEquals(java.util.Arrays.asList(HeaderField.of(Header.PATH, "/"), cookie), fields);
+            last = block.length;
+        }
+        // indexed stable crumbs and the changing crumb literal
+        assertTrue(last < 40);
+    }
+
+    @Test
+    public void cookieSizeDropsOnLaterBlocks() {
+        final StringBuilder sb = new StringBuilder("c0=v0");
+        for (int i = 1; i < 20; i++) {
+            sb.append("; c").append(i).append("=v").append(i);
+        }
+        final HeaderField cookie = HeaderField.of(Header.COOKIE, sb.toString());
+        for (final boolean protectCredentials : new boolean[] {false, true}) {
+            final HpackEncoder encoder = HpackFactory.newInstance(4096, false).newEncoder(protectCredentials);
+            final FragmentDecoderImpl decoder = new FragmentDecoderImpl(4096);
+            int first = 0;
+            int last = 0;
+            for (int i = 0; i < 3; i++) {
+                encoder.add(cookie);
+                final byte[] block = encoder.finish();
+                final java.util.List<HeaderField> fields = new java.util.ArrayList<>();
+                decoder.decode(ByteBuffer.wrap(block), fields::add);
+                assertTrue(decoder.finish());
+                assertEquals(java.util.Collections.singletonList(cookie), fields);
+                if (i == 0) first = block.length;
+                last = block.length;
+            }
+            // indexed crumbs or, if they are sensitive, indexed cookie
+            assertTrue(protectCredentials + ": " + last, last <= 20);
+            assertTrue(first > 100);
+        }
+    }
+
+    @Test
+    public void cookieIsNotSplitWithoutIndexing() {
+        final HpackEncoder encoder = EncoderImpl.newInstance(4096, false);
+        encoder.add(HeaderField.of(Header.COOKIE, "a=1; b=2"));
+        // literal without indexing, name is static entry 32
+        assertArrayEquals(hex("0f1108613d313b20623d32"), encoder.finish());
+    }
+
+    @Test
+    public void singleCrumbCookieIsNotSplit() {
+        final HpackEncoder encoder = EncoderImpl.newInstance(4096, false);
+        encoder.add(HeaderField.of(Header.COOKIE, "a=1;b=2"));
+        assertArrayEquals(hex("0f1107613d313b623d32"), encoder.finish());
+    }
+
+    @Test
+    public void sensitiveFieldIsNeverIndexed() {
+        final HpackEncoder encoder = EncoderImpl.newAdaptiveInstance(4096, false, true);
+        final FragmentDecoderImpl decoder = new FragmentDecoderImpl(4096);
+        final HeaderField credentials = HeaderField.of(Header.AUTHORIZATION, "Bearer abc");
+        for (int i = 0; i < 3; i++) {
+            encoder.add(credentials);
+            final byte[] block = encoder.finish();
+            // never indexed literal, name is static entry 23
+            assertEquals(0x1F, block[0] & 0xFF);
+            assertEquals(23 - 15, block[1]);
+            final java.util.List<HeaderField> fields = new java.util.ArrayList<>();
+            decoder.decode(ByteBuffer.wrap(block), fields::add);
+            decoder.finish();
+            assertEquals(java.util.Collections.singletonList(credentials), fields);
+        }
+        encoder.add(EncodedHeaderField.of(credentials));
+        assertEquals(0x1F, encoder.finish()[0] & 0xFF);
+    }
+
+    private static byte[] hex(final String s) {
+        final byte[] retVal = new byte[s.length() / 2];
+        for (int i = 0; i < retVal.length; i++) {
+            retVal[i] = (byte) Integer.parseInt(s.substring(2 * i, 2 * i + 2), 16);
+        }
+        return retVal;
+    }
+
+}
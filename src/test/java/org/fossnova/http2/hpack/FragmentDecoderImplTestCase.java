@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.hpack;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.fossnova.http2.Header;
+import org.fossnova.http2.HeaderField;
+import org.junit.Test;
+
+/**
+ * Header blocks come from <code>RFC7541</code> Appendix C.3.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class FragmentDecoderImplTestCase {
+
+    private static final String[] REQUESTS = {
+        "828684410f7777772e6578616d706c652e636f6d",
+        "828684be58086e6f2d6361636865",
+        "828785bf400a637573746f6d2d6b65790c637573746f6d2d76616c7565",
+    };
+
+    private static final String[] HUFFMAN_REQUESTS = {
+        "828684418cf1e3c2e5f23a6ba0ab90f4ff",
+        "828684be5886a8eb10649cbf",
+        "828785bf408825a849e95ba97d7f8925a849e95bb8e8b4bf",
+    };
+
+    private static final String[] HUFFMAN_RESPONSES = {
+        "488264025885aec3771a4b6196d07abe941054d444a8200595040b8166e082a62d1bff6e919d29ad171863c78f0b97c8e9ae82ae43d3",
+        "4883640effc1c0bf",
+        "88c16196d07abe941054d444a8200595040b8166e084a62d1bffc05a839bd9ab77ad94e7821dd7f2e6c7b335dfdfcd5b3960d5af27087f3672c1ab270fb5291f9587316065c003ed4ee5b1063d5007",
+    };
+
+    @Test
+    public void huffmanRequestsDecodedOctetByOctet() {
+        final HpackFragmentDecoder decoder = new FragmentDecoderImpl(4096);
+        for (int i = 0; i < HUFFMAN_REQUESTS.length; i++) {
+            final List<HeaderField> fields = new ArrayList<>();
+            final byte[] block = hex(HUFFMAN_REQUESTS[i]);
+            for (int j = 0; j < block.length; j++) {
+                decoder.decode(ByteBuffer.wrap(block, j, 1), fields::add);
+            }
+            decoder.finish();
+            assertRequest(i, fields);
+        }
+    }
+
+    @Test
+    public void huffmanResponsesWithEviction() {
+        final HpackFragmentDecoder decoder = new FragmentDecoderImpl(256);
+        final String[] status = {"302", "307", "200"};
+        for (int i = 0; i < HUFFMAN_RESPONSES.length; i++) {
+            final List<HeaderField> fields = new ArrayList<>();
+            decoder.decode(ByteBuffer.wrap(hex(HUFFMAN_RESPONSES[i])), fields::add);
+            decoder.finish();
+            assertEquals(i == 2 ? 6 : 4, fields.size());
+            assertEquals(HeaderField.of(Header.STATUS, status[i]), fields.get(0));
+            assertEquals(HeaderField.of(Header.CACHE_CONTROL, "private"), fields.get(1));
+            assertEquals(HeaderField.of(Header.DATE, i == 2 ? "Mon, 21 Oct 2013 20:13:22 GMT" : "Mon, 21 Oct 2013 20:13:21 GMT"), fields.get(2));
+            assertEquals(HeaderField.of(Header.LOCATION, "https://www.example.com"), fields.get(3));
+        }
+    }
+
+    @Test
+    public void requestsDecodedAtOnce() {
+        final HpackFragmentDecoder decoder = new FragmentDecoderImpl(4096);
+        for (int i = 0; i < REQUESTS.length; i++) {
+            final List<HeaderField> fields = new ArrayList<>();
+            decoder.decode(ByteBuffer.wrap(hex(REQUESTS[i])), fields::add);
+            decoder.finish();
+            assertRequest(i, fields);
+        }
+    }
+
+    @Test
+    public void requestsDecodedOctetByOctet() {
+        final HpackFragmentDecoder decoder = new FragmentDecoderImpl(4096);
+        for (int i = 0; i < REQUESTS.length; i++) {
+            final List<HeaderField> fields = new ArrayList<>();
+            final byte[] block = hex(REQUESTS[i]);
+            for (int j = 0; j < block.length; j++) {
+                decoder.decode(ByteBuffer.wrap(block, j, 1), fields::add);
+            }
+            decoder.finish();
+            assertRequest(i, fields);
+        }
+    }
+
+    @Test
+    public void encoderRoundTrip() {
+        final HpackEncoder encoder = EncoderImpl.newInstance(4096, false);
+        final HeaderField large = HeaderField.of(Header.of("x-large"), new String(new char[1000]).replace('\0', 'v'));
+        encoder.add(HeaderField.of(Header.HOST, "localhost"));
+        encoder.add(large);
+        final List<HeaderField> fields = new ArrayList<>();
+        final HpackFragmentDecoder decoder = new FragmentDecoderImpl(4096);
+        final ByteBuffer block = ByteBuffer.wrap(encoder.finish());
+        final int limit = block.limit();
+        block.limit(7);
+        decoder.decode(block, fields::add);
+        block.limit(limit);
+        decoder.decode(block, fields::add);
+        decoder.finish();
+        assertEquals(2, fields.size());
+        assertEquals(HeaderField.of(Header.HOST, "localhost"), fields.get(0));
+        assertEquals(large, fields.get(1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void truncatedBlockIsRejected() {
+        final HpackFragmentDecoder decoder = new FragmentDecoderImpl(4096);
+        decoder.decode(ByteBuffer.wrap(hex("828684410f7777")), hf -> { });
+        decoder.finish();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void oversizedLiteralIsRejectedBeforeBuffering() {
+        final HpackFragmentDecoder decoder = new FragmentDecoderImpl(4096);
+        decoder.setMaxHeaderListSize(64);
+        // literal value of 1337 octets, only its length is present
+        decoder.decode(ByteBuffer.wrap(hex("0f177fba09")), hf -> { });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sizeUpdateAfterHeaderFieldIsRejected() {
+        final HpackFragmentDecoder decoder = new FragmentDecoderImpl(4096);
+        decoder.decode(ByteBuffer.wrap(hex("8220")), hf -> { });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sizeUpdateAboveLimitIsRejected() {
+        final HpackFragmentDecoder decoder = new FragmentDecoderImpl(256);
+        decoder.decode(ByteBuffer.wrap(hex("3fe21f")), hf -> { });
+    }
+
+    @Test
+    public void reducedLimitRequiresSizeUpdate() {
+        final HpackFragmentDecoder decoder = new FragmentDecoderImpl(4096);
+        decoder.setMaxDynamicTableSize(0);
+        try {
+            decoder.decode(ByteBuffer.wrap(hex("82")), hf -> { });
+            fail();
+        } catch (final IllegalArgumentException expected) {
+            // expected
+        }
+        decoder.finish();
+        final List<HeaderField> fields = new ArrayList<>();
+        decoder.decode(ByteBuffer.wrap(hex("2082")), fields::add);
+        decoder.finish();
+        decoder.decode(ByteBuffer.wrap(hex("82")), fields::add);
+        decoder.finish();
+        assertEquals(2, fields.size());
+    }
+
+    @Test
+    public void raisedLimitAllowsLargerTable() {
+        final HpackFragmentDecoder decoder = new FragmentDecoderImpl(4096);
+        decoder.setMaxDynamicTableSize(65536);
+        decoder.decode(ByteBuffer.wrap(hex("3fe1ff0382")), hf -> { });
+        decoder.finish();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidIndexIsRejected() {
+        final HpackFragmentDecoder decoder = new FragmentDecoderImpl(4096);
+        decoder.decode(ByteBuffer.wrap(hex("be")), hf -> { });
+    }
+
+    @Test
+    public void valuesAreDeliveredAsReceived() {
+        final HpackFragmentDecoder decoder = new FragmentDecoderImpl(4096);
+        final List<HeaderField> fields = new ArrayList<>();
+        // accept: a<SP><SP>b with incremental indexing, accept: x<HTAB>y without indexing
+        decoder.decode(ByteBuffer.wrap(hex("530461202062" + "0f0403780979")), fields::add);
+        assertTrue(decoder.finish());
+        // accept: a<SP><SP>b from dynamic table
+        decoder.decode(ByteBuffer.wrap(hex("be")), fields::add);
+        assertTrue(decoder.finish());
+        assertEquals(3, fields.size());
+        assertEquals("a  b", fields.get(0).getHeaderValue());
+        assertEquals("x\ty", fields.get(1).getHeaderValue());
+        assertEquals("a  b", fields.get(2).getHeaderValue());
+    }
+
+    @Test
+    public void invalidValueMakesBlockMalformed() {
+        final HpackFragmentDecoder decoder = new FragmentDecoderImpl(4096);
+        final List<HeaderField> fields = new ArrayList<>();
+        // accept: a<NUL>b with incremental indexing, :method: GET
+        decoder.decode(ByteBuffer.wrap(hex("5303610062" + "82")), fields::add);
+        assertFalse(decoder.finish());
+        assertTrue(fields.isEmpty());
+        // reference to malformed entry
+        decoder.decode(ByteBuffer.wrap(hex("be")), fields::add);
+        assertFalse(decoder.finish());
+        // dynamic table is still in sync, custom-key: v is the newest entry
+        decoder.decode(ByteBuffer.wrap(hex("400a637573746f6d2d6b6579" + "0176" + "be" + "bf")), fields::add);
+        assertFalse(decoder.finish());
+        decoder.decode(ByteBuffer.wrap(hex("be" + "82")), fields::add);
+        assertTrue(decoder.finish());
+        assertEquals(Arrays.asList(HeaderField.of(Header.of("custom-key"), "v"), HeaderField.of(Header.of("custom-key"), "v"),
+                HeaderField.of(Header.of("custom-key"), "v"), HeaderField.of(Header.METHOD, "GET")), fields);
+    }
+
+    @Test
+    public void upperCaseNameMakesBlockMalformed() {
+        final HpackFragmentDecoder decoder = new FragmentDecoderImpl(4096);
+        final List<HeaderField> fields = new ArrayList<>();
+        // X-Key: v with incremental indexing
+        decoder.decode(ByteBuffer.wrap(hex("4005582d4b6579" + "0176")), fields::add);
+        assertFalse(decoder.finish());
+        decoder.decode(ByteBuffer.wrap(hex("82")), fields::add);
+        assertTrue(decoder.finish());
+        assertEquals(Arrays.asList(HeaderField.of(Header.METHOD, "GET")), fields);
+    }
+
+    private static void assertRequest(final int request, final List<HeaderField> fields) {
+        assertEquals(request == 0 ? 4 : 5, fields.size());
+        assertEquals(HeaderField.of(Header.METHOD, "GET"), fields.get(0));
+        assertEquals(HeaderField.of(Header.SCHEME, request == 2 ? "https" : "http"), fields.get(1));
+        assertEquals(HeaderField.of(Header.PATH, request == 2 ? "/index.html" : "/"), fields.get(2));
+        assertEquals(HeaderField.of(Header.AUTHORITY, "www.example.com"), fields.get(3));
+        if (request == 1) {
+            assertEquals(HeaderField.of(Header.CACHE_CONTROL, "no-cache"), fields.get(4));
+        } else if (request == 2) {
+            assertEquals(HeaderField.of(Header.of("custom-key"), "custom-value"), fields.get(4));
+        }
+    }
+
+    @Test
+    public void cookieCrumbsAreRecombined() {
+        final HpackFragmentDecoder decoder = new FragmentDecoderImpl(4096);
+        final List<HeaderField> fields = new ArrayList<>();
+        // cookie: a=1, :path: /, cookie: (empty), cookie: b=2
+        decoder.decode(ByteBuffer.wrap(hex("0f1103613d31840f11000f110362" + "3d32")), fields::add);
+        assertEquals(1, fields.size());
+        decoder.finish();
+        assertEquals(2, fields.size());
+        assertEquals(HeaderField.of(Header.PATH, "/"), fields.get(0));
+        assertEquals(HeaderField.of(Header.COOKIE, "a=1; b=2"), fields.get(1));
+    }
+
+    @Test
+    public void repeatedIndexedCookieIsLimited() {
+        final HpackFragmentDecoder decoder = new FragmentDecoderImpl(4096);
+        decoder.setMaxHeaderListSize(4096);
+        final StringBuilder sb = new StringBuilder("607fbd1d");
+        for (int i = 0; i < 3900; i++) {
+            sb.append("61");
+        }
+        // cookie: a...a, with incremental indexing
+        decoder.decode(ByteBuffer.wrap(hex(sb.toString())), hf -> { });
+        decoder.finish();
+        final byte[] references = new byte[4096];
+        Arrays.fill(references, (byte) 0xBE);
+        try {
+            decoder.decode(ByteBuffer.wrap(references), hf -> { });
+            fail();
+        } catch (final IllegalStateException expected) {
+            // expected
+        }
+    }
+
+    private static byte[] hex(final String s) {
+        final byte[] retVal = new byte[s.length() / 2];
+        for (int i = 0; i < retVal.length; i++) {
+            retVal[i] = (byte) Integer.parseInt(s.substring(2 * i, 2 * i + 2), 16);
+        }
+        return retVal;
+    }
+
+}
@@ -23,6 +23,7 @@ import static org.junit.Assert.*;
 
 import org.fossnova.http2.Header;
 import org.fossnova.http2.HeaderField;
+import org.fossnova.http2.Http2Headers;
 import org.fossnova.http2.Method;
 import org.fossnova.http2.Scheme;
 import org.fossnova.http2.hpack.HpackDecoder;
@@ -48,6 +49,26 @@ public class HeadersSerializationTestCase  {
         readHeaders(encodedHeaders);
     }
 
+    @Test
+    public void headerListRoadTrip() {
+        final Http2Headers headers = Http2Headers.newInstance();
+        headers.add(HOST_HF).add(PATH_HF).add(SCHEME_HF).add(METHOD_HF);
+        headers.add(Header.COOKIE, "a=1").add(Header.COOKIE, "b=2");
+        final HpackEncoder encoder = newEncoder();
+        encoder.add(headers);
+        final HpackDecoder decoder = newDecoder(encoder.finish());
+        final Http2Headers decoded = decoder.getHeaders();
+        decoder.finish();
+        assertEquals(headers.size() - 1, decoded.size());
+        for (int i = 0; i < decoded.size() - 1; i++) {
+            assertEquals(headers.get(i), decoded.get(i));
+        }
+        assertEquals(Header.METHOD, decoded.get(0).getHeaderName());
+        // cookie crumbs are recombined
+        assertEquals(1, decoded.count(Header.COOKIE));
+        assertEquals("a=1; b=2", decoded.get(Header.COOKIE));
+    }
+
     private byte[] writeHeaders() {
         final HpackEncoder encoder = newEncoder();
         encoder.add(METHOD_HF);
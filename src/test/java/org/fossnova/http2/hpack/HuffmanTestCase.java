@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.hpack;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/**
+ * Expectations come from <code>RFC7541</code> Appendix C.4 and C.6.
+ *
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class HuffmanTestCase {
+
+    private static final String[][] VECTORS = {
+        {"www.example.com", "f1e3c2e5f23a6ba0ab90f4ff"},
+        {"no-cache", "a8eb10649cbf"},
+        {"custom-key", "25a849e95ba97d7f"},
+        {"custom-value", "25a849e95bb8e8b4bf"},
+        {"302", "6402"},
+        {"private", "aec3771a4b"},
+        {"Mon, 21 Oct 2013 20:13:21 GMT", "d07abe941054d444a8200595040b8166e082a62d1bff"},
+        {"https://www.example.com", "9d29ad171863c78f0b97c8e9ae82ae43d3"},
+        {"foo=ASDJKHQKBZXOQWEOPIUAXQWEOIU; max-age=3600; version=1", "94e7821dd7f2e6c7b335dfdfcd5b3960d5af27087f3672c1ab270fb5291f9587316065c003ed4ee5b1063d5007"},
+        {"", ""},
+    };
+
+    @Test
+    public void rfcVectors() {
+        for (final String[] vector : VECTORS) {
+            final byte[] source = vector[0].getBytes(ISO_8859_1);
+            final byte[] expected = hex(vector[1]);
+            assertEquals(vector[0], expected.length, Huffman.encodedLength(source, 0, source.length));
+            assertEquals(vector[0], expected.length, Huffman.encodedLength(vector[0]));
+            final byte[] target = new byte[expected.length + 2];
+            assertEquals(expected.length + 1, Huffman.encode(source, 0, source.length, target, 1));
+            assertArrayEquals(expected, java.util.Arrays.copyOfRange(target, 1, expected.length + 1));
+            assertEquals(expected.length, Huffman.encode(vector[0], target, 0));
+            assertArrayEquals(expected, java.util.Arrays.copyOf(target, expected.length));
+            final ByteBuffer buffer = ByteBuffer.allocate(expected.length);
+            Huffman.encode(source, 0, source.length, buffer);
+            assertArrayEquals(expected, buffer.array());
+        }
+    }
+
+    @Test
+    public void rfcVectorsDecoding() {
+        for (final String[] vector : VECTORS) {
+            final byte[] source = hex(vector[1]);
+            final byte[] target = new byte[Huffman.maxDecodedLength(source.length) + 1];
+            final int end = Huffman.decode(source, 0, source.length, target, 1);
+            assertEquals(vector[0], new String(target, 1, end - 1, ISO_8859_1));
+        }
+    }
+
+    @Test
+    public void allSymbolsRoundTrip() {
+        final byte[] source = new byte[256 * 3];
+        for (int i = 0; i < source.length; i++) {
+            source[i] = (byte) (i * 7);
+        }
+        final byte[] encoded = new byte[Huffman.encodedLength(source, 0, source.length)];
+        Huffman.encode(source, 0, source.length, encoded, 0);
+        final byte[] decoded = new byte[Huffman.maxDecodedLength(encoded.length)];
+        assertEquals(source.length, Huffman.decode(encoded, 0, encoded.length, decoded, 0));
+        assertArrayEquals(source, java.util.Arrays.copyOf(decoded, source.length));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void eosIsRejected() {
+        final byte[] source = hex("ffffffff");
+        Huffman.decode(source, 0, source.length, new byte[16], 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void paddingLongerThanSevenBitsIsRejected() {
+        // 'a' followed by 11 one bits
+        final byte[] source = hex("1fff");
+        Huffman.decode(source, 0, source.length, new byte[16], 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void paddingOfZerosIsRejected() {
+        // 'a' followed by 000
+        final byte[] source = hex("18");
+        Huffman.decode(source, 0, source.length, new byte[16], 0);
+    }
+
+    @Test
+    public void longestCodes() {
+        final byte[] source = new byte[] {10, 13, 22, 10};
+        // 4 x 30 bits fit 15 octets exactly, no padding
+        assertEquals(15, Huffman.encodedLength(source, 0, source.length));
+        final byte[] target = new byte[15];
+        Huffman.encode(source, 0, source.length, target, 0);
+        assertEquals((byte) 0xFF, target[0]);
+        assertEquals((byte) 0xFC, target[14]);
+    }
+
+    static byte[] hex(final String s) {
+        final byte[] retVal = new byte[s.length() / 2];
+        for (int i = 0; i < retVal.length; i++) {
+            retVal[i] = (byte) Integer.parseInt(s.substring(2 * i, 2 * i + 2), 16);
+        }
+        return retVal;
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.hpack;
+
+import static org.junit.Assert.*;
+
+import org.fossnova.http2.Header;
+import org.fossnova.http2.HeaderField;
+import org.fossnova.http2.Method;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class StaticTableTestCase {
+
+    @Test
+    public void everyEntryIsFound() {
+        for (int i = 1; i <= StaticTable.LENGTH; i++) {
+            final HeaderField hf = StaticTable.getHeaderField(i);
+            assertEquals(i, StaticTable.indexOf(hf));
+            assertEquals(i, StaticTable.indexOf(HeaderField.of(hf.getHeaderName(), hf.getHeaderValue())));
+            assertTrue(StaticTable.indexOf(hf.getHeaderName()) <= i);
+            assertEquals(hf.getHeaderName(), StaticTable.getHeader(StaticTable.indexOf(hf.getHeaderName())));
+        }
+    }
+
+    @Test
+    public void nameMatchesLowestIndex() {
+        assertEquals(2, StaticTable.indexOf(Header.METHOD));
+        assertEquals(4, StaticTable.indexOf(Header.PATH));
+        assertEquals(8, StaticTable.indexOf(Header.STATUS));
+        assertEquals(16, StaticTable.indexOf(Header.of("accept-encoding")));
+    }
+
+    @Test
+    public void missesAreReported() {
+        assertEquals(-1, StaticTable.indexOf(HeaderField.of(Header.METHOD, Method.PUT.getName())));
+        assertEquals(-1, StaticTable.indexOf(HeaderField.of(Header.ACCEPT_ENCODING, "gzip")));
+        assertEquals(-1, StaticTable.indexOf(HeaderField.of(Header.HOST, "localhost")));
+        assertEquals(-1, StaticTable.indexOf(Header.of("x-custom")));
+        assertEquals(-1, StaticTable.indexOf(Header.X_FRAME_OPTIONS));
+    }
+
+}
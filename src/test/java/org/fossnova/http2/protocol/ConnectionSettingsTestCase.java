@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class ConnectionSettingsTestCase {
+
+    @Test
+    public void emptySettingsAreAcknowledgedInOrder() {
+        final ConnectionSettings settings = new ConnectionSettings();
+        settings.onSent(new SettingsFrameImpl.Builder(false, true, true).build());
+        final SettingsFrameImpl.Builder builder = new SettingsFrameImpl.Builder(false, true, true);
+        builder.setParameter(SettingsFrame.MAX_HEADER_LIST_SIZE, 100);
+        settings.onSent(builder.build());
+        settings.onReceived(newAck());
+        assertEquals(ConnectionSettings.UNADVERTISED_MAX_HEADER_LIST_SIZE, settings.getLocalMaxHeaderListSize());
+        settings.onReceived(newAck());
+        assertEquals(100, settings.getLocalMaxHeaderListSize());
+    }
+
+    @Test
+    public void acknowledgementsAreNotRegistered() {
+        final ConnectionSettings settings = new ConnectionSettings();
+        settings.onSent(newAck());
+        final SettingsFrameImpl.Builder builder = new SettingsFrameImpl.Builder(false, true, true);
+        builder.setParameter(SettingsFrame.MAX_FRAME_SIZE, 32768);
+        settings.onSent(builder.build());
+        settings.onReceived(newAck());
+        assertEquals(32768, settings.getLocalMaxFrameSize());
+    }
+
+    private static SettingsFrame newAck() {
+        final SettingsFrameImpl.Builder ack = new SettingsFrameImpl.Builder(false, true, true);
+        ack.setFlags(SettingsFrame.FLAG_ACK);
+        return ack.build();
+    }
+
+}
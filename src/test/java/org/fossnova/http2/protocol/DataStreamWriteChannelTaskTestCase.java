@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import static org.fossnova.http2.protocol.DataFrame.FLAG_END_STREAM;
+import static org.fossnova.http2.protocol.SettingsFrame.DEFAULT_MAX_FRAME_SIZE;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class DataStreamWriteChannelTaskTestCase {
+    private static final int STREAM_ID = 3;
+    private static final int BODY_SIZE = 2 * DEFAULT_MAX_FRAME_SIZE + 1000;
+    private static final BiConsumer<ByteBuffer, ByteBuffer> NO_CAPTURE = (header, payload) -> {};
+
+    @Test
+    public void bufferSourceIsFragmented() throws Exception {
+        final ByteBuffer body = ByteBuffer.wrap(newBody(BODY_SIZE));
+        writeAndVerify(new DataStreamWriteChannelTask(STREAM_ID, body, new ConnectionSettings(), newFlowControl(), NO_CAPTURE), BODY_SIZE,
+                DEFAULT_MAX_FRAME_SIZE, DEFAULT_MAX_FRAME_SIZE, 1000);
+    }
+
+    @Test
+    public void channelSourceIsFragmented() throws Exception {
+        final ByteArrayInputStream body = new ByteArrayInputStream(newBody(BODY_SIZE));
+        writeAndVerify(new DataStreamWriteChannelTask(STREAM_ID, Channels.newChannel(body), new ConnectionSettings(), newFlowControl(), NO_CAPTURE, () -> {}), BODY_SIZE,
+                DEFAULT_MAX_FRAME_SIZE, DEFAULT_MAX_FRAME_SIZE, 1000);
+    }
+
+    @Test
+    public void emptyBodyProducesSingleFrame() throws Exception {
+        writeAndVerify(new DataStreamWriteChannelTask(STREAM_ID, ByteBuffer.allocate(0), new ConnectionSettings(), newFlowControl(), NO_CAPTURE), 0, 0);
+    }
+
+    @Test
+    public void framesAreCaptured() throws Exception {
+        final ByteBuffer body = ByteBuffer.wrap(newBody(BODY_SIZE));
+        final List<byte[]> headers = new ArrayList<>();
+        final List<Integer> payloadSizes = new ArrayList<>();
+        final DataStreamWriteChannelTask task = new DataStreamWriteChannelTask(STREAM_ID, body, new ConnectionSettings(), newFlowControl(), (header, payload) -> {
+            final byte[] bytes = new byte[header.remaining()];
+            header.get(bytes);
+            headers.add(bytes);
+            payloadSizes.add(payload.remaining());
+        });
+        writeAndVerify(task, BODY_SIZE, DEFAULT_MAX_FRAME_SIZE, DEFAULT_MAX_FRAME_SIZE, 1000);
+        assertEquals(3, headers.size());
+        assertEquals(DEFAULT_MAX_FRAME_SIZE, payloadSizes.get(0).intValue());
+        assertEquals(DEFAULT_MAX_FRAME_SIZE, payloadSizes.get(1).intValue());
+        assertEquals(1000, payloadSizes.get(2).intValue());
+        assertEquals(1000, WireCodec.getUnsignedMedium(headers.get(2), 0));
+        assertEquals(FrameType.DATA.getFrameId(), headers.get(2)[3]);
+        assertEquals(FLAG_END_STREAM, headers.get(2)[4]);
+    }
+
+    @Test
+    public void framesAreLimitedByFlowControlWindow() throws Exception {
+        final FlowControl flowControl = new FlowControl();
+        flowControl.setInitialWindowSize(10000);
+        flowControl.open(STREAM_ID);
+        final ByteBuffer body = ByteBuffer.wrap(newBody(BODY_SIZE));
+        final int[] updates = new int[1];
+        final DataStreamWriteChannelTask task = new DataStreamWriteChannelTask(STREAM_ID, body, new ConnectionSettings(), flowControl, NO_CAPTURE);
+        writeAndVerify(task, () -> {
+            updates[0]++;
+            flowControl.onWindowUpdate(STREAM_ID, BODY_SIZE);
+        }, BODY_SIZE, 10000, DEFAULT_MAX_FRAME_SIZE, BODY_SIZE - 10000 - DEFAULT_MAX_FRAME_SIZE);
+        assertEquals(1, updates[0]);
+    }
+
+    @Test
+    public void singleFrameIsWrittenPerExecution() throws Exception {
+        final ByteBuffer body = ByteBuffer.wrap(newBody(BODY_SIZE));
+        final DataStreamWriteChannelTask task = new DataStreamWriteChannelTask(STREAM_ID, body, new ConnectionSettings(), newFlowControl(), NO_CAPTURE);
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress("localhost", 0));
+            try (SocketChannel out = SocketChannel.open(server.getLocalAddress()); SocketChannel in = server.accept()) {
+                task.execute(out);
+                assertFalse(task.isDone());
+                assertFalse(task.isWaiting());
+                assertFalse(task.isFlushing());
+                assertEquals(BODY_SIZE - DEFAULT_MAX_FRAME_SIZE, body.remaining());
+            }
+        }
+    }
+
+    @Test
+    public void closedStreamEndsTask() throws Exception {
+        final FlowControl flowControl = new FlowControl();
+        final DataStreamWriteChannelTask task = new DataStreamWriteChannelTask(STREAM_ID, ByteBuffer.wrap(newBody(10)), new ConnectionSettings(), flowControl, NO_CAPTURE);
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress("localhost", 0));
+            try (SocketChannel out = SocketChannel.open(server.getLocalAddress()); SocketChannel in = server.accept()) {
+                task.execute(out);
+                assertTrue(task.isDone());
+                assertFalse(task.isWaiting());
+                assertTrue(task.getFailure() instanceof IOException);
+            }
+        }
+    }
+
+    @Test
+    public void sourceFailureResetsStream() throws Exception {
+        final IOException failure = new IOException();
+        final ReadableByteChannel body = new ReadableByteChannel() {
+            @Override
+            public int read(final ByteBuffer dst) throws IOException {
+                throw failure;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        final DataStreamWriteChannelTask task = new DataStreamWriteChannelTask(STREAM_ID, body, new ConnectionSettings(), newFlowControl(), NO_CAPTURE, () -> {});
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress("localhost", 0));
+            try (SocketChannel out = SocketChannel.open(server.getLocalAddress()); SocketChannel in = server.accept()) {
+                while (!task.isDone()) {
+                    task.execute(out);
+                }
+                assertSame(failure, task.getFailure());
+                out.shutdownOutput();
+                final ByteBuffer received = ByteBuffer.allocate(13);
+                while (in.read(received) >= 0 && received.hasRemaining());
+                received.flip();
+                assertEquals(13, received.remaining());
+                assertEquals(4, received.getShort(1));
+                assertEquals(FrameType.RST_STREAM.getFrameId(), received.get(3));
+                assertEquals(STREAM_ID, received.getInt(5));
+                assertEquals(ErrorCode.INTERNAL_ERROR, received.getInt(9));
+            }
+        }
+    }
+
+    private static byte[] newBody(final int size) {
+        final byte[] body = new byte[size];
+        for (int i = 0; i < size; i++) body[i] = (byte) i;
+        return body;
+    }
+
+    private static FlowControl newFlowControl() {
+        final FlowControl flowControl = new FlowControl();
+        flowControl.open(STREAM_ID);
+        return flowControl;
+    }
+
+    private static void writeAndVerify(final DataStreamWriteChannelTask task, final int bodySize, final int... frameSizes) throws IOException {
+        writeAndVerify(task, () -> {}, bodySize, frameSizes);
+    }
+
+    private static void writeAndVerify(final DataStreamWriteChannelTask task, final Runnable onWaiting, final int bodySize, final int... frameSizes) throws IOException {
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress("localhost", 0));
+            try (SocketChannel out = SocketChannel.open(server.getLocalAddress()); SocketChannel in = server.accept()) {
+                while (!task.isDone()) {
+                    task.execute(out);
+                    assertNull(task.getFailure());
+                    if (task.isWaiting()) onWaiting.run();
+                }
+                out.shutdownOutput();
+                final ByteBuffer received = ByteBuffer.allocate(bodySize + 9 * frameSizes.length);
+                while (in.read(received) >= 0 && received.hasRemaining());
+                received.flip();
+                int offset = 0;
+                for (int i = 0; i < frameSizes.length; i++) {
+                    final int payloadSize = (received.get() & 0xFF) << 16 | (received.get() & 0xFF) << 8 | received.get() & 0xFF;
+                    assertEquals(frameSizes[i], payloadSize);
+                    assertEquals(FrameType.DATA.getFrameId(), received.get());
+                    assertEquals(i == frameSizes.length - 1 ? FLAG_END_STREAM : 0, received.get());
+                    assertEquals(STREAM_ID, received.getInt());
+                    for (int j = 0; j < payloadSize; j++) {
+                        assertEquals((byte) offset++, received.get());
+                    }
+                }
+                assertFalse(received.hasRemaining());
+                assertEquals(bodySize, offset);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import static org.fossnova.http2.protocol.SettingsFrame.DEFAULT_INITIAL_WINDOW_SIZE;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class FlowControlTestCase {
+
+    @Test
+    public void connectionWindowIsSharedByStreams() {
+        final FlowControl flowControl = new FlowControl();
+        flowControl.open(1);
+        flowControl.open(3);
+        assertEquals(DEFAULT_INITIAL_WINDOW_SIZE, flowControl.acquire(1, Integer.MAX_VALUE));
+        assertEquals(0, flowControl.acquire(3, 100));
+        flowControl.onWindowUpdate(0, 60);
+        assertEquals(60, flowControl.acquire(3, 100));
+    }
+
+    @Test
+    public void streamWindowIsUpdated() {
+        final FlowControl flowControl = new FlowControl();
+        flowControl.onWindowUpdate(0, 1000);
+        flowControl.open(1);
+        assertEquals(DEFAULT_INITIAL_WINDOW_SIZE, flowControl.acquire(1, Integer.MAX_VALUE));
+        assertEquals(0, flowControl.acquire(1, 100));
+        flowControl.onWindowUpdate(1, 500);
+        assertEquals(500, flowControl.acquire(1, 1000));
+    }
+
+    @Test
+    public void initialWindowSizeChangeAdjustsOpenStreams() {
+        final FlowControl flowControl = new FlowControl();
+        flowControl.open(1);
+        assertEquals(1000, flowControl.acquire(1, 1000));
+        flowControl.setInitialWindowSize(1000);
+        assertEquals(0, flowControl.acquire(1, 100));
+        flowControl.setInitialWindowSize(1100);
+        assertEquals(100, flowControl.acquire(1, 1000));
+        flowControl.open(3);
+        assertEquals(1100, flowControl.acquire(3, 2000));
+    }
+
+    @Test
+    public void unsentDataIsAccounted() {
+        final FlowControl flowControl = new FlowControl();
+        flowControl.open(1);
+        flowControl.consume(1, DEFAULT_INITIAL_WINDOW_SIZE + 10);
+        flowControl.onWindowUpdate(0, 100);
+        flowControl.onWindowUpdate(1, 100);
+        assertEquals(90, flowControl.acquire(1, 1000));
+    }
+
+    @Test
+    public void closedStreamHasNoWindow() {
+        final FlowControl flowControl = new FlowControl();
+        assertEquals(-1, flowControl.acquire(1, 100));
+        flowControl.onWindowUpdate(1, 100); // ignored
+        flowControl.open(1);
+        flowControl.close(1);
+        assertEquals(-1, flowControl.acquire(1, 100));
+    }
+
+    @Test
+    public void connectionWindowOverflowIsConnectionError() {
+        final FlowControl flowControl = new FlowControl();
+        try {
+            flowControl.onWindowUpdate(0, Integer.MAX_VALUE);
+            fail();
+        } catch (final ConnectionException e) {
+            assertEquals(ErrorCode.FLOW_CONTROL_ERROR, e.getErrorCode());
+        }
+    }
+
+    @Test
+    public void streamWindowOverflowIsStreamError() {
+        final FlowControl flowControl = new FlowControl();
+        flowControl.open(1);
+        try {
+            flowControl.onWindowUpdate(1, Integer.MAX_VALUE);
+            fail();
+        } catch (final StreamException e) {
+            assertEquals(ErrorCode.FLOW_CONTROL_ERROR, e.getErrorCode());
+            assertEquals(1, e.getStreamId());
+        }
+    }
+
+    @Test
+    public void initialWindowSizeOverflowIsConnectionError() {
+        final FlowControl flowControl = new FlowControl();
+        flowControl.open(1);
+        flowControl.onWindowUpdate(1, Integer.MAX_VALUE - DEFAULT_INITIAL_WINDOW_SIZE);
+        try {
+            flowControl.setInitialWindowSize(DEFAULT_INITIAL_WINDOW_SIZE + 1);
+            fail();
+        } catch (final ConnectionException e) {
+            assertEquals(ErrorCode.FLOW_CONTROL_ERROR, e.getErrorCode());
+        }
+    }
+
+}
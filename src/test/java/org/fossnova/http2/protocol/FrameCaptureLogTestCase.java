@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class FrameCaptureLogTestCase {
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("capture", ".log");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void appendAndRead() throws IOException {
+        try (FrameCaptureLog log = FrameCaptureLog.create(file)) {
+            log.append(FrameCaptureLog.INBOUND, 7, header(1), new byte[] {1, 2, 3});
+            log.append(FrameCaptureLog.OUTBOUND, 8, header(2), new byte[0]);
+        }
+        try (FrameCaptureLog.Reader reader = FrameCaptureLog.open(file)) {
+            assertTrue(reader.next());
+            assertEquals(FrameCaptureLog.INBOUND, reader.getDirection());
+            assertEquals(7, reader.getConnectionId());
+            assertArrayEquals(header(1), reader.getHeader());
+            assertArrayEquals(new byte[] {1, 2, 3}, reader.getPayload());
+            final long timestamp = reader.getTimestamp();
+            assertTrue(reader.next());
+            assertEquals(FrameCaptureLog.OUTBOUND, reader.getDirection());
+            assertEquals(8, reader.getConnectionId());
+            assertArrayEquals(header(2), reader.getHeader());
+            assertEquals(0, reader.getPayload().length);
+            assertTrue(reader.getTimestamp() >= timestamp);
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    public void regionRollover() throws IOException {
+        final int regionSize = 128;
+        try (FrameCaptureLog log = FrameCaptureLog.create(file, regionSize)) {
+            for (int i = 0; i < 50; i++) {
+                log.append(FrameCaptureLog.INBOUND, i, header(i), new byte[i * 7 % 90]);
+            }
+            log.append(FrameCaptureLog.INBOUND, 50, header(50), new byte[1000]); // larger than region
+            log.append(FrameCaptureLog.INBOUND, 51, header(51), new byte[5]);
+        }
+        try (FrameCaptureLog.Reader reader = FrameCaptureLog.open(file)) {
+            for (int i = 0; i < 50; i++) {
+                assertTrue(reader.next());
+                assertEquals(i, reader.getConnectionId());
+                assertArrayEquals(header(i), reader.getHeader());
+                assertEquals(i * 7 % 90, reader.getPayload().length);
+            }
+            assertTrue(reader.next());
+            assertEquals(1000, reader.getPayload().length);
+            assertTrue(reader.next());
+            assertEquals(51, reader.getConnectionId());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void notCaptureLog() throws IOException {
+        Files.write(file, new byte[32]);
+        FrameCaptureLog.open(file);
+    }
+
+    private static byte[] header(final int seed) {
+        final byte[] header = new byte[9];
+        for (int i = 0; i < header.length; i++) {
+            header[i] = (byte) (seed + i);
+        }
+        return header;
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class FrameHeaderValidatorTestCase {
+    private static final byte[] NO_PAYLOAD = new byte[0];
+
+    @Test
+    public void validFrames() {
+        final FrameHeaderValidator validator = newValidator(true);
+        validator.validate(header(12, 0x0, 0x1, 1), new byte[12]);
+        validator.validate(header(8, 0x6, 0x0, 0), new byte[8]);
+        validator.validate(header(0, 0x4, 0x1, 0), NO_PAYLOAD);
+        validator.validate(header(4, 0x8, 0x0, 0), new byte[] {0, 0, 0, 1});
+        validator.validate(header(4, 0x42, 0xFF, 7), new byte[4]); // unknown frame type
+    }
+
+    @Test
+    public void invalidStreamIdentifiers() {
+        final FrameHeaderValidator validator = newValidator(true);
+        assertConnectionError(validator, header(12, 0x0, 0x0, 0), new byte[12], ErrorCode.PROTOCOL_ERROR);
+        assertConnectionError(validator, header(8, 0x6, 0x0, 1), new byte[8], ErrorCode.PROTOCOL_ERROR);
+        assertConnectionError(validator, header(0, 0x1, 0x4, 2), NO_PAYLOAD, ErrorCode.PROTOCOL_ERROR);
+    }
+
+    @Test
+    public void invalidPayloadSizes() {
+        final FrameHeaderValidator validator = newValidator(true);
+        assertConnectionError(validator, header(7, 0x6, 0x0, 0), new byte[7], ErrorCode.FRAME_SIZE_ERROR);
+        assertConnectionError(validator, header(6, 0x4, 0x1, 0), new byte[6], ErrorCode.FRAME_SIZE_ERROR);
+        assertConnectionError(validator, header(7, 0x4, 0x0, 0), new byte[7], ErrorCode.FRAME_SIZE_ERROR);
+        assertConnectionError(validator, header(4, 0x1, 0x20, 1), new byte[4], ErrorCode.FRAME_SIZE_ERROR);
+        assertConnectionError(validator, header((1 << 14) + 1, 0x0, 0x0, 1), new byte[(1 << 14) + 1], ErrorCode.FRAME_SIZE_ERROR);
+    }
+
+    @Test
+    public void invalidPayloads() {
+        final FrameHeaderValidator validator = newValidator(true);
+        assertConnectionError(validator, header(4, 0x0, 0x8, 1), new byte[] {4, 0, 0, 0}, ErrorCode.PROTOCOL_ERROR);
+        assertConnectionError(validator, header(4, 0x8, 0x0, 0), new byte[] {(byte) 0x80, 0, 0, 0}, ErrorCode.PROTOCOL_ERROR);
+        assertConnectionError(validator, header(6, 0x4, 0x0, 0), new byte[] {0, 2, 0, 0, 0, 2}, ErrorCode.PROTOCOL_ERROR);
+        assertConnectionError(validator, header(6, 0x4, 0x0, 0), new byte[] {0, 4, (byte) 0x80, 0, 0, 0}, ErrorCode.FLOW_CONTROL_ERROR);
+    }
+
+    @Test
+    public void paddingOfHeadersExcludesPriorityFields() {
+        assertConnectionError(newValidator(true), header(10, 0x1, 0x2C, 1), new byte[] {5, 0, 0, 0, 0, 16, 0, 0, 0, 0}, ErrorCode.PROTOCOL_ERROR);
+        assertConnectionError(newValidator(true), header(10, 0x1, 0x2C, 1), new byte[] {9, 0, 0, 0, 0, 16, 0, 0, 0, 0}, ErrorCode.PROTOCOL_ERROR);
+        newValidator(true).validate(header(10, 0x1, 0x2C, 1), new byte[] {4, 0, 0, 0, 0, 16, 0, 0, 0, 0});
+    }
+
+    @Test
+    public void paddingOfPushPromiseExcludesPromisedStreamId() {
+        assertConnectionError(newValidator(false), header(8, 0x5, 0xC, 1), new byte[] {4, 0, 0, 0, 2, 0, 0, 0}, ErrorCode.PROTOCOL_ERROR);
+        assertConnectionError(newValidator(false), header(8, 0x5, 0xC, 1), new byte[] {7, 0, 0, 0, 2, 0, 0, 0}, ErrorCode.PROTOCOL_ERROR);
+        newValidator(false).validate(header(8, 0x5, 0xC, 1), new byte[] {3, 0, 0, 0, 2, 0, 0, 0});
+    }
+
+    @Test
+    public void zeroWindowIncrementOnStreamIsStreamError() {
+        try {
+            newValidator(true).validate(header(4, 0x8, 0x0, 3), new byte[4]);
+            fail();
+        } catch (final StreamException e) {
+            assertEquals(ErrorCode.PROTOCOL_ERROR, e.getErrorCode());
+            assertEquals(3, e.getStreamId());
+        }
+    }
+
+    @Test
+    public void pushPromiseReceivedByServer() {
+        assertConnectionError(newValidator(true), header(4, 0x5, 0x4, 1), new byte[] {0, 0, 0, 2}, ErrorCode.PROTOCOL_ERROR);
+        newValidator(false).validate(header(4, 0x5, 0x4, 1), new byte[] {0, 0, 0, 2});
+    }
+
+    private static FrameHeaderValidator newValidator(final boolean server) {
+        final ConnectionSettings settings = new ConnectionSettings();
+        return new FrameHeaderValidator(settings, new HeaderBlockAssembler(settings, null, null), server);
+    }
+
+    private static byte[] header(final int payloadSize, final int frameType, final int flags, final int streamId) {
+        return new byte[] {
+            (byte) (payloadSize >>> 16), (byte) (payloadSize >>> 8), (byte) payloadSize, (byte) frameType, (byte) flags,
+            (byte) (streamId >>> 24), (byte) (streamId >>> 16), (byte) (streamId >>> 8), (byte) streamId
+        };
+    }
+
+    private static void assertConnectionError(final FrameHeaderValidator validator, final byte[] header, final byte[] payload, final int errorCode) {
+        try {
+            validator.validate(header, payload);
+            fail();
+        } catch (final ConnectionException e) {
+            assertEquals(errorCode, e.getErrorCode());
+        }
+    }
+
+}
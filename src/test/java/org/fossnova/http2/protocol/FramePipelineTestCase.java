@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class FramePipelineTestCase {
+
+    private final List<Frame> application = new ArrayList<>();
+    private final List<Frame> transport = new ArrayList<>();
+    private final List<String> trace = new ArrayList<>();
+
+    @Test
+    public void emptyPipeline() {
+        final FramePipeline pipeline = newPipeline();
+        final Frame ping = newPingFrame(0);
+        pipeline.inbound(ping);
+        pipeline.outbound(ping);
+        assertSame(ping, application.get(0));
+        assertSame(ping, transport.get(0));
+    }
+
+    @Test
+    public void interceptorsOrder() {
+        final FramePipeline pipeline = newPipeline(new Tracer("a"), new Tracer("b"));
+        pipeline.inbound(newPingFrame(0));
+        pipeline.outbound(newPingFrame(0));
+        assertEquals("[in-a, in-b, out-b, out-a]", trace.toString());
+        assertEquals(1, application.size());
+        assertEquals(1, transport.size());
+    }
+
+    @Test
+    public void absorbAndTransform() {
+        final FramePipeline pipeline = newPipeline(new FrameInterceptor() {
+            @Override
+            public void inbound(final Frame frame, final Chain chain) {
+                // absorbed
+            }
+
+            @Override
+            public void outbound(final Frame frame, final Chain chain) {
+                chain.proceed(newPingFrame(PingFrame.FLAG_ACK));
+            }
+        });
+        pipeline.inbound(newPingFrame(0));
+        pipeline.outbound(newPingFrame(0));
+        assertTrue(application.isEmpty());
+        assertEquals(PingFrame.FLAG_ACK, transport.get(0).getFlags());
+    }
+
+    @Test
+    public void replyTraversesOppositeDirection() {
+        final FramePipeline pipeline = newPipeline(new Tracer("a"), new FrameInterceptor() {
+            @Override
+            public void inbound(final Frame frame, final Chain chain) {
+                if (frame instanceof PingFrame && (frame.getFlags() & PingFrame.FLAG_ACK) == 0) {
+                    chain.reply(newPingFrame(PingFrame.FLAG_ACK));
+                } else {
+                    chain.proceed(frame);
+                }
+            }
+        }, new Tracer("c"));
+        pipeline.inbound(newPingFrame(0));
+        assertEquals("[in-a, out-a]", trace.toString());
+        assertTrue(application.isEmpty());
+        assertEquals(PingFrame.FLAG_ACK, transport.get(0).getFlags());
+    }
+
+    @Test
+    public void injectMultipleFrames() {
+        final FramePipeline pipeline = newPipeline(new FrameInterceptor() {
+            @Override
+            public void inbound(final Frame frame, final Chain chain) {
+                chain.proceed(frame);
+                chain.proceed(frame);
+            }
+        });
+        pipeline.inbound(newPingFrame(0));
+        assertEquals(2, application.size());
+    }
+
+    private FramePipeline newPipeline(final FrameInterceptor... interceptors) {
+        return new FramePipeline(interceptors, application::add, transport::add);
+    }
+
+    private static Frame newPingFrame(final int flags) {
+        final PingFrameImpl.Builder builder = new PingFrameImpl.Builder(false, true, true);
+        builder.setFlags(flags);
+        return builder.build();
+    }
+
+    private final class Tracer implements FrameInterceptor {
+        private final String name;
+
+        private Tracer(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void inbound(final Frame frame, final Chain chain) {
+            trace.add("in-" + name);
+            chain.proceed(frame);
+        }
+
+        @Override
+        public void outbound(final Frame frame, final Chain chain) {
+            trace.add("out-" + name);
+            chain.proceed(frame);
+        }
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class FramesHandlerImplTestCase {
+
+    @Test
+    public void unknownFrameTypeIsIgnored() {
+        final Transport transport = new Transport();
+        transport.received(0x42, 0xFF, 7, new byte[4]);
+        transport.received(0x6, 0x0, 0, new byte[8]);
+        final List<Frame> intercepted = new ArrayList<>();
+        final FramesHandlerImpl handler = new FramesHandlerImpl(true, transport, new FrameInterceptor() {
+            @Override
+            public void inbound(final Frame frame, final Chain chain) {
+                intercepted.add(frame);
+                chain.proceed(frame);
+            }
+        });
+        assertTrue(handler.getMemoryBudget().tryReserve(2 * 9 + 4 + 8));
+        final Frame frame = handler.pull();
+        assertTrue(frame instanceof PingFrame);
+        assertEquals(1, intercepted.size());
+        assertEquals(0, handler.getMemoryBudget().getUsed());
+    }
+
+    @Test
+    public void endOfStreamFollowsReceivedFrames() {
+        final Transport transport = new Transport();
+        transport.received(0x6, 0x0, 0, new byte[8]);
+        transport.closed = true;
+        final FramesHandlerImpl handler = new FramesHandlerImpl(true, transport);
+        assertTrue(handler.pull() instanceof PingFrame);
+        assertNull(handler.pull());
+        assertNull(handler.pull());
+    }
+
+    @Test
+    public void connectionFailureIsPropagated() {
+        final Transport transport = new Transport();
+        transport.failure = new ConnectionException(ErrorCode.ENHANCE_YOUR_CALM, "Memory budget exceeded");
+        final FramesHandlerImpl handler = new FramesHandlerImpl(true, transport);
+        try {
+            handler.pull();
+            fail();
+        } catch (final ConnectionException e) {
+            assertSame(transport.failure, e);
+        }
+    }
+
+    private static final class Transport implements RawFrameHandler {
+        private final Queue<RawFrame> received = new ArrayDeque<>();
+        private boolean closed;
+        private ConnectionException failure;
+
+        void received(final int frameType, final int flags, final int streamId, final byte[] payload) {
+            final byte[] header = new byte[9];
+            WireCodec.putFrameHeader(header, 0, payload.length, (byte) frameType, (byte) flags, streamId);
+            received.offer(new RawFrame(header, payload));
+        }
+
+        @Override
+        public void push(final RawFrame rawFrame) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void push(final ChannelTask writeTask) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public RawFrame pull() {
+            final RawFrame rawFrame = received.poll();
+            if (rawFrame == null && failure != null) throw failure;
+            if (rawFrame == null && closed) return RawFrame.END_OF_STREAM;
+            return rawFrame;
+        }
+
+        @Override
+        public void resumeWrites() {
+        }
+
+        @Override
+        public void run() {
+        }
+    }
+
+}
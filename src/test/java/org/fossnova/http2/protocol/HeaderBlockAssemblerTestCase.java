@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import static org.fossnova.http2.protocol.SettingsFrame.DEFAULT_MAX_HEADER_LIST_SIZE;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.fossnova.http2.Header;
+import org.fossnova.http2.HeaderField;
+import org.fossnova.http2.hpack.HpackEncoder;
+import org.fossnova.http2.hpack.HpackFactory;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class HeaderBlockAssemblerTestCase {
+
+    @Test
+    public void headerBlockSplitAcrossContinuations() {
+        final HeaderBlockAssembler assembler = newAssembler();
+        assembler.onFrame(newHeadersFrame(1, 0, new byte[100]));
+        assembler.onFrame(newContinuationFrame(1, 0, new byte[100]));
+        assembler.onFrame(newContinuationFrame(1, ContinuationFrame.FLAG_END_HEADERS, new byte[100]));
+        assembler.onFrame(newHeadersFrame(3, HeadersFrame.FLAG_END_HEADERS, new byte[100]));
+    }
+
+    @Test
+    public void interleavedFrameIsRejected() {
+        final HeaderBlockAssembler assembler = newAssembler();
+        assembler.onFrame(newHeadersFrame(1, 0, new byte[100]));
+        assertConnectionError(assembler, newHeadersFrame(3, HeadersFrame.FLAG_END_HEADERS, new byte[10]), ErrorCode.PROTOCOL_ERROR);
+    }
+
+    @Test
+    public void continuationOfOtherStreamIsRejected() {
+        final HeaderBlockAssembler assembler = newAssembler();
+        assembler.onFrame(newHeadersFrame(1, 0, new byte[100]));
+        assertConnectionError(assembler, newContinuationFrame(3, ContinuationFrame.FLAG_END_HEADERS, new byte[10]), ErrorCode.PROTOCOL_ERROR);
+    }
+
+    @Test
+    public void unexpectedContinuationIsRejected() {
+        assertConnectionError(newAssembler(), newContinuationFrame(1, ContinuationFrame.FLAG_END_HEADERS, new byte[10]), ErrorCode.PROTOCOL_ERROR);
+    }
+
+    @Test
+    public void emptyContinuationsFloodIsBounded() {
+        final HeaderBlockAssembler assembler = new HeaderBlockAssembler(newSettings(DEFAULT_MAX_HEADER_LIST_SIZE), null, null);
+        assembler.onFrame(newHeadersFrame(1, 0, new byte[0]));
+        final ContinuationFrame empty = newContinuationFrame(1, 0, new byte[0]);
+        for (int i = 0; i < DEFAULT_MAX_HEADER_LIST_SIZE; i++) {
+            try {
+                assembler.onFrame(empty);
+            } catch (final ConnectionException e) {
+                assertEquals(ErrorCode.ENHANCE_YOUR_CALM, e.getErrorCode());
+                assertTrue(i <= DEFAULT_MAX_HEADER_LIST_SIZE / 9);
+                return;
+            }
+        }
+        fail();
+    }
+
+    @Test
+    public void fieldsAreDecodedAcrossFragments() {
+        final HpackFactory factory = HpackFactory.newInstance(SettingsFrame.DEFAULT_HEADER_TABLE_SIZE, true);
+        final HpackEncoder encoder = factory.newEncoder();
+        encoder.add(HeaderField.of(Header.PATH, "/"));
+        encoder.add(HeaderField.of(Header.HOST, "localhost"));
+        final byte[] block = encoder.finish();
+        final List<HeaderField> fields = new ArrayList<>();
+        final HeaderBlockAssembler assembler = new HeaderBlockAssembler(new ConnectionSettings(), factory.newFragmentDecoder(), fields::add);
+        assembler.onFrame(newHeadersFrame(1, 0, Arrays.copyOfRange(block, 0, 3)));
+        assertEquals(1, fields.size());
+        assembler.onFrame(newContinuationFrame(1, ContinuationFrame.FLAG_END_HEADERS, Arrays.copyOfRange(block, 3, block.length)));
+        assertEquals(Arrays.asList(HeaderField.of(Header.PATH, "/"), HeaderField.of(Header.HOST, "localhost")), fields);
+    }
+
+    @Test
+    public void oversizedHeaderListIsRejected() {
+        final HpackFactory factory = HpackFactory.newInstance(SettingsFrame.DEFAULT_HEADER_TABLE_SIZE, true);
+        final HeaderBlockAssembler assembler = new HeaderBlockAssembler(newSettings(DEFAULT_MAX_HEADER_LIST_SIZE), factory.newFragmentDecoder(), hf -> { });
+        // literal with name :path, value length 8191, value itself never arrives
+        assertConnectionError(assembler, newHeadersFrame(1, 0, new byte[] {0x04, 0x7F, (byte) 0x80, 0x3F}), ErrorCode.ENHANCE_YOUR_CALM);
+    }
+
+    @Test
+    public void truncatedHeaderBlockIsRejected() {
+        final HpackFactory factory = HpackFactory.newInstance(SettingsFrame.DEFAULT_HEADER_TABLE_SIZE, true);
+        final HeaderBlockAssembler assembler = new HeaderBlockAssembler(new ConnectionSettings(), factory.newFragmentDecoder(), hf -> { });
+        assertConnectionError(assembler, newHeadersFrame(1, HeadersFrame.FLAG_END_HEADERS, new byte[] {0x04, 0x05, '/'}), ErrorCode.COMPRESSION_ERROR);
+    }
+
+    @Test
+    public void malformedHeaderBlockIsStreamError() {
+        final HpackFactory factory = HpackFactory.newInstance(SettingsFrame.DEFAULT_HEADER_TABLE_SIZE, true);
+        final HeaderBlockAssembler assembler = new HeaderBlockAssembler(new ConnectionSettings(), factory.newFragmentDecoder(), hf -> { });
+        // :path: /<NUL>
+        try {
+            assembler.onFrame(newHeadersFrame(1, HeadersFrame.FLAG_END_HEADERS, new byte[] {0x04, 0x02, '/', 0x00}));
+            fail();
+        } catch (final StreamException e) {
+            assertEquals(ErrorCode.PROTOCOL_ERROR, e.getErrorCode());
+            assertEquals(1, e.getStreamId());
+        }
+        assertEquals(0, assembler.getContinuationStreamId());
+        assembler.onFrame(newHeadersFrame(3, HeadersFrame.FLAG_END_HEADERS, new byte[] {(byte) 0x82}));
+    }
+
+    @Test
+    public void unlimitedHeaderListSizeAcceptsBlocks() {
+        final HeaderBlockAssembler assembler = new HeaderBlockAssembler(newSettings(Integer.MAX_VALUE), null, null);
+        assembler.onFrame(newHeadersFrame(1, 0, new byte[100]));
+        assembler.onFrame(newContinuationFrame(1, ContinuationFrame.FLAG_END_HEADERS, new byte[100]));
+    }
+
+    @Test
+    public void largeHeaderListIsAcceptedBeforeLimitIsAdvertised() {
+        final HeaderBlockAssembler assembler = newAssembler();
+        assembler.onFrame(newHeadersFrame(1, 0, new byte[16384]));
+        assembler.onFrame(newContinuationFrame(1, ContinuationFrame.FLAG_END_HEADERS, new byte[16384]));
+        assertConnectionError(assembler, newHeadersFrame(3, 0, new byte[ConnectionSettings.UNADVERTISED_MAX_HEADER_LIST_SIZE + 1]), ErrorCode.ENHANCE_YOUR_CALM);
+    }
+
+    private static ConnectionSettings newSettings(final int maxHeaderListSize) {
+        final ConnectionSettings settings = new ConnectionSettings();
+        final SettingsFrameImpl.Builder builder = new SettingsFrameImpl.Builder(false, true, true);
+        builder.setParameter(SettingsFrame.MAX_HEADER_LIST_SIZE, maxHeaderListSize);
+        settings.onSent(builder.build());
+        final SettingsFrameImpl.Builder ack = new SettingsFrameImpl.Builder(false, true, true);
+        ack.setFlags(SettingsFrame.FLAG_ACK);
+        settings.onReceived(ack.build());
+        return settings;
+    }
+
+    private static HeaderBlockAssembler newAssembler() {
+        return new HeaderBlockAssembler(new ConnectionSettings(), null, null);
+    }
+
+    private static void assertConnectionError(final HeaderBlockAssembler assembler, final Frame frame, final int errorCode) {
+        try {
+            assembler.onFrame(frame);
+            fail();
+        } catch (final ConnectionException e) {
+            assertEquals(errorCode, e.getErrorCode());
+        }
+    }
+
+    private static HeadersFrame newHeadersFrame(final int streamId, final int flags, final byte[] fragment) {
+        final HeadersFrame.Builder builder = new HeadersFrameImpl.Builder(true, true, true);
+        builder.setPayloadSize(fragment.length);
+        builder.setFlags(flags);
+        builder.setStreamId(streamId);
+        builder.setHeaderBlockFragment(fragment);
+        return builder.build();
+    }
+
+    private static ContinuationFrame newContinuationFrame(final int streamId, final int flags, final byte[] fragment) {
+        final ContinuationFrame.Builder builder = new ContinuationFrameImpl.Builder(true, true, true);
+        builder.setFlags(flags);
+        builder.setStreamId(streamId);
+        builder.setHeaderBlockFragment(fragment);
+        return builder.build();
+    }
+
+}
@@ -54,7 +54,7 @@ public class HeadersFrameRoundTripTestCase extends AbstractHttp2TestCase {
 
     private void writeHeadersFrameWithPaddingExclusive() {
         HeadersFrame.Builder builder = newHeadersFrameBuilder();
-        builder.setPayloadSize(17);
+        builder.setPayloadSize(18);
         builder.setStreamId(1);
         builder.setFlags(FLAG_END_STREAM | FLAG_PADDED | FLAG_END_HEADERS | FLAG_PRIORITY);
         builder.setDependencyExclusive(true);
@@ -68,7 +68,7 @@ public class HeadersFrameRoundTripTestCase extends AbstractHttp2TestCase {
         HeadersFrame frame = (HeadersFrame) pullFrame();
         assertNotNull(frame);
         assertEquals(frame.getStreamId(), 1);
-        assertEquals(frame.getPayloadSize(), 17);
+        assertEquals(frame.getPayloadSize(), 18);
         assertEquals(frame.getFlags(), FLAG_END_STREAM | FLAG_PADDED | FLAG_END_HEADERS | FLAG_PRIORITY);
         assertTrue(frame.isDependencyExclusive());
         assertEquals(frame.getDependencyStream(), 2);
@@ -46,7 +46,8 @@ public class PushPromiseFrameRoundTripTestCase extends AbstractHttp2TestCase {
 
     private void writePushPromiseFrameWithPadding() {
         PushPromiseFrame.Builder builder = newPushPromiseFrameBuilder();
-        builder.setPayloadSize(15);
+        builder.setPayloadSize(19);
+        builder.setStreamId(1);
         builder.setFlags(FLAG_PADDED | FLAG_END_HEADERS);
         builder.setPromisedStreamId(3);
         builder.setHeaderBlockFragment(MSG);
@@ -56,7 +57,7 @@ public class PushPromiseFrameRoundTripTestCase extends AbstractHttp2TestCase {
     private void readPushPromiseFrameWithPadding() {
         PushPromiseFrame frame = (PushPromiseFrame) pullFrame();
         assertNotNull(frame);
-        assertEquals(frame.getPayloadSize(), 15);
+        assertEquals(frame.getPayloadSize(), 19);
         assertEquals(frame.getFlags(), FLAG_PADDED | FLAG_END_HEADERS);
         assertEquals(frame.getPromisedStreamId(), 3);
         assertArrayEquals(frame.getHeaderBlockFragment(), MSG);
@@ -64,7 +65,8 @@ public class PushPromiseFrameRoundTripTestCase extends AbstractHttp2TestCase {
 
     private void writePushPromiseFrameWithoutPadding() {
         PushPromiseFrame.Builder builder = newPushPromiseFrameBuilder();
-        builder.setPayloadSize(12);
+        builder.setPayloadSize(16);
+        builder.setStreamId(1);
         builder.setFlags(FLAG_END_HEADERS);
         builder.setPromisedStreamId(1);
         builder.setHeaderBlockFragment(MSG);
@@ -74,7 +76,7 @@ public class PushPromiseFrameRoundTripTestCase extends AbstractHttp2TestCase {
     private void readPushPromiseFrameWithoutPadding() {
         PushPromiseFrame frame = (PushPromiseFrame) pullFrame();
         assertNotNull(frame);
-        assertEquals(frame.getPayloadSize(), 12);
+        assertEquals(frame.getPayloadSize(), 16);
         assertEquals(frame.getFlags(), FLAG_END_HEADERS);
         assertEquals(frame.getPromisedStreamId(), 1);
         assertArrayEquals(frame.getHeaderBlockFragment(), MSG);
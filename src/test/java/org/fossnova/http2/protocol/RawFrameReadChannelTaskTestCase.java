@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import static org.fossnova.http2.protocol.SettingsFrame.DEFAULT_MAX_FRAME_SIZE;
+import static org.junit.Assert.*;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class RawFrameReadChannelTaskTestCase {
+
+    private final AtomicInteger wakeUps = new AtomicInteger();
+    private final Runnable wakeUp = wakeUps::incrementAndGet;
+
+    @Test
+    public void frameIsChargedToBudget() throws Exception {
+        final MemoryBudget budget = MemoryBudget.newConnectionBudget();
+        final RawFrameReadChannelTask task = readFrame(budget, MemoryBudget.OverflowPolicy.PAUSE_READS, 100);
+        assertTrue(task.isDone());
+        assertNull(task.getFailure());
+        assertEquals(100, task.getBuffers()[1].capacity());
+        assertEquals(109, budget.getUsed());
+        budget.release(109);
+        assertEquals(0, budget.getUsed());
+        assertEquals(109, budget.getPeak());
+    }
+
+    @Test
+    public void frameExceedingMaxFrameSize() throws Exception {
+        final RawFrameReadChannelTask task = readFrame(MemoryBudget.newConnectionBudget(), MemoryBudget.OverflowPolicy.PAUSE_READS, DEFAULT_MAX_FRAME_SIZE + 1);
+        assertFalse(task.isDone());
+        assertTrue(task.getFailure() instanceof ConnectionException);
+        assertEquals(ErrorCode.FRAME_SIZE_ERROR, ((ConnectionException) task.getFailure()).getErrorCode());
+    }
+
+    @Test
+    public void readsPausedUntilMemoryReleased() throws Exception {
+        final MemoryBudget budget = MemoryBudget.newConnectionBudget();
+        budget.setLimit(1000);
+        assertTrue(budget.tryReserve(900));
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress("localhost", 0));
+            try (SocketChannel out = SocketChannel.open(server.getLocalAddress()); SocketChannel in = server.accept()) {
+                writeFrame(out, 500);
+                final RawFrameReadChannelTask task = new RawFrameReadChannelTask(new ConnectionSettings(), budget, MemoryBudget.OverflowPolicy.PAUSE_READS, wakeUp);
+                while (!task.isBlocked()) {
+                    task.execute(in);
+                    assertNull(task.getFailure());
+                }
+                assertTrue(budget.getRejected() > 0);
+                assertEquals(0, wakeUps.get());
+                budget.release(900);
+                assertTrue(wakeUps.get() > 0);
+                while (!task.isDone()) {
+                    task.execute(in);
+                    assertNull(task.getFailure());
+                }
+                assertFalse(task.isBlocked());
+                assertEquals(509, budget.getUsed());
+                budget.release(509);
+            }
+        }
+    }
+
+    @Test
+    public void goAwayWhenBudgetExceeded() throws Exception {
+        final MemoryBudget budget = MemoryBudget.newConnectionBudget();
+        budget.setLimit(100);
+        final RawFrameReadChannelTask task = readFrame(budget, MemoryBudget.OverflowPolicy.GO_AWAY, 500);
+        assertTrue(task.getFailure() instanceof ConnectionException);
+        assertEquals(ErrorCode.ENHANCE_YOUR_CALM, ((ConnectionException) task.getFailure()).getErrorCode());
+        assertEquals(0, budget.getUsed());
+    }
+
+    @Test
+    public void globalBudgetIsCharged() {
+        final MemoryBudget budget = MemoryBudget.newConnectionBudget();
+        final long used = MemoryBudget.global().getUsed();
+        assertTrue(budget.tryReserve(1000));
+        assertEquals(used + 1000, MemoryBudget.global().getUsed());
+        budget.release(1000);
+        assertEquals(used, MemoryBudget.global().getUsed());
+    }
+
+    private RawFrameReadChannelTask readFrame(final MemoryBudget budget, final MemoryBudget.OverflowPolicy policy, final int length) throws Exception {
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress("localhost", 0));
+            try (SocketChannel out = SocketChannel.open(server.getLocalAddress()); SocketChannel in = server.accept()) {
+                writeFrame(out, length);
+                final RawFrameReadChannelTask task = new RawFrameReadChannelTask(new ConnectionSettings(), budget, policy, wakeUp);
+                while (!task.isDone() && task.getFailure() == null) {
+                    task.execute(in);
+                }
+                return task;
+            }
+        }
+    }
+
+    private static void writeFrame(final SocketChannel out, final int length) throws Exception {
+        final ByteBuffer frame = ByteBuffer.allocate(9 + length);
+        frame.put((byte) (length >>> 16)).put((byte) (length >>> 8)).put((byte) length);
+        frame.put((byte) FrameType.DATA.ordinal()).put((byte) 0).putInt(1);
+        frame.clear();
+        while (frame.hasRemaining()) out.write(frame);
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class RingBufferTestCase {
+
+    private static final class Slot {
+        int value;
+    }
+
+    @Test
+    public void slotsAreReused() {
+        final RingBuffer<Slot> ring = new RingBuffer<>(4, Slot::new, WaitStrategy.BUSY_SPIN);
+        final Slot first = ring.get(ring.next());
+        ring.publish(0);
+        assertEquals(1, ring.drain((slot, endOfBatch) -> { }, 8));
+        for (long sequence = 1; sequence < 4; sequence++) {
+            ring.publish(ring.next());
+        }
+        assertEquals(3, ring.drain((slot, endOfBatch) -> { }, 8));
+        assertSame(first, ring.get(ring.next()));
+    }
+
+    @Test
+    public void batchesAreBounded() {
+        final RingBuffer<Slot> ring = new RingBuffer<>(16, Slot::new, WaitStrategy.BUSY_SPIN);
+        for (int i = 0; i < 10; i++) {
+            final long sequence = ring.next();
+            ring.get(sequence).value = i;
+            ring.publish(sequence);
+        }
+        final int[] last = new int[1];
+        assertEquals(4, ring.drain((slot, endOfBatch) -> { if (endOfBatch) last[0] = slot.value; }, 4));
+        assertEquals(3, last[0]);
+        assertEquals(Integer.valueOf(4), ring.poll(slot -> slot.value));
+        assertEquals(5, ring.drain((slot, endOfBatch) -> { }, 100));
+        assertNull(ring.poll(slot -> slot.value));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustBePowerOfTwo() {
+        new RingBuffer<>(6, Slot::new, WaitStrategy.BUSY_SPIN);
+    }
+
+    @Test
+    public void everyEventConsumedExactlyOnce() throws Exception {
+        final int events = 200_000;
+        final RingBuffer<Slot> ring = new RingBuffer<>(64, Slot::new, WaitStrategy.YIELD);
+        final AtomicIntegerArray seen = new AtomicIntegerArray(events);
+        final AtomicLong consumed = new AtomicLong();
+        final Thread[] consumers = new Thread[3];
+        for (int i = 0; i < consumers.length; i++) {
+            consumers[i] = new Thread(() -> {
+                while (consumed.get() < events) {
+                    final int count = ring.drain((slot, endOfBatch) -> seen.incrementAndGet(slot.value), 16);
+                    if (count == 0) Thread.yield();
+                    consumed.addAndGet(count);
+                }
+            });
+            consumers[i].start();
+        }
+        for (int i = 0; i < events; i++) {
+            final long sequence = ring.next();
+            ring.get(sequence).value = i;
+            ring.publish(sequence);
+        }
+        for (final Thread consumer : consumers) {
+            consumer.join(30_000);
+        }
+        assertEquals(events, consumed.get());
+        for (int i = 0; i < events; i++) {
+            assertEquals(1, seen.get(i));
+        }
+    }
+
+}
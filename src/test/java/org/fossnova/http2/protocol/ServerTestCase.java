@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class ServerTestCase {
+
+    @Test
+    public void workerFailureIsRecorded() throws Exception {
+        final RingBuffer<Server.HandOff> handOffs = new RingBuffer<>(4, Server.HandOff::new, WaitStrategy.YIELD);
+        final Server.Worker worker = new Server.Worker(handOffs);
+        final Thread thread = new Thread(worker);
+        thread.start();
+        try {
+            // hand-off without handler fails the processing
+            handOffs.publish(handOffs.next());
+            final long deadline = System.currentTimeMillis() + 10_000;
+            while (worker.getFailure() == null && System.currentTimeMillis() < deadline) {
+                Thread.yield();
+            }
+            assertTrue(worker.getFailure() instanceof NullPointerException);
+            assertTrue(thread.isAlive());
+        } finally {
+            thread.interrupt();
+            thread.join();
+        }
+    }
+
+}
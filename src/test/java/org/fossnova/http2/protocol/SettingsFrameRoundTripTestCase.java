@@ -40,6 +40,12 @@ public class SettingsFrameRoundTripTestCase extends AbstractHttp2TestCase {
         readConfirmationSettingsFrame();
     }
 
+    @Test
+    public void sparseSettingsFrame() {
+        writeSparseSettingsFrame();
+        readSparseSettingsFrame();
+    }
+
     private void writeInitialSettingsFrame() {
         SettingsFrame.Builder builder = newSettingsFrameBuilder();
         builder.setPayloadSize(36);
@@ -65,6 +71,32 @@ public class SettingsFrameRoundTripTestCase extends AbstractHttp2TestCase {
         assertEquals(frame.getParameter(MAX_HEADER_LIST_SIZE), DEFAULT_MAX_HEADER_LIST_SIZE);
     }
 
+    private void writeSparseSettingsFrame() {
+        SettingsFrame.Builder builder = newSettingsFrameBuilder();
+        builder.setParameter(ENABLE_CONNECT_PROTOCOL, 1);
+        builder.setParameter(0xF0F0, 7);
+        builder.setParameter(INITIAL_WINDOW_SIZE, 1 << 20);
+        builder.setParameter(ENABLE_CONNECT_PROTOCOL, 0);
+        pushFrame(builder.build());
+    }
+
+    private void readSparseSettingsFrame() {
+        SettingsFrame frame = (SettingsFrame) pullFrame();
+        assertNotNull(frame);
+        assertEquals(frame.getPayloadSize(), 18);
+        assertEquals(frame.getParameterCount(), 3);
+        assertEquals(frame.getParameterId(0), ENABLE_CONNECT_PROTOCOL);
+        assertEquals(frame.getParameterValue(0), 0);
+        assertEquals(frame.getParameterId(1), 0xF0F0);
+        assertEquals(frame.getParameterValue(1), 7);
+        assertEquals(frame.getParameterId(2), INITIAL_WINDOW_SIZE);
+        assertEquals(frame.getParameterValue(2), 1 << 20);
+        assertTrue(frame.hasParameter(0xF0F0));
+        assertFalse(frame.hasParameter(MAX_FRAME_SIZE));
+        assertEquals(frame.getParameter(MAX_FRAME_SIZE), DEFAULT_MAX_FRAME_SIZE);
+        assertEquals(frame.getParameter(INITIAL_WINDOW_SIZE), 1 << 20);
+    }
+
     private void writeConfirmationSettingsFrame() {
         SettingsFrame.Builder builder = newSettingsFrameBuilder();
         builder.setFlags(SettingsFrame.FLAG_ACK);
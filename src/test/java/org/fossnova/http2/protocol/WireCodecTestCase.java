@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2012-2020, FOSS Nova Software foundation (FNSF),
+ * and individual contributors as indicated by the @author tags.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.fossnova.http2.protocol;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:opalka.richard@gmail.com">Richard Opalka</a>
+ */
+public class WireCodecTestCase {
+
+    @Test
+    public void unsignedReadsNeverSignExtend() {
+        final byte[] buffer = new byte[] {(byte) 0xFF, (byte) 0xFE, (byte) 0xFD, (byte) 0xFC};
+        assertEquals(0xFF, WireCodec.getUnsignedByte(buffer, 0));
+        assertEquals(0xFFFE, WireCodec.getUnsignedShort(buffer, 0));
+        assertEquals(0xFFFEFD, WireCodec.getUnsignedMedium(buffer, 0));
+        assertEquals(0xFFFEFDFC, WireCodec.getInt(buffer, 0));
+        assertEquals(0xFEFDFC, WireCodec.getUnsignedMedium(ByteBuffer.wrap(buffer), 1));
+    }
+
+    @Test
+    public void reservedBitIsCleared() {
+        final byte[] buffer = new byte[] {(byte) 0x80, 0, 0, 1};
+        assertEquals(1, WireCodec.get31Bits(buffer, 0));
+        assertEquals(1, WireCodec.get31Bits(ByteBuffer.wrap(buffer), 0));
+        final byte[] header = new byte[WireCodec.FRAME_HEADER_SIZE];
+        WireCodec.putFrameHeader(header, 0, 16, FrameType.DATA.getFrameId(), DataFrame.FLAG_END_STREAM, 0xFFFFFFFF);
+        assertEquals(0x7F, header[5] & 0xFF);
+        assertEquals(0x7FFFFFFF, WireCodec.getInt(header, 5));
+    }
+
+    @Test
+    public void byteArrayAndByteBufferHeadersAreEqual() {
+        final byte[] array = new byte[WireCodec.FRAME_HEADER_SIZE];
+        final ByteBuffer buffer = ByteBuffer.allocate(WireCodec.FRAME_HEADER_SIZE);
+        WireCodec.putFrameHeader(array, 0, 0xABCDEF, FrameType.HEADERS.getFrameId(), HeadersFrame.FLAG_END_HEADERS, 3);
+        WireCodec.putFrameHeader(buffer, 0, 0xABCDEF, FrameType.HEADERS.getFrameId(), HeadersFrame.FLAG_END_HEADERS, 3);
+        assertArrayEquals(array, buffer.array());
+        assertEquals(0xABCDEF, WireCodec.getUnsignedMedium(array, 0));
+        assertEquals(3, WireCodec.get31Bits(array, 5));
+    }
+
+    @Test
+    public void longRoundTrip() {
+        final byte[] buffer = new byte[8];
+        WireCodec.putLong(buffer, 0, 0x8123456789ABCDEFL);
+        assertEquals(0x8123456789ABCDEFL, WireCodec.getLong(buffer, 0));
+        WireCodec.putLong(buffer, 0, 0x00000000FFFFFFFFL);
+        assertEquals(0x00000000FFFFFFFFL, WireCodec.getLong(buffer, 0));
+    }
+
+}